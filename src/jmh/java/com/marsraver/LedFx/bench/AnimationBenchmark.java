@@ -0,0 +1,84 @@
+package com.marsraver.LedFx.bench;
+
+import com.marsraver.LedFx.AnimationType;
+import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.LedGrid;
+import com.marsraver.LedFx.layout.LayoutConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of each animation against an offscreen canvas, the way the sketch window
+ * draws it: clear, draw, and (in {@link #drawAndSend}) send to the devices.
+ * <p>
+ * The video player is left out because it needs ffmpeg and a video file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class AnimationBenchmark {
+
+    @Param({"test", "spinning-beachball", "bouncing-ball", "music-ball", "fast-plasma", "clouds",
+            "perlin-oscillator", "starfield", "black-hole", "blurz", "rainbow-spiral", "ripples", "sine-plasma"})
+    public String animation;
+
+    @Param({"1", "4", "64"})
+    public int grids;
+
+    private LedGrid ledGrid;
+    private LedAnimation ledAnimation;
+    private BufferedImage canvas;
+    private Graphics2D graphics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LayoutConfig layout = BenchmarkGrids.layout(grids);
+        ledGrid = BenchmarkGrids.create(grids);
+        canvas = new BufferedImage(layout.getWindowWidth(), layout.getWindowHeight(), BufferedImage.TYPE_INT_RGB);
+        graphics = canvas.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        ledAnimation = AnimationType.createAnimation(AnimationType.fromId(animation));
+        ledAnimation.init(canvas.getWidth(), canvas.getHeight(), ledGrid);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ledAnimation.stop();
+        graphics.dispose();
+        ledGrid.close();
+    }
+
+    @Benchmark
+    public void draw() {
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        ledAnimation.draw(graphics, canvas.getWidth(), canvas.getHeight(), ledGrid);
+    }
+
+    @Benchmark
+    public boolean drawAndSend() {
+        draw();
+        return ledGrid.sendToDevices();
+    }
+}
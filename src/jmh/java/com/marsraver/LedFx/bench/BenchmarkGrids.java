@@ -0,0 +1,27 @@
+package com.marsraver.LedFx.bench;
+
+import com.marsraver.LedFx.LedGrid;
+import com.marsraver.LedFx.layout.LayoutConfig;
+import com.marsraver.LedFx.wled.NullTransport;
+
+/**
+ * Builds the grids the benchmarks run against: N 16x16 grids at 15 px per LED, each on
+ * its own device, sending into a {@link NullTransport} so only LedFx's own work is
+ * measured.
+ */
+final class BenchmarkGrids {
+
+    static final int GRID_SIZE = 16;
+    static final int PIXEL_SIZE = 15;
+
+    private BenchmarkGrids() {
+    }
+
+    static LayoutConfig layout(int gridCount) {
+        return SyntheticLayout.create(gridCount, GRID_SIZE, PIXEL_SIZE, "127.0.0.1", 40000);
+    }
+
+    static LedGrid create(int gridCount) {
+        return new LedGrid(layout(gridCount), new NullTransport());
+    }
+}
@@ -0,0 +1,99 @@
+package com.marsraver.LedFx.bench;
+
+import com.marsraver.LedFx.LedGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame cost of the LedGrid calls every animation makes: setting each LED, clearing
+ * the grids and packing the frame into DDP packets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LedGridBenchmark {
+
+    @Param({"1", "4", "64"})
+    public int grids;
+
+    private LedGrid ledGrid;
+    private Color[] palette;
+    private int frame;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ledGrid = BenchmarkGrids.create(grids);
+        palette = new Color[256];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = Color.getHSBColor(i / 256f, 1f, 1f);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ledGrid.close();
+    }
+
+    /**
+     * Sets every LED of every grid by grid coordinates, as the LED-mapped animations do.
+     */
+    @Benchmark
+    public void setLedColor() {
+        int size = BenchmarkGrids.GRID_SIZE;
+        int shift = frame++;
+        for (int g = 0; g < grids; g++) {
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    ledGrid.setLedColor(g, x, y, palette[(x + y + shift) & 0xFF]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets every LED through window coordinates, which first searches for the grid.
+     */
+    @Benchmark
+    public void setLedColorByWindow() {
+        int width = ledGrid.getWindowWidth();
+        int height = ledGrid.getWindowHeight();
+        int step = BenchmarkGrids.PIXEL_SIZE;
+        int shift = frame++;
+        for (int y = step / 2; y < height; y += step) {
+            for (int x = step / 2; x < width; x += step) {
+                ledGrid.setLedColor(x, y, palette[(x + y + shift) & 0xFF]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void clearAllLeds() {
+        ledGrid.clearAllLeds();
+    }
+
+    /**
+     * Packs the current colours into the device buffers and builds every DDP packet,
+     * sent inline into the null transport.
+     */
+    @Benchmark
+    public boolean sendToDevices() {
+        return ledGrid.sendToDevices();
+    }
+}
@@ -0,0 +1,90 @@
+package com.marsraver.LedFx.bench;
+
+import com.marsraver.LedFx.wled.ColorMapping;
+import com.marsraver.LedFx.wled.NullTransport;
+import com.marsraver.LedFx.wled.WledArtNetController;
+import com.marsraver.LedFx.wled.WledDdpClient;
+import com.marsraver.LedFx.wled.WledInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packet building for one frame of one device: DDP packets (header, payload copy and
+ * transport hand-off), an Art-Net DMX packet, and the channel reordering Art-Net does
+ * per byte.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketBenchmark {
+
+    /** LEDs in the frame; 256 is one 16x16 grid, 1024 four grids on one device. */
+    @Param({"170", "256", "1024"})
+    public int leds;
+
+    @Param({"false", "true"})
+    public boolean timecode;
+
+    private WledDdpClient ddpClient;
+    private WledArtNetController artNetController;
+    private int[] rgb;
+    private int sequence = 1;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        rgb = new int[leds * 3];
+        Random random = new Random(42);
+        for (int i = 0; i < rgb.length; i++) {
+            rgb[i] = random.nextInt(256);
+        }
+        ddpClient = new WledDdpClient(new WledInfo("127.0.0.1", "bench"), WledDdpClient.getDefaultDdpPort(), new NullTransport());
+        ddpClient.connect();
+        ddpClient.setTimecodeEnabled(timecode);
+        artNetController = new WledArtNetController("127.0.0.1", Math.min(leds, 170), 0, ColorMapping.GBR, new NullTransport());
+    }
+
+    @Benchmark
+    public boolean ddpFrame() {
+        sequence = WledDdpClient.nextSequence(sequence);
+        return ddpClient.sendRgb(rgb, leds, sequence, true);
+    }
+
+    /**
+     * Builds the packet directly: {@code sendLedData} is rate limited and would mostly
+     * measure its early return.
+     */
+    @Benchmark
+    public ByteBuffer artNetPacket() {
+        return artNetController.createArtNetPacket(rgb);
+    }
+
+    @Benchmark
+    public void colorMappingMapChannel(Blackhole blackhole) {
+        ColorMapping mapping = ColorMapping.GBR;
+        for (int led = 0; led < leds; led++) {
+            int colorIndex = led * 3;
+            blackhole.consume(mapping.mapChannel(colorIndex, 0, rgb));
+            blackhole.consume(mapping.mapChannel(colorIndex, 1, rgb));
+            blackhole.consume(mapping.mapChannel(colorIndex, 2, rgb));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.marsraver.LedFx.bench;
+
+import com.marsraver.LedFx.simd.PixelKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar against Vector API pixel kernels, over a 64-grid layout's worth of LEDs and a
+ * 500x540 window's worth of pixels.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class PixelKernelsBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String kernels;
+
+    @Param({"16384", "270000"})
+    public int pixels;
+
+    private PixelKernels kernel;
+    private int[] frame;
+    private int[] out;
+    private int[] indices;
+    private int[] palette;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = "vector".equals(kernels) ? PixelKernels.vector() : PixelKernels.scalar();
+        if (kernel == null) {
+            throw new IllegalStateException("Vector API not available");
+        }
+        Random random = new Random(1);
+        frame = new int[pixels];
+        out = new int[pixels];
+        indices = new int[pixels];
+        for (int i = 0; i < pixels; i++) {
+            frame[i] = random.nextInt(0x1000000);
+            indices[i] = random.nextInt(128);
+        }
+        palette = new int[128];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = random.nextInt(0x1000000);
+        }
+    }
+
+    @Benchmark
+    public int[] scale() {
+        kernel.scale(frame, 0, pixels, 254);
+        return frame;
+    }
+
+    @Benchmark
+    public int[] lookup() {
+        kernel.lookup(indices, palette, out, 0, pixels);
+        return out;
+    }
+}
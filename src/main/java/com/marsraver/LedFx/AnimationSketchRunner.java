@@ -2,6 +2,9 @@ package com.marsraver.LedFx;
 
 import com.marsraver.LedFx.layout.LayoutConfig;
 import com.marsraver.LedFx.layout.LayoutLoader;
+import com.marsraver.LedFx.metrics.AnimationSwitchEvent;
+import com.marsraver.LedFx.metrics.FrameRenderedEvent;
+import com.marsraver.LedFx.metrics.FrameStage;
 import com.marsraver.LedFx.wled.WledDdpClient;
 import lombok.extern.log4j.Log4j2;
 
@@ -22,10 +25,12 @@ public class AnimationSketchRunner {
     
     private static final int TARGET_FPS = 120; // Increased from 60 to 120 FPS
     private static final int FRAME_DELAY = 1000 / TARGET_FPS;
+    private static final Font ERROR_FONT = new Font("Arial", Font.BOLD, 16);
     
     public JFrame frame;
     private AnimationSketchCanvas canvas;
     private LedGrid ledGrid;
+    private PerformanceHud hud;
     private LedAnimation animation;
     private Timer animationTimer;
     private JComboBox<AnimationType> animationSelector;
@@ -46,6 +51,7 @@ public class AnimationSketchRunner {
             
             // Create the unified LED grid
             this.ledGrid = new LedGrid(layout);
+            this.hud = new PerformanceHud(ledGrid);
             this.canvas = new AnimationSketchCanvas(layout.getWindowWidth(), layout.getWindowHeight());
             
             // Create the initial animation immediately to prevent null reference
@@ -126,6 +132,10 @@ public class AnimationSketchRunner {
      * Switches to the specified animation type.
      */
     private void switchToAnimation(AnimationType animationType) {
+        AnimationSwitchEvent switchEvent = new AnimationSwitchEvent();
+        switchEvent.begin();
+        String previous = animation != null ? animation.getName() : null;
+        
         // Stop current animation timer
         if (animationTimer != null && animationTimer.isRunning()) {
             animationTimer.stop();
@@ -141,6 +151,7 @@ public class AnimationSketchRunner {
         log.debug("AnimationFactory returned: " + animation.getClass().getSimpleName());
 
         // Initialize the new animation
+        long initStart = System.nanoTime();
         try {
             animation.init(canvas.getWidth(), canvas.getHeight(), ledGrid);
             log.debug("Animation initialized successfully");
@@ -149,6 +160,16 @@ public class AnimationSketchRunner {
             e.printStackTrace();
             animation = null;
         }
+        long initNanos = System.nanoTime() - initStart;
+        hud.setAnimation(animation);
+        switchEvent.end();
+        if (switchEvent.shouldCommit()) {
+            switchEvent.previous = previous;
+            switchEvent.animation = animationType.getId();
+            switchEvent.initNanos = initNanos;
+            switchEvent.succeeded = animation != null;
+            switchEvent.commit();
+        }
         
         // Restart animation timer
         restartAnimationTimer();
@@ -200,6 +221,9 @@ public class AnimationSketchRunner {
         if (animation != null) {
             animation.stop();
         }
+        
+        // Stop the output thread and release device sockets
+        ledGrid.close();
     }
     
     
@@ -265,6 +289,16 @@ public class AnimationSketchRunner {
 
             addMouseListener(mouseHandler);
             addMouseMotionListener(mouseHandler);
+
+            // H toggles the performance overlay, wherever focus is in the window
+            getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('h'), "toggleHud");
+            getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('H'), "toggleHud");
+            getActionMap().put("toggleHud", new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    hud.toggle();
+                }
+            });
         }
         
         @Override
@@ -278,15 +312,25 @@ public class AnimationSketchRunner {
             
             // Call the animation's draw method with LED grid (if animation exists)
             if (animation != null) {
-                animation.draw(g2d, getWidth(), getHeight(), ledGrid);
+                FrameRenderedEvent frameEvent = new FrameRenderedEvent();
+                frameEvent.begin();
+                ledGrid.getFrameTimer().beginFrame();
+                LedAnimation.drawFrame(animation, g2d, getWidth(), getHeight(), ledGrid);
+                ledGrid.getFrameTimer().mark(FrameStage.RENDER);
                 
                 // Send colors to LED devices (animations set colors directly)
                 ledGrid.sendToDevices();
+                frameEvent.end();
+                if (frameEvent.shouldCommit()) {
+                    frameEvent.animation = animation.getName();
+                    frameEvent.devices = ledGrid.getDeviceCount();
+                    frameEvent.commit();
+                }
             } else {
                 // Show error message when animation failed to load
                 log.debug("DEBUG: animation is null in paintComponent - showing error message");
                 g2d.setColor(Color.RED);
-                g2d.setFont(new Font("Arial", Font.BOLD, 16));
+                g2d.setFont(ERROR_FONT);
                 String errorMsg = "Animation failed to load - not yet updated for unified LedGrid system";
                 FontMetrics fm = g2d.getFontMetrics();
                 int x = (getWidth() - fm.stringWidth(errorMsg)) / 2;
@@ -297,6 +341,8 @@ public class AnimationSketchRunner {
             // Draw the LED grid overlay (optional, for visualization)
             ledGrid.drawGrid(g2d);
             
+            hud.draw(g2d, getWidth() - hud.getWidth() - 10, 10);
+            
             g2d.dispose();
         }
     }
@@ -320,6 +366,15 @@ public class AnimationSketchRunner {
         return ledGrid.getController(gridIndex);
     }
     
+    /**
+     * Gets the performance overlay, toggled with the H key.
+     * 
+     * @return The performance HUD
+     */
+    public PerformanceHud getHud() {
+        return hud;
+    }
+    
     /**
      * Gets the current animation.
      * 
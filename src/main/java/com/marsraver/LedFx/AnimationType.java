@@ -1,6 +1,7 @@
 package com.marsraver.LedFx;
 
 import com.marsraver.LedFx.animations.*;
+import com.marsraver.LedFx.effects.Effects;
 
 /**
  * Enumeration of available animation types for the LED framework.
@@ -17,7 +18,10 @@ public enum AnimationType {
     PERLIN_OSCILLATOR("perlin-oscillator", "Perlin Oscillator Animation"),
     STARFIELD("starfield", "Starfield Animation"),
     BLACK_HOLE("black-hole", "Black Hole Animation"),
-    BLURZ("blurz", "Blurz Animation");
+    BLURZ("blurz", "Blurz Animation"),
+    RAINBOW_SPIRAL("rainbow-spiral", "Rainbow Spiral Effect"),
+    RIPPLES("ripples", "Ripples Effect"),
+    SINE_PLASMA("sine-plasma", "Sine Plasma Effect");
     
     private final String id;
     private final String displayName;
@@ -93,6 +97,9 @@ public enum AnimationType {
                 case STARFIELD -> new StarfieldAnimation();
                 case BLACK_HOLE -> new BlackHoleAnimation();
                 case BLURZ -> new BlurzAnimation();
+                case RAINBOW_SPIRAL -> new EffectAnimation("Rainbow Spiral", "Rainbow arms turning around the center", Effects.RAINBOW_SPIRAL);
+                case RIPPLES -> new EffectAnimation("Ripples", "Rings running out from the center", Effects.RIPPLES);
+                case SINE_PLASMA -> new EffectAnimation("Sine Plasma", "Sine plasma across the whole layout", Effects.SINE_PLASMA);
             };
     }
 }
@@ -0,0 +1,100 @@
+package com.marsraver.LedFx;
+
+/**
+ * Separable blurs of packed RGB images (see {@link ColorMath}) in place, for softening a
+ * frame at LED resolution after it has been drawn.
+ * <p>
+ * A box blur runs once along every row and once down every column, keeping a running sum
+ * per channel, so each pixel costs a few additions whatever the radius. The average is taken
+ * with a fixed-point reciprocal instead of a division. A Gaussian blur is approximated by
+ * three box passes. Pixels beyond the edges repeat the edge pixel, so a blur neither darkens
+ * nor brightens the border.
+ * <p>
+ * An instance keeps a scratch line that grows to the longest row or column it has seen,
+ * so blurring allocates nothing once warmed up.
+ */
+public final class Blur {
+
+    /** Largest radius whose running sums still fit the 16-bit fixed-point averaging. */
+    public static final int MAX_RADIUS = 63;
+
+    private static final int FIXED_SHIFT = 16;
+
+    private int[] line = new int[0];
+
+    /**
+     * Box-blurs an image: every pixel becomes the average of the
+     * {@code (2 * radius + 1)}-square around it. A radius of 0 leaves it unchanged.
+     *
+     * @param pixels packed colors, row-major, {@code width * height} of them
+     */
+    public void box(int[] pixels, int width, int height, int radius) {
+        if (radius < 0 || radius > MAX_RADIUS) {
+            throw new IllegalArgumentException("Blur radius must be 0-" + MAX_RADIUS + ": " + radius);
+        }
+        if (width * height > pixels.length) {
+            throw new IllegalArgumentException("Image of " + width + "x" + height + " does not fit " + pixels.length + " pixels");
+        }
+        if (radius == 0 || width == 0 || height == 0) {
+            return;
+        }
+        ensureLine(Math.max(width, height));
+        for (int y = 0; y < height; y++) {
+            blurLine(pixels, y * width, 1, width, radius);
+        }
+        for (int x = 0; x < width; x++) {
+            blurLine(pixels, x, width, height, radius);
+        }
+    }
+
+    /**
+     * Approximates a Gaussian blur with three box blurs of the radius, which spreads about
+     * as far as a Gaussian with a standard deviation of the radius.
+     */
+    public void gaussian(int[] pixels, int width, int height, int radius) {
+        for (int pass = 0; pass < 3; pass++) {
+            box(pixels, width, height, radius);
+        }
+    }
+
+    /**
+     * Box-blurs one row or column, {@code length} pixels from {@code start} and
+     * {@code stride} apart, through the scratch line.
+     */
+    private void blurLine(int[] pixels, int start, int stride, int length, int radius) {
+        int[] source = line;
+        for (int i = 0, index = start; i < length; i++, index += stride) {
+            source[i] = pixels[index];
+        }
+        int last = length - 1;
+        int reciprocal = (1 << FIXED_SHIFT) / (2 * radius + 1);
+        int round = 1 << (FIXED_SHIFT - 1);
+
+        // Window of the first pixel, with the left edge repeated
+        int red = 0, green = 0, blue = 0;
+        for (int offset = -radius; offset <= radius; offset++) {
+            int rgb = source[Math.max(0, Math.min(last, offset))];
+            red += ColorMath.red(rgb);
+            green += ColorMath.green(rgb);
+            blue += ColorMath.blue(rgb);
+        }
+        for (int i = 0, index = start; i < length; i++, index += stride) {
+            pixels[index] = ColorMath.rgb(
+                    (red * reciprocal + round) >>> FIXED_SHIFT,
+                    (green * reciprocal + round) >>> FIXED_SHIFT,
+                    (blue * reciprocal + round) >>> FIXED_SHIFT);
+            // Slide the window: the pixel entering on the right replaces the one leaving on the left
+            int entering = source[Math.min(last, i + radius + 1)];
+            int leaving = source[Math.max(0, i - radius)];
+            red += ColorMath.red(entering) - ColorMath.red(leaving);
+            green += ColorMath.green(entering) - ColorMath.green(leaving);
+            blue += ColorMath.blue(entering) - ColorMath.blue(leaving);
+        }
+    }
+
+    private void ensureLine(int length) {
+        if (line.length < length) {
+            line = new int[length];
+        }
+    }
+}
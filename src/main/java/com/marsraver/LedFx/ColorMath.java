@@ -0,0 +1,163 @@
+package com.marsraver.LedFx;
+
+import java.awt.Color;
+
+/**
+ * Color arithmetic on packed {@code 0xRRGGBB} ints, for code that computes a color per
+ * LED or per particle every frame.
+ * <p>
+ * Nothing here allocates. HSV conversion goes through a 1536-entry hue table (256 steps
+ * per sixth of the color wheel) and integer scaling, and matches
+ * {@link Color#HSBtoRGB} to within a couple of levels per channel. Scaling, fading,
+ * adding and blending work on all three channels at once where they can. The alpha byte
+ * is always zero.
+ */
+public final class ColorMath {
+
+    public static final int BLACK = 0x000000;
+    public static final int WHITE = 0xFFFFFF;
+
+    /** Hue steps around the color wheel used by the HSV table. */
+    public static final int HUE_STEPS = 1536;
+
+    private static final int[] HUE_TABLE = new int[HUE_STEPS]; // fully saturated, full value
+
+    static {
+        for (int i = 0; i < HUE_STEPS; i++) {
+            int f = i & 255;
+            int r, g, b;
+            switch (i >> 8) {
+                case 0 -> { r = 255; g = f; b = 0; }         // red -> yellow
+                case 1 -> { r = 255 - f; g = 255; b = 0; }   // yellow -> green
+                case 2 -> { r = 0; g = 255; b = f; }         // green -> cyan
+                case 3 -> { r = 0; g = 255 - f; b = 255; }   // cyan -> blue
+                case 4 -> { r = f; g = 0; b = 255; }         // blue -> magenta
+                default -> { r = 255; g = 0; b = 255 - f; }  // magenta -> red
+            }
+            HUE_TABLE[i] = rgb(r, g, b);
+        }
+    }
+
+    private ColorMath() {
+    }
+
+    /**
+     * Packs channels that are already in 0-255.
+     */
+    public static int rgb(int r, int g, int b) {
+        return (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Packs channels, clamping each to 0-255.
+     */
+    public static int rgbClamped(int r, int g, int b) {
+        return rgb(clamp(r), clamp(g), clamp(b));
+    }
+
+    /**
+     * Packs an AWT color, dropping its alpha.
+     */
+    public static int rgb(Color color) {
+        return color.getRGB() & 0xFFFFFF;
+    }
+
+    public static int red(int rgb) {
+        return (rgb >> 16) & 0xFF;
+    }
+
+    public static int green(int rgb) {
+        return (rgb >> 8) & 0xFF;
+    }
+
+    public static int blue(int rgb) {
+        return rgb & 0xFF;
+    }
+
+    /**
+     * HSV to RGB with the same arguments as {@link Color#HSBtoRGB}: the hue wraps, so only
+     * its fractional part counts, and saturation and value are 0-1.
+     */
+    public static int hsv(float hue, float saturation, float value) {
+        int index = (int) ((hue - (float) Math.floor(hue)) * HUE_STEPS);
+        return hsvIndex(Math.min(index, HUE_STEPS - 1), unit8(saturation), unit8(value));
+    }
+
+    /**
+     * HSV to RGB in 8-bit units, FastLED style: hue 0-255 wraps around the wheel,
+     * saturation and value are 0-255.
+     */
+    public static int hsv8(int hue, int saturation, int value) {
+        return hsvIndex((hue & 0xFF) * (HUE_STEPS / 256), saturation, value);
+    }
+
+    private static int hsvIndex(int hueIndex, int saturation, int value) {
+        int full = HUE_TABLE[hueIndex];
+        // Desaturate towards white, then scale by value
+        int white = 255 - saturation;
+        int r = scale8(red(full), saturation) + white;
+        int g = scale8(green(full), saturation) + white;
+        int b = scale8(blue(full), saturation) + white;
+        return rgb(scale8(r, value), scale8(g, value), scale8(b, value));
+    }
+
+    /**
+     * Scales every channel by {@code amount}/256, with 255 leaving the color unchanged.
+     */
+    public static int scale(int rgb, int amount) {
+        int factor = amount + 1;
+        int redBlue = (((rgb & 0xFF00FF) * factor) >>> 8) & 0xFF00FF;
+        int green = (((rgb & 0x00FF00) * factor) >>> 8) & 0x00FF00;
+        return redBlue | green;
+    }
+
+    /**
+     * Dims a color towards black by {@code amount} out of 255, FastLED's fadeToBlackBy.
+     */
+    public static int fade(int rgb, int amount) {
+        return scale(rgb, 255 - amount);
+    }
+
+    /**
+     * Adds two colors channel by channel, saturating at 255.
+     */
+    public static int add(int a, int b) {
+        // Each channel sum is 9 bits; a carry into the ninth turns the channel into 0xFF
+        int redBlue = (a & 0xFF00FF) + (b & 0xFF00FF);
+        int redBlueCarry = redBlue & 0x01000100;
+        redBlue = (redBlue | (redBlueCarry - (redBlueCarry >>> 8))) & 0xFF00FF;
+        int green = (a & 0x00FF00) + (b & 0x00FF00);
+        int greenCarry = green & 0x010000;
+        green = (green | (greenCarry - (greenCarry >>> 8))) & 0x00FF00;
+        return redBlue | green;
+    }
+
+    /**
+     * Blends from {@code a} to {@code b}: 0 gives {@code a}, 255 gives {@code b}.
+     */
+    public static int blend(int a, int b, int amount) {
+        int weight = amount + (amount >> 7); // 0-256
+        int inverse = 256 - weight;
+        int redBlue = (((a & 0xFF00FF) * inverse + (b & 0xFF00FF) * weight) >>> 8) & 0xFF00FF;
+        int green = (((a & 0x00FF00) * inverse + (b & 0x00FF00) * weight) >>> 8) & 0x00FF00;
+        return redBlue | green;
+    }
+
+    /**
+     * Multiplies an 8-bit value by {@code amount}/256, with 255 meaning one.
+     */
+    public static int scale8(int value, int amount) {
+        return (value * (amount + 1)) >> 8;
+    }
+
+    /**
+     * Converts a 0-1 float to 0-255, clamping.
+     */
+    public static int unit8(float value) {
+        return clamp((int) (value * 255f + 0.5f));
+    }
+
+    private static int clamp(int channel) {
+        return channel < 0 ? 0 : Math.min(channel, 255);
+    }
+}
@@ -44,6 +44,48 @@ public interface LedAnimation {
      */
     String getDescription();
     
+    /**
+     * Gets a short line about the animation's own state, e.g. how many balls are in play,
+     * which the performance HUD shows under the frame count and running time. It is only
+     * read when the HUD refreshes, a few times per second, so it may build a string.
+     * 
+     * @return The status line, or null if the animation has nothing to add
+     */
+    default String getStatus() {
+        return null;
+    }
+    
+    /**
+     * Gets the pixel buffer this animation writes its frames into, if it draws pixels
+     * directly. The runner shows the buffer and maps it to the LEDs after each draw.
+     * 
+     * @return The animation's pixel buffer, or null if it draws and sets LEDs itself
+     */
+    default PixelBuffer getPixelBuffer() {
+        return null;
+    }
+    
+    /**
+     * Draws one frame of an animation the way the runners do: its pixel buffer, if it has
+     * one, gets the frame's graphics and is committed once the animation has drawn.
+     * 
+     * @param animation The animation to draw
+     * @param g The Graphics2D object for drawing
+     * @param width The width of the sketch window
+     * @param height The height of the sketch window
+     * @param ledGrid The unified LED grid system
+     */
+    static void drawFrame(LedAnimation animation, Graphics2D g, int width, int height, LedGrid ledGrid) {
+        PixelBuffer pixels = animation.getPixelBuffer();
+        if (pixels != null) {
+            pixels.beginFrame(g);
+        }
+        animation.draw(g, width, height, ledGrid);
+        if (pixels != null) {
+            pixels.endFrame();
+        }
+    }
+    
     /**
      * Stops the animation and performs any necessary cleanup.
      * Called when switching animations or closing the application.
@@ -0,0 +1,210 @@
+package com.marsraver.LedFx;
+
+import com.marsraver.LedFx.layout.GridConfig;
+
+import java.util.Arrays;
+
+/**
+ * An LED-resolution frame for every grid of a layout, which animations draw into directly
+ * instead of rendering the window and sampling it.
+ * <p>
+ * Colors are accumulated per channel without clamping, so overlapping contributions add
+ * up; {@link #writeTo(LedGrid)} clamps them and hands the frame to the grid. Window
+ * positions map to LEDs the same way {@link LedGrid#setLedColor(int, int, java.awt.Color)} does,
+ * except that a point under several overlapping grids lands in all of them.
+ */
+public class LedFrameBuffer {
+
+    private final int gridCount;
+    private final int[] gridX, gridY, gridSize, pixelSize;
+    private final int[] offset; // first LED of each grid in the channel arrays
+    private final float minPitch; // smallest LED spacing of any grid, for sampling lines
+    private final int[] red, green, blue;
+
+    /**
+     * Creates a black frame matching the grids of a layout.
+     */
+    public LedFrameBuffer(LedGrid ledGrid) {
+        this.gridCount = ledGrid.getGridCount();
+        this.gridX = new int[gridCount];
+        this.gridY = new int[gridCount];
+        this.gridSize = new int[gridCount];
+        this.pixelSize = new int[gridCount];
+        this.offset = new int[gridCount];
+        int leds = 0;
+        int pitch = Integer.MAX_VALUE;
+        for (int i = 0; i < gridCount; i++) {
+            GridConfig grid = ledGrid.getGridConfig(i);
+            gridX[i] = grid.getX();
+            gridY[i] = grid.getY();
+            gridSize[i] = grid.getGridSize();
+            pixelSize[i] = grid.getPixelSize();
+            offset[i] = leds;
+            leds += gridSize[i] * gridSize[i];
+            pitch = Math.min(pitch, pixelSize[i]);
+        }
+        this.minPitch = Math.max(1, pitch);
+        this.red = new int[leds];
+        this.green = new int[leds];
+        this.blue = new int[leds];
+    }
+
+    /**
+     * Sets every LED to black.
+     */
+    public void clear() {
+        Arrays.fill(red, 0);
+        Arrays.fill(green, 0);
+        Arrays.fill(blue, 0);
+    }
+
+    /**
+     * Adds a color to the LED under a window position, in every grid that covers it.
+     */
+    public void add(float windowX, float windowY, int rgb) {
+        for (int i = 0; i < gridCount; i++) {
+            int ledX = (int) Math.floor((windowX - gridX[i]) / pixelSize[i]);
+            int ledY = (int) Math.floor((windowY - gridY[i]) / pixelSize[i]);
+            if (ledX >= 0 && ledX < gridSize[i] && ledY >= 0 && ledY < gridSize[i]) {
+                addAt(offset[i] + ledY * gridSize[i] + ledX, rgb);
+            }
+        }
+    }
+
+    /**
+     * Adds a color to one LED of one grid; positions outside the grid are ignored.
+     */
+    public void add(int gridIndex, int ledX, int ledY, int rgb) {
+        int size = gridSize[gridIndex];
+        if (ledX >= 0 && ledX < size && ledY >= 0 && ledY < size) {
+            addAt(offset[gridIndex] + ledY * size + ledX, rgb);
+        }
+    }
+
+    /**
+     * Adds a color to every LED whose center lies within the kernel's radius of a window
+     * position, weighted by the kernel. The cost is the number of LEDs touched, whatever
+     * the size of the layout.
+     */
+    public void splat(float windowX, float windowY, int rgb, SplatKernel kernel) {
+        float radius = kernel.getRadius();
+        for (int i = 0; i < gridCount; i++) {
+            int size = gridSize[i];
+            float pitch = pixelSize[i];
+            // LED centers relative to the point: gridX + (ledX + 0.5) * pitch - windowX
+            float localX = windowX - gridX[i] - pitch / 2;
+            float localY = windowY - gridY[i] - pitch / 2;
+            int minX = Math.max(0, (int) Math.ceil((localX - radius) / pitch));
+            int maxX = Math.min(size - 1, (int) Math.floor((localX + radius) / pitch));
+            int minY = Math.max(0, (int) Math.ceil((localY - radius) / pitch));
+            int maxY = Math.min(size - 1, (int) Math.floor((localY + radius) / pitch));
+            for (int ledY = minY; ledY <= maxY; ledY++) {
+                float dy = ledY * pitch - localY;
+                int row = offset[i] + ledY * size;
+                for (int ledX = minX; ledX <= maxX; ledX++) {
+                    float dx = ledX * pitch - localX;
+                    int weight = kernel.weight(dx * dx + dy * dy);
+                    if (weight > 0) {
+                        addAt(row + ledX, ColorMath.scale(rgb, weight));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a color at a window position with antialiasing, Wu style: the color is shared
+     * between the four LEDs around the point by how close each LED center is.
+     */
+    public void plot(float windowX, float windowY, int rgb) {
+        plot(windowX, windowY, rgb, 256);
+    }
+
+    /**
+     * Draws an antialiased line, blending from one color at its start to another at its
+     * end. The light deposited is proportional to the length: a line one LED long adds
+     * about its color once, spread over the LEDs it passes, so a trail drawn as many short
+     * segments looks the same as one drawn as a single long one.
+     */
+    public void line(float x0, float y0, float x1, float y1, int rgb0, int rgb1) {
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        int steps = Math.max(1, (int) Math.ceil(length / minPitch));
+        int weight = (int) (256 * length / (minPitch * steps)); // share of each sample, at most 256
+        if (weight == 0) {
+            return;
+        }
+        for (int k = 0; k < steps; k++) {
+            float t = (k + 0.5f) / steps;
+            plot(x0 + dx * t, y0 + dy * t, ColorMath.blend(rgb0, rgb1, (int) (t * 255)), weight);
+        }
+    }
+
+    private void plot(float windowX, float windowY, int rgb, int weight) {
+        for (int i = 0; i < gridCount; i++) {
+            int size = gridSize[i];
+            // LED coordinates with LED centers on whole numbers
+            float ledX = (windowX - gridX[i]) / pixelSize[i] - 0.5f;
+            float ledY = (windowY - gridY[i]) / pixelSize[i] - 0.5f;
+            if (ledX <= -1 || ledY <= -1 || ledX >= size || ledY >= size) {
+                continue;
+            }
+            int x = (int) Math.floor(ledX);
+            int y = (int) Math.floor(ledY);
+            int fx = (int) ((ledX - x) * 256);
+            int fy = (int) ((ledY - y) * 256);
+            addWeighted(i, x, y, rgb, ((256 - fx) * (256 - fy) >> 8) * weight >> 8);
+            addWeighted(i, x + 1, y, rgb, (fx * (256 - fy) >> 8) * weight >> 8);
+            addWeighted(i, x, y + 1, rgb, ((256 - fx) * fy >> 8) * weight >> 8);
+            addWeighted(i, x + 1, y + 1, rgb, (fx * fy >> 8) * weight >> 8);
+        }
+    }
+
+    private void addWeighted(int gridIndex, int ledX, int ledY, int rgb, int weight) {
+        int size = gridSize[gridIndex];
+        if (weight > 0 && ledX >= 0 && ledX < size && ledY >= 0 && ledY < size) {
+            int index = offset[gridIndex] + ledY * size + ledX;
+            red[index] += ColorMath.red(rgb) * weight >> 8;
+            green[index] += ColorMath.green(rgb) * weight >> 8;
+            blue[index] += ColorMath.blue(rgb) * weight >> 8;
+        }
+    }
+
+    private void addAt(int index, int rgb) {
+        red[index] += ColorMath.red(rgb);
+        green[index] += ColorMath.green(rgb);
+        blue[index] += ColorMath.blue(rgb);
+    }
+
+    /**
+     * Gets the color of one LED, clamped to 0-255 per channel.
+     */
+    public int get(int gridIndex, int ledX, int ledY) {
+        int index = offset[gridIndex] + ledY * gridSize[gridIndex] + ledX;
+        return ColorMath.rgbClamped(red[index], green[index], blue[index]);
+    }
+
+    /**
+     * Sets every LED of the grid to this frame's colors, clamped to 0-255 per channel.
+     */
+    public void writeTo(LedGrid ledGrid) {
+        for (int i = 0; i < gridCount; i++) {
+            int size = gridSize[i];
+            int index = offset[i];
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++, index++) {
+                    ledGrid.setLedRgb(i, x, y, ColorMath.rgbClamped(red[index], green[index], blue[index]));
+                }
+            }
+        }
+    }
+
+    public int getGridCount() {
+        return gridCount;
+    }
+
+    public int getLedCount() {
+        return red.length;
+    }
+}
@@ -1,5 +1,6 @@
 package com.marsraver.LedFx;
 
+import com.marsraver.LedFx.bench.LayoutBenchmark;
 import com.marsraver.LedFx.layout.LayoutLoader;
 import lombok.extern.log4j.Log4j2;
 
@@ -7,11 +8,17 @@ import javax.swing.*;
 import java.awt.HeadlessException;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.Arrays;
 
 @Log4j2
 public class LedFxApplication {
 
 	public static void main(String[] args) {
+		// Headless benchmark of a layout: LedFxApplication --bench [layout] [options]
+		if (args.length > 0 && args[0].equals("--bench")) {
+			System.exit(LayoutBenchmark.run(Arrays.copyOfRange(args, 1, args.length)));
+		}
+		
 		// Launch the LED layout application on the Swing EDT
 		SwingUtilities.invokeLater(() -> {
 			try {
@@ -65,7 +72,7 @@ public class LedFxApplication {
 				runner.frame.requestFocus();
 				
 				log.info("LED Layout application started successfully!");
-				log.info("Use the dropdown to switch animations. Press ESC to exit");
+				log.info("Use the dropdown to switch animations. Press H for the performance overlay, ESC to exit");
 				
 			} catch (HeadlessException he) {
 				log.error("HeadlessException - GUI not available. Cannot launch application.");
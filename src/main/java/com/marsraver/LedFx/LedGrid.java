@@ -2,13 +2,23 @@ package com.marsraver.LedFx;
 
 import com.marsraver.LedFx.layout.GridConfig;
 import com.marsraver.LedFx.layout.LayoutConfig;
+import com.marsraver.LedFx.metrics.FrameStage;
+import com.marsraver.LedFx.metrics.FrameTimer;
+import com.marsraver.LedFx.metrics.JmxExporter;
+import com.marsraver.LedFx.metrics.PrometheusServer;
+import com.marsraver.LedFx.wled.DdpSendScheduler;
+import com.marsraver.LedFx.wled.PacketTransport;
+import com.marsraver.LedFx.wled.UdpTransport;
 import com.marsraver.LedFx.wled.WledDdpClient;
 import com.marsraver.LedFx.wled.WledInfo;
 import lombok.extern.log4j.Log4j2;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unified LED grid that manages multiple LED grids based on layout configuration.
@@ -18,46 +28,176 @@ import java.util.List;
 @Log4j2
 public class LedGrid {
     
+    private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 14);
+    
+    // Power model of WLED's brightness limiter for WS2812B-class LEDs
+    private static final double MILLIAMPS_PER_LED_FULL_WHITE = 55.0;
+    private static final double MILLIAMPS_PER_LED_IDLE = 1.0;
+    
     private final LayoutConfig layout;
-    private final List<WledDdpClient> controllers; // DDP clients, one per grid
-    private final List<Color[][]> ledColors; // [gridIndex][x][y]
+    private final List<WledDdpClient> controllers; // DDP clients, one per physical device
+    private final List<int[]> ledColors; // [gridIndex][y * gridSize + x], packed 0xRRGGBB
     private final List<GridConfig> grids;
+    private final int[] gridDevice; // grid index -> index of the device it is wired to
+    private final PacketTransport transport; // this grid's queue, shared by its device clients
+    
+    private final DdpSendScheduler sendScheduler; // sequencing, sync latching and optional pacing
+    private boolean pacedOutput;
+    private final FrameTimer frameTimer; // per-stage and per-device latency of every frame
+    private final JmxExporter jmxExporter = new JmxExporter();
+    private PrometheusServer prometheusServer; // only when the layout sets metricsPort
     
     public LedGrid(LayoutConfig layout) {
+        this(layout, UdpTransport.shared());
+    }
+    
+    /**
+     * Creates a grid whose devices send through the given transport, e.g. a
+     * {@link com.marsraver.LedFx.wled.NullTransport} for benchmarks. A {@link UdpTransport}
+     * is used through a queue of the grid's own, so a frame's flush only covers this grid.
+     * 
+     * @param layout The layout configuration
+     * @param transport The transport every device client sends through
+     */
+    public LedGrid(LayoutConfig layout, PacketTransport transport) {
         this.layout = layout;
+        this.transport = transport instanceof UdpTransport udp ? udp.newQueue() : transport;
         this.grids = layout.getGrids();
         this.controllers = new ArrayList<>();
         this.ledColors = new ArrayList<>();
+        this.gridDevice = new int[grids.size()];
         
-        // Initialize DDP clients and LED color arrays for each grid
+        // Grids wired to the same device (address and DDP port) share one DDP client and one
+        // contiguous frame; each grid occupies gridSize^2 LEDs starting at its startLed offset.
+        Map<String, Integer> deviceIndexByIp = new HashMap<>();
+        List<Integer> deviceLedCounts = new ArrayList<>();
         for (int i = 0; i < grids.size(); i++) {
             GridConfig grid = grids.get(i);
-            WledInfo info = new WledInfo(grid.getDeviceIp(), grid.getId());
-            WledDdpClient client = new WledDdpClient(info, WledDdpClient.getDefaultDdpPort());
+            int devicePort = grid.getDevicePort() > 0 ? grid.getDevicePort() : WledDdpClient.getDefaultDdpPort();
+            String deviceKey = grid.getDeviceIp() + ":" + devicePort;
+            Integer deviceIndex = deviceIndexByIp.get(deviceKey);
+            if (deviceIndex == null) {
+                deviceIndex = controllers.size();
+                deviceIndexByIp.put(deviceKey, deviceIndex);
+                WledInfo info = new WledInfo(grid.getDeviceIp(), grid.getId());
+                WledDdpClient client = new WledDdpClient(info, devicePort, this.transport);
+                try {
+                    client.connect();
+                    client.configureMtu(grid.getMtu());
+                    client.setTimecodeEnabled(layout.isFrameTimecode());
+                } catch (Exception e) {
+                    log.error("Failed to connect DDP client for grid {} at {}: {}", grid.getId(), grid.getDeviceIp(), e.getMessage());
+                }
+                controllers.add(client);
+                deviceLedCounts.add(0);
+            } else {
+                WledInfo info = controllers.get(deviceIndex).getWledInfo();
+                info.setName(info.getName() + "+" + grid.getId());
+            }
+            gridDevice[i] = deviceIndex;
+            int gridEnd = grid.getStartLed() + grid.getGridSize() * grid.getGridSize();
+            deviceLedCounts.set(deviceIndex, Math.max(deviceLedCounts.get(deviceIndex), gridEnd));
+            
+            // Initialize LED color array for this grid; all LEDs start black
+            ledColors.add(new int[grid.getGridSize() * grid.getGridSize()]);
+        }
+        warnOnOverlappingGrids();
+        
+        // Synchronized output: data is sent without push, then one push latches every device
+        WledDdpClient syncPushClient = null; // broadcast push target, or null for per-device pushes
+        String broadcastIp = layout.getSyncBroadcastIp();
+        if (broadcastIp != null && !broadcastIp.isEmpty()) {
+            WledDdpClient pushClient = new WledDdpClient(new WledInfo(broadcastIp, "sync-push"), WledDdpClient.getDefaultDdpPort(), this.transport);
             try {
-                client.connect();
+                pushClient.connect();
+                syncPushClient = pushClient;
             } catch (Exception e) {
-                log.error("Failed to connect DDP client for grid {} at {}: {}", grid.getId(), grid.getDeviceIp(), e.getMessage());
+                log.error("Failed to open DDP sync push socket for {}: {}", broadcastIp, e.getMessage());
             }
-            controllers.add(client);
-            
-            // Initialize LED color array for this grid
-            Color[][] gridColors = new Color[grid.getGridSize()][grid.getGridSize()];
-            ledColors.add(gridColors);
-            
-            // Initialize all LEDs to black
-            clearGrid(i);
         }
         
+        int[] ledCounts = new int[controllers.size()];
+        for (int d = 0; d < ledCounts.length; d++) {
+            ledCounts[d] = deviceLedCounts.get(d);
+        }
+        this.sendScheduler = new DdpSendScheduler(controllers, ledCounts, syncPushClient, layout.getPacingSlotMicros());
+        this.sendScheduler.setSyncOutput(layout.isSyncOutput());
+        List<String> deviceNames = new ArrayList<>();
+        for (WledDdpClient client : controllers) {
+            deviceNames.add(client.getWledInfo().getName());
+        }
+        this.frameTimer = new FrameTimer(deviceNames);
+        this.sendScheduler.setFrameTimer(frameTimer);
+        registerMBeans();
+        if (layout.getMetricsPort() > 0) {
+            PrometheusServer server = new PrometheusServer(layout.getMetricsPort());
+            server.addCollector(new LedGridMetrics(this));
+            try {
+                server.start();
+                prometheusServer = server;
+            } catch (Exception e) {
+                log.error("Failed to start Prometheus metrics on port {}: {}", layout.getMetricsPort(), e.getMessage());
+            }
+        }
+        setPacedOutput(layout.isPacedOutput());
+        
         log.debug("Unified LED Grid initialized with DDP:");
         log.debug("  Layout: " + layout.getName());
         log.debug("  Window: " + layout.getWindowWidth() + "x" + layout.getWindowHeight());
-        log.debug("  Grids: " + grids.size());
+        log.debug("  Grids: " + grids.size() + " on " + controllers.size() + " device(s)");
+        log.debug("  Sync output: " + isSyncOutput() + (syncPushClient != null ? " (broadcast push to " + broadcastIp + ")" : ""));
+        log.debug("  Paced output: " + pacedOutput);
         for (int i = 0; i < grids.size(); i++) {
             GridConfig grid = grids.get(i);
             log.debug("    Grid " + (i + 1) + " (" + grid.getId() + "): " + 
                              grid.getGridSize() + "x" + grid.getGridSize() +
-                             " at (" + grid.getX() + ", " + grid.getY() + ") -> " + grid.getDeviceIp());
+                             " at (" + grid.getX() + ", " + grid.getY() + ") -> " + grid.getDeviceIp() +
+                             " from LED " + grid.getStartLed() +
+                             " (" + controllers.get(gridDevice[i]).getLedsPerPacket() + " LEDs/packet)");
+        }
+    }
+    
+    /**
+     * Publishes the frame timings and output counters over JMX:
+     * {@code type=Stage} per-stage histograms (plus each socket send),
+     * {@code type=Latency} the whole frame, {@code type=Device} and
+     * {@code type=DeviceLatency} one of each per device, {@code type=Output}
+     * the scheduler and {@code type=Transport} the UDP transport.
+     */
+    private void registerMBeans() {
+        for (FrameStage stage : FrameStage.values()) {
+            jmxExporter.register("Stage", frameTimer.getStage(stage));
+        }
+        if (transport instanceof UdpTransport udp) {
+            jmxExporter.register("Stage", udp.getSendTimes());
+            jmxExporter.register("Transport", "udp", udp);
+        }
+        jmxExporter.register("Latency", frameTimer.getFrameLatency());
+        jmxExporter.register("Output", layout.getName(), sendScheduler);
+        for (int d = 0; d < controllers.size(); d++) {
+            jmxExporter.register("Device", frameTimer.getDeviceName(d), sendScheduler.getDeviceOutput(d));
+            jmxExporter.register("DeviceLatency", frameTimer.getDeviceLatency(d));
+        }
+    }
+    
+    /**
+     * Logs a warning for grids on the same device whose LED ranges overlap.
+     */
+    private void warnOnOverlappingGrids() {
+        for (int i = 0; i < grids.size(); i++) {
+            GridConfig a = grids.get(i);
+            int aEnd = a.getStartLed() + a.getGridSize() * a.getGridSize();
+            for (int j = i + 1; j < grids.size(); j++) {
+                GridConfig b = grids.get(j);
+                if (gridDevice[i] != gridDevice[j]) {
+                    continue;
+                }
+                int bEnd = b.getStartLed() + b.getGridSize() * b.getGridSize();
+                if (a.getStartLed() < bEnd && b.getStartLed() < aEnd) {
+                    log.warn("Grids {} and {} overlap on device {} (LEDs {}-{} and {}-{})",
+                            a.getId(), b.getId(), a.getDeviceIp(), a.getStartLed(), aEnd - 1, b.getStartLed(), bEnd - 1);
+                }
+            }
         }
     }
     
@@ -86,7 +226,7 @@ public class LedGrid {
                 gridY = Math.max(0, Math.min(grid.getGridSize() - 1, gridY));
                 
                 // Set the LED color
-                ledColors.get(gridIndex)[gridX][gridY] = color;
+                ledColors.get(gridIndex)[gridY * grid.getGridSize() + gridX] = color == null ? ColorMath.BLACK : ColorMath.rgb(color);
                 return;
             }
         }
@@ -101,14 +241,46 @@ public class LedGrid {
      * @param color The color to set
      */
     public void setLedColor(int gridIndex, int gridX, int gridY, Color color) {
+        setLedRgb(gridIndex, gridX, gridY, color == null ? ColorMath.BLACK : ColorMath.rgb(color));
+    }
+    
+    /**
+     * Sets the color of a specific LED in a specific grid from a packed 0xRRGGBB int,
+     * see {@link ColorMath}. Unlike {@link #setLedColor(int, int, int, Color)} this needs
+     * no Color object per LED.
+     * 
+     * @param gridIndex The index of the grid (0-based)
+     * @param gridX The X position within the grid (0-based)
+     * @param gridY The Y position within the grid (0-based)
+     * @param rgb The color to set; the top byte is ignored
+     */
+    public void setLedRgb(int gridIndex, int gridX, int gridY, int rgb) {
         if (gridIndex >= 0 && gridIndex < grids.size()) {
-            GridConfig grid = grids.get(gridIndex);
-            if (gridX >= 0 && gridX < grid.getGridSize() && gridY >= 0 && gridY < grid.getGridSize()) {
-                ledColors.get(gridIndex)[gridX][gridY] = color;
+            int gridSize = grids.get(gridIndex).getGridSize();
+            if (gridX >= 0 && gridX < gridSize && gridY >= 0 && gridY < gridSize) {
+                ledColors.get(gridIndex)[gridY * gridSize + gridX] = rgb & 0xFFFFFF;
             }
         }
     }
     
+    /**
+     * Gets the color of a specific LED in a specific grid as a packed 0xRRGGBB int.
+     * 
+     * @param gridIndex The index of the grid (0-based)
+     * @param gridX The X position within the grid (0-based)
+     * @param gridY The Y position within the grid (0-based)
+     * @return The color, or black outside the grid
+     */
+    public int getLedRgb(int gridIndex, int gridX, int gridY) {
+        if (gridIndex >= 0 && gridIndex < grids.size()) {
+            int gridSize = grids.get(gridIndex).getGridSize();
+            if (gridX >= 0 && gridX < gridSize && gridY >= 0 && gridY < gridSize) {
+                return ledColors.get(gridIndex)[gridY * gridSize + gridX];
+            }
+        }
+        return ColorMath.BLACK;
+    }
+    
     /**
      * Clears all LEDs (sets them to black/off).
      */
@@ -125,33 +297,33 @@ public class LedGrid {
      */
     public void clearGrid(int gridIndex) {
         if (gridIndex >= 0 && gridIndex < grids.size()) {
-            GridConfig grid = grids.get(gridIndex);
-            Color[][] gridColors = ledColors.get(gridIndex);
-            for (int x = 0; x < grid.getGridSize(); x++) {
-                for (int y = 0; y < grid.getGridSize(); y++) {
-                    gridColors[x][y] = Color.BLACK;
-                }
-            }
+            Arrays.fill(ledColors.get(gridIndex), ColorMath.BLACK);
         }
     }
     
     /**
      * Sends the current LED data to all connected devices.
+     * <p>
+     * Grids wired to the same device are packed into one contiguous frame at their
+     * startLed offsets and go out as a single DDP stream with one push.
+     * In synchronized mode every device's data is sent without the DDP push flag and
+     * all devices are then latched together, so a frame never straddles two grids.
+     * In paced mode the frame is handed to the output thread, which spreads the
+     * packets across the frame interval; this method then returns immediately.
      * 
-     * @return true if all devices were successful, false otherwise
+     * @return true if all devices were successful (always true when paced), false otherwise
      */
     public boolean sendToDevices() {
-        boolean allSuccess = true;
+        frameTimer.ensureFrameStarted();
         for (int i = 0; i < grids.size(); i++) {
             GridConfig grid = grids.get(i);
-            WledDdpClient controller = controllers.get(i);
-            Color[][] gridColors = ledColors.get(i);
+            int[] gridColors = ledColors.get(i);
             
-            // Convert Color[][] to int[] in the order WLED appears to expect for DDP:
+            // Unpack the colors into channels in the order WLED appears to expect for DDP:
             // row-major, top-left first, left-to-right, top-to-bottom.
             //
             // Coordinate system in memory:
-            //   gridColors[x][y], where y = 0 is top row on screen,
+            //   gridColors[y * gridSize + x], where y = 0 is top row on screen,
             //   y = gridSize - 1 is bottom row on screen.
             // Packing:
             //   index 0      -> (x=0,           y=0)         top-left
@@ -159,34 +331,119 @@ public class LedGrid {
             //   index 240    -> (x=0,           y=gridSize-1) bottom-left
             //   index 255    -> (x=gridSize-1,  y=gridSize-1) bottom-right
             int gridSize = grid.getGridSize();
-            int ledCount = gridSize * gridSize;
-            int[] ledData = new int[ledCount * 3];
-            java.util.Arrays.fill(ledData, 0);
+            int[] ledData = sendScheduler.getWriteBuffer(gridDevice[i]);
 
-            int index = 0;
+            int index = grid.getStartLed() * 3;
             // Some panels may be physically mirrored. For now we correct Grid01,
             // which is observed to be horizontally flipped compared to others.
             boolean flipHorizontal = "Grid01".equalsIgnoreCase(grid.getId());
             for (int y = 0; y < gridSize; y++) {
                 for (int x = 0; x < gridSize; x++) {
                     int sampleX = flipHorizontal ? (gridSize - 1 - x) : x;
-                    Color color = gridColors[sampleX][y];
-                    if (color == null) {
-                        color = Color.BLACK;
-                    }
-                    ledData[index++] = Math.min(255, Math.max(0, color.getRed()));
-                    ledData[index++] = Math.min(255, Math.max(0, color.getGreen()));
-                    ledData[index++] = Math.min(255, Math.max(0, color.getBlue()));
+                    int rgb = gridColors[y * gridSize + sampleX];
+                    ledData[index++] = ColorMath.red(rgb);
+                    ledData[index++] = ColorMath.green(rgb);
+                    ledData[index++] = ColorMath.blue(rgb);
                 }
             }
-
-            boolean success = controller.sendRgb(ledData, ledCount);
-            if (!success) {
-                log.error("Failed to send LED data to " + grid.getDeviceIp());
-                allSuccess = false;
-            }
         }
-        return allSuccess;
+        
+        frameTimer.mark(FrameStage.PACK);
+        long frameStart = frameTimer.endFrame();
+        
+        if (pacedOutput) {
+            sendScheduler.publish(frameStart);
+            return true;
+        }
+        return sendScheduler.sendNow(frameStart);
+    }
+    
+    /**
+     * Enables or disables synchronized (push-latched) output.
+     * 
+     * @param syncOutput true to latch all devices together with a DDP push
+     */
+    public void setSyncOutput(boolean syncOutput) {
+        sendScheduler.setSyncOutput(syncOutput);
+    }
+    
+    /**
+     * Gets whether synchronized (push-latched) output is enabled.
+     * 
+     * @return true if all devices are latched together
+     */
+    public boolean isSyncOutput() {
+        return sendScheduler.isSyncOutput();
+    }
+    
+    /**
+     * Enables or disables paced output. When enabled, frames are sent from a
+     * dedicated output thread that spreads packets across the frame interval.
+     * 
+     * @param pacedOutput true to pace packets on the output thread
+     */
+    public void setPacedOutput(boolean pacedOutput) {
+        this.pacedOutput = pacedOutput;
+        if (pacedOutput) {
+            sendScheduler.start();
+        } else {
+            sendScheduler.stop();
+        }
+    }
+    
+    /**
+     * Gets whether paced output is enabled.
+     * 
+     * @return true if packets are paced on the output thread
+     */
+    public boolean isPacedOutput() {
+        return pacedOutput;
+    }
+    
+    /**
+     * Gets the scheduler that sends frames to the devices.
+     * 
+     * @return The DDP send scheduler
+     */
+    public DdpSendScheduler getSendScheduler() {
+        return sendScheduler;
+    }
+    
+    /**
+     * Gets the transport the device clients send through.
+     * 
+     * @return The packet transport
+     */
+    public PacketTransport getTransport() {
+        return transport;
+    }
+    
+    /**
+     * Gets the timer that records how long each frame spends in every stage and how
+     * long each device waits from the start of drawing until its data is sent.
+     * Sketch runners call {@link FrameTimer#beginFrame()} before drawing and
+     * {@link FrameTimer#mark(FrameStage)} with {@link FrameStage#RENDER} after it.
+     * 
+     * @return The frame timer
+     */
+    public FrameTimer getFrameTimer() {
+        return frameTimer;
+    }
+    
+    /**
+     * Stops the output thread (if running), closes all device sockets and removes
+     * the grid's JMX beans.
+     */
+    public void close() {
+        sendScheduler.stop();
+        jmxExporter.close();
+        if (prometheusServer != null) {
+            prometheusServer.close();
+            prometheusServer = null;
+        }
+        for (WledDdpClient controller : controllers) {
+            controller.disconnect();
+        }
     }
     
     /**
@@ -287,18 +544,50 @@ public class LedGrid {
     }
     
     /**
-     * Gets the controller for a specific grid.
+     * Gets the controller for a specific grid. Grids wired to the same device
+     * share one controller.
      * 
      * @param gridIndex The index of the grid
      * @return The WLED DDP client
      */
     public WledDdpClient getController(int gridIndex) {
-        if (gridIndex >= 0 && gridIndex < controllers.size()) {
-            return controllers.get(gridIndex);
+        if (gridIndex >= 0 && gridIndex < grids.size()) {
+            return controllers.get(gridDevice[gridIndex]);
         }
         return null;
     }
     
+    /**
+     * Gets the number of physical devices the grids are wired to.
+     * 
+     * @return The number of devices
+     */
+    public int getDeviceCount() {
+        return controllers.size();
+    }
+    
+    /**
+     * Estimates the current each device draws for the colours currently set, with the
+     * model WLED's brightness limiter uses: 55 mA per LED at full white, scaled by the
+     * channel sum, plus 1 mA per LED at idle. Safe to call from a monitoring thread.
+     * 
+     * @return Milliamps per device, in device order
+     */
+    public double[] estimateDeviceMilliamps() {
+        double[] milliamps = new double[controllers.size()];
+        for (int i = 0; i < grids.size(); i++) {
+            int[] gridColors = ledColors.get(i);
+            long channelSum = 0;
+            for (int rgb : gridColors) {
+                channelSum += ColorMath.red(rgb) + ColorMath.green(rgb) + ColorMath.blue(rgb);
+            }
+            int ledCount = gridColors.length;
+            milliamps[gridDevice[i]] += channelSum * MILLIAMPS_PER_LED_FULL_WHITE / 765.0
+                    + ledCount * MILLIAMPS_PER_LED_IDLE;
+        }
+        return milliamps;
+    }
+    
     /**
      * Gets the controller for a grid by ID.
      * 
@@ -356,7 +645,7 @@ public class LedGrid {
         
         // Draw grid label
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 14));
+        g.setFont(LABEL_FONT);
         g.drawString(grid.getId(), grid.getX(), grid.getY() - 10);
     }
     
@@ -366,15 +655,10 @@ public class LedGrid {
      */
     public void sampleColors(Graphics2D g) {
         for (int gridIndex = 0; gridIndex < grids.size(); gridIndex++) {
-            GridConfig grid = grids.get(gridIndex);
-            for (int ledY = 0; ledY < grid.getGridSize(); ledY++) {
-                for (int ledX = 0; ledX < grid.getGridSize(); ledX++) {
-                    // Sample color from the current graphics color (placeholder behavior)
-                    Color color = new Color(g.getColor().getRGB());
-                    ledColors.get(gridIndex)[ledX][ledY] = color;
-                }
-            }
+            // Sample color from the current graphics color (placeholder behavior)
+            Arrays.fill(ledColors.get(gridIndex), ColorMath.rgb(g.getColor()));
         }
+        frameTimer.mark(FrameStage.SAMPLE);
     }
     
     /**
@@ -0,0 +1,114 @@
+package com.marsraver.LedFx;
+
+import com.marsraver.LedFx.metrics.FrameStage;
+import com.marsraver.LedFx.metrics.FrameTimer;
+import com.marsraver.LedFx.metrics.PrometheusCollector;
+import com.marsraver.LedFx.metrics.PrometheusWriter;
+import com.marsraver.LedFx.wled.DdpSendScheduler;
+import com.marsraver.LedFx.wled.UdpTransport;
+
+/**
+ * Prometheus metrics of a {@link LedGrid}: frame and packet counters, frame-time
+ * quantiles, per-device output and estimated power draw.
+ * <p>
+ * Counters are exported as totals for {@code rate()}; the FPS gauges are the rates
+ * since the previous scrape (or since the grid was created), for dashboards that just
+ * want a number.
+ */
+class LedGridMetrics implements PrometheusCollector {
+
+    private static final double LED_SUPPLY_VOLTS = 5.0;
+
+    private final LedGrid ledGrid;
+
+    // Scrape-thread state for the FPS gauges
+    private long lastScrapeNanos;
+    private long lastFramesRendered;
+    private final long[] lastDeviceFramesSent;
+
+    LedGridMetrics(LedGrid ledGrid) {
+        this.ledGrid = ledGrid;
+        this.lastDeviceFramesSent = new long[ledGrid.getDeviceCount()];
+        this.lastScrapeNanos = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void collect(PrometheusWriter out) {
+        DdpSendScheduler scheduler = ledGrid.getSendScheduler();
+        FrameTimer timer = ledGrid.getFrameTimer();
+        int devices = ledGrid.getDeviceCount();
+
+        long now = System.nanoTime();
+        double elapsed = (now - lastScrapeNanos) / 1e9;
+        lastScrapeNanos = now;
+
+        long rendered = scheduler.getFramesSubmitted();
+        out.counter("ledfx_frames_rendered_total", "Frames rendered and handed to the output")
+                .sample("ledfx_frames_rendered_total", rendered);
+        out.counter("ledfx_frames_sent_total", "Frames sent to the devices")
+                .sample("ledfx_frames_sent_total", scheduler.getFramesSent());
+        out.counter("ledfx_frames_dropped_total", "Frames superseded before the output thread sent them")
+                .sample("ledfx_frames_dropped_total", scheduler.getFramesDropped());
+        out.gauge("ledfx_render_fps", "Frames rendered per second since the previous scrape")
+                .sample("ledfx_render_fps", rate(rendered, lastFramesRendered, elapsed));
+        lastFramesRendered = rendered;
+
+        if (ledGrid.getTransport() instanceof UdpTransport transport) {
+            out.counter("ledfx_packets_sent_total", "UDP packets written to the network")
+                    .sample("ledfx_packets_sent_total", transport.getPacketsSent());
+            out.counter("ledfx_bytes_sent_total", "UDP payload bytes written to the network")
+                    .sample("ledfx_bytes_sent_total", transport.getBytesSent());
+            out.counter("ledfx_packets_dropped_total", "Packets dropped because the socket send buffer stayed full")
+                    .sample("ledfx_packets_dropped_total", transport.getPacketsDropped());
+            out.summary("ledfx_socket_send_seconds", "Time in each packet's socket send")
+                    .summarySample("ledfx_socket_send_seconds", null, null, transport.getSendTimes());
+        }
+        out.counter("ledfx_send_errors_total", "Failed device sends and dropped packets")
+                .sample("ledfx_send_errors_total", scheduler.getSendErrors());
+
+        out.summary("ledfx_frame_stage_seconds", "Time each frame spends in each stage");
+        for (FrameStage stage : FrameStage.values()) {
+            out.summarySample("ledfx_frame_stage_seconds", "stage", stage.getId(), timer.getStage(stage));
+        }
+        out.summary("ledfx_frame_latency_seconds", "Time from the start of drawing until the frame's last packet is sent")
+                .summarySample("ledfx_frame_latency_seconds", null, null, timer.getFrameLatency());
+
+        out.counter("ledfx_device_frames_sent_total", "Frames sent per device");
+        for (int d = 0; d < devices; d++) {
+            out.sample("ledfx_device_frames_sent_total", "device", timer.getDeviceName(d), scheduler.getDeviceFramesSent(d));
+        }
+        out.counter("ledfx_device_send_errors_total", "Frames that could not be sent per device");
+        for (int d = 0; d < devices; d++) {
+            out.sample("ledfx_device_send_errors_total", "device", timer.getDeviceName(d), scheduler.getDeviceSendErrors(d));
+        }
+        out.counter("ledfx_device_lossy_frames_total", "Frames in which the socket dropped packets per device");
+        for (int d = 0; d < devices; d++) {
+            out.sample("ledfx_device_lossy_frames_total", "device", timer.getDeviceName(d), scheduler.getDeviceLossyFrames(d));
+        }
+        out.gauge("ledfx_device_send_fps", "Frames sent per second per device since the previous scrape");
+        for (int d = 0; d < devices; d++) {
+            long sent = scheduler.getDeviceFramesSent(d);
+            out.sample("ledfx_device_send_fps", "device", timer.getDeviceName(d), rate(sent, lastDeviceFramesSent[d], elapsed));
+            lastDeviceFramesSent[d] = sent;
+        }
+        out.summary("ledfx_device_latency_seconds", "Time from the start of drawing until the device's last packet is sent");
+        for (int d = 0; d < devices; d++) {
+            out.summarySample("ledfx_device_latency_seconds", "device", timer.getDeviceName(d), timer.getDeviceLatency(d));
+        }
+
+        double[] milliamps = ledGrid.estimateDeviceMilliamps();
+        double totalWatts = 0;
+        out.gauge("ledfx_device_estimated_watts", "Estimated LED power draw per device for the current frame");
+        for (int d = 0; d < devices; d++) {
+            double watts = milliamps[d] / 1000.0 * LED_SUPPLY_VOLTS;
+            totalWatts += watts;
+            out.sample("ledfx_device_estimated_watts", "device", timer.getDeviceName(d), watts);
+        }
+        out.gauge("ledfx_estimated_watts", "Estimated LED power draw of all devices for the current frame")
+                .sample("ledfx_estimated_watts", totalWatts);
+    }
+
+    private static double rate(long current, long previous, double elapsedSeconds) {
+        return elapsedSeconds > 0 ? (current - previous) / elapsedSeconds : 0;
+    }
+}
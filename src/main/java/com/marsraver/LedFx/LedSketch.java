@@ -28,5 +28,16 @@ public interface LedSketch extends Sketch {
      * @param ledGrid The LED grid for output to WLED devices
      */
     void draw(Graphics2D g, int width, int height, LedGrid ledGrid);
+    
+    /**
+     * Gets the pixel buffer this sketch writes its frames into, if it draws pixels directly.
+     * The runner shows the buffer and maps it to the LEDs after each draw, instead of
+     * sampling the window.
+     * 
+     * @return The sketch's pixel buffer, or null to have the window sampled
+     */
+    default PixelBuffer getPixelBuffer() {
+        return null;
+    }
 }
 
@@ -2,6 +2,8 @@ package com.marsraver.LedFx;
 
 import com.marsraver.LedFx.layout.LayoutConfig;
 import com.marsraver.LedFx.layout.LayoutLoader;
+import com.marsraver.LedFx.metrics.FrameRenderedEvent;
+import com.marsraver.LedFx.metrics.FrameStage;
 import com.marsraver.LedFx.wled.WledDdpClient;
 import javax.swing.*;
 import java.awt.*;
@@ -168,13 +170,33 @@ public class LedSketchRunner {
             g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
             
             // Call the sketch's draw method with LED grid
+            FrameRenderedEvent frameEvent = new FrameRenderedEvent();
+            frameEvent.begin();
+            ledGrid.getFrameTimer().beginFrame();
+            PixelBuffer pixels = sketch instanceof LedSketch ? ((LedSketch) sketch).getPixelBuffer() : null;
+            if (pixels != null) {
+                pixels.beginFrame(g2d);
+            }
             if (sketch instanceof LedSketch) {
                 ((LedSketch) sketch).draw(g2d, getWidth(), getHeight(), ledGrid);
             }
+            if (pixels != null) {
+                // The sketch's pixels are mapped to the LEDs as they are committed
+                pixels.endFrame();
+            }
+            ledGrid.getFrameTimer().mark(FrameStage.RENDER);
             
             // Sample colors from the sketch and send to LED device
-            ledGrid.sampleColors(g2d);
+            if (pixels == null) {
+                ledGrid.sampleColors(g2d);
+            }
             ledGrid.sendToDevices();
+            frameEvent.end();
+            if (frameEvent.shouldCommit()) {
+                frameEvent.animation = sketch.getClass().getSimpleName();
+                frameEvent.devices = ledGrid.getDeviceCount();
+                frameEvent.commit();
+            }
             
             // Draw the LED grid overlay (optional, for visualization)
             ledGrid.drawGrid(g2d);
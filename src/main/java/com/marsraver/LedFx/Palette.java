@@ -0,0 +1,214 @@
+package com.marsraver.LedFx;
+
+/**
+ * A 256-entry color palette in packed {@code 0xRRGGBB} form, in the style of WLED and
+ * FastLED: an animation picks colors by index instead of computing them, and can fade
+ * from one palette to another over time.
+ * <p>
+ * The built-in palettes are shared and cannot be changed; {@link #copy()} one to get a
+ * working palette to blend into. Lookups never allocate.
+ */
+public final class Palette {
+
+    public static final int SIZE = 256;
+
+    public static final Palette RAINBOW = shared(rainbow());
+
+    /** Black, red, yellow, white: fire and heat maps. */
+    public static final Palette HEAT = shared(gradient(
+            0, 0x000000,
+            85, 0xFF0000,
+            170, 0xFFFF00,
+            255, 0xFFFFFF));
+
+    public static final Palette OCEAN = shared(of(
+            0x191970, 0x00008B, 0x191970, 0x000080,
+            0x00008B, 0x0000CD, 0x2E8B57, 0x008080,
+            0x5F9EA0, 0x0000FF, 0x008B8B, 0x6495ED,
+            0x7FFFD4, 0x2E8B57, 0x00FFFF, 0x87CEFA));
+
+    public static final Palette LAVA = shared(of(
+            0x000000, 0x800000, 0x000000, 0x800000,
+            0x8B0000, 0x800000, 0x8B0000, 0x8B0000,
+            0x8B0000, 0x8B0000, 0xFF0000, 0xFFA500,
+            0xFFFFFF, 0xFFA500, 0xFF0000, 0x8B0000));
+
+    public static final Palette FOREST = shared(of(
+            0x006400, 0x006400, 0x556B2F, 0x006400,
+            0x008000, 0x228B22, 0x6B8E23, 0x008000,
+            0x2E8B57, 0x66CDAA, 0x32CD32, 0x9ACD32,
+            0x90EE90, 0x7CFC00, 0x66CDAA, 0x228B22));
+
+    public static final Palette PARTY = shared(of(
+            0x5500AB, 0x84007C, 0xB5004B, 0xE5001B,
+            0xE81700, 0xB84700, 0xAB7700, 0xABAB00,
+            0xAB5500, 0xDD2200, 0xF2000E, 0xC2003E,
+            0x8F0071, 0x5F00A1, 0x2F00D0, 0x0007F9));
+
+    public static final Palette CLOUD = shared(of(
+            0x0000FF, 0x00008B, 0x00008B, 0x00008B,
+            0x00008B, 0x00008B, 0x00008B, 0x00008B,
+            0x0000FF, 0x00008B, 0x87CEEB, 0x87CEEB,
+            0xADD8E6, 0xFFFFFF, 0xADD8E6, 0x87CEEB));
+
+    private final int[] entries = new int[SIZE];
+    private boolean shared;
+
+    /**
+     * Creates an all-black working palette.
+     */
+    public Palette() {
+    }
+
+    /**
+     * Builds a palette from gradient stops, as WLED's gradient palettes do: each stop is a
+     * position 0-255 followed by a color, positions ascending, and entries between stops
+     * are blended linearly.
+     *
+     * @param stops position, color, position, color, ...
+     */
+    public static Palette gradient(int... stops) {
+        if (stops.length < 4 || stops.length % 2 != 0) {
+            throw new IllegalArgumentException("A gradient needs at least two (position, color) stops");
+        }
+        for (int s = 2; s < stops.length; s += 2) {
+            if (stops[s] < stops[s - 2]) {
+                throw new IllegalArgumentException("Gradient positions must be ascending");
+            }
+        }
+        Palette palette = new Palette();
+        int stop = 0; // first stop of the segment holding entry i
+        for (int i = 0; i < SIZE; i++) {
+            while (stop + 4 < stops.length && i > stops[stop + 2]) {
+                stop += 2;
+            }
+            int from = stops[stop];
+            int to = stops[stop + 2];
+            int amount;
+            if (i <= from) {
+                amount = 0;
+            } else if (i >= to) {
+                amount = 255;
+            } else {
+                amount = (i - from) * 255 / (to - from);
+            }
+            palette.entries[i] = ColorMath.blend(stops[stop + 1], stops[stop + 3], amount);
+        }
+        return palette;
+    }
+
+    /**
+     * Builds a palette from evenly spaced colors, blending between neighbours and from the
+     * last color back to the first, as FastLED's 16-entry palettes do.
+     */
+    public static Palette of(int... colors) {
+        if (colors.length == 0) {
+            throw new IllegalArgumentException("A palette needs at least one color");
+        }
+        Palette palette = new Palette();
+        for (int i = 0; i < SIZE; i++) {
+            int position = i * colors.length; // in 1/256ths of a color
+            int index = position >> 8;
+            int next = (index + 1) % colors.length;
+            palette.entries[i] = ColorMath.blend(colors[index], colors[next], position & 0xFF);
+        }
+        return palette;
+    }
+
+    private static Palette rainbow() {
+        Palette palette = new Palette();
+        for (int i = 0; i < SIZE; i++) {
+            palette.entries[i] = ColorMath.hsv8(i, 255, 255);
+        }
+        return palette;
+    }
+
+    private static Palette shared(Palette palette) {
+        palette.shared = true;
+        return palette;
+    }
+
+    /**
+     * Gets a working copy of this palette.
+     */
+    public Palette copy() {
+        Palette copy = new Palette();
+        System.arraycopy(entries, 0, copy.entries, 0, SIZE);
+        return copy;
+    }
+
+    /**
+     * Gets the color at an index; the index wraps.
+     */
+    public int color(int index) {
+        return entries[index & 0xFF];
+    }
+
+    /**
+     * Gets the color at an index, scaled by a brightness of 0-255.
+     */
+    public int color(int index, int brightness) {
+        return ColorMath.scale(entries[index & 0xFF], brightness);
+    }
+
+    /**
+     * Gets the color at a position, where 0-1 spans the palette once and the position
+     * wraps.
+     */
+    public int color(float position) {
+        return entries[(int) ((position - (float) Math.floor(position)) * SIZE) & 0xFF];
+    }
+
+    public void set(int index, int rgb) {
+        checkWritable();
+        entries[index & 0xFF] = rgb & 0xFFFFFF;
+    }
+
+    /**
+     * Sets every entry to the blend of two palettes: 0 gives {@code from}, 255 gives
+     * {@code to}. Either palette may be this one.
+     */
+    public void blend(Palette from, Palette to, int amount) {
+        checkWritable();
+        for (int i = 0; i < SIZE; i++) {
+            entries[i] = ColorMath.blend(from.entries[i], to.entries[i], amount);
+        }
+    }
+
+    /**
+     * Moves every channel of every entry at most {@code maxStep} levels towards the target,
+     * FastLED's nblendPaletteTowardsPalette. Called once a frame it fades smoothly to the
+     * new palette whatever the frame rate was when the change started.
+     *
+     * @return true once this palette equals the target
+     */
+    public boolean stepTowards(Palette target, int maxStep) {
+        checkWritable();
+        boolean done = true;
+        for (int i = 0; i < SIZE; i++) {
+            int current = entries[i];
+            int wanted = target.entries[i];
+            if (current != wanted) {
+                int r = step(ColorMath.red(current), ColorMath.red(wanted), maxStep);
+                int g = step(ColorMath.green(current), ColorMath.green(wanted), maxStep);
+                int b = step(ColorMath.blue(current), ColorMath.blue(wanted), maxStep);
+                entries[i] = ColorMath.rgb(r, g, b);
+                done &= entries[i] == wanted;
+            }
+        }
+        return done;
+    }
+
+    private static int step(int from, int to, int maxStep) {
+        if (from < to) {
+            return Math.min(to, from + maxStep);
+        }
+        return Math.max(to, from - maxStep);
+    }
+
+    private void checkWritable() {
+        if (shared) {
+            throw new UnsupportedOperationException("Built-in palettes are shared; change a copy()");
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.marsraver.LedFx;
+
+import com.marsraver.LedFx.metrics.FrameStage;
+import com.marsraver.LedFx.metrics.FrameTimer;
+import com.marsraver.LedFx.metrics.Histogram;
+import com.marsraver.LedFx.wled.DdpSendScheduler;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * On-screen performance overlay for the sketch window: render and send FPS, dropped
+ * frames, a sparkline of the mean time per frame stage, the send status of each
+ * device, and the current animation's frame count, running time and
+ * {@link LedAnimation#getStatus() status}.
+ * <p>
+ * The figures are refreshed a few times per second from the grid's {@link FrameTimer}
+ * and {@link DdpSendScheduler} counters. The overlay is rasterized into a cached image
+ * that is only redrawn when a refresh actually changes what it shows; every other frame
+ * just blits that image.
+ */
+public class PerformanceHud {
+
+    private static final long REFRESH_NANOS = 250_000_000L;
+    private static final int HISTORY = 60; // sparkline points, 15 s at the refresh rate
+    private static final int MAX_DEVICE_ROWS = 12;
+
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final int LINE_HEIGHT = 14;
+    private static final int PADDING = 6;
+    private static final int WIDTH = 330;
+    private static final int LABEL_WIDTH = 110;
+    private static final int SPARK_WIDTH = WIDTH - LABEL_WIDTH - 2 * PADDING;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Color[] STAGE_COLORS = {
+            new Color(0x4FC3F7), new Color(0xAED581), new Color(0xFFD54F), new Color(0xF06292)
+    };
+    private static final Color OK = new Color(0x66BB6A);
+    private static final Color WARN = new Color(0xFFA726);
+    private static final Color ERROR = new Color(0xEF5350);
+
+    private final LedGrid ledGrid;
+    private boolean visible;
+
+    // The animation being shown, and the clock and frame counter when it started
+    private LedAnimation animation;
+    private long animationStartNanos;
+    private long animationStartFrames;
+
+    // Counter values at the previous refresh
+    private long lastRefreshNanos;
+    private long lastFramesSubmitted;
+    private long lastFramesSent;
+    private long lastFramesDropped;
+    private final long[] lastStageCount = new long[FrameStage.values().length];
+    private final long[] lastStageSum = new long[FrameStage.values().length];
+    private final long[] lastDeviceSent;
+    private final long[] lastDeviceErrors;
+
+    // What the overlay shows, and what the cached layer was last rasterized from
+    private final float[][] stageHistory = new float[FrameStage.values().length][HISTORY]; // ms, oldest first
+    private final float[][] rasterizedHistory = new float[FrameStage.values().length][HISTORY];
+    private String[] lines = new String[0];
+    private Color[] lineColors = new Color[0];
+    private String[] rasterizedLines;
+    private BufferedImage layer;
+
+    public PerformanceHud(LedGrid ledGrid) {
+        this.ledGrid = ledGrid;
+        this.lastDeviceSent = new long[ledGrid.getDeviceCount()];
+        this.lastDeviceErrors = new long[ledGrid.getDeviceCount()];
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void setVisible(boolean visible) {
+        if (visible && !this.visible) {
+            lastRefreshNanos = 0; // refresh on the next draw rather than showing stale figures
+        }
+        this.visible = visible;
+    }
+
+    public void toggle() {
+        setVisible(!visible);
+    }
+
+    /**
+     * Starts counting frames and time for a newly started animation, or stops showing
+     * one when null.
+     */
+    public void setAnimation(LedAnimation animation) {
+        this.animation = animation;
+        this.animationStartNanos = System.nanoTime();
+        this.animationStartFrames = ledGrid.getSendScheduler().getFramesSubmitted();
+        lastRefreshNanos = 0;
+    }
+
+    /**
+     * Gets the width of the overlay in pixels.
+     */
+    public int getWidth() {
+        return WIDTH;
+    }
+
+    /**
+     * Draws the overlay with its top-left corner at the given position. Does nothing while hidden.
+     */
+    public void draw(Graphics2D g, int x, int y) {
+        if (!visible) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (lastRefreshNanos == 0 || now - lastRefreshNanos >= REFRESH_NANOS) {
+            refresh(now);
+        }
+        if (layer == null || !Arrays.equals(lines, rasterizedLines) || !historyRasterized()) {
+            rasterize();
+        }
+        g.drawImage(layer, x, y, null);
+    }
+
+    private void refresh(long now) {
+        DdpSendScheduler scheduler = ledGrid.getSendScheduler();
+        FrameTimer timer = ledGrid.getFrameTimer();
+        boolean first = lastRefreshNanos == 0;
+        double seconds = first ? 0 : (now - lastRefreshNanos) / 1e9;
+        lastRefreshNanos = now;
+
+        long submitted = scheduler.getFramesSubmitted();
+        long sent = scheduler.getFramesSent();
+        long dropped = scheduler.getFramesDropped();
+        double renderFps = rate(submitted, lastFramesSubmitted, seconds);
+        double sendFps = rate(sent, lastFramesSent, seconds);
+        double droppedPerSecond = rate(dropped, lastFramesDropped, seconds);
+        lastFramesSubmitted = submitted;
+        lastFramesSent = sent;
+        lastFramesDropped = dropped;
+
+        int devices = ledGrid.getDeviceCount();
+        int deviceRows = Math.min(devices, MAX_DEVICE_ROWS);
+        String animationStatus = animation != null ? animation.getStatus() : null;
+        int animationRows = animation == null ? 0 : animationStatus == null ? 1 : 2;
+        String[] newLines = new String[3 + FrameStage.values().length + deviceRows + (devices > deviceRows ? 1 : 0) + animationRows];
+        Color[] newColors = new Color[newLines.length];
+        int line = 0;
+        newColors[line] = Color.WHITE;
+        newLines[line++] = String.format("render %5.1f fps   send %5.1f fps", renderFps, sendFps);
+        newColors[line] = droppedPerSecond > 0 ? WARN : Color.WHITE;
+        newLines[line++] = String.format("dropped %d (%.1f/s)   e2e p99 %.1f ms", dropped, droppedPerSecond,
+                timer.getFrameLatency().getPercentile(99) / 1e6);
+
+        for (FrameStage stage : FrameStage.values()) {
+            int s = stage.ordinal();
+            Histogram histogram = timer.getStage(stage);
+            long count = histogram.getCount();
+            long sum = histogram.getSum();
+            long frames = count - lastStageCount[s];
+            float meanMillis = frames > 0 ? (float) ((sum - lastStageSum[s]) / 1e6 / frames) : 0f;
+            lastStageCount[s] = count;
+            lastStageSum[s] = sum;
+            if (!first) {
+                System.arraycopy(stageHistory[s], 1, stageHistory[s], 0, HISTORY - 1);
+                stageHistory[s][HISTORY - 1] = meanMillis;
+            }
+            newColors[line] = STAGE_COLORS[s % STAGE_COLORS.length];
+            newLines[line++] = String.format("%-7s%6.2f ms", stage.getId(), meanMillis);
+        }
+
+        newColors[line] = Color.LIGHT_GRAY;
+        newLines[line++] = "devices";
+        int failing = 0;
+        for (int d = 0; d < devices; d++) {
+            long deviceSent = scheduler.getDeviceFramesSent(d);
+            long deviceErrors = scheduler.getDeviceSendErrors(d);
+            double deviceFps = rate(deviceSent, lastDeviceSent[d], seconds);
+            long newErrors = deviceErrors - lastDeviceErrors[d];
+            lastDeviceSent[d] = deviceSent;
+            lastDeviceErrors[d] = deviceErrors;
+            Color status = newErrors > 0 ? ERROR : (deviceFps <= 0 && !first ? WARN : OK);
+            if (status != OK) {
+                failing++;
+            }
+            if (d < deviceRows) {
+                newColors[line] = status;
+                newLines[line++] = String.format("%-14.14s %5.1f fps  err %d", timer.getDeviceName(d), deviceFps, deviceErrors);
+            }
+        }
+        if (devices > deviceRows) {
+            newColors[line] = failing > 0 ? WARN : Color.LIGHT_GRAY;
+            newLines[line++] = String.format("+%d more, %d not sending cleanly", devices - deviceRows, failing);
+        }
+        if (animation != null) {
+            newColors[line] = Color.LIGHT_GRAY;
+            newLines[line++] = String.format("%-14.14s frame %d  %.1f s", animation.getName(),
+                    submitted - animationStartFrames, (now - animationStartNanos) / 1e9);
+            if (animationStatus != null) {
+                newColors[line] = Color.LIGHT_GRAY;
+                newLines[line++] = animationStatus;
+            }
+        }
+        lines = newLines;
+        lineColors = newColors;
+    }
+
+    private boolean historyRasterized() {
+        for (int s = 0; s < stageHistory.length; s++) {
+            if (!Arrays.equals(stageHistory[s], rasterizedHistory[s])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rasterize() {
+        int stages = FrameStage.values().length;
+        int height = 2 * PADDING + lines.length * LINE_HEIGHT;
+        if (layer == null || layer.getHeight() != height) {
+            layer = new BufferedImage(WIDTH, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        Graphics2D g = layer.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, WIDTH, height);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(FONT);
+            int ascent = g.getFontMetrics().getAscent();
+            for (int i = 0; i < lines.length; i++) {
+                g.setColor(lineColors[i]);
+                g.drawString(lines[i], PADDING, PADDING + i * LINE_HEIGHT + ascent);
+            }
+
+            // One sparkline per stage, beside its label, all on the same scale
+            float scale = 0;
+            for (float[] history : stageHistory) {
+                for (float value : history) {
+                    scale = Math.max(scale, value);
+                }
+            }
+            for (int s = 0; s < stages; s++) {
+                int top = PADDING + (2 + s) * LINE_HEIGHT + 2;
+                int bottom = top + LINE_HEIGHT - 4;
+                g.setColor(STAGE_COLORS[s % STAGE_COLORS.length]);
+                int previousY = bottom;
+                for (int i = 0; i < HISTORY; i++) {
+                    int x = PADDING + LABEL_WIDTH + i * SPARK_WIDTH / HISTORY;
+                    int y = scale > 0 ? bottom - Math.round(stageHistory[s][i] / scale * (bottom - top)) : bottom;
+                    if (i > 0) {
+                        g.drawLine(x - SPARK_WIDTH / HISTORY, previousY, x, y);
+                    }
+                    previousY = y;
+                }
+                System.arraycopy(stageHistory[s], 0, rasterizedHistory[s], 0, HISTORY);
+            }
+        } finally {
+            g.dispose();
+        }
+        rasterizedLines = lines;
+    }
+
+    private static double rate(long current, long previous, double seconds) {
+        return seconds > 0 ? (current - previous) / seconds : 0;
+    }
+}
@@ -0,0 +1,154 @@
+package com.marsraver.LedFx;
+
+import com.marsraver.LedFx.layout.GridConfig;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * A Processing-style {@code pixels[]} frame: an image whose packed RGB pixels (see
+ * {@link ColorMath}) animations write directly as a plain {@code int[]}, then
+ * {@link #commit()}. Committing draws the image stretched over the window and sets every
+ * LED to the pixel under its center, so per-pixel effects are tight array loops with no
+ * Java2D or color-model calls in them.
+ * <p>
+ * An animation or sketch creates its buffer in {@code init} and returns it from
+ * {@code getPixelBuffer()}. The runner then hands the buffer each frame's graphics before
+ * drawing, and commits it after drawing if the animation did not. An animation that draws
+ * overlays on top of its pixels commits them itself first.
+ * <p>
+ * The pixel under each LED is worked out once when the buffer is created, so mapping the
+ * frame to the LEDs is a single gather.
+ */
+public class PixelBuffer {
+
+    private final int width, height;
+    private final int coverWidth, coverHeight; // window area the pixels are stretched over
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final LedGrid ledGrid;
+    private final int[] ledPixel; // pixel index of every LED, grid by grid, row-major
+
+    private Graphics2D graphics; // the current frame's window graphics, null outside a frame
+    private boolean committed;
+
+    /**
+     * Creates a black buffer of the given resolution, stretched over the window area from
+     * (0, 0) to ({@code coverWidth}, {@code coverHeight}).
+     */
+    public PixelBuffer(int width, int height, int coverWidth, int coverHeight, LedGrid ledGrid) {
+        if (width <= 0 || height <= 0 || coverWidth <= 0 || coverHeight <= 0) {
+            throw new IllegalArgumentException("Pixel buffer sizes must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.coverWidth = coverWidth;
+        this.coverHeight = coverHeight;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.ledGrid = ledGrid;
+
+        int leds = 0;
+        for (int i = 0; i < ledGrid.getGridCount(); i++) {
+            int gridSize = ledGrid.getGridConfig(i).getGridSize();
+            leds += gridSize * gridSize;
+        }
+        this.ledPixel = new int[leds];
+        int led = 0;
+        for (int i = 0; i < ledGrid.getGridCount(); i++) {
+            GridConfig grid = ledGrid.getGridConfig(i);
+            int pixelSize = grid.getPixelSize();
+            for (int y = 0; y < grid.getGridSize(); y++) {
+                for (int x = 0; x < grid.getGridSize(); x++) {
+                    long windowX = grid.getX() + x * pixelSize + pixelSize / 2;
+                    long windowY = grid.getY() + y * pixelSize + pixelSize / 2;
+                    int pixelX = (int) Math.max(0, Math.min(width - 1, windowX * width / coverWidth));
+                    int pixelY = (int) Math.max(0, Math.min(height - 1, windowY * height / coverHeight));
+                    ledPixel[led++] = pixelY * width + pixelX;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a buffer with one pixel per window pixel.
+     */
+    public static PixelBuffer atWindowResolution(int windowWidth, int windowHeight, LedGrid ledGrid) {
+        return new PixelBuffer(windowWidth, windowHeight, windowWidth, windowHeight, ledGrid);
+    }
+
+    /**
+     * Creates a buffer with one pixel per LED pitch across the window, so that every LED
+     * has a pixel of its own when the grids sit on the pitch.
+     */
+    public static PixelBuffer atLedResolution(int windowWidth, int windowHeight, LedGrid ledGrid) {
+        int pitch = Math.max(1, ledGrid.getPixelSize());
+        int columns = (windowWidth + pitch - 1) / pitch;
+        int rows = (windowHeight + pitch - 1) / pitch;
+        return new PixelBuffer(columns, rows, columns * pitch, rows * pitch, ledGrid);
+    }
+
+    /**
+     * The pixels, packed RGB, row-major, {@link #getWidth()} by {@link #getHeight()}. This is
+     * the image's own array: writes show at the next {@link #commit()}.
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Shows the pixels: draws them over the window, if a frame is being drawn, and sets the
+     * LEDs from them. Committing again in the same frame draws and maps the pixels again.
+     */
+    public void commit() {
+        if (graphics != null) {
+            graphics.drawImage(image, 0, 0, coverWidth, coverHeight, null);
+        }
+        writeToLeds();
+        committed = true;
+    }
+
+    /**
+     * Sets every LED to the pixel under its center.
+     */
+    private void writeToLeds() {
+        int led = 0;
+        for (int i = 0; i < ledGrid.getGridCount(); i++) {
+            int gridSize = ledGrid.getGridConfig(i).getGridSize();
+            for (int y = 0; y < gridSize; y++) {
+                for (int x = 0; x < gridSize; x++) {
+                    ledGrid.setLedRgb(i, x, y, pixels[ledPixel[led++]]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a frame drawn onto the given window graphics. Called by the runner before the
+     * animation draws.
+     */
+    public void beginFrame(Graphics2D g) {
+        this.graphics = g;
+        this.committed = false;
+    }
+
+    /**
+     * Ends the frame, committing the pixels if the animation did not. Called by the runner
+     * after the animation draws.
+     */
+    public void endFrame() {
+        if (!committed) {
+            commit();
+        }
+        graphics = null;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,62 @@
+package com.marsraver.LedFx;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A radial falloff for splatting a point of light onto the LEDs around it, see
+ * {@link LedFrameBuffer#splat(float, float, int, SplatKernel)}.
+ * <p>
+ * The falloff is tabulated once, by squared distance in window pixels, so splatting costs
+ * a table lookup per LED touched and no square roots.
+ */
+public final class SplatKernel {
+
+    private static final int STEPS_PER_PIXEL_SQUARED = 4;
+
+    private final float radius;
+    private final float radiusSquared;
+    private final int[] weights; // 0-255, by squared distance * STEPS_PER_PIXEL_SQUARED
+
+    private SplatKernel(float radius, DoubleUnaryOperator falloff) {
+        if (!(radius > 0)) {
+            throw new IllegalArgumentException("Kernel radius must be positive");
+        }
+        this.radius = radius;
+        this.radiusSquared = radius * radius;
+        this.weights = new int[(int) Math.ceil(radiusSquared * STEPS_PER_PIXEL_SQUARED) + 1];
+        for (int i = 0; i < weights.length; i++) {
+            double distance = Math.sqrt((double) i / STEPS_PER_PIXEL_SQUARED);
+            weights[i] = ColorMath.unit8((float) falloff.applyAsDouble(distance));
+        }
+    }
+
+    /**
+     * Creates a kernel from a falloff function of the distance in window pixels, which
+     * should give 0-1 within the radius; beyond the radius the weight is zero.
+     */
+    public static SplatKernel of(float radius, DoubleUnaryOperator falloff) {
+        return new SplatKernel(radius, falloff);
+    }
+
+    /**
+     * A kernel weighting {@code 1 / (distance + 1)} out to the radius: full weight at the
+     * center, half a pixel out already two thirds.
+     */
+    public static SplatKernel inverseDistance(float radius) {
+        return new SplatKernel(radius, distance -> 1.0 / (distance + 1.0));
+    }
+
+    /**
+     * Gets the weight, 0-255, at a squared distance in window pixels.
+     */
+    public int weight(float distanceSquared) {
+        if (distanceSquared >= radiusSquared) {
+            return 0;
+        }
+        return weights[(int) (distanceSquared * STEPS_PER_PIXEL_SQUARED)];
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+}
@@ -1,13 +1,16 @@
 package com.marsraver.LedFx.animations;
 
+import com.marsraver.LedFx.ColorMath;
+import com.marsraver.LedFx.LedFrameBuffer;
 import com.marsraver.LedFx.LedGrid;
 import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.Palette;
+import com.marsraver.LedFx.SplatKernel;
+import com.marsraver.LedFx.particles.ParticleSystem;
 import lombok.extern.log4j.Log4j2;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -18,6 +21,25 @@ import java.util.Random;
 @Log4j2
 public class BlackHoleAnimation implements LedAnimation {
     
+    private static final Font INFO_FONT = new Font("Arial", Font.PLAIN, 12);
+    private static final BasicStroke RING_STROKE = new BasicStroke(2.0f);
+    private static final int RING_COUNT = 3;
+    // Steps the window colors are quantized to, so each is a cached Color
+    private static final int DISTANCE_STEPS = 64;
+    private static final int VALUE_STEPS = 32;
+    private static final int RING_HUE_STEPS = 128;
+    
+    // Color by distance: red/orange (cooler) at the event horizon -> blue/white (hot) at the
+    // outer edge, hue 0 -> 240 with saturation 0.7 -> 1, at full value
+    private static final Palette DISTANCE_PALETTE = new Palette();
+    
+    static {
+        for (int i = 0; i < Palette.SIZE; i++) {
+            float normalizedDist = i / 255.0f;
+            DISTANCE_PALETTE.set(i, ColorMath.hsv(240.0f * normalizedDist / 360.0f, 0.7f + 0.3f * normalizedDist, 1.0f));
+        }
+    }
+    
     private LedGrid ledGrid;
     private long lastTime;
     private float time = 0;
@@ -28,77 +50,97 @@ public class BlackHoleAnimation implements LedAnimation {
     private float eventHorizonRadius = 30.0f;
     private float outerRadius = 200.0f;
     
-    // Particle system for accretion disk
-    private List<Particle> particles;
+    // Particle system for accretion disk: positions and colors in the engine, the orbit
+    // of each particle in parallel arrays indexed by its slot
     private static final int PARTICLE_COUNT = 150;
+    private final ParticleSystem particles = new ParticleSystem(PARTICLE_COUNT);
+    private final float[] angle = new float[PARTICLE_COUNT];      // Angular position (0-2π)
+    private final float[] radius = new float[PARTICLE_COUNT];     // Distance from center
+    private final float[] angularVel = new float[PARTICLE_COUNT]; // Angular velocity
+    private final float[] radialVel = new float[PARTICLE_COUNT];  // Radial velocity (inward)
+    private final float[] brightness = new float[PARTICLE_COUNT];
+    private final int[] shade = new int[PARTICLE_COUNT];          // index into the particle shades
     
-    private class Particle {
-        float x, y;           // Position relative to center
-        float angle;          // Angular position (0-2π)
-        float radius;         // Distance from center
-        float angularVel;     // Angular velocity
-        float radialVel;      // Radial velocity (inward)
-        Color color;
-        float brightness;
-        
-        Particle(float angle, float radius) {
-            this.angle = angle;
-            this.radius = radius;
-            this.angularVel = (0.5f + random.nextFloat() * 2.0f) / (radius + 30); // Faster closer to center
-            this.radialVel = -0.3f - random.nextFloat() * 0.5f; // Inward motion
-            this.brightness = 0.3f + random.nextFloat() * 0.7f;
-            updateColor();
-        }
-        
-        void update() {
+    // Window colors by quantized distance and value, and ring colors by quantized hue,
+    // each created the first time it is drawn
+    private final Color[] coreShades = new Color[DISTANCE_STEPS * VALUE_STEPS];
+    private final Color[] glowShades = new Color[DISTANCE_STEPS * VALUE_STEPS];
+    private final Color[][] ringShades = new Color[RING_COUNT][RING_HUE_STEPS];
+    
+    private final int[] ringColors = new int[RING_COUNT]; // full-value ring colors this frame
+    private final Ellipse2D.Double ellipse = new Ellipse2D.Double();
+    
+    // Particle glow on the LEDs: 1 / (distance + 1) out to 24 px, 3x the particle size
+    private static final SplatKernel PARTICLE_KERNEL = SplatKernel.inverseDistance(24f);
+    private LedFrameBuffer ledFrame;
+    
+    /**
+     * Puts a particle on a new orbit at the given angle and radius.
+     */
+    private void launchParticle(int slot, float startAngle, float startRadius) {
+        angle[slot] = startAngle;
+        radius[slot] = startRadius;
+        angularVel[slot] = (0.5f + random.nextFloat() * 2.0f) / (startRadius + 30); // Faster closer to center
+        radialVel[slot] = -0.3f - random.nextFloat() * 0.5f; // Inward motion
+        brightness[slot] = 0.3f + random.nextFloat() * 0.7f;
+        placeParticle(slot);
+    }
+    
+    /**
+     * Moves every particle one step along its inward spiral.
+     */
+    private void updateParticles() {
+        for (int i = 0; i < particles.size(); i++) {
+            int slot = particles.slot(i);
+            
             // Angular motion - faster near the black hole
-            angle += angularVel;
-            if (angle > 2 * Math.PI) angle -= 2 * Math.PI;
+            angle[slot] += angularVel[slot];
+            if (angle[slot] > 2 * Math.PI) angle[slot] -= 2 * Math.PI;
             
             // Radial motion - spiral inward
-            radius += radialVel;
+            radius[slot] += radialVel[slot];
             
             // Increase speed as we get closer to event horizon
-            if (radius > eventHorizonRadius) {
-                radialVel *= 1.01f; // Accelerate inward
-                angularVel *= 1.005f; // Spin faster
+            if (radius[slot] > eventHorizonRadius) {
+                radialVel[slot] *= 1.01f; // Accelerate inward
+                angularVel[slot] *= 1.005f; // Spin faster
             }
             
-            // Calculate position
-            x = (float) (Math.cos(angle) * radius);
-            y = (float) (Math.sin(angle) * radius);
-            
-            // Update color based on distance (redshift effect)
-            updateColor();
-            
             // Reset particle if it crosses event horizon
-            if (radius < eventHorizonRadius) {
-                resetParticle();
+            if (radius[slot] < eventHorizonRadius) {
+                launchParticle(slot, random.nextFloat() * 2 * (float) Math.PI, outerRadius - random.nextFloat() * 50);
+            } else {
+                placeParticle(slot);
             }
         }
+    }
+    
+    /**
+     * Sets a particle's window position and its color from its orbit.
+     */
+    private void placeParticle(int slot) {
+        particles.getX()[slot] = centerX + (float) Math.cos(angle[slot]) * radius[slot];
+        particles.getY()[slot] = centerY + (float) Math.sin(angle[slot]) * radius[slot];
         
-        void updateColor() {
-            // Color gradient: blue/white (hot) far away -> red/orange (cooler) near event horizon
-            float normalizedDist = (radius - eventHorizonRadius) / (outerRadius - eventHorizonRadius);
-            normalizedDist = Math.max(0, Math.min(1, normalizedDist));
-            
-            // HSV: Hue shifts from blue (240) to red (0) as we approach
-            float hue = 240.0f * normalizedDist / 360.0f;
-            float saturation = 0.7f + 0.3f * normalizedDist;
-            float value = brightness * (0.6f + 0.4f * normalizedDist);
-            
-            // Convert to RGB
-            color = Color.getHSBColor(hue, saturation, value);
-        }
+        // Color gradient: blue/white (hot) far away -> red/orange (cooler) near event horizon
+        float normalizedDist = (radius[slot] - eventHorizonRadius) / (outerRadius - eventHorizonRadius);
+        normalizedDist = Math.max(0, Math.min(1, normalizedDist));
         
-        void resetParticle() {
-            angle = random.nextFloat() * 2 * (float) Math.PI;
-            radius = outerRadius - random.nextFloat() * 50;
-            angularVel = (0.5f + random.nextFloat() * 2.0f) / (radius + 30);
-            radialVel = -0.3f - random.nextFloat() * 0.5f;
-            brightness = 0.3f + random.nextFloat() * 0.7f;
-            updateColor();
-        }
+        // Hue shifts from blue (240) to red (0) as we approach, and the particle dims
+        float value = brightness[slot] * (0.6f + 0.4f * normalizedDist);
+        particles.getColor()[slot] = DISTANCE_PALETTE.color((int) (normalizedDist * 255), ColorMath.unit8(value));
+        shade[slot] = Math.round(normalizedDist * (DISTANCE_STEPS - 1)) * VALUE_STEPS + Math.round(value * (VALUE_STEPS - 1));
+    }
+    
+    /**
+     * Creates the window colors of a particle shade.
+     */
+    private void createShade(int shadeIndex) {
+        int distanceStep = shadeIndex / VALUE_STEPS;
+        int valueStep = shadeIndex % VALUE_STEPS;
+        int color = DISTANCE_PALETTE.color(distanceStep * 255 / (DISTANCE_STEPS - 1), valueStep * 255 / (VALUE_STEPS - 1));
+        coreShades[shadeIndex] = new Color(color);
+        glowShades[shadeIndex] = new Color(color | 50 << 24, true);
     }
     
     @Override
@@ -107,14 +149,16 @@ public class BlackHoleAnimation implements LedAnimation {
         this.centerX = width / 2;
         this.centerY = height / 2;
         this.lastTime = System.currentTimeMillis();
+        this.ledFrame = new LedFrameBuffer(ledGrid);
         this.random = new Random();
-        this.particles = new ArrayList<>();
         
         // Initialize particles
+        particles.clear();
         for (int i = 0; i < PARTICLE_COUNT; i++) {
-            float angle = random.nextFloat() * 2 * (float) Math.PI;
-            float radius = eventHorizonRadius + random.nextFloat() * (outerRadius - eventHorizonRadius);
-            particles.add(new Particle(angle, radius));
+            int slot = particles.spawn(0, 0, 0, 0, ColorMath.BLACK, ParticleSystem.IMMORTAL);
+            float startAngle = random.nextFloat() * 2 * (float) Math.PI;
+            float startRadius = eventHorizonRadius + random.nextFloat() * (outerRadius - eventHorizonRadius);
+            launchParticle(slot, startAngle, startRadius);
         }
         
         log.debug("Black Hole Animation initialized");
@@ -137,45 +181,60 @@ public class BlackHoleAnimation implements LedAnimation {
         lastTime = currentTime;
         time += deltaTime;
         
+        // Rotating ring colors, shared by the window and the LEDs
+        for (int ring = 0; ring < RING_COUNT; ring++) {
+            float hue = (time * 30.0f + ring * 60.0f) % 360.0f / 360.0f;
+            ringColors[ring] = ColorMath.hsv(hue, 0.8f, 1.0f);
+        }
+        
         // Update and draw particles
-        for (Particle p : particles) {
-            p.update();
+        updateParticles();
+        float[] particleX = particles.getX();
+        float[] particleY = particles.getY();
+        for (int i = 0; i < particles.size(); i++) {
+            int slot = particles.slot(i);
+            if (coreShades[shade[slot]] == null) {
+                createShade(shade[slot]);
+            }
             
             // Draw particle with glow effect
-            int screenX = centerX + (int) p.x;
-            int screenY = centerY + (int) p.y;
+            int screenX = (int) particleX[slot];
+            int screenY = (int) particleY[slot];
             
             // Calculate size based on distance (gravitational lensing)
-            float lensingFactor = 1.0f + (1.0f / (p.radius / eventHorizonRadius + 0.1f)) * 0.1f;
+            float lensingFactor = 1.0f + (1.0f / (radius[slot] / eventHorizonRadius + 0.1f)) * 0.1f;
             int size = (int) (9 * lensingFactor); // 3x bigger particles
             
             // Draw glow
-            g.setColor(new Color(p.color.getRed(), p.color.getGreen(), p.color.getBlue(), 50));
-            g.fill(new Ellipse2D.Double(screenX - size, screenY - size, size * 2, size * 2));
+            g.setColor(glowShades[shade[slot]]);
+            ellipse.setFrame(screenX - size, screenY - size, size * 2, size * 2);
+            g.fill(ellipse);
             
             // Draw core
-            g.setColor(p.color);
-            g.fill(new Ellipse2D.Double(screenX - size/2, screenY - size/2, size, size));
+            g.setColor(coreShades[shade[slot]]);
+            ellipse.setFrame(screenX - size/2, screenY - size/2, size, size);
+            g.fill(ellipse);
         }
         
         // Draw event horizon (black hole core)
         g.setColor(Color.BLACK);
-        g.fill(new Ellipse2D.Double(
+        ellipse.setFrame(
             centerX - eventHorizonRadius, 
             centerY - eventHorizonRadius, 
             eventHorizonRadius * 2, 
             eventHorizonRadius * 2
-        ));
+        );
+        g.fill(ellipse);
         
         // Draw accretion disk rings
         drawAccretionRings(g);
         
         // Map to LEDs
-        mapToLeds(g);
+        mapToLeds();
         
         // Draw info text
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 12));
+        g.setFont(INFO_FONT);
         g.drawString("Black Hole - Press ESC to exit", 10, 20);
     }
     
@@ -184,13 +243,19 @@ public class BlackHoleAnimation implements LedAnimation {
      */
     private void drawAccretionRings(Graphics2D g) {
         // Draw multiple rings at different radii
-        for (int ring = 0; ring < 3; ring++) {
+        g.setStroke(RING_STROKE);
+        for (int ring = 0; ring < RING_COUNT; ring++) {
             float ringRadius = eventHorizonRadius + 20 + ring * 25;
             float intensity = 0.2f / (ring + 1);
             
             // Rotating ring color
             float hue = (time * 30.0f + ring * 60.0f) % 360.0f / 360.0f;
-            Color ringColor = Color.getHSBColor(hue, 0.8f, intensity);
+            int hueStep = (int) (hue * RING_HUE_STEPS) % RING_HUE_STEPS;
+            if (ringShades[ring][hueStep] == null) {
+                int ringColor = ColorMath.scale(ColorMath.hsv(hueStep / (float) RING_HUE_STEPS, 0.8f, 1.0f), ColorMath.unit8(intensity));
+                ringShades[ring][hueStep] = new Color(ringColor | 100 << 24, true);
+            }
+            g.setColor(ringShades[ring][hueStep]);
             
             // Draw ring segments
             for (int i = 0; i < 12; i++) {
@@ -200,118 +265,91 @@ public class BlackHoleAnimation implements LedAnimation {
                 float x2 = centerX + (float) Math.cos(angle) * (ringRadius + 2);
                 float y2 = centerY + (float) Math.sin(angle) * (ringRadius + 2);
                 
-                g.setColor(new Color(ringColor.getRed(), ringColor.getGreen(), ringColor.getBlue(), 100));
-                g.setStroke(new BasicStroke(2.0f));
                 g.drawLine((int) x1, (int) y1, (int) x2, (int) y2);
             }
         }
     }
     
     /**
-     * Maps the black hole effect to LEDs by sampling colors at LED positions.
+     * Maps the black hole effect to LEDs in two passes: each particle scatters its glow
+     * into an LED-resolution frame, then every LED adds the rings and the event horizon,
+     * which depend only on its distance from the center. The cost is particles plus LEDs
+     * rather than particles times LEDs.
      */
-    private void mapToLeds(Graphics2D g) {
-        int gridSize = ledGrid.getGridSize();
-        int pixelSize = ledGrid.getPixelSize();
-        int gridCount = ledGrid.getGridCount();
-        
-        // Clear all grids
-        for (int i = 0; i < gridCount; i++) {
-            ledGrid.clearGrid(i);
+    private void mapToLeds() {
+        // Scatter the particles
+        ledFrame.clear();
+        float[] particleX = particles.getX();
+        float[] particleY = particles.getY();
+        int[] particleColor = particles.getColor();
+        for (int i = 0; i < particles.size(); i++) {
+            int slot = particles.slot(i);
+            int color = ColorMath.scale(particleColor[slot], ColorMath.unit8(brightness[slot]));
+            ledFrame.splat(particleX[slot], particleY[slot], color, PARTICLE_KERNEL);
         }
         
-        // Sample colors at each LED position
-        for (int gridIndex = 0; gridIndex < gridCount; gridIndex++) {
+        // Shade each LED
+        for (int gridIndex = 0; gridIndex < ledGrid.getGridCount(); gridIndex++) {
             var gridConfig = ledGrid.getGridConfig(gridIndex);
+            int gridSize = gridConfig.getGridSize();
+            int pixelSize = gridConfig.getPixelSize();
             
             for (int y = 0; y < gridSize; y++) {
                 for (int x = 0; x < gridSize; x++) {
-                    // Calculate window coordinates for this LED
-                    int windowX = gridConfig.getX() + x * pixelSize + pixelSize / 2;
-                    int windowY = gridConfig.getY() + y * pixelSize + pixelSize / 2;
-                    
-                    // Sample color at this position by checking distance from particles and center
-                    Color ledColor = sampleColorAt(windowX, windowY);
+                    // Calculate window coordinates for the center of this LED
+                    float windowX = gridConfig.getX() + x * pixelSize + pixelSize / 2f;
+                    float windowY = gridConfig.getY() + y * pixelSize + pixelSize / 2f;
                     
-                    if (ledColor != null) {
-                        // Standard logical coordinates: x = left->right, y = top->bottom
-                        ledGrid.setLedColor(gridIndex, x, y, ledColor);
-                    }
+                    // Standard logical coordinates: x = left->right, y = top->bottom
+                    ledGrid.setLedRgb(gridIndex, x, y, shadeLed(ledFrame.get(gridIndex, x, y), windowX, windowY));
                 }
             }
         }
-        
-        // Send to devices
-        ledGrid.sendToDevices();
     }
     
     /**
-     * Samples the color at a specific window coordinate.
+     * Gets the final color of the LED at a window coordinate from the particle light
+     * scattered onto it.
+     * 
+     * @return The packed color, black where there is no visible light
      */
-    private Color sampleColorAt(int x, int y) {
+    private int shadeLed(int particleLight, float x, float y) {
         float dx = x - centerX;
         float dy = y - centerY;
         float dist = (float) Math.sqrt(dx * dx + dy * dy);
         
         // Check if inside event horizon (black)
         if (dist < eventHorizonRadius) {
-            return null; // Black - don't set LED
-        }
-        
-        int finalR = 0;
-        int finalG = 0;
-        int finalB = 0;
-        
-        // Check particles
-        for (Particle p : particles) {
-            float particleX = centerX + p.x;
-            float particleY = centerY + p.y;
-            float pdx = x - particleX;
-            float pdy = y - particleY;
-            float pdist = (float) Math.sqrt(pdx * pdx + pdy * pdy);
-            
-            if (pdist < 24) { // Particle influence radius (3x bigger to match particle size)
-                float weight = 1.0f / (pdist + 1.0f) * p.brightness;
-                finalR += (int) (p.color.getRed() * weight);
-                finalG += (int) (p.color.getGreen() * weight);
-                finalB += (int) (p.color.getBlue() * weight);
-            }
+            return ColorMath.BLACK;
         }
         
-        Color finalColor = new Color(
-            Math.min(255, finalR),
-            Math.min(255, finalG),
-            Math.min(255, finalB)
-        );
+        int finalR = ColorMath.red(particleLight);
+        int finalG = ColorMath.green(particleLight);
+        int finalB = ColorMath.blue(particleLight);
         
         // Check accretion rings
-        for (int ring = 0; ring < 3; ring++) {
+        for (int ring = 0; ring < RING_COUNT; ring++) {
             float ringRadius = eventHorizonRadius + 20 + ring * 25;
             float ringDist = Math.abs(dist - ringRadius);
             
             if (ringDist < 5) {
                 float intensity = (1.0f - ringDist / 5.0f) * 0.3f / (ring + 1);
-                float hue = (time * 30.0f + ring * 60.0f) % 360.0f / 360.0f;
-                Color ringColor = Color.getHSBColor(hue, 0.8f, intensity);
-                
-                finalR += (int) (ringColor.getRed() * intensity);
-                finalG += (int) (ringColor.getGreen() * intensity);
-                finalB += (int) (ringColor.getBlue() * intensity);
-                
-                finalColor = new Color(
-                    Math.min(255, finalR),
-                    Math.min(255, finalG),
-                    Math.min(255, finalB)
-                );
+                // The ring color at this intensity, weighted by the intensity again
+                float weight = intensity * intensity;
+                int ringColor = ringColors[ring];
+                finalR += (int) (ColorMath.red(ringColor) * weight);
+                finalG += (int) (ColorMath.green(ringColor) * weight);
+                finalB += (int) (ColorMath.blue(ringColor) * weight);
             }
         }
         
         // Return color only if there's visible light
-        if (finalColor.getRed() > 5 || finalColor.getGreen() > 5 || finalColor.getBlue() > 5) {
+        int finalColor = ColorMath.rgbClamped(finalR, finalG, finalB);
+        if (ColorMath.red(finalColor) > 5 || ColorMath.green(finalColor) > 5 || ColorMath.blue(finalColor) > 5) {
             return finalColor;
         }
         
-        return null;
+        return ColorMath.BLACK;
     }
     
     @Override
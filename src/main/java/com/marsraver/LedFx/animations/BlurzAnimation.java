@@ -1,32 +1,47 @@
 package com.marsraver.LedFx.animations;
 
+import com.marsraver.LedFx.Blur;
+import com.marsraver.LedFx.ColorMath;
 import com.marsraver.LedFx.LedGrid;
 import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.simd.PixelKernels;
 import lombok.extern.log4j.Log4j2;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.awt.image.ConvolveOp;
-import java.awt.image.Kernel;
+import java.awt.image.DataBufferInt;
 import java.util.Random;
 
 /**
  * Blurz animation based on WLED's Blurz effect.
  * Creates a blurry, color-mixed effect with organic movement.
  * Features color mixing and soft blur effects.
+ * <p>
+ * The pattern is drawn at LED resolution, one cell per LED pitch across the window, and
+ * softened with a {@link Blur}; the LEDs read their cells and the window shows the cells
+ * scaled up.
  */
 @Log4j2
 public class BlurzAnimation implements LedAnimation {
+
+    // Blur radius in LEDs
+    private static final int BLUR_RADIUS = 1;
+    // Share of the previous frame kept for trails, out of 255
+    private static final int TRAIL_KEEP = 55;
+    private static final Font INFO_FONT = new Font("Arial", Font.PLAIN, 12);
     
     private LedGrid ledGrid;
     private long lastTime;
     private float time = 0;
     private Random random;
     
-    // Blur properties
-    private BufferedImage backBuffer;
-    private BufferedImage blurBuffer;
-    private Graphics2D backGraphics;
+    // Blur properties: the pattern with its trails, and its blurred copy, one cell per LED pitch
+    private int pitch;
+    private int columns, rows;
+    private int[] canvas;
+    private BufferedImage blurImage;
+    private int[] blurred; // blurImage's pixels
+    private final Blur blur = new Blur();
     
     // Color mixing
     private float hue = 0.0f;
@@ -40,13 +55,12 @@ public class BlurzAnimation implements LedAnimation {
         this.random = new Random();
         
         // Create buffers for blur effect
-        this.backBuffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        this.blurBuffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        this.backGraphics = backBuffer.createGraphics();
-        
-        // Enable anti-aliasing
-        backGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        backGraphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        this.pitch = Math.max(1, ledGrid.getPixelSize());
+        this.columns = (width + pitch - 1) / pitch;
+        this.rows = (height + pitch - 1) / pitch;
+        this.canvas = new int[columns * rows];
+        this.blurImage = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+        this.blurred = ((DataBufferInt) blurImage.getRaster().getDataBuffer()).getData();
         
         log.debug("Blurz Animation initialized");
         log.debug("Animation: " + getName());
@@ -65,34 +79,33 @@ public class BlurzAnimation implements LedAnimation {
         hue += deltaTime * hueSpeed;
         if (hue > 360) hue -= 360;
         
-        // Draw to back buffer first
-        drawToBackBuffer(width, height);
+        // Draw to the canvas first
+        drawToCanvas(width, height);
         
         // Apply blur effect
-        applyBlur(width, height);
+        applyBlur();
         
         // Draw blurred result to main graphics
-        g.drawImage(blurBuffer, 0, 0, null);
+        g.drawImage(blurImage, 0, 0, columns * pitch, rows * pitch, null);
         
         // Add fresh colored pulses
         addColorPulses(g, width, height);
         
         // Map to LEDs
-        mapToLeds(g, width, height);
+        mapToLeds();
         
         // Draw info text
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 12));
+        g.setFont(INFO_FONT);
         g.drawString("Blurz - Press ESC to exit", 10, 20);
     }
     
     /**
-     * Draws the base pattern to the back buffer.
+     * Draws the base pattern to the canvas.
      */
-    private void drawToBackBuffer(int width, int height) {
-        // Semi-transparent fade for trail effect
-        backGraphics.setColor(new Color(0, 0, 0, 200));
-        backGraphics.fillRect(0, 0, width, height);
+    private void drawToCanvas(int width, int height) {
+        // Fade for trail effect
+        PixelKernels.get().scale(canvas, 0, canvas.length, TRAIL_KEEP);
         
         // Draw blurred motion trails
         for (int i = 0; i < 5; i++) {
@@ -101,30 +114,37 @@ public class BlurzAnimation implements LedAnimation {
             float y = height / 2.0f + (float) (Math.sin(phase) * (height / 3.0f));
             
             float hueValue = ((hue + i * 72.0f) % 360.0f) / 360.0f;
-            Color trailColor = Color.getHSBColor(hueValue, 0.8f, 0.7f);
-            
-            backGraphics.setColor(trailColor);
             int size = 40 + i * 10;
-            backGraphics.fillOval((int) x - size / 2, (int) y - size / 2, size, size);
+            fillDisc(x, y, size / 2f, ColorMath.hsv(hueValue, 0.8f, 0.7f));
         }
     }
     
     /**
-     * Applies blur effect using convolution.
+     * Fills the canvas cells whose centers lie within a window-space circle.
      */
-    private void applyBlur(int width, int height) {
-        // Create blur kernel (9x9 Gaussian-like blur)
-        float[] matrix = {
-            0.01f, 0.02f, 0.03f, 0.02f, 0.01f,
-            0.02f, 0.04f, 0.06f, 0.04f, 0.02f,
-            0.03f, 0.06f, 0.10f, 0.06f, 0.03f,
-            0.02f, 0.04f, 0.06f, 0.04f, 0.02f,
-            0.01f, 0.02f, 0.03f, 0.02f, 0.01f
-        };
-        
-        Kernel kernel = new Kernel(5, 5, matrix);
-        ConvolveOp blurOp = new ConvolveOp(kernel, ConvolveOp.EDGE_NO_OP, null);
-        blurOp.filter(backBuffer, blurBuffer);
+    private void fillDisc(float centerX, float centerY, float radius, int color) {
+        int minColumn = Math.max(0, (int) ((centerX - radius) / pitch));
+        int maxColumn = Math.min(columns - 1, (int) ((centerX + radius) / pitch));
+        int minRow = Math.max(0, (int) ((centerY - radius) / pitch));
+        int maxRow = Math.min(rows - 1, (int) ((centerY + radius) / pitch));
+        float radiusSquared = radius * radius;
+        for (int row = minRow; row <= maxRow; row++) {
+            float dy = (row + 0.5f) * pitch - centerY;
+            for (int column = minColumn; column <= maxColumn; column++) {
+                float dx = (column + 0.5f) * pitch - centerX;
+                if (dx * dx + dy * dy <= radiusSquared) {
+                    canvas[row * columns + column] = color;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Applies the blur to a copy of the canvas, leaving the canvas sharp for the next frame.
+     */
+    private void applyBlur() {
+        System.arraycopy(canvas, 0, blurred, 0, canvas.length);
+        blur.gaussian(blurred, columns, rows, BLUR_RADIUS);
     }
     
     /**
@@ -136,20 +156,18 @@ public class BlurzAnimation implements LedAnimation {
         // Add pulses periodically
         if (pulseCount % 60 == 0) {
             float hueValue = (hue % 360.0f) / 360.0f;
-            Color pulseColor = Color.getHSBColor(hueValue, 1.0f, 1.0f);
+            int pulseColor = ColorMath.hsv(hueValue, 1.0f, 1.0f);
             
             // Random position
             int x = random.nextInt(width);
             int y = random.nextInt(height);
             
             // Draw bright pulse
-            g.setColor(new Color(pulseColor.getRed(), pulseColor.getGreen(), 
-                                  pulseColor.getBlue(), 200));
+            g.setColor(new Color(pulseColor | 200 << 24, true));
             g.fillOval(x - 20, y - 20, 40, 40);
             
             // Outer glow
-            g.setColor(new Color(pulseColor.getRed(), pulseColor.getGreen(), 
-                                pulseColor.getBlue(), 100));
+            g.setColor(new Color(pulseColor | 100 << 24, true));
             g.fillOval(x - 30, y - 30, 60, 60);
         }
     }
@@ -157,43 +175,38 @@ public class BlurzAnimation implements LedAnimation {
     /**
      * Maps the blurz effect to LEDs.
      */
-    private void mapToLeds(Graphics2D g, int width, int height) {
-        int gridSize = ledGrid.getGridSize();
-        int pixelSize = ledGrid.getPixelSize();
+    private void mapToLeds() {
         int gridCount = ledGrid.getGridCount();
         
-        // Clear all grids
-        for (int i = 0; i < gridCount; i++) {
-            ledGrid.clearGrid(i);
-        }
-        
-        // Sample colors from the blurred image
+        // Sample colors from the blurred cells
         for (int gridIndex = 0; gridIndex < gridCount; gridIndex++) {
             var gridConfig = ledGrid.getGridConfig(gridIndex);
+            int gridSize = gridConfig.getGridSize();
+            int pixelSize = gridConfig.getPixelSize();
             
             for (int y = 0; y < gridSize; y++) {
                 for (int x = 0; x < gridSize; x++) {
                     // Calculate window coordinates for this LED
                     int windowX = gridConfig.getX() + x * pixelSize + pixelSize / 2;
                     int windowY = gridConfig.getY() + y * pixelSize + pixelSize / 2;
+                    int column = windowX / pitch;
+                    int row = windowY / pitch;
                     
-                    // Sample color from blurred buffer
-                    if (windowX >= 0 && windowX < width && windowY >= 0 && windowY < height) {
-                        int rgb = blurBuffer.getRGB(windowX, windowY);
-                        Color ledColor = new Color(rgb);
+                    // Sample color from blurred cells
+                    int rgb = ColorMath.BLACK;
+                    if (windowX >= 0 && column < columns && windowY >= 0 && row < rows) {
+                        rgb = blurred[row * columns + column];
                         
-                        // Only set if not black
-                        if (ledColor.getRed() > 5 || ledColor.getGreen() > 5 || ledColor.getBlue() > 5) {
-                            // Standard logical coordinates: x = left->right, y = top->bottom
-                            ledGrid.setLedColor(gridIndex, x, y, ledColor);
+                        // Near-black stays off
+                        if (ColorMath.red(rgb) <= 5 && ColorMath.green(rgb) <= 5 && ColorMath.blue(rgb) <= 5) {
+                            rgb = ColorMath.BLACK;
                         }
                     }
+                    // Standard logical coordinates: x = left->right, y = top->bottom
+                    ledGrid.setLedRgb(gridIndex, x, y, rgb);
                 }
             }
         }
-        
-        // Send to devices
-        ledGrid.sendToDevices();
     }
     
     @Override
@@ -208,9 +221,7 @@ public class BlurzAnimation implements LedAnimation {
     
     @Override
     public void stop() {
-        if (backGraphics != null) {
-            backGraphics.dispose();
-        }
+        // No cleanup needed
     }
 }
 
@@ -1,5 +1,6 @@
 package com.marsraver.LedFx.animations;
 
+import com.marsraver.LedFx.ColorMath;
 import com.marsraver.LedFx.LedGrid;
 import com.marsraver.LedFx.LedAnimation;
 import lombok.extern.log4j.Log4j2;
@@ -15,11 +16,14 @@ import java.util.Random;
 @Log4j2
 public class BouncingBallAnimation implements LedAnimation {
     
+    private static final Font INFO_FONT = new Font("Arial", Font.PLAIN, 12);
+    
     // Ball properties
     private int ballX, ballY;
     private int ballSize = 25; // Increased size for better visibility
     private int velocityX = 5, velocityY = 5; // Slower movement for better visualization
     private Color ballColor;
+    private int ballRgb; // ballColor, packed for the LEDs
     
     private LedGrid ledGrid;
     private long lastTime;
@@ -39,6 +43,7 @@ public class BouncingBallAnimation implements LedAnimation {
         
         // Set initial color
         ballColor = new Color(100, 150, 255);
+        ballRgb = ColorMath.rgb(ballColor);
         lastTime = System.currentTimeMillis();
         
         // Initialize random number generator for path variation
@@ -63,7 +68,7 @@ public class BouncingBallAnimation implements LedAnimation {
         
         // Draw info text
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 12));
+        g.setFont(INFO_FONT);
         g.drawString("Bouncing Ball - Press ESC to exit", 10, 20);
     }
     
@@ -115,14 +120,15 @@ public class BouncingBallAnimation implements LedAnimation {
         
         hue += timeDelta * 120; // Rotate hue over time (doubled speed for more dynamic colors)
         if (hue > 360) hue -= 360;
-        ballColor = Color.getHSBColor(hue / 360.0f, 0.8f, 1.0f);
+        ballRgb = ColorMath.hsv(hue / 360.0f, 0.8f, 1.0f);
+        ballColor = new Color(ballRgb);
         
         // Draw the ball
         g.setColor(ballColor);
         g.fill(new Ellipse2D.Double(ballX - ballSize/2, ballY - ballSize/2, ballSize, ballSize));
         
         // Add a subtle glow effect (reduced size)
-        g.setColor(new Color(ballColor.getRed(), ballColor.getGreen(), ballColor.getBlue(), 50));
+        g.setColor(new Color(ballRgb | 50 << 24, true));
         g.fill(new Ellipse2D.Double(ballX - ballSize/2 - 2, ballY - ballSize/2 - 2, 
                                    ballSize + 4, ballSize + 4));
     }
@@ -150,10 +156,7 @@ public class BouncingBallAnimation implements LedAnimation {
         }
         
         // Pre-compute dimmed color for glow effect
-        int glowR = ballColor.getRed() / 2;
-        int glowG = ballColor.getGreen() / 2;
-        int glowB = ballColor.getBlue() / 2;
-        Color glowColor = new Color(glowR, glowG, glowB);
+        int glowColor = ColorMath.scale(ballRgb, 127); // half brightness
         
         // Find which grid contains the ball
         int targetGridIndex = -1;
@@ -183,7 +186,7 @@ public class BouncingBallAnimation implements LedAnimation {
         // Only draw if we found a valid grid
         if (targetGridIndex >= 0) {
             // Set the LED at the ball position (no transformation needed)
-            ledGrid.setLedColor(targetGridIndex, ledX, ledY, ballColor);
+            ledGrid.setLedRgb(targetGridIndex, ledX, ledY, ballRgb);
             
             // Add a small glow effect (optimized to use pre-computed color)
             for (int dy = -1; dy <= 1; dy++) {
@@ -196,7 +199,7 @@ public class BouncingBallAnimation implements LedAnimation {
                     
                     // Check bounds for glow effect
                     if (glowX >= 0 && glowX < gridSize && glowY >= 0 && glowY < gridSize) {
-                        ledGrid.setLedColor(targetGridIndex, glowX, glowY, glowColor);
+                        ledGrid.setLedRgb(targetGridIndex, glowX, glowY, glowColor);
                     }
                 }
             }
@@ -0,0 +1,86 @@
+package com.marsraver.LedFx.animations;
+
+import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.LedGrid;
+import com.marsraver.LedFx.effects.EffectEngine;
+import com.marsraver.LedFx.effects.LedEffect;
+import com.marsraver.LedFx.layout.GridConfig;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Runs an {@link LedEffect} as an animation: the {@link EffectEngine} colors every LED,
+ * and the window shows the LED colors, one pixel per LED scaled up to each grid.
+ */
+public class EffectAnimation implements LedAnimation {
+
+    private final String name;
+    private final String description;
+    private final LedEffect effect;
+    private DoubleSupplier audioLevel = () -> 0; // silence until an audio source is set
+
+    private LedGrid ledGrid;
+    private long startTime;
+    private EffectEngine engine;
+    private BufferedImage[] previews; // one per grid, one pixel per LED
+    private int[][] previewPixels;
+
+    public EffectAnimation(String name, String description, LedEffect effect) {
+        this.name = name;
+        this.description = description;
+        this.effect = effect;
+    }
+
+    @Override
+    public void init(int width, int height, LedGrid ledGrid) {
+        this.ledGrid = ledGrid;
+        this.startTime = System.currentTimeMillis();
+        this.engine = new EffectEngine(ledGrid);
+        this.previews = new BufferedImage[ledGrid.getGridCount()];
+        this.previewPixels = new int[previews.length][];
+        for (int i = 0; i < previews.length; i++) {
+            int gridSize = ledGrid.getGridConfig(i).getGridSize();
+            previews[i] = new BufferedImage(gridSize, gridSize, BufferedImage.TYPE_INT_RGB);
+            previewPixels[i] = ((DataBufferInt) previews[i].getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    @Override
+    public void draw(Graphics2D g, int width, int height, LedGrid ledGrid) {
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width, height);
+
+        float time = (System.currentTimeMillis() - startTime) / 1000f;
+        float audio = (float) Math.max(0, Math.min(1, audioLevel.getAsDouble()));
+        engine.render(effect, time, audio);
+        engine.writeTo(this.ledGrid);
+
+        int[] colors = engine.getColors();
+        for (int i = 0; i < previews.length; i++) {
+            GridConfig grid = this.ledGrid.getGridConfig(i);
+            int gridSize = grid.getGridSize();
+            System.arraycopy(colors, engine.getGridOffset(i), previewPixels[i], 0, gridSize * gridSize);
+            g.drawImage(previews[i], grid.getX(), grid.getY(), gridSize * grid.getPixelSize(), gridSize * grid.getPixelSize(), null);
+        }
+    }
+
+    /**
+     * Sets where the effect's audio level, 0-1, comes from; read once per frame.
+     */
+    public void setAudioLevel(DoubleSupplier audioLevel) {
+        this.audioLevel = audioLevel;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
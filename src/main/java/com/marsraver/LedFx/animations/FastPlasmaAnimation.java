@@ -1,30 +1,35 @@
 package com.marsraver.LedFx.animations;
 
+import com.marsraver.LedFx.ColorMath;
 import com.marsraver.LedFx.LedGrid;
 import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.PixelBuffer;
+import com.marsraver.LedFx.simd.PixelKernels;
 
 import java.awt.*;
-import java.awt.image.BufferedImage;
 
 /**
  * Fast Plasma animation that creates liquid, organic movement patterns.
  * Uses lookup tables for fast performance with cycling colors.
  * Based on the FastPlasma Processing sketch by luis2048.
+ * <p>
+ * The plasma is written straight into a {@link PixelBuffer}, which stretches it over the
+ * window and maps it to the LEDs.
  */
 public class FastPlasmaAnimation implements LedAnimation {
 
-    private LedGrid ledGrid;
-    private int windowWidth, windowHeight;
-    private long startTime;
+    private static final Font INFO_FONT = new Font("Arial", Font.PLAIN, 12);
+
     private int frameCount = 0;
     
     // Plasma rendering parameters
     private static final int PLASMA_WIDTH = 128;
     private static final int PLASMA_HEIGHT = 128;
-    private BufferedImage plasmaImage;
+    private PixelBuffer plasma;
     
     // Lookup tables for fast plasma generation
     private int[] palette = new int[128];
+    private final int[] cycledPalette = new int[128]; // palette shifted by the frame count
     private int[] plasmaLookup = new int[PLASMA_WIDTH * PLASMA_HEIGHT];
     
     // Plasma parameters
@@ -32,13 +37,8 @@ public class FastPlasmaAnimation implements LedAnimation {
 
     @Override
     public void init(int width, int height, LedGrid ledGrid) {
-        this.windowWidth = width;
-        this.windowHeight = height;
-        this.ledGrid = ledGrid;
-        this.startTime = System.currentTimeMillis();
-        
-        // Create plasma image buffer
-        this.plasmaImage = new BufferedImage(PLASMA_WIDTH, PLASMA_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        // Create plasma pixel buffer, stretched over the window
+        this.plasma = new PixelBuffer(PLASMA_WIDTH, PLASMA_HEIGHT, width, height, ledGrid);
         
         // Initialize palette and lookup table
         initializePalette();
@@ -63,7 +63,7 @@ public class FastPlasmaAnimation implements LedAnimation {
             g = Math.max(0, Math.min(255, g));
             b = Math.max(0, Math.min(255, b));
             
-            palette[i] = new Color(r, g, b).getRGB();
+            palette[i] = ColorMath.rgb(r, g, b);
         }
     }
     
@@ -90,27 +90,23 @@ public class FastPlasmaAnimation implements LedAnimation {
         }
     }
 
+    @Override
+    public PixelBuffer getPixelBuffer() {
+        return plasma;
+    }
+
     @Override
     public void draw(Graphics2D g, int width, int height, LedGrid ledGrid) {
-        // Clear the background
-        g.setColor(Color.BLACK);
-        g.fillRect(0, 0, width, height);
-        
         // Update plasma pattern
         updatePlasmaPattern();
         
-        // Draw the plasma image scaled to window size
-        g.drawImage(plasmaImage, 0, 0, width, height, null);
-        
-        // Update LED colors
-        updateLedColors();
+        // Show the plasma in the window and on the LEDs before drawing text over it
+        plasma.commit();
         
         // Draw info text
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 12));
+        g.setFont(INFO_FONT);
         g.drawString("Fast Plasma Animation - Press ESC to exit", 10, 20);
-        g.drawString("Frame: " + frameCount, 10, 35);
-        g.drawString("Time: " + String.format("%.1f", (System.currentTimeMillis() - startTime) / 1000.0f) + "s", 10, 50);
     }
     
     /**
@@ -120,59 +116,16 @@ public class FastPlasmaAnimation implements LedAnimation {
         // Update frame count for animation
         frameCount++;
         
-        // Generate plasma pattern using lookup table
-        for (int pixelCount = 0; pixelCount < plasmaLookup.length; pixelCount++) {
-            // Use frame count to animate the plasma
-            int paletteIndex = (plasmaLookup[pixelCount] + frameCount) & 127;
-            plasmaImage.setRGB(pixelCount % PLASMA_WIDTH, pixelCount / PLASMA_WIDTH, palette[paletteIndex]);
+        // Use frame count to animate the plasma: cycle the 128 palette entries once, so
+        // every pixel is a plain table lookup
+        for (int i = 0; i < palette.length; i++) {
+            cycledPalette[i] = palette[(i + frameCount) & 127];
         }
-    }
-    
-    /**
-     * Updates LED colors based on the current plasma pattern.
-     * The animation just draws to the window - the layout system handles LED mapping.
-     */
-    private void updateLedColors() {
-        // Clear all LEDs first
-        ledGrid.clearAllLeds();
         
-        // Map plasma pattern to LED grids using the standard mapping
-        mapPlasmaToLedGrid();
+        // Generate plasma pattern using lookup table
+        PixelKernels.get().lookup(plasmaLookup, cycledPalette, plasma.getPixels(), 0, plasmaLookup.length);
     }
     
-    /**
-     * Maps the plasma pattern to the LED grid using the standard DualLedGrid interface.
-     * This lets the layout system handle the actual LED mapping.
-     */
-    private void mapPlasmaToLedGrid() {
-        // Map plasma pattern to all grids in the layout
-        for (int gridIndex = 0; gridIndex < ledGrid.getGridCount(); gridIndex++) {
-            var gridConfig = ledGrid.getGridConfig(gridIndex);
-            for (int y = 0; y < ledGrid.getGridSize(); y++) {
-                for (int x = 0; x < ledGrid.getGridSize(); x++) {
-                    // Calculate window coordinates for this grid
-                    int windowX = gridConfig.getX() + x * ledGrid.getPixelSize() + ledGrid.getPixelSize() / 2;
-                    int windowY = gridConfig.getY() + y * ledGrid.getPixelSize() + ledGrid.getPixelSize() / 2;
-                    
-                    // Calculate position in plasma image
-                    int plasmaX = (windowX * PLASMA_WIDTH) / windowWidth;
-                    int plasmaY = (windowY * PLASMA_HEIGHT) / windowHeight;
-                    
-                    // Ensure coordinates are within bounds
-                    plasmaX = Math.max(0, Math.min(plasmaX, PLASMA_WIDTH - 1));
-                    plasmaY = Math.max(0, Math.min(plasmaY, PLASMA_HEIGHT - 1));
-                    
-                    // Get color from plasma image
-                    Color ledColor = new Color(plasmaImage.getRGB(plasmaX, plasmaY));
-                    
-                    // Use the standard logical LED coordinates (x = left->right, y = top->bottom)
-                    // so all animations share the same mapping and LedGrid handles packing.
-                    ledGrid.setLedColor(gridIndex, x, y, ledColor);
-                }
-            }
-        }
-    }
-
     @Override
     public String getName() {
         return "Fast Plasma Animation";
@@ -1,54 +1,42 @@
 package com.marsraver.LedFx.animations;
 
+import com.marsraver.LedFx.ColorMath;
+import com.marsraver.LedFx.LedFrameBuffer;
 import com.marsraver.LedFx.LedGrid;
 import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.particles.ParticleSystem;
 import lombok.extern.log4j.Log4j2;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
  * Music Ball animation for the LED framework.
  * Creates audio-reactive particles that respond to music (simulated beat detection).
+ * <p>
+ * The balls live in a {@link ParticleSystem} and are splatted straight into an
+ * LED-resolution {@link LedFrameBuffer}.
  */
 @Log4j2
 public class MusicBallAnimation implements LedAnimation {
     
-    private class Ball {
-        float x, y;
-        float vx, vy;
-        Color color;
-        int age = 0;
-        boolean alive = true;
-        
-        public Ball(float x, float y, float velocityX, float velocityY, Color color) {
-            this.x = x;
-            this.y = y;
-            this.vx = velocityX;
-            this.vy = velocityY;
-            this.color = color;
-        }
-        
-        public void update() {
-            age += 3;
-            vy += 0.1f; // gravity
-            x += vx;
-            y += vy;
-            
-            if (y > windowHeight || age >= 255) {
-                alive = false;
-            }
-        }
-    }
+    private static final Font INFO_FONT = new Font("Arial", Font.PLAIN, 12);
+    private static final Color TRAIL_FADE = new Color(0, 0, 0, 45);
+    private static final int MAX_BALLS = 1024;
+    private static final int BALL_LIFETIME = 85; // frames; brightness fades 3 levels a frame
+    private static final float GRAVITY = 0.1f;
+    // Alpha steps of the cached window colors of each beat's balls
+    private static final int SHADES = 32;
     
     private LedGrid ledGrid;
     private int windowWidth, windowHeight;
     private long lastBeatTime;
     private Random random = new Random();
-    private List<Ball> balls = new ArrayList<>();
+    private final ParticleSystem balls = new ParticleSystem(MAX_BALLS);
+    private final Color[][] shades = new Color[MAX_BALLS][]; // window colors by alpha step, shared per beat
+    private final Ellipse2D.Double ballShape = new Ellipse2D.Double();
+    private LedFrameBuffer ledFrame;
     private float simulatedAudioLevel = 0f;
     private int beatCooldown = 0;
     
@@ -58,6 +46,8 @@ public class MusicBallAnimation implements LedAnimation {
         this.windowWidth = width;
         this.windowHeight = height;
         this.lastBeatTime = System.currentTimeMillis();
+        this.ledFrame = new LedFrameBuffer(ledGrid);
+        balls.clear();
         
         log.debug("Music Ball Animation initialized");
         log.debug("Animation: " + getName());
@@ -68,7 +58,7 @@ public class MusicBallAnimation implements LedAnimation {
     @Override
     public void draw(Graphics2D g, int width, int height, LedGrid ledGrid) {
         // Semi-transparent black for trail effect
-        g.setColor(new Color(0, 0, 0, 45));
+        g.setColor(TRAIL_FADE);
         g.fillRect(0, 0, width, height);
         
         // Simulate beat detection
@@ -85,9 +75,8 @@ public class MusicBallAnimation implements LedAnimation {
         
         // Draw info text
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 12));
+        g.setFont(INFO_FONT);
         g.drawString("Music Ball (Simulated Audio) - Press ESC to exit", 10, 20);
-        g.drawString("Balls: " + balls.size(), 10, 35);
     }
     
     /**
@@ -116,11 +105,15 @@ public class MusicBallAnimation implements LedAnimation {
             beatCooldown = 45; // Prevent too many simultaneous spawns but keep things lively
             
             // Random color
-            Color ballColor = new Color(
+            int ballColor = ColorMath.rgb(
                 random.nextInt(256),
                 random.nextInt(256),
                 random.nextInt(256)
             );
+            Color[] beatShades = new Color[SHADES + 1];
+            for (int shade = 0; shade <= SHADES; shade++) {
+                beatShades[shade] = new Color(ballColor | (255 * shade / SHADES) << 24, true);
+            }
             
             // Spawn more balls based on simulated audio level
             int ballCount = (int)(Math.abs(simulatedAudioLevel) * 18);
@@ -131,7 +124,10 @@ public class MusicBallAnimation implements LedAnimation {
                 for (int i = 0; i < 3; i++) {
                     float vx = (random.nextFloat() - 0.5f) * 2f; // Slower velocity
                     float vy = (random.nextFloat() - 0.5f) * 2f; // Slower velocity
-                    balls.add(new Ball(x, y, vx, vy, ballColor));
+                    int slot = balls.spawn(x, y, vx, vy, ballColor, BALL_LIFETIME);
+                    if (slot >= 0) {
+                        shades[slot] = beatShades;
+                    }
                 }
             }
         }
@@ -141,29 +137,18 @@ public class MusicBallAnimation implements LedAnimation {
      * Updates and draws all balls
      */
     private void updateAndDrawBalls(Graphics2D g) {
-        for (int i = balls.size() - 1; i >= 0; i--) {
-            Ball ball = balls.get(i);
-            ball.update();
-            
-            if (!ball.alive) {
-                balls.remove(i);
-                continue;
-            }
+        balls.update(0f, GRAVITY);
+        balls.killOutside(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, windowHeight);
+        
+        float[] x = balls.getX();
+        float[] y = balls.getY();
+        for (int i = 0; i < balls.size(); i++) {
+            int slot = balls.slot(i);
             
             // Draw ball with fading transparency
-            int alpha = 255 - ball.age;
-            if (alpha < 0) alpha = 0;
-            if (alpha > 255) alpha = 255;
-            
-            Color drawColor = new Color(
-                ball.color.getRed(),
-                ball.color.getGreen(),
-                ball.color.getBlue(),
-                alpha
-            );
-            
-            g.setColor(drawColor);
-            g.fill(new Ellipse2D.Double(ball.x - 2.5, ball.y - 2.5, 5, 5));
+            g.setColor(shades[slot][(balls.brightness(slot) * SHADES + 127) / 255]);
+            ballShape.setFrame(x[slot] - 2.5, y[slot] - 2.5, 5, 5);
+            g.fill(ballShape);
         }
     }
     
@@ -171,46 +156,12 @@ public class MusicBallAnimation implements LedAnimation {
      * Updates LED colors based on ball positions
      */
     private void updateLedColors() {
-        ledGrid.clearAllLeds();
-        
-        int gridSize = ledGrid.getGridSize();
-        int pixelSize = ledGrid.getPixelSize();
-        int gridCount = ledGrid.getGridCount();
-        
-        for (Ball ball : balls) {
-            if (!ball.alive) continue;
-            
-            // Map ball to each grid
-            for (int gridIndex = 0; gridIndex < gridCount; gridIndex++) {
-                var gridConfig = ledGrid.getGridConfig(gridIndex);
-                
-                // Calculate ball position relative to this grid
-                int ballX_relative = (int)ball.x - gridConfig.getX();
-                int ballY_relative = (int)ball.y - gridConfig.getY();
-                
-                // Map to LED coordinates
-                int ledX = ballX_relative / pixelSize;
-                int ledY = ballY_relative / pixelSize;
-                
-                // Check if ball is within this grid
-                if (ledX >= 0 && ledX < gridSize && ledY >= 0 && ledY < gridSize) {
-                    // Use ball color with fade
-                    int alpha = 255 - ball.age;
-                    if (alpha > 0) {
-                        float alphaRatio = alpha / 255.0f;
-                        Color ledColor = new Color(
-                            Math.min(255, Math.max(0, (int)(ball.color.getRed() * alphaRatio))),
-                            Math.min(255, Math.max(0, (int)(ball.color.getGreen() * alphaRatio))),
-                            Math.min(255, Math.max(0, (int)(ball.color.getBlue() * alphaRatio)))
-                        );
-                        // Standard logical coordinates: x = left->right, y = top->bottom
-                        ledGrid.setLedColor(gridIndex, ledX, ledY, ledColor);
-                    }
-                }
-            }
-        }
+        ledFrame.clear();
+        balls.splat(ledFrame);
+        ledFrame.writeTo(ledGrid);
     }
     
+    @Override
     public String getName() {
         return "Music Ball";
     }
@@ -219,4 +170,9 @@ public class MusicBallAnimation implements LedAnimation {
     public String getDescription() {
         return "Audio-reactive particles that respond to music beats (simulated audio)";
     }
+    
+    @Override
+    public String getStatus() {
+        return "balls " + balls.size();
+    }
 }
@@ -1,21 +1,32 @@
 package com.marsraver.LedFx.animations;
 
+import com.marsraver.LedFx.ColorMath;
 import com.marsraver.LedFx.LedGrid;
 import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.noise.NoiseTile;
+import com.marsraver.LedFx.particles.SpatialHash;
 import lombok.extern.log4j.Log4j2;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Random;
 
 /**
  * Perlin Oscillator animation - creates oscillating circles with Perlin noise-driven motion.
  * Based on the Processing sketch by aa_debdeb.
+ * <p>
+ * Each LED shows the oscillator nearest to it if it lies inside that oscillator's circle.
+ * The oscillators are indexed once in a {@link SpatialHash} with one lattice point per
+ * cell, and their size and color are computed once per frame, so an LED costs a lookup in
+ * the cells around it rather than a pass over every oscillator.
  */
 @Log4j2
 public class PerlinOscillatorAnimation implements LedAnimation {
     
+    private static final Font INFO_FONT = new Font("Arial", Font.PLAIN, 12);
+    
     private LedGrid ledGrid;
     @SuppressWarnings("unused")
     private int windowWidth, windowHeight;
@@ -25,10 +36,27 @@ public class PerlinOscillatorAnimation implements LedAnimation {
     // Oscillator parameters
     private float noiseX, noiseY;
     private ArrayList<Oscillator> oscillators;
+    private SpatialHash oscillatorIndex; // oscillators by position, ids are list indices
+    // Oscillator disc and color by quantized sine of its phase
+    private final BufferedImage[] phaseSprites = new BufferedImage[PHASE_STEPS];
+    private final int[] phaseColors = new int[PHASE_STEPS];
     private Random random;
+    private NoiseTile speedField; // noise at every oscillator, one lattice point each
+    private float noiseStart;
     
     // Spacing between oscillators
     private static final int SPACING = 25;
+    // Oscillator diameter range; circles never reach past half the spacing
+    private static final float MIN_DIAMETER = 10;
+    private static final float MAX_DIAMETER = 24;
+    // Steps the disc and color ramp are quantized to, one per two red levels
+    private static final int PHASE_STEPS = 128;
+    // Side of a disc sprite, the largest disc plus a pixel of antialiasing each side
+    private static final int SPRITE_SIZE = (int) MAX_DIAMETER + 2;
+    // Noise-space distance per window pixel (position scale 0.05 times base frequency 0.01)
+    private static final float NOISE_SCALE = 0.05f * 0.01f;
+    // The field drifts 1e-4 per frame; re-evaluate it every 50 frames and blend in between
+    private static final float FIELD_TIME_STEP = 0.005f;
     
     @Override
     public void init(int width, int height, LedGrid ledGrid) {
@@ -37,6 +65,25 @@ public class PerlinOscillatorAnimation implements LedAnimation {
         this.windowHeight = height;
         this.startTime = System.currentTimeMillis();
         
+        // An oscillator's size and color both follow the sine of its phase, so every disc it
+        // can show is drawn once here; a frame just blits them and allocates nothing
+        Ellipse2D.Float disc = new Ellipse2D.Float();
+        for (int i = 0; i < PHASE_STEPS; i++) {
+            float sin = i * 2f / (PHASE_STEPS - 1) - 1;
+            float diameter = map(sin, -1, 1, MIN_DIAMETER, MAX_DIAMETER);
+            phaseColors[i] = ColorMath.rgbClamped(
+                    (int) map(sin, -1, 1, 0, 255),
+                    (int) map(sin, -1, 1, 139, 20),
+                    (int) map(sin, -1, 1, 139, 147));
+            phaseSprites[i] = new BufferedImage(SPRITE_SIZE, SPRITE_SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D sprite = phaseSprites[i].createGraphics();
+            sprite.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            sprite.setColor(new Color(phaseColors[i]));
+            disc.setFrame((SPRITE_SIZE - diameter) / 2, (SPRITE_SIZE - diameter) / 2, diameter, diameter);
+            sprite.fill(disc);
+            sprite.dispose();
+        }
+        
         // Initialize random generator
         random = new Random();
         
@@ -46,11 +93,22 @@ public class PerlinOscillatorAnimation implements LedAnimation {
         
         // Create oscillators in a grid
         oscillators = new ArrayList<>();
-        for (int x = 0; x <= width; x += SPACING) {
-            for (int y = 0; y <= height; y += SPACING) {
-                oscillators.add(new Oscillator(x, y));
+        int columns = width / SPACING + 1;
+        int rows = height / SPACING + 1;
+        // Cells centered on the lattice points, so each holds exactly one oscillator
+        oscillatorIndex = new SpatialHash(-SPACING / 2f, -SPACING / 2f, columns * SPACING, rows * SPACING, SPACING,
+                columns * rows);
+        for (int column = 0; column < columns; column++) {
+            for (int row = 0; row < rows; row++) {
+                Oscillator oscillator = new Oscillator(column * SPACING, row * SPACING, row * columns + column);
+                oscillatorIndex.insert(oscillators.size(), oscillator.x, oscillator.y);
+                oscillators.add(oscillator);
             }
         }
+        noiseStart = noiseX;
+        speedField = new NoiseTile(columns, rows, noiseX * 0.01f, SPACING * NOISE_SCALE, noiseY * 0.01f, SPACING * NOISE_SCALE,
+                4, 0.5f, FIELD_TIME_STEP);
+        speedField.setDrift(1f, 1f, 0f);
         
         log.debug("Perlin Oscillator Animation initialized");
         log.debug("Animation: " + getName());
@@ -69,8 +127,10 @@ public class PerlinOscillatorAnimation implements LedAnimation {
         noiseY += 0.01f;
         
         // Draw all oscillators
-        for (Oscillator osc : oscillators) {
-            osc.display(g, noiseX, noiseY);
+        float[] speeds = speedField.sample((noiseX - noiseStart) * 0.01f);
+        for (int i = 0; i < oscillators.size(); i++) {
+            Oscillator osc = oscillators.get(i);
+            osc.display(g, speeds[osc.fieldIndex]);
         }
         
         // Update LED colors
@@ -78,9 +138,8 @@ public class PerlinOscillatorAnimation implements LedAnimation {
         
         // Draw info text
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 12));
+        g.setFont(INFO_FONT);
         g.drawString("Perlin Oscillator - Press ESC to exit", 10, 20);
-        g.drawString("Oscillators: " + oscillators.size(), 10, 35);
     }
     
     /**
@@ -112,44 +171,32 @@ public class PerlinOscillatorAnimation implements LedAnimation {
                     int windowY = grid.getY() + y * pixelSize + pixelSize / 2;
                     
                     // Sample color from oscillators at this position
-                    Color sampledColor = sampleColorAt(windowX, windowY);
+                    int sampledColor = sampleColorAt(windowX, windowY);
 
                     // Use standard logical LED coordinates (x = left->right, y = top->bottom)
                     // so mapping is consistent with other animations and LedGrid packing.
-                    ledGrid.setLedColor(gridIndex, x, y, sampledColor);
+                    ledGrid.setLedRgb(gridIndex, x, y, sampledColor);
                 }
             }
         }
     }
     
     /**
-     * Samples the color at a specific window coordinate by checking nearby oscillators.
+     * Samples the color at a specific window coordinate from the nearest oscillator.
      */
-    private Color sampleColorAt(int windowX, int windowY) {
-        // Find the closest oscillator
-        Oscillator closest = null;
-        float minDist = Float.MAX_VALUE;
-        
-        for (Oscillator osc : oscillators) {
-            float dist = (float) Math.sqrt(
-                (osc.x - windowX) * (osc.x - windowX) + 
-                (osc.y - windowY) * (osc.y - windowY)
-            );
-            if (dist < minDist) {
-                minDist = dist;
-                closest = osc;
-            }
+    private int sampleColorAt(int windowX, int windowY) {
+        // Only an oscillator within the largest radius can cover the point
+        int closest = oscillatorIndex.nearest(windowX, windowY, MAX_DIAMETER / 2);
+        if (closest < 0) {
+            return ColorMath.BLACK;
         }
-        
-        if (closest != null) {
-            // Check if the point is within the oscillator's current size
-            float currentSize = closest.getCurrentSize(noiseX, noiseY);
-            if (minDist <= currentSize / 2) {
-                return closest.getCurrentColor();
-            }
-        }
-        
-        return Color.BLACK;
+
+        // Check if the point is within the oscillator's current size
+        Oscillator osc = oscillators.get(closest);
+        float dx = osc.x - windowX;
+        float dy = osc.y - windowY;
+        float radius = osc.diameter / 2;
+        return dx * dx + dy * dy <= radius * radius ? osc.color : ColorMath.BLACK;
     }
     
     @Override
@@ -162,70 +209,54 @@ public class PerlinOscillatorAnimation implements LedAnimation {
         return "Oscillating circles with Perlin noise-driven motion";
     }
     
+    @Override
+    public String getStatus() {
+        return "oscillators " + oscillators.size();
+    }
+    
     /**
      * Inner class representing a single oscillator.
      */
     private class Oscillator {
         float x, y;
         float rad;
+        final int fieldIndex; // this oscillator's point in speedField
+        // Size and color at the current phase, updated whenever rad changes
+        float diameter;
+        int step; // index into the phase sprites and colors
+        int color;
         
-        Oscillator(int x, int y) {
+        Oscillator(int x, int y, int fieldIndex) {
             this.x = x;
             this.y = y;
+            this.fieldIndex = fieldIndex;
             this.rad = random.nextFloat() * (float) (2 * Math.PI);
+            updateState();
         }
         
-        void display(Graphics2D g, float noiseX, float noiseY) {
-            // Calculate current diameter based on sine wave
-            float diameter = map((float) Math.sin(rad), -1, 1, 10, 24);
-            
-            // Calculate color based on sine wave
-            int r = (int) map((float) Math.sin(rad), -1, 1, 0, 255);
-            int gVal = (int) map((float) Math.sin(rad), -1, 1, 139, 20);
-            int b = (int) map((float) Math.sin(rad), -1, 1, 139, 147);
-            
-            // Clamp color values
-            r = Math.max(0, Math.min(255, r));
-            gVal = Math.max(0, Math.min(255, gVal));
-            b = Math.max(0, Math.min(255, b));
+        void display(Graphics2D g, float noise) {
+            // Draw the disc centered on the oscillator
+            g.drawImage(phaseSprites[step], Math.round(x) - SPRITE_SIZE / 2, Math.round(y) - SPRITE_SIZE / 2, null);
             
-            Color color = new Color(r, gVal, b);
-            g.setColor(color);
-            
-            // Draw the ellipse
-            Ellipse2D.Double ellipse = new Ellipse2D.Double(x - diameter / 2, y - diameter / 2, diameter, diameter);
-            g.fill(ellipse);
-            
-            // Update radius based on Perlin noise
-            float noiseValue = noise(noiseX + x * 0.05f, noiseY + y * 0.05f, 0.0f);
+            // Update radius based on Perlin noise, scaled to about 0.5-1.5
+            float noiseValue = 0.97f + 0.75f * noise;
             rad += map(noiseValue, 0f, 1f, (float) (Math.PI / 128), (float) (Math.PI / 6));
             
             // Keep radius between 0 and 2*PI
             if (rad > 2 * Math.PI) {
                 rad -= 2 * Math.PI;
             }
+            updateState();
         }
         
         /**
-         * Gets the current size of the oscillator.
-         */
-        float getCurrentSize(float noiseX, float noiseY) {
-            return map((float) Math.sin(rad), -1, 1, 10, 24);
-        }
-        
-        /**
-         * Gets the current color of the oscillator.
+         * Computes the diameter and color for the current phase from a sine wave.
          */
-        Color getCurrentColor() {
-            int r = (int) map((float) Math.sin(rad), -1, 1, 0, 255);
-            int gVal = (int) map((float) Math.sin(rad), -1, 1, 139, 20);
-            int b = (int) map((float) Math.sin(rad), -1, 1, 139, 147);
-            
-            r = Math.max(0, Math.min(255, r));
-            gVal = Math.max(0, Math.min(255, gVal));
-            b = Math.max(0, Math.min(255, b));
-            
-            return new Color(r, gVal, b);
+        void updateState() {
+            float sin = (float) Math.sin(rad);
+            diameter = map(sin, -1, 1, MIN_DIAMETER, MAX_DIAMETER);
+            step = Math.round((sin + 1) * (PHASE_STEPS - 1) / 2);
+            color = phaseColors[step];
         }
     }
     
@@ -235,62 +266,4 @@ public class PerlinOscillatorAnimation implements LedAnimation {
     private float map(float value, float start1, float stop1, float start2, float stop2) {
         return start2 + (stop2 - start2) * ((value - start1) / (stop1 - start1));
     }
-    
-    private float noise(float x, float y, float z) {
-        // Simple pseudo-Perlin noise using fractals
-        float result = 0.0f;
-        float amplitude = 1.0f;
-        float frequency = 0.01f;
-        
-        for (int i = 0; i < 4; i++) {
-            result += amplitude * smoothRandom(x * frequency, y * frequency, z * frequency);
-            amplitude *= 0.5f;
-            frequency *= 2.0f;
-        }
-        
-        return result * 0.5f + 0.5f; // Normalize to 0-1
-    }
-    
-    private float smoothRandom(float x, float y, float z) {
-        int ix = (int) Math.floor(x);
-        int iy = (int) Math.floor(y);
-        int iz = (int) Math.floor(z);
-        
-        float fx = (float) (x - ix);
-        float fy = (float) (y - iy);
-        float fz = (float) (z - iz);
-        
-        fx = fx * fx * (3 - 2 * fx); // Smoothstep
-        fy = fy * fy * (3 - 2 * fy);
-        fz = fz * fz * (3 - 2 * fz);
-        
-        float v000 = hash(ix, iy, iz);
-        float v100 = hash(ix + 1, iy, iz);
-        float v010 = hash(ix, iy + 1, iz);
-        float v110 = hash(ix + 1, iy + 1, iz);
-        float v001 = hash(ix, iy, iz + 1);
-        float v101 = hash(ix + 1, iy, iz + 1);
-        float v011 = hash(ix, iy + 1, iz + 1);
-        float v111 = hash(ix + 1, iy + 1, iz + 1);
-        
-        float v00 = lerp(v000, v100, fx);
-        float v01 = lerp(v010, v110, fx);
-        float v10 = lerp(v001, v101, fx);
-        float v11 = lerp(v011, v111, fx);
-        
-        float v0 = lerp(v00, v01, fy);
-        float v1 = lerp(v10, v11, fy);
-        
-        return lerp(v0, v1, fz);
-    }
-    
-    private float hash(int x, int y, int z) {
-        int n = x + y * 57 + z * 131;
-        n = (n << 13) ^ n;
-        return ((n * (n * n * 15731 + 789221) + 1376312589) & 0x7fffffff) / 2147483647.0f;
-    }
-    
-    private float lerp(float a, float b, float t) {
-        return a + t * (b - a);
-    }
-}
+}
\ No newline at end of file
@@ -19,6 +19,8 @@ public class SpinningBeachballAnimation implements LedAnimation {
     private float rotation = 0;
     @SuppressWarnings("unused")
     private int windowWidth, windowHeight;
+    private BufferedImage canvas; // offscreen copy of the frame the LEDs sample from, reused
+    private final Arc2D.Double arc = new Arc2D.Double();
     
     // Beachball colors (six bright, vibrant colors)
     private static final Color[] BEACHBALL_COLORS = {
@@ -90,10 +92,7 @@ public class SpinningBeachballAnimation implements LedAnimation {
             float arcAngle = segmentAngle;
             
             // Draw the arc segment
-            Arc2D arc = new Arc2D.Double(
-                centerX - radius, centerY - radius, size, size,
-                startAngle, arcAngle, Arc2D.PIE
-            );
+            arc.setArc(centerX - radius, centerY - radius, size, size, startAngle, arcAngle, Arc2D.PIE);
             g.fill(arc);
         }
     }
@@ -111,8 +110,10 @@ public class SpinningBeachballAnimation implements LedAnimation {
             ledGrid.clearGrid(i);
         }
         
-        // Create a BufferedImage to sample from the current Graphics2D output
-        BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        // Render into an offscreen image to sample from the current Graphics2D output
+        if (canvas == null || canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
         Graphics2D canvasG = canvas.createGraphics();
         
         // Draw the beachball to the BufferedImage (same as what's shown on screen)
@@ -143,17 +144,13 @@ public class SpinningBeachballAnimation implements LedAnimation {
                     if (distance <= radius) {
                         // Sample the color from the rendered canvas at this position
                         int rgb = canvas.getRGB(windowX, windowY);
-                        Color color = new Color(rgb);
                         
                         // Display all colors without filter
-                        ledGrid.setLedColor(gridIndex, x, y, color);
+                        ledGrid.setLedRgb(gridIndex, x, y, rgb & 0xFFFFFF);
                     }
                 }
             }
         }
-        
-        // Send to devices
-        ledGrid.sendToDevices();
     }
     
     @Override
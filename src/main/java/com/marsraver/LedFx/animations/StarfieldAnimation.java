@@ -1,79 +1,49 @@
 package com.marsraver.LedFx.animations;
 
+import com.marsraver.LedFx.ColorMath;
+import com.marsraver.LedFx.LedFrameBuffer;
 import com.marsraver.LedFx.LedGrid;
 import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.particles.ParticleSystem;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
  * Star Trek warp speed starfield animation.
  * Stars move from the center toward the edges at increasing speeds.
+ * <p>
+ * Stars are particles of a {@link ParticleSystem} in normalized coordinates (-1 to 1);
+ * their size and trail history are kept in arrays indexed by the star's slot. Each trail
+ * is a ring buffer, so a frame writes one position per star instead of shifting the
+ * history, and the LEDs are drawn in one pass that rasterizes every trail as antialiased
+ * lines into an LED-resolution {@link LedFrameBuffer}.
  */
 public class StarfieldAnimation implements LedAnimation {
 
+    private static final int STAR_COUNT = 100; // half the original
+    // Trail length for each star; longer history = longer visible tail
+    private static final int TRAIL_LENGTH = 40;
+    // Reduce overall star speed again (quarter of original)
+    private static final float MAX_SPEED = 0.25f;
+    // Brightness steps of the cached window colors of each star
+    private static final int SHADES = 32;
+
     @SuppressWarnings("unused")
     private LedGrid ledGrid;
     private int windowWidth, windowHeight;
-    private List<Star> stars;
     private Random random;
-    
-    private class Star {
-        // Trail length for each star; longer history = longer visible tail
-        private static final int TRAIL_LENGTH = 40;
-        float x, y;  // Normalized position (-1 to 1)
-        float speed;
-        Color color;
-        int size;
-        float[] trailX = new float[TRAIL_LENGTH];
-        float[] trailY = new float[TRAIL_LENGTH];
-        
-        Star(float x, float y, float speed, Color color) {
-            this.x = x;
-            this.y = y;
-            this.speed = speed;
-            this.color = color;
-            this.size = random.nextFloat() < 0.2f ? 2 : 1; // 20% chance for larger star
-
-            // Initialize trail history at starting position
-            for (int i = 0; i < TRAIL_LENGTH; i++) {
-                trailX[i] = x;
-                trailY[i] = y;
-            }
-        }
-        
-        void update(float centerX, float centerY, float maxSpeed) {
-            // Move toward edges
-            float dx = x - centerX;
-            float dy = y - centerY;
-            float dist = (float) Math.sqrt(dx * dx + dy * dy);
-            
-            if (dist > 0.01f) {
-                x += dx / dist * speed * maxSpeed;
-                y += dy / dist * speed * maxSpeed;
-            }
-            
-            // Reset if outside bounds
-            if (Math.abs(x) > 1.5f || Math.abs(y) > 1.5f) {
-                // Start from center with random direction
-                float angle = random.nextFloat() * 2 * (float) Math.PI;
-                float radius = 0.1f;
-                x = centerX + (float) Math.cos(angle) * radius;
-                y = centerY + (float) Math.sin(angle) * radius;
-                speed = 0.02f + random.nextFloat() * 0.03f;
-            }
 
-            // Update trail history (store most recent positions)
-            for (int i = TRAIL_LENGTH - 1; i > 0; i--) {
-                trailX[i] = trailX[i - 1];
-                trailY[i] = trailY[i - 1];
-            }
-            trailX[0] = x;
-            trailY[0] = y;
-        }
-    }
+    private final ParticleSystem stars = new ParticleSystem(STAR_COUNT);
+    private final int[] size = new int[STAR_COUNT];
+    // Trail history ring buffers: [slot * TRAIL_LENGTH + (trailHead[slot] + age) % TRAIL_LENGTH],
+    // where age 0 is the current position
+    private final float[] trailX = new float[STAR_COUNT * TRAIL_LENGTH];
+    private final float[] trailY = new float[STAR_COUNT * TRAIL_LENGTH];
+    private final int[] trailHead = new int[STAR_COUNT];
+    private final Color[][] shades = new Color[STAR_COUNT][]; // window colors by brightness step
+    private LedFrameBuffer ledFrame;
 
     @Override
     public void init(int width, int height, LedGrid ledGrid) {
@@ -81,34 +51,84 @@ public class StarfieldAnimation implements LedAnimation {
         this.windowHeight = height;
         this.ledGrid = ledGrid;
         this.random = new Random();
-        this.stars = new ArrayList<>();
-        
-        // Create 100 stars starting from random positions (half the original)
-        float centerX = 0;
-        float centerY = 0;
-        for (int i = 0; i < 100; i++) {
-            float angle = random.nextFloat() * 2 * (float) Math.PI;
-            float radius = 0.05f + random.nextFloat() * 1.0f;
-            float x = (float) (centerX + Math.cos(angle) * radius);
-            float y = (float) (centerY + Math.sin(angle) * radius);
-            float speed = 0.02f + random.nextFloat() * 0.03f;
+        this.ledFrame = new LedFrameBuffer(ledGrid);
+        stars.clear();
+
+        // Create stars starting from random positions
+        for (int i = 0; i < STAR_COUNT; i++) {
             // Richer star palette: mostly white, with some colored stars
             float roll = random.nextFloat();
-            Color color;
+            int color;
             if (roll < 0.55f) {
-                color = Color.WHITE;
+                color = ColorMath.WHITE;
             } else if (roll < 0.70f) {
-                color = Color.CYAN;
+                color = ColorMath.rgb(Color.CYAN);
             } else if (roll < 0.82f) {
-                color = Color.MAGENTA;
+                color = ColorMath.rgb(Color.MAGENTA);
             } else if (roll < 0.90f) {
-                color = Color.YELLOW;
+                color = ColorMath.rgb(Color.YELLOW);
             } else {
                 // Random warm/cool hue for variety
                 float hue = random.nextFloat(); // 0‑1
-                color = Color.getHSBColor(hue, 0.2f + 0.6f * random.nextFloat(), 0.7f + 0.3f * random.nextFloat());
+                color = ColorMath.hsv(hue, 0.2f + 0.6f * random.nextFloat(), 0.7f + 0.3f * random.nextFloat());
+            }
+            int slot = stars.spawn(0, 0, 0, 0, color, ParticleSystem.IMMORTAL);
+            size[slot] = random.nextFloat() < 0.2f ? 2 : 1; // 20% chance for larger star
+            launchStar(slot, 0.05f + random.nextFloat() * 1.0f);
+            shades[slot] = new Color[SHADES + 1];
+            for (int shade = 0; shade <= SHADES; shade++) {
+                shades[slot][shade] = new Color(ColorMath.scale(color, ColorMath.unit8(shade / (float) SHADES)));
             }
-            stars.add(new Star(x, y, speed, color));
+        }
+    }
+
+    /**
+     * Places a star at a random angle and the given distance from the center, heading
+     * straight out at a random speed, with its trail collapsed onto the new position.
+     */
+    private void launchStar(int slot, float radius) {
+        float angle = random.nextFloat() * 2 * (float) Math.PI;
+        float dirX = (float) Math.cos(angle);
+        float dirY = (float) Math.sin(angle);
+        float speed = (0.02f + random.nextFloat() * 0.03f) * MAX_SPEED;
+        stars.getX()[slot] = dirX * radius;
+        stars.getY()[slot] = dirY * radius;
+        stars.getVx()[slot] = dirX * speed;
+        stars.getVy()[slot] = dirY * speed;
+
+        // Initialize trail history at starting position
+        int trail = slot * TRAIL_LENGTH;
+        Arrays.fill(trailX, trail, trail + TRAIL_LENGTH, stars.getX()[slot]);
+        Arrays.fill(trailY, trail, trail + TRAIL_LENGTH, stars.getY()[slot]);
+        trailHead[slot] = 0;
+    }
+
+    /**
+     * Index of a star's trail position {@code age} frames ago.
+     */
+    private int trailIndex(int slot, int age) {
+        return slot * TRAIL_LENGTH + (trailHead[slot] + age) % TRAIL_LENGTH;
+    }
+
+    /**
+     * Moves every star outward, restarts the ones that left the view from near the
+     * center, and records the new positions in the trails.
+     */
+    private void updateStars() {
+        stars.update(0f, 0f);
+        float[] x = stars.getX();
+        float[] y = stars.getY();
+        for (int i = 0; i < stars.size(); i++) {
+            int slot = stars.slot(i);
+            // Reset if outside bounds
+            if (Math.abs(x[slot]) > 1.5f || Math.abs(y[slot]) > 1.5f) {
+                launchStar(slot, 0.1f);
+            }
+
+            // Update trail history: the oldest entry becomes the newest
+            trailHead[slot] = (trailHead[slot] + TRAIL_LENGTH - 1) % TRAIL_LENGTH;
+            trailX[trailIndex(slot, 0)] = x[slot];
+            trailY[trailIndex(slot, 0)] = y[slot];
         }
     }
 
@@ -117,179 +137,112 @@ public class StarfieldAnimation implements LedAnimation {
         // Clear background
         g.setColor(Color.BLACK);
         g.fillRect(0, 0, width, height);
-        
-        float centerX = 0;
-        float centerY = 0;
-        // Reduce overall star speed again (quarter of original)
-        float maxSpeed = 0.25f;
-        
+
         // Update and draw stars
-        for (Star star : stars) {
-            star.update(centerX, centerY, maxSpeed);
-            
+        updateStars();
+        float[] x = stars.getX();
+        float[] y = stars.getY();
+        for (int s = 0; s < stars.size(); s++) {
+            int slot = stars.slot(s);
+
             // Convert normalized coordinates to screen coordinates
-            int screenX = (int) ((star.x + 1) * width / 2);
-            int screenY = (int) ((star.y + 1) * height / 2);
-            
+            int screenX = (int) ((x[slot] + 1) * width / 2);
+            int screenY = (int) ((y[slot] + 1) * height / 2);
+
             // Calculate brightness based on distance from center (for on-screen view)
-            float dx = star.x - centerX;
-            float dy = star.y - centerY;
-            float dist = (float) Math.sqrt(dx * dx + dy * dy);
+            float dist = (float) Math.sqrt(x[slot] * x[slot] + y[slot] * y[slot]);
             float brightness = Math.min(1.0f, Math.max(0.0f, 0.3f + dist * 0.7f));
-            
-            int rHead = (int) (star.color.getRed() * brightness);
-            int gHead = (int) (star.color.getGreen() * brightness);
-            int bHead = (int) (star.color.getBlue() * brightness);
-            rHead = Math.max(0, Math.min(255, rHead));
-            gHead = Math.max(0, Math.min(255, gHead));
-            bHead = Math.max(0, Math.min(255, bHead));
-            Color starColor = new Color(rHead, gHead, bHead);
 
             // Draw core
-            g.setColor(starColor);
-            
-            if (star.size > 1) {
-                g.fillOval(screenX - 1, screenY - 1, 3, 3);
-            } else {
-                g.fillRect(screenX, screenY, 1, 1);
-            }
+            g.setColor(shade(slot, brightness));
+
+            drawDot(g, screenX, screenY, size[slot]);
 
             // Draw a short fading trail behind the star using its recent positions
-            for (int i = 1; i < Star.TRAIL_LENGTH; i++) {
-                float txNorm = star.trailX[i];
-                float tyNorm = star.trailY[i];
-                int trailX = (int) ((txNorm + 1) * width / 2);
-                int trailY = (int) ((tyNorm + 1) * height / 2);
+            for (int i = 1; i < TRAIL_LENGTH; i++) {
+                int trailScreenX = (int) ((trailX[trailIndex(slot, i)] + 1) * width / 2);
+                int trailScreenY = (int) ((trailY[trailIndex(slot, i)] + 1) * height / 2);
 
                 // Fade trail brightness over history; i=1 is brightest, last is dimmest
-                float trailFactor = (Star.TRAIL_LENGTH - i) / (float) Star.TRAIL_LENGTH;
+                float trailFactor = (TRAIL_LENGTH - i) / (float) TRAIL_LENGTH;
                 float trailBrightness = brightness * trailFactor * 1.2f;
                 trailBrightness = Math.min(1.0f, Math.max(0.0f, trailBrightness));
 
                 if (trailBrightness > 0.01f) {
-                    int rTrail = (int) (star.color.getRed() * trailBrightness);
-                    int gTrail = (int) (star.color.getGreen() * trailBrightness);
-                    int bTrail = (int) (star.color.getBlue() * trailBrightness);
-                    rTrail = Math.max(0, Math.min(255, rTrail));
-                    gTrail = Math.max(0, Math.min(255, gTrail));
-                    bTrail = Math.max(0, Math.min(255, bTrail));
-                    Color trailColor = new Color(rTrail, gTrail, bTrail);
-                    g.setColor(trailColor);
-                    if (star.size > 1) {
-                        g.fillOval(trailX - 1, trailY - 1, 3, 3);
-                    } else {
-                        g.fillRect(trailX, trailY, 1, 1);
-                    }
+                    g.setColor(shade(slot, trailBrightness));
+                    drawDot(g, trailScreenX, trailScreenY, size[slot]);
                 }
             }
         }
-        
+
         // Map to LEDs
-        mapToLeds(g, ledGrid);
+        mapToLeds(ledGrid);
     }
-    
-    private void mapToLeds(Graphics2D g, LedGrid ledGrid) {
-        int gridCount = ledGrid.getGridCount();
-
-        // Clear all grids so only the current frame's stars remain lit
-        ledGrid.clearAllLeds();
-
-        for (int gridIndex = 0; gridIndex < gridCount; gridIndex++) {
-            var gridConfig = ledGrid.getGridConfig(gridIndex);
-            int gridSize = gridConfig.getGridSize();
-            int pixelSize = gridConfig.getPixelSize();
-            
-            // Sample each LED position
-            for (int y = 0; y < gridSize; y++) {
-                for (int x = 0; x < gridSize; x++) {
-                    // Sample at the center of each LED cell in window coordinates
-                    int windowX = gridConfig.getX() + x * pixelSize + pixelSize / 2;
-                    int windowY = gridConfig.getY() + y * pixelSize + pixelSize / 2;
 
-                    if (windowX >= 0 && windowX < windowWidth && windowY >= 0 && windowY < windowHeight) {
-                        Color ledColor = sampleStarColor(windowX, windowY);
-
-                        if (ledColor != null && ledColor.getRGB() != Color.BLACK.getRGB()) {
-                            // Standard logical coordinates: x = left->right, y = top->bottom
-                            ledGrid.setLedColor(gridIndex, x, y, ledColor);
-                        }
-                    }
-                }
-            }
+    /**
+     * Draws a one-pixel dot, or for larger stars a three-pixel round dot. The round dot is
+     * two rectangles, which Java2D fills without building a path as it does for ovals.
+     */
+    private static void drawDot(Graphics2D g, int x, int y, int size) {
+        if (size > 1) {
+            g.fillRect(x - 1, y, 3, 1);
+            g.fillRect(x, y - 1, 1, 3);
+        } else {
+            g.fillRect(x, y, 1, 1);
         }
     }
-    
-    private Color sampleStarColor(int screenX, int screenY) {
-        // Convert screen coordinates to normalized coordinates
-        float normalizedX = (screenX / (float) windowWidth) * 2 - 1;
-        float normalizedY = (screenY / (float) windowHeight) * 2 - 1;
-        
-        // Check if any star head or trail is at this position
-        for (Star star : stars) {
-            // First, check the star head
-            {
-                float dx = normalizedX - star.x;
-                float dy = normalizedY - star.y;
-                float dist = (float) Math.sqrt(dx * dx + dy * dy);
-                float starRadius = star.size * 0.02f; // slightly larger for better LED hit
-                if (dist < starRadius) {
-                    float centerX = 0;
-                    float centerY = 0;
-                    float starDx = star.x - centerX;
-                    float starDy = star.y - centerY;
-                    float starDist = (float) Math.sqrt(starDx * starDx + starDy * starDy);
-                    // LED-only brightness curve: capped lower and globally dimmed
-                    float brightness = Math.min(0.7f, Math.max(0.0f, 0.2f + starDist * 0.4f));
-                    float dim = 0.4f;
-                    float finalBrightness = brightness * dim;
-
-                    int r = (int) (star.color.getRed() * finalBrightness);
-                    int g = (int) (star.color.getGreen() * finalBrightness);
-                    int b = (int) (star.color.getBlue() * finalBrightness);
-                    r = Math.max(0, Math.min(255, r));
-                    g = Math.max(0, Math.min(255, g));
-                    b = Math.max(0, Math.min(255, b));
-
-                    return new Color(r, g, b);
-                }
-            }
-
-            // Then, check the short fading trail positions
-            for (int i = 1; i < Star.TRAIL_LENGTH; i++) {
-                float tx = star.trailX[i];
-                float ty = star.trailY[i];
-                float dx = normalizedX - tx;
-                float dy = normalizedY - ty;
-                float dist = (float) Math.sqrt(dx * dx + dy * dy);
-                float trailRadius = star.size * 0.02f;
 
-                if (dist < trailRadius) {
-                    float centerX = 0;
-                    float centerY = 0;
-                    float starDx = tx - centerX;
-                    float starDy = ty - centerY;
-                    float starDist = (float) Math.sqrt(starDx * starDx + starDy * starDy);
-                    float baseBrightness = Math.min(0.7f, Math.max(0.0f, 0.2f + starDist * 0.4f));
-                    float trailFactor = (Star.TRAIL_LENGTH - i) / (float) Star.TRAIL_LENGTH;
-                    float brightness = baseBrightness * trailFactor * 0.9f;
-                    float dim = 0.4f;
-                    float finalBrightness = brightness * dim;
+    /**
+     * Gets a star's window color at a 0-1 brightness, from its cached shades.
+     */
+    private Color shade(int slot, float brightness) {
+        return shades[slot][(int) (brightness * SHADES + 0.5f)];
+    }
 
-                    if (finalBrightness > 0.01f) {
-                        int r = (int) (star.color.getRed() * finalBrightness);
-                        int g = (int) (star.color.getGreen() * finalBrightness);
-                        int b = (int) (star.color.getBlue() * finalBrightness);
-                        r = Math.max(0, Math.min(255, r));
-                        g = Math.max(0, Math.min(255, g));
-                        b = Math.max(0, Math.min(255, b));
+    /**
+     * Draws every star onto the LEDs: the head as an antialiased point and the trail as
+     * antialiased line segments between its recorded positions, fading along its length.
+     */
+    private void mapToLeds(LedGrid ledGrid) {
+        ledFrame.clear();
+        float halfWidth = windowWidth / 2f;
+        float halfHeight = windowHeight / 2f;
+        int[] color = stars.getColor();
+        for (int s = 0; s < stars.size(); s++) {
+            int slot = stars.slot(s);
+            float headX = trailX[trailIndex(slot, 0)];
+            float headY = trailY[trailIndex(slot, 0)];
+            // Larger stars are brighter on the LEDs
+            int headColor = ColorMath.scale(color[slot], ColorMath.unit8(ledBrightness(headX, headY) * size[slot]));
+            ledFrame.plot((headX + 1) * halfWidth, (headY + 1) * halfHeight, headColor);
 
-                        return new Color(r, g, b);
-                    }
-                }
+            float previousX = headX;
+            float previousY = headY;
+            int previousColor = headColor;
+            for (int i = 1; i < TRAIL_LENGTH; i++) {
+                float tx = trailX[trailIndex(slot, i)];
+                float ty = trailY[trailIndex(slot, i)];
+                // Fade trail brightness over history; i=1 is brightest, last is dimmest
+                float trailFactor = (TRAIL_LENGTH - i) / (float) TRAIL_LENGTH;
+                int trailColor = ColorMath.scale(color[slot], ColorMath.unit8(ledBrightness(tx, ty) * trailFactor * 0.9f * size[slot]));
+                ledFrame.line((previousX + 1) * halfWidth, (previousY + 1) * halfHeight,
+                        (tx + 1) * halfWidth, (ty + 1) * halfHeight, previousColor, trailColor);
+                previousX = tx;
+                previousY = ty;
+                previousColor = trailColor;
             }
         }
-        
-        return Color.BLACK;
+        ledFrame.writeTo(ledGrid);
+    }
+
+    /**
+     * LED-only brightness curve at a normalized position: brighter away from the center,
+     * capped lower than on screen and globally dimmed.
+     */
+    private static float ledBrightness(float x, float y) {
+        float dist = (float) Math.sqrt(x * x + y * y);
+        float dim = 0.4f;
+        return Math.min(0.7f, Math.max(0.0f, 0.2f + dist * 0.4f)) * dim;
     }
 
     @Override
@@ -14,6 +14,8 @@ import java.awt.*;
 @Log4j2
 public class TestAnimation implements LedAnimation {
     
+    private static final Font INFO_FONT = new Font("Arial", Font.PLAIN, 14);
+    
     @SuppressWarnings("unused")
     private LedGrid ledGrid;
     @SuppressWarnings("unused")
@@ -77,12 +79,9 @@ public class TestAnimation implements LedAnimation {
             drawCornerMarker(g, cfg, pixelSize, maxIdx, maxIdx, bottomRightColor);
         }
 
-        // Send LED buffer to devices
-        ledGrid.sendToDevices();
-
         // Info legend
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 14));
+        g.setFont(INFO_FONT);
         g.drawString("Test Animation - Corners: TL=RED, TR=GREEN, BL=BLUE, BR=YELLOW", 10, 20);
     }
 
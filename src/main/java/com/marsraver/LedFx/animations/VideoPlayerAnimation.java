@@ -2,6 +2,7 @@ package com.marsraver.LedFx.animations;
 
 import com.marsraver.LedFx.LedGrid;
 import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.metrics.VideoFrameDecodeEvent;
 import lombok.extern.log4j.Log4j2;
 
 import javax.imageio.ImageIO;
@@ -19,6 +20,9 @@ import java.util.concurrent.atomic.AtomicLong;
 @Log4j2
 public class VideoPlayerAnimation implements LedAnimation {
 
+    private static final Font SMALL_FONT = new Font("Arial", Font.PLAIN, 10);
+    private static final Font INFO_FONT = new Font("Arial", Font.PLAIN, 12);
+
     private LedGrid ledGrid;
     private int windowWidth, windowHeight;
     private String videoPath;
@@ -239,7 +243,17 @@ public class VideoPlayerAnimation implements LedAnimation {
             if (elapsed >= FRAME_DELAY_MS) {
                 try {
                     File frameFile = frameFiles[frameIndex % frameFiles.length];
+                    VideoFrameDecodeEvent decodeEvent = new VideoFrameDecodeEvent();
+                    decodeEvent.begin();
                     BufferedImage frame = ImageIO.read(frameFile);
+                    decodeEvent.end();
+                    if (decodeEvent.shouldCommit()) {
+                        decodeEvent.frameIndex = frameIndex;
+                        decodeEvent.file = frameFile.getName();
+                        decodeEvent.width = frame != null ? frame.getWidth() : 0;
+                        decodeEvent.height = frame != null ? frame.getHeight() : 0;
+                        decodeEvent.commit();
+                    }
                     if (frame != null) {
                         this.currentFrame = frame;
                         frameCount++;
@@ -271,7 +285,7 @@ public class VideoPlayerAnimation implements LedAnimation {
         
         // Draw info text
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 12));
+        g.setFont(INFO_FONT);
         g.drawString("Video Player - Press ESC to exit", 10, 20);
         g.drawString("Frame: " + frameCount, 10, 35);
         g.drawString("Video: " + (videoPath != null ? new File(videoPath).getName() : "None"), 10, 50);
@@ -286,9 +300,6 @@ public class VideoPlayerAnimation implements LedAnimation {
         
         // Map video frame to LED grids
         mapVideoToLedGrid();
-        
-        // Send to devices
-        ledGrid.sendToDevices();
     }
 
     /**
@@ -379,12 +390,12 @@ public class VideoPlayerAnimation implements LedAnimation {
         
         // Draw current position text
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 10));
+        g.setFont(SMALL_FONT);
         String positionText = String.format("%d / %d", frameIndex % frameFiles.length, frameFiles.length);
         g.drawString(positionText, scrollbarX + scrollbarWidth + 10, scrollbarY + 12);
         
         // Draw navigation instructions
-        g.setFont(new Font("Arial", Font.PLAIN, 10));
+        g.setFont(SMALL_FONT);
         g.setColor(Color.GRAY);
         g.drawString("Click on scrollbar to seek | ← → to rewind/fast-forward", 10, height - 10);
     }
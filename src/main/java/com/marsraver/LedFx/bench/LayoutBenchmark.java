@@ -0,0 +1,269 @@
+package com.marsraver.LedFx.bench;
+
+import com.marsraver.LedFx.AnimationType;
+import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.LedGrid;
+import com.marsraver.LedFx.emulator.WledEmulator;
+import com.marsraver.LedFx.layout.GridConfig;
+import com.marsraver.LedFx.layout.LayoutConfig;
+import com.marsraver.LedFx.layout.LayoutLoader;
+import com.marsraver.LedFx.metrics.FrameStage;
+import com.marsraver.LedFx.metrics.Histogram;
+import com.marsraver.LedFx.wled.NullTransport;
+import com.marsraver.LedFx.wled.WledDdpClient;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tells whether this machine can run a layout: renders every animation (or a chosen
+ * one) headlessly on the layout for a fixed number of frames, as fast as it can, and
+ * prints the average and p99 frame time and the highest frame rate it sustained.
+ * <p>
+ * Output modes:
+ * <ul>
+ *   <li>{@code none} - frames are packed into packets and discarded; measures rendering alone</li>
+ *   <li>{@code loopback} - every device is replaced by a local {@link WledEmulator}; adds the socket cost</li>
+ *   <li>{@code live} - sends to the devices in the layout; they will show the animations</li>
+ * </ul>
+ * Run from the command line as {@code LedFxApplication --bench [layout] [--animation=<id>]
+ * [--frames=600] [--warmup=120] [--output=none|loopback|live] [--port=40000]}.
+ */
+public class LayoutBenchmark {
+
+    enum Output { NONE, LOOPBACK, LIVE }
+
+    private static final String LOOPBACK_HOST = "127.0.0.1";
+
+    private String layoutName = "FourGrids";
+    private AnimationType animationType; // null runs all of them
+    private int frames = 600;
+    private int warmupFrames = 120;
+    private Output output = Output.NONE;
+    private int basePort = 40000;
+
+    private final Histogram frameTimes = new Histogram("frame");
+
+    /**
+     * Runs the benchmark with command-line options.
+     *
+     * @return process exit status: 0 on success, 1 for bad options, 2 if the layout cannot be loaded
+     */
+    public static int run(String[] args) {
+        LayoutBenchmark benchmark = new LayoutBenchmark();
+        for (String arg : args) {
+            if (!benchmark.parseOption(arg)) {
+                System.out.println("Unknown option: " + arg);
+                printUsage();
+                return 1;
+            }
+        }
+        System.setProperty("java.awt.headless", "true");
+        LayoutConfig layout;
+        try {
+            layout = LayoutLoader.loadLayout(benchmark.layoutName);
+        } catch (Exception e) {
+            System.out.println("Cannot load layout '" + benchmark.layoutName + "': " + e.getMessage());
+            System.out.println("Available layouts: " + LayoutLoader.listAvailableLayouts());
+            return 2;
+        }
+        layout.setMetricsPort(0); // leave the port to a running instance
+        benchmark.runAll(layout);
+        return 0;
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: LedFxApplication --bench [layout] [--animation=<id>] [--frames=600] [--warmup=120]");
+        System.out.println("                               [--output=none|loopback|live] [--port=40000]");
+        System.out.println(AnimationType.getAvailableAnimations());
+    }
+
+    private boolean parseOption(String arg) {
+        String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+        try {
+            if (arg.startsWith("--animation=")) {
+                animationType = AnimationType.fromId(value);
+                return animationType != null;
+            } else if (arg.startsWith("--frames=")) {
+                frames = Integer.parseInt(value);
+                return frames > 0;
+            } else if (arg.startsWith("--warmup=")) {
+                warmupFrames = Integer.parseInt(value);
+                return warmupFrames >= 0;
+            } else if (arg.startsWith("--output=")) {
+                output = Output.valueOf(value.toUpperCase(Locale.ROOT));
+            } else if (arg.startsWith("--port=")) {
+                basePort = Integer.parseInt(value);
+            } else if (!arg.startsWith("--")) {
+                layoutName = arg;
+            } else {
+                return false;
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private void runAll(LayoutConfig layout) {
+        List<AnimationType> animations = new ArrayList<>();
+        if (animationType != null) {
+            animations.add(animationType);
+        } else {
+            for (AnimationType type : AnimationType.values()) {
+                if (type != AnimationType.VIDEO_PLAYER) { // needs ffmpeg and a video; run it with --animation
+                    animations.add(type);
+                }
+            }
+        }
+
+        int leds = 0;
+        for (GridConfig grid : layout.getGrids()) {
+            leds += grid.getGridSize() * grid.getGridSize();
+        }
+        System.out.printf("LedFx benchmark: layout %s, %d grids, %d LEDs, %dx%d window, %s output, %d frames (+%d warm-up)%n%n",
+                layout.getName(), layout.getGridCount(), leds, layout.getWindowWidth(), layout.getWindowHeight(),
+                output.name().toLowerCase(Locale.ROOT), frames, warmupFrames);
+        System.out.printf("%-20s %9s %9s %9s %9s %9s %8s%n",
+                "animation", "avg ms", "p50 ms", "p99 ms", "max ms", "max fps", "errors");
+
+        List<WledEmulator> receivers = new ArrayList<>();
+        try {
+            if (output == Output.LOOPBACK) {
+                receivers = redirectToLoopback(layout);
+            }
+            for (AnimationType type : animations) {
+                try {
+                    Result result = run(layout, type);
+                    System.out.printf("%-20s %9.3f %9.3f %9.3f %9.3f %9.1f %8d%n",
+                            type.getId(), ms(frameTimes.getMean()), ms(frameTimes.getPercentile(50)),
+                            ms(frameTimes.getPercentile(99)), ms(frameTimes.getMax()), result.sustainedFps, result.sendErrors);
+                } catch (RuntimeException e) {
+                    System.out.printf("%-20s failed: %s%n", type.getId(), e);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Cannot start loopback receivers: " + e.getMessage());
+        } finally {
+            for (WledEmulator receiver : receivers) {
+                receiver.stop();
+            }
+        }
+        System.out.println();
+        System.out.println("max fps is the rate frames were sent to the devices while rendering flat out.");
+    }
+
+    /**
+     * Renders one animation on the layout: warm-up, then the measured frames.
+     */
+    private Result run(LayoutConfig layout, AnimationType type) {
+        LedGrid ledGrid = output == Output.NONE ? new LedGrid(layout, new NullTransport()) : new LedGrid(layout);
+        LedAnimation animation = null;
+        try {
+            int width = layout.getWindowWidth();
+            int height = layout.getWindowHeight();
+            BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            animation = AnimationType.createAnimation(type);
+            animation.init(width, height, ledGrid);
+
+            renderFrames(animation, ledGrid, canvas, warmupFrames);
+            frameTimes.reset();
+            long sentBefore = ledGrid.getSendScheduler().getFramesSent();
+            long errorsBefore = ledGrid.getSendScheduler().getSendErrors();
+
+            long start = System.nanoTime();
+            renderFrames(animation, ledGrid, canvas, frames);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            Result result = new Result();
+            result.sustainedFps = (ledGrid.getSendScheduler().getFramesSent() - sentBefore) / elapsedSeconds;
+            result.sendErrors = ledGrid.getSendScheduler().getSendErrors() - errorsBefore;
+            return result;
+        } finally {
+            if (animation != null) {
+                animation.stop();
+            }
+            ledGrid.close();
+        }
+    }
+
+    private void renderFrames(LedAnimation animation, LedGrid ledGrid, BufferedImage canvas, int count) {
+        int width = canvas.getWidth();
+        int height = canvas.getHeight();
+        for (int i = 0; i < count; i++) {
+            long frameStart = System.nanoTime();
+            ledGrid.getFrameTimer().beginFrame();
+            Graphics2D g = canvas.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+            LedAnimation.drawFrame(animation, g, width, height, ledGrid);
+            ledGrid.getFrameTimer().mark(FrameStage.RENDER);
+            ledGrid.sendToDevices();
+            g.dispose();
+            frameTimes.record(System.nanoTime() - frameStart);
+        }
+    }
+
+    /**
+     * Points every device of the layout at its own emulator on the loopback address,
+     * keeping the grids that share a device together.
+     */
+    private List<WledEmulator> redirectToLoopback(LayoutConfig layout) throws IOException {
+        Map<String, GridConfig> firstGridByDevice = new LinkedHashMap<>();
+        Map<String, Integer> ledsByDevice = new LinkedHashMap<>();
+        Map<String, Integer> portByDevice = new LinkedHashMap<>();
+        for (GridConfig grid : layout.getGrids()) {
+            int devicePort = grid.getDevicePort() > 0 ? grid.getDevicePort() : WledDdpClient.getDefaultDdpPort();
+            String deviceKey = grid.getDeviceIp() + ":" + devicePort;
+            firstGridByDevice.putIfAbsent(deviceKey, grid);
+            portByDevice.putIfAbsent(deviceKey, basePort + portByDevice.size());
+            ledsByDevice.merge(deviceKey, grid.getStartLed() + grid.getGridSize() * grid.getGridSize(), Math::max);
+        }
+        for (GridConfig grid : layout.getGrids()) {
+            int devicePort = grid.getDevicePort() > 0 ? grid.getDevicePort() : WledDdpClient.getDefaultDdpPort();
+            grid.setDevicePort(portByDevice.get(grid.getDeviceIp() + ":" + devicePort));
+            grid.setDeviceIp(LOOPBACK_HOST);
+        }
+        layout.setSyncBroadcastIp(null); // a broadcast push would leave the machine
+
+        List<WledEmulator> receivers = new ArrayList<>();
+        try {
+            for (Map.Entry<String, Integer> device : portByDevice.entrySet()) {
+                WledEmulator receiver = new WledEmulator(LOOPBACK_HOST, ledsByDevice.get(device.getKey()),
+                        firstGridByDevice.get(device.getKey()).getId());
+                receiver.setDdpPort(device.getValue());
+                receiver.setArtNetPort(WledEmulator.DISABLED);
+                receiver.setSacnPort(WledEmulator.DISABLED);
+                receiver.setRealtimePort(WledEmulator.DISABLED);
+                receiver.setHttpPort(WledEmulator.DISABLED);
+                receiver.start();
+                receivers.add(receiver);
+            }
+        } catch (IOException e) {
+            for (WledEmulator receiver : receivers) {
+                receiver.stop();
+            }
+            throw e;
+        }
+        return receivers;
+    }
+
+    private static double ms(double nanos) {
+        return nanos / 1e6;
+    }
+
+    static class Result {
+        double sustainedFps;
+        long sendErrors;
+    }
+}
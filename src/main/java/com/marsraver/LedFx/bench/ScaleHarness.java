@@ -0,0 +1,310 @@
+package com.marsraver.LedFx.bench;
+
+import com.marsraver.LedFx.AnimationType;
+import com.marsraver.LedFx.LedAnimation;
+import com.marsraver.LedFx.LedGrid;
+import com.marsraver.LedFx.emulator.EmulatedDevice;
+import com.marsraver.LedFx.emulator.WledEmulator;
+import com.marsraver.LedFx.layout.GridConfig;
+import com.marsraver.LedFx.layout.LayoutConfig;
+import com.marsraver.LedFx.metrics.FrameStage;
+import com.marsraver.LedFx.metrics.FrameTimer;
+import com.marsraver.LedFx.metrics.Histogram;
+import com.marsraver.LedFx.wled.UdpTransport;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Finds where LedFx tops out as the number of grids grows.
+ * <p>
+ * For each grid count the harness builds a {@link SyntheticLayout}, starts a loopback
+ * {@link WledEmulator} per device, and runs the chosen animation headlessly against an
+ * offscreen canvas, the same draw-then-send sequence the sketch window runs. After a
+ * warm-up it reports render and send FPS, the frame rate the receivers actually
+ * displayed, per-stage frame-time percentiles, render-to-wire latency (until the last
+ * packet is sent, and until the receiver latched it, from the DDP timecode), network bytes per second, the render
+ * thread's allocation rate and receive-side losses.
+ * <p>
+ * Usage: {@code ScaleHarness [--animation=<id>] [--grids=1,4,16,64,200] [--size=16]
+ * [--pixel=15] [--seconds=5] [--warmup=2] [--fps=0] [--paced] [--sync] [--port=40000]}
+ * <br>{@code --fps=0} renders as fast as possible.
+ */
+public class ScaleHarness {
+
+    private static final String HOST = "127.0.0.1";
+
+    private AnimationType animationType = AnimationType.FAST_PLASMA;
+    private int[] gridCounts = {1, 4, 16, 64, 200};
+    private int gridSize = 16;
+    private int pixelSize = 15;
+    private double seconds = 5;
+    private double warmupSeconds = 2;
+    private int targetFps = 0;
+    private boolean paced;
+    private boolean sync;
+    private int basePort = 40000;
+
+    private final Histogram drawTimes = new Histogram("draw");
+    private final Histogram outputTimes = new Histogram("output");
+    private final Histogram frameTimes = new Histogram("frame");
+
+    public static void main(String[] args) throws Exception {
+        ScaleHarness harness = new ScaleHarness();
+        for (String arg : args) {
+            if (!harness.parseOption(arg)) {
+                System.out.println("Unknown option: " + arg);
+                System.out.println("Usage: java ScaleHarness [--animation=<id>] [--grids=1,4,16,64,200] [--size=16] [--pixel=15]");
+                System.out.println("                         [--seconds=5] [--warmup=2] [--fps=0] [--paced] [--sync] [--port=40000]");
+                System.out.println(AnimationType.getAvailableAnimations());
+                return;
+            }
+        }
+        System.setProperty("java.awt.headless", "true");
+        harness.runAll();
+        System.exit(0);
+    }
+
+    private boolean parseOption(String arg) {
+        String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+        if (arg.startsWith("--animation=")) {
+            animationType = AnimationType.fromId(value);
+            return animationType != null;
+        } else if (arg.startsWith("--grids=")) {
+            String[] parts = value.split(",");
+            gridCounts = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                gridCounts[i] = Integer.parseInt(parts[i].trim());
+            }
+        } else if (arg.startsWith("--size=")) {
+            gridSize = Integer.parseInt(value);
+        } else if (arg.startsWith("--pixel=")) {
+            pixelSize = Integer.parseInt(value);
+        } else if (arg.startsWith("--seconds=")) {
+            seconds = Double.parseDouble(value);
+        } else if (arg.startsWith("--warmup=")) {
+            warmupSeconds = Double.parseDouble(value);
+        } else if (arg.startsWith("--fps=")) {
+            targetFps = Integer.parseInt(value);
+        } else if (arg.startsWith("--port=")) {
+            basePort = Integer.parseInt(value);
+        } else if (arg.equals("--paced")) {
+            paced = true;
+        } else if (arg.equals("--sync")) {
+            sync = true;
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void runAll() throws IOException {
+        System.out.printf("LedFx scale harness: %s, %dx%d grids, %d px/LED, %s fps, %s output%s%n%n",
+                animationType.getId(), gridSize, gridSize, pixelSize, targetFps > 0 ? String.valueOf(targetFps) : "max",
+                paced ? "paced" : "inline", sync ? ", sync" : "");
+        System.out.printf("%6s %7s %8s %8s %8s | %-17s | %-17s | %-17s | %-17s %9s | %8s %10s %9s %4s | %7s %6s %6s%n",
+                "grids", "LEDs", "render", "send", "shown", "draw p50/p99 ms", "output p50/p99 ms", "frame p99/max ms",
+                "e2e p50/p99 ms", "wire p99", "MB/s", "alloc MB/s", "B/frame", "GCs", "partial", "gaps", "drops");
+        for (int gridCount : gridCounts) {
+            Result result = run(gridCount);
+            System.out.printf("%6d %7d %8.1f %8.1f %8.1f | %7.3f / %7.3f | %7.3f / %7.3f | %7.3f / %7.3f | %7.3f / %7.3f %9.3f | %8.2f %10.2f %9d %4d | %7d %6d %6d%n",
+                    gridCount, gridCount * gridSize * gridSize, result.renderFps, result.sendFps, result.shownFps,
+                    ms(drawTimes.getPercentile(50)), ms(drawTimes.getPercentile(99)),
+                    ms(outputTimes.getPercentile(50)), ms(outputTimes.getPercentile(99)),
+                    ms(frameTimes.getPercentile(99)), ms(frameTimes.getMax()),
+                    ms(result.endToEndP50), ms(result.endToEndP99), ms(result.wireP99),
+                    result.bytesPerSecond / 1e6, result.allocatedBytesPerSecond / 1e6, result.allocatedBytesPerFrame, result.gcCount,
+                    result.partialFrames, result.sequenceGaps, result.droppedPackets);
+        }
+    }
+
+    /**
+     * Runs one grid count: warm-up, then a measured interval.
+     */
+    Result run(int gridCount) throws IOException {
+        LayoutConfig layout = SyntheticLayout.create(gridCount, gridSize, pixelSize, HOST, basePort);
+        layout.setFrameTimecode(true);
+        List<WledEmulator> receivers = startReceivers(layout);
+        LedGrid ledGrid = new LedGrid(layout);
+        LedAnimation animation = null;
+        try {
+            ledGrid.setSyncOutput(sync);
+            ledGrid.setPacedOutput(paced);
+            int width = layout.getWindowWidth();
+            int height = layout.getWindowHeight();
+            BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            animation = AnimationType.createAnimation(animationType);
+            animation.init(width, height, ledGrid);
+
+            runFrames(animation, ledGrid, canvas, (long) (warmupSeconds * 1e9));
+            drawTimes.reset();
+            outputTimes.reset();
+            frameTimes.reset();
+            ledGrid.getFrameTimer().reset();
+            for (WledEmulator receiver : receivers) {
+                receiver.getDevice().getWireLatency().reset();
+            }
+
+            UdpTransport transport = UdpTransport.shared();
+            long bytesBefore = transport.getBytesSent();
+            long dropsBefore = transport.getPacketsDropped();
+            long sentBefore = ledGrid.getSendScheduler().getFramesSent();
+            long[] shownBefore = new long[receivers.size()];
+            long partialBefore = 0;
+            long gapsBefore = 0;
+            for (int i = 0; i < receivers.size(); i++) {
+                EmulatedDevice device = receivers.get(i).getDevice();
+                shownBefore[i] = device.getFramesDisplayed();
+                partialBefore += device.getPartialFrames() + device.getAbandonedFrames();
+                gapsBefore += device.getSequenceGaps();
+            }
+            long allocatedBefore = allocatedBytes();
+            long gcBefore = gcCount();
+
+            long start = System.nanoTime();
+            long frames = runFrames(animation, ledGrid, canvas, (long) (seconds * 1e9));
+            long elapsed = System.nanoTime() - start;
+
+            long allocated = allocatedBytes() - allocatedBefore;
+            long collections = gcCount() - gcBefore;
+            LockSupport.parkNanos(50_000_000); // let the receivers drain the last frames
+            Result result = new Result();
+            double elapsedSeconds = elapsed / 1e9;
+            result.renderFps = frames / elapsedSeconds;
+            result.sendFps = (ledGrid.getSendScheduler().getFramesSent() - sentBefore) / elapsedSeconds;
+            double shown = 0;
+            for (int i = 0; i < receivers.size(); i++) {
+                EmulatedDevice device = receivers.get(i).getDevice();
+                shown += device.getFramesDisplayed() - shownBefore[i];
+                result.partialFrames += device.getPartialFrames() + device.getAbandonedFrames();
+                result.sequenceGaps += device.getSequenceGaps();
+            }
+            result.partialFrames -= partialBefore;
+            result.sequenceGaps -= gapsBefore;
+            result.shownFps = receivers.isEmpty() ? 0 : shown / receivers.size() / elapsedSeconds;
+            result.bytesPerSecond = (transport.getBytesSent() - bytesBefore) / elapsedSeconds;
+            result.droppedPackets = transport.getPacketsDropped() - dropsBefore;
+            result.allocatedBytesPerSecond = allocated / elapsedSeconds;
+            result.allocatedBytesPerFrame = frames > 0 ? allocated / frames : 0;
+            result.gcCount = collections;
+            FrameTimer frameTimer = ledGrid.getFrameTimer();
+            result.endToEndP50 = frameTimer.getFrameLatency().getPercentile(50);
+            result.endToEndP99 = frameTimer.getFrameLatency().getPercentile(99);
+            for (WledEmulator receiver : receivers) {
+                result.wireP99 = Math.max(result.wireP99, receiver.getDevice().getWireLatency().getPercentile(99));
+            }
+            return result;
+        } finally {
+            if (animation != null) {
+                animation.stop();
+            }
+            ledGrid.close();
+            for (WledEmulator receiver : receivers) {
+                receiver.stop();
+            }
+        }
+    }
+
+    private long runFrames(LedAnimation animation, LedGrid ledGrid, BufferedImage canvas, long durationNanos) {
+        int width = canvas.getWidth();
+        int height = canvas.getHeight();
+        long frameInterval = targetFps > 0 ? 1_000_000_000L / targetFps : 0;
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        long nextFrame = start;
+        long frames = 0;
+        while (System.nanoTime() < end) {
+            long frameStart = System.nanoTime();
+            ledGrid.getFrameTimer().beginFrame();
+            Graphics2D g = canvas.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+            LedAnimation.drawFrame(animation, g, width, height, ledGrid);
+            ledGrid.getFrameTimer().mark(FrameStage.RENDER);
+            long drawn = System.nanoTime();
+            ledGrid.sendToDevices();
+            long sent = System.nanoTime();
+            g.dispose();
+
+            drawTimes.record(drawn - frameStart);
+            outputTimes.record(sent - drawn);
+            frameTimes.record(sent - frameStart);
+            frames++;
+
+            if (frameInterval > 0) {
+                nextFrame += frameInterval;
+                long wait = nextFrame - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    nextFrame = System.nanoTime(); // fell behind; do not try to catch up
+                }
+            }
+        }
+        return frames;
+    }
+
+    private List<WledEmulator> startReceivers(LayoutConfig layout) throws IOException {
+        List<WledEmulator> receivers = new ArrayList<>();
+        for (GridConfig grid : layout.getGrids()) {
+            WledEmulator receiver = new WledEmulator(grid.getDeviceIp(), grid.getGridSize() * grid.getGridSize(), grid.getId());
+            receiver.setDdpPort(grid.getDevicePort());
+            receiver.setArtNetPort(WledEmulator.DISABLED);
+            receiver.setSacnPort(WledEmulator.DISABLED);
+            receiver.setRealtimePort(WledEmulator.DISABLED);
+            receiver.setHttpPort(WledEmulator.DISABLED);
+            receiver.start();
+            receivers.add(receiver);
+        }
+        return receivers;
+    }
+
+    /**
+     * Bytes allocated so far by the calling (render) thread, or 0 if the JVM cannot tell.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean sunThreads && sunThreads.isThreadAllocatedMemorySupported()) {
+            return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    static class Result {
+        double renderFps;
+        double sendFps;
+        double shownFps;
+        double bytesPerSecond;
+        double allocatedBytesPerSecond;
+        long allocatedBytesPerFrame;
+        long partialFrames;
+        long sequenceGaps;
+        long droppedPackets;
+        long gcCount;
+        long endToEndP50;
+        long endToEndP99;
+        long wireP99;
+    }
+}
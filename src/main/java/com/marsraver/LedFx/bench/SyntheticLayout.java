@@ -0,0 +1,42 @@
+package com.marsraver.LedFx.bench;
+
+import com.marsraver.LedFx.layout.GridConfig;
+import com.marsraver.LedFx.layout.LayoutConfig;
+
+/**
+ * Builds layouts of N identical square grids for scale testing.
+ * <p>
+ * Grids are tiled in a near-square arrangement, each on its own device. All devices
+ * share one host and get consecutive DDP ports, so a single address (127.0.0.1) can
+ * host every receiver without loopback aliases.
+ */
+public final class SyntheticLayout {
+
+    private SyntheticLayout() {
+    }
+
+    /**
+     * Creates a synthetic layout.
+     *
+     * @param gridCount number of grids
+     * @param gridSize  LEDs per grid side
+     * @param pixelSize window pixels per LED
+     * @param host      device address of every grid
+     * @param basePort  DDP port of the first grid; grid i uses basePort + i
+     */
+    public static LayoutConfig create(int gridCount, int gridSize, int pixelSize, String host, int basePort) {
+        int columns = (int) Math.ceil(Math.sqrt(gridCount));
+        int rows = (gridCount + columns - 1) / columns;
+        int gridPixels = gridSize * pixelSize;
+
+        LayoutConfig layout = new LayoutConfig("Synthetic" + gridCount, "LedFx - " + gridCount + " synthetic grids",
+                columns * gridPixels, rows * gridPixels);
+        for (int i = 0; i < gridCount; i++) {
+            GridConfig grid = new GridConfig(String.format("S%03d", i), host, gridSize * gridSize,
+                    (i % columns) * gridPixels, (i / columns) * gridPixels, gridPixels, gridPixels, gridSize, pixelSize);
+            grid.setDevicePort(basePort + i);
+            layout.addGrid(grid);
+        }
+        return layout;
+    }
+}
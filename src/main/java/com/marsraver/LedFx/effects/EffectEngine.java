@@ -0,0 +1,198 @@
+package com.marsraver.LedFx.effects;
+
+import com.marsraver.LedFx.LedGrid;
+import com.marsraver.LedFx.layout.GridConfig;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates an {@link LedEffect} for every LED of a layout.
+ * <p>
+ * The coordinates of every LED are computed once, into one array per coordinate, and the
+ * LEDs are split into fixed chunks that run on the common fork-join pool, so a frame costs
+ * one call of the effect per LED spread over all cores. The chunk tasks are reused from
+ * frame to frame. Layouts too small to be worth splitting are evaluated on the calling
+ * thread.
+ * <p>
+ * The colors land in {@link #getColors()}, grid by grid and row-major within a grid, and
+ * {@link #writeTo(LedGrid)} hands them to the grid. An engine renders one frame at a
+ * time; call it from one thread.
+ */
+public class EffectEngine {
+
+    // LEDs per chunk at the least; fewer than two chunks' worth renders on the calling thread
+    private static final int MIN_CHUNK = 1024;
+    // Chunks per pool thread, so threads that finish early can pick up more work
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // Per-LED coordinates, read by LedPoint
+    final int[] grid, ledX, ledY;
+    final float[] u, v, radius, angle;
+
+    private final int[] gridOffset; // first LED of each grid
+    private final int[] colors;
+    private final Chunk[] chunks;
+
+    // The frame being rendered, read by the chunks
+    private LedEffect effect;
+    private float time, audio;
+
+    /**
+     * Creates an engine for the grids of a layout.
+     */
+    public EffectEngine(LedGrid ledGrid) {
+        int gridCount = ledGrid.getGridCount();
+        this.gridOffset = new int[gridCount];
+        int leds = 0;
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < gridCount; i++) {
+            GridConfig config = ledGrid.getGridConfig(i);
+            int extent = config.getGridSize() * config.getPixelSize();
+            gridOffset[i] = leds;
+            leds += config.getGridSize() * config.getGridSize();
+            minX = Math.min(minX, config.getX());
+            minY = Math.min(minY, config.getY());
+            maxX = Math.max(maxX, config.getX() + extent);
+            maxY = Math.max(maxY, config.getY() + extent);
+        }
+
+        this.grid = new int[leds];
+        this.ledX = new int[leds];
+        this.ledY = new int[leds];
+        this.u = new float[leds];
+        this.v = new float[leds];
+        this.radius = new float[leds];
+        this.angle = new float[leds];
+        this.colors = new int[leds];
+
+        float width = Math.max(1f, maxX - minX);
+        float height = Math.max(1f, maxY - minY);
+        float halfExtent = Math.max(width, height) / 2;
+        int led = 0;
+        for (int i = 0; i < gridCount; i++) {
+            GridConfig config = ledGrid.getGridConfig(i);
+            int pitch = config.getPixelSize();
+            for (int y = 0; y < config.getGridSize(); y++) {
+                for (int x = 0; x < config.getGridSize(); x++, led++) {
+                    // LED centers in window coordinates
+                    float windowX = config.getX() + (x + 0.5f) * pitch;
+                    float windowY = config.getY() + (y + 0.5f) * pitch;
+                    float dx = (windowX - minX - width / 2) / halfExtent;
+                    float dy = (windowY - minY - height / 2) / halfExtent;
+                    float turns = (float) (Math.atan2(dy, dx) / (2 * Math.PI));
+                    grid[led] = i;
+                    ledX[led] = x;
+                    ledY[led] = y;
+                    u[led] = (windowX - minX) / width;
+                    v[led] = (windowY - minY) / height;
+                    radius[led] = (float) Math.sqrt(dx * dx + dy * dy);
+                    angle[led] = turns < 0 ? turns + 1 : turns;
+                }
+            }
+        }
+
+        int chunkCount = Math.max(1, Math.min(leds / MIN_CHUNK,
+                ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD));
+        this.chunks = new Chunk[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i] = new Chunk((int) ((long) leds * i / chunkCount), (int) ((long) leds * (i + 1) / chunkCount));
+        }
+    }
+
+    /**
+     * Evaluates an effect for every LED into {@link #getColors()}. Whatever the effect
+     * throws is rethrown here.
+     */
+    public void render(LedEffect effect, float time, float audio) {
+        this.effect = effect;
+        this.time = time;
+        this.audio = audio;
+        try {
+            if (chunks.length == 1) {
+                chunks[0].evaluate();
+            } else {
+                for (Chunk chunk : chunks) {
+                    chunk.reinitialize();
+                }
+                ForkJoinTask.invokeAll(chunks);
+            }
+        } finally {
+            this.effect = null;
+        }
+    }
+
+    /**
+     * Sets every LED of the grid to the last rendered colors.
+     */
+    public void writeTo(LedGrid ledGrid) {
+        int led = 0;
+        for (int i = 0; i < ledGrid.getGridCount(); i++) {
+            int gridSize = ledGrid.getGridConfig(i).getGridSize();
+            for (int y = 0; y < gridSize; y++) {
+                for (int x = 0; x < gridSize; x++) {
+                    ledGrid.setLedRgb(i, x, y, colors[led++]);
+                }
+            }
+        }
+    }
+
+    /**
+     * The last rendered colors, packed 0xRRGGBB, grid by grid and row-major within a grid.
+     * This is the engine's own array, not a copy.
+     */
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * Index in {@link #getColors()} of the first LED of a grid.
+     */
+    public int getGridOffset(int gridIndex) {
+        return gridOffset[gridIndex];
+    }
+
+    public int getLedCount() {
+        return colors.length;
+    }
+
+    /**
+     * Number of pieces a frame is split into, 1 when it renders on the calling thread.
+     */
+    public int getChunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * A fixed range of LEDs, with its own cursor.
+     */
+    private final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final LedPoint point = new LedPoint(EffectEngine.this);
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            evaluate();
+        }
+
+        void evaluate() {
+            LedEffect effect = EffectEngine.this.effect;
+            float time = EffectEngine.this.time;
+            float audio = EffectEngine.this.audio;
+            for (int i = from; i < to; i++) {
+                point.index = i;
+                colors[i] = effect.color(point, time, audio);
+            }
+        }
+    }
+}
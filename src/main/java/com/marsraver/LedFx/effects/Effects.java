@@ -0,0 +1,39 @@
+package com.marsraver.LedFx.effects;
+
+import com.marsraver.LedFx.ColorMath;
+
+/**
+ * Built-in {@link LedEffect}s, each a few lines of color math over the LED's coordinates.
+ */
+public final class Effects {
+
+    /**
+     * Rainbow arms turning around the layout's center.
+     */
+    public static final LedEffect RAINBOW_SPIRAL = (led, time, audio) ->
+            ColorMath.hsv(led.getAngle() * 2 + led.getRadius() * 0.75f - time * 0.25f, 1f, 1f);
+
+    /**
+     * Rings running out from the center over a slowly turning hue; louder audio makes
+     * them brighter.
+     */
+    public static final LedEffect RIPPLES = (led, time, audio) -> {
+        float wave = 0.5f + 0.5f * (float) Math.sin(led.getRadius() * 18 - time * 5);
+        float value = wave * wave * (0.6f + 0.4f * audio);
+        return ColorMath.hsv(time * 0.05f + led.getRadius() * 0.3f, 0.9f, value);
+    };
+
+    /**
+     * Classic sine plasma over the layout's normalized coordinates.
+     */
+    public static final LedEffect SINE_PLASMA = (led, time, audio) -> {
+        float u = led.getU() * 6;
+        float v = led.getV() * 6;
+        float plasma = (float) (Math.sin(u + time) + Math.sin(v * 1.3f - time * 0.7f)
+                + Math.sin((u + v) * 0.7f + time * 0.5f));
+        return ColorMath.hsv(plasma / 6 + time * 0.03f, 0.8f, 0.9f);
+    };
+
+    private Effects() {
+    }
+}
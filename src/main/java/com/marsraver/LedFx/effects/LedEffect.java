@@ -0,0 +1,27 @@
+package com.marsraver.LedFx.effects;
+
+/**
+ * An effect written as a pure function from an LED and the moment to its color, which an
+ * {@link EffectEngine} evaluates for every LED of a layout, in parallel. A simple effect
+ * is a lambda of a few lines and never touches Graphics2D or the LED mapping:
+ * <pre>{@code
+ * LedEffect spiral = (led, time, audio) ->
+ *         ColorMath.hsv(led.getAngle() + led.getRadius() - time * 0.2f, 1f, 1f);
+ * }</pre>
+ * The function is called from several threads at once, so it must not keep mutable state;
+ * anything that changes from frame to frame comes in through {@code time} and
+ * {@code audio}.
+ */
+@FunctionalInterface
+public interface LedEffect {
+
+    /**
+     * Gets the color of one LED.
+     *
+     * @param led the LED's coordinates; only valid during the call
+     * @param time seconds since the effect started
+     * @param audio the audio level, 0-1, or 0 without an audio source
+     * @return the packed 0xRRGGBB color, see {@link com.marsraver.LedFx.ColorMath}
+     */
+    int color(LedPoint led, float time, float audio);
+}
@@ -0,0 +1,76 @@
+package com.marsraver.LedFx.effects;
+
+/**
+ * The coordinates of the LED an {@link LedEffect} is coloring, in the forms effects
+ * usually want: the LED within its grid, normalized over the whole layout, and polar
+ * around the layout's center. All of them are computed once by the {@link EffectEngine};
+ * a point is a cursor into its arrays, which the engine moves from LED to LED, one point
+ * per worker thread.
+ */
+public final class LedPoint {
+
+    private final EffectEngine engine;
+    int index; // set by the engine before each call
+
+    LedPoint(EffectEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Index of the LED in the engine's colors, grid by grid, row-major.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Index of the LED's grid in the layout.
+     */
+    public int getGrid() {
+        return engine.grid[index];
+    }
+
+    /**
+     * Column of the LED in its grid, 0 at the left.
+     */
+    public int getX() {
+        return engine.ledX[index];
+    }
+
+    /**
+     * Row of the LED in its grid, 0 at the top.
+     */
+    public int getY() {
+        return engine.ledY[index];
+    }
+
+    /**
+     * Horizontal position across the layout, 0 at its left edge to 1 at its right edge.
+     */
+    public float getU() {
+        return engine.u[index];
+    }
+
+    /**
+     * Vertical position across the layout, 0 at its top edge to 1 at its bottom edge.
+     */
+    public float getV() {
+        return engine.v[index];
+    }
+
+    /**
+     * Distance from the layout's center, 1 at the middle of its farther edges. Distances
+     * are measured in the same units both ways, so circles stay round on wide layouts.
+     */
+    public float getRadius() {
+        return engine.radius[index];
+    }
+
+    /**
+     * Direction from the layout's center in turns, 0-1, starting to the right and going
+     * clockwise on screen.
+     */
+    public float getAngle() {
+        return engine.angle[index];
+    }
+}
@@ -0,0 +1,294 @@
+package com.marsraver.LedFx.emulator;
+
+import com.marsraver.LedFx.metrics.Histogram;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Pixel state and receive statistics of one emulated WLED device.
+ * <p>
+ * Incoming pixel data is written into a staging buffer; {@link #latch()} copies it to
+ * the displayed frame, the way WLED shows buffered DDP data on a push. A latched frame
+ * that did not cover every LED since the previous latch is counted as partial.
+ */
+public class EmulatedDevice {
+
+    private final String name;
+    private final int ledCount;
+    private final byte[] staging;
+    private final int[] displayed; // packed 0xRRGGBB per LED
+    private final boolean[] covered;
+    private int coveredLeds;
+
+    private boolean on = true;
+    private int brightness = 255;
+
+    private long packetsReceived;
+    private long bytesReceived;
+    private long framesDisplayed;
+    private long partialFrames;
+    private long abandonedFrames;
+    private long sequenceGaps;
+    private long outOfOrderPackets;
+    private long malformedPackets;
+    private long firstFrameNanos;
+    private long lastFrameNanos;
+    private final Histogram wireLatency = new Histogram("wire latency");
+
+    public EmulatedDevice(String name, int ledCount) {
+        this.name = name;
+        this.ledCount = ledCount;
+        this.staging = new byte[ledCount * 3];
+        this.displayed = new int[ledCount];
+        this.covered = new boolean[ledCount];
+    }
+
+    /**
+     * Writes channel data into the staging buffer. Bytes beyond the last LED are ignored.
+     *
+     * @param byteOffset offset of the first byte in the device's RGB channel space
+     * @param data       source bytes
+     * @param dataOffset index of the first source byte
+     * @param length     number of bytes
+     */
+    public synchronized void write(int byteOffset, byte[] data, int dataOffset, int length) {
+        if (byteOffset < 0 || byteOffset >= staging.length) {
+            return;
+        }
+        int count = Math.min(length, staging.length - byteOffset);
+        System.arraycopy(data, dataOffset, staging, byteOffset, count);
+        int firstLed = byteOffset / 3;
+        int endLed = (byteOffset + count) / 3; // only LEDs whose three channels all arrived
+        for (int led = firstLed; led < endLed; led++) {
+            if (!covered[led]) {
+                covered[led] = true;
+                coveredLeds++;
+            }
+        }
+    }
+
+    /**
+     * Writes a single LED into the staging buffer.
+     */
+    public synchronized void writeLed(int led, int r, int g, int b) {
+        if (led < 0 || led >= ledCount) {
+            return;
+        }
+        staging[led * 3] = (byte) r;
+        staging[led * 3 + 1] = (byte) g;
+        staging[led * 3 + 2] = (byte) b;
+        if (!covered[led]) {
+            covered[led] = true;
+            coveredLeds++;
+        }
+    }
+
+    /**
+     * Displays the staged data and starts a new frame.
+     */
+    public synchronized void latch() {
+        for (int i = 0; i < ledCount; i++) {
+            displayed[i] = (staging[i * 3] & 0xFF) << 16 | (staging[i * 3 + 1] & 0xFF) << 8 | (staging[i * 3 + 2] & 0xFF);
+        }
+        if (coveredLeds < ledCount) {
+            partialFrames++;
+        }
+        framesDisplayed++;
+        long now = System.nanoTime();
+        if (firstFrameNanos == 0) {
+            firstFrameNanos = now;
+        }
+        lastFrameNanos = now;
+        resetCoverage();
+        notifyAll();
+    }
+
+    /**
+     * Discards the coverage of a frame that was never latched because data for a
+     * newer frame arrived first. The staged pixels stay, as they do on a real device.
+     */
+    public synchronized void abandonFrame() {
+        if (coveredLeds > 0) {
+            abandonedFrames++;
+            resetCoverage();
+        }
+    }
+
+    /**
+     * Returns true if data has been staged since the last latch.
+     */
+    public synchronized boolean hasStagedData() {
+        return coveredLeds > 0;
+    }
+
+    private void resetCoverage() {
+        if (coveredLeds > 0) {
+            Arrays.fill(covered, false);
+            coveredLeds = 0;
+        }
+    }
+
+    /**
+     * Waits until at least the given number of frames has been displayed.
+     *
+     * @return true if the count was reached before the timeout
+     */
+    public synchronized boolean awaitFrames(long frames, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (framesDisplayed < frames) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    synchronized void countPacket(int bytes) {
+        packetsReceived++;
+        bytesReceived += bytes;
+    }
+
+    synchronized void countSequenceGaps(int missing) {
+        sequenceGaps += missing;
+    }
+
+    synchronized void countOutOfOrder() {
+        outOfOrderPackets++;
+    }
+
+    synchronized void countMalformed() {
+        malformedPackets++;
+    }
+
+    void recordWireLatency(long nanos) {
+        wireLatency.record(nanos);
+    }
+
+    /**
+     * Gets the displayed frame as packed 0xRRGGBB values.
+     */
+    public synchronized int[] getPixels() {
+        return displayed.clone();
+    }
+
+    public synchronized int getPixel(int led) {
+        return displayed[led];
+    }
+
+    /**
+     * Renders the displayed frame with brightness and power applied, laying the LEDs
+     * out row by row the way {@code LedGrid} packs a grid.
+     *
+     * @param columns   LEDs per row
+     * @param pixelSize size of each LED in image pixels
+     */
+    public synchronized BufferedImage renderImage(int columns, int pixelSize) {
+        int rows = (ledCount + columns - 1) / columns;
+        BufferedImage image = new BufferedImage(columns * pixelSize, Math.max(1, rows) * pixelSize, BufferedImage.TYPE_INT_RGB);
+        int scale = on ? brightness : 0;
+        for (int led = 0; led < ledCount; led++) {
+            int rgb = displayed[led];
+            int r = ((rgb >> 16) & 0xFF) * scale / 255;
+            int g = ((rgb >> 8) & 0xFF) * scale / 255;
+            int b = (rgb & 0xFF) * scale / 255;
+            int color = r << 16 | g << 8 | b;
+            int px = (led % columns) * pixelSize;
+            int py = (led / columns) * pixelSize;
+            for (int y = 0; y < pixelSize; y++) {
+                for (int x = 0; x < pixelSize; x++) {
+                    image.setRGB(px + x, py + y, color);
+                }
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Gets the average displayed frame rate since the first frame.
+     */
+    public synchronized double getFramesPerSecond() {
+        if (framesDisplayed < 2) {
+            return 0;
+        }
+        return (framesDisplayed - 1) * 1e9 / (lastFrameNanos - firstFrameNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLedCount() {
+        return ledCount;
+    }
+
+    public synchronized boolean isOn() {
+        return on;
+    }
+
+    public synchronized void setOn(boolean on) {
+        this.on = on;
+    }
+
+    public synchronized int getBrightness() {
+        return brightness;
+    }
+
+    public synchronized void setBrightness(int brightness) {
+        this.brightness = Math.max(0, Math.min(255, brightness));
+    }
+
+    public synchronized long getPacketsReceived() {
+        return packetsReceived;
+    }
+
+    public synchronized long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public synchronized long getFramesDisplayed() {
+        return framesDisplayed;
+    }
+
+    public synchronized long getPartialFrames() {
+        return partialFrames;
+    }
+
+    public synchronized long getAbandonedFrames() {
+        return abandonedFrames;
+    }
+
+    public synchronized long getSequenceGaps() {
+        return sequenceGaps;
+    }
+
+    public synchronized long getOutOfOrderPackets() {
+        return outOfOrderPackets;
+    }
+
+    public synchronized long getMalformedPackets() {
+        return malformedPackets;
+    }
+
+    /**
+     * Gets the time from the sender starting to render a frame until the frame was
+     * latched here, in nanoseconds. Only filled for DDP frames that carry a timecode.
+     */
+    public Histogram getWireLatency() {
+        return wireLatency;
+    }
+
+    @Override
+    public synchronized String toString() {
+        String stats = String.format("%s: %d frames (%.1f fps), %d partial, %d abandoned, %d seq gaps, %d out-of-order, %d malformed, %d packets, %d bytes",
+                name, framesDisplayed, getFramesPerSecond(), partialFrames, abandonedFrames, sequenceGaps,
+                outOfOrderPackets, malformedPackets, packetsReceived, bytesReceived);
+        if (wireLatency.getCount() > 0) {
+            stats += String.format(", wire latency p50 %.2f ms / p99 %.2f ms",
+                    wireLatency.getPercentile(50) / 1e6, wireLatency.getPercentile(99) / 1e6);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,709 @@
+package com.marsraver.LedFx.emulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.marsraver.LedFx.layout.GridConfig;
+import com.marsraver.LedFx.layout.LayoutConfig;
+import com.marsraver.LedFx.layout.LayoutLoader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.log4j.Log4j2;
+
+import javax.imageio.ImageIO;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Loopback emulator of a WLED device, so LedGrid and the protocol clients can be
+ * exercised and benchmarked without the physical panels.
+ * <p>
+ * One emulator binds to one local address and listens for DDP, Art-Net, sACN (E1.31),
+ * WLED realtime UDP and the {@code /json/state} HTTP API. Received data is assembled
+ * into frames on an {@link EmulatedDevice}, which tracks sequence gaps, out-of-order
+ * packets and partial frames and can render the displayed frame to an image.
+ * <p>
+ * On Linux every 127.x.x.x address is local, so a layout can point each grid at its own
+ * emulator (127.0.0.2, 127.0.0.3, ...). On macOS the extra loopback addresses have to be
+ * added first, e.g. {@code sudo ifconfig lo0 alias 127.0.0.2}. Alternatively several
+ * emulators can share 127.0.0.1 with distinct DDP ports and {@code devicePort} on the grids.
+ * <p>
+ * Usage: {@code WledEmulator [--http=<port>] [--snapshot=<dir>] <layout-name | ip>...}
+ */
+@Log4j2
+public class WledEmulator {
+
+    public static final int DDP_PORT = 4048;
+    public static final int ARTNET_PORT = 6454;
+    public static final int SACN_PORT = 5568;
+    public static final int REALTIME_PORT = 21324;
+    public static final int HTTP_PORT = 80;
+    /** Port value that disables a protocol. */
+    public static final int DISABLED = -1;
+
+    private static final int DDP_HEADER_LENGTH = 10;
+    private static final int DDP_FLAG_VERSION_MASK = 0xC0;
+    private static final int DDP_FLAG_VERSION_1 = 0x40;
+    private static final int DDP_FLAG_TIMECODE = 0x10;
+    private static final int MAX_WIRE_LATENCY_MICROS = 10_000_000; // anything larger is from another clock
+    private static final int DDP_FLAG_PUSH = 0x01;
+    private static final int ARTNET_HEADER_LENGTH = 18;
+    private static final int SACN_DATA_OFFSET = 126;
+    private static final int CHANNELS_PER_UNIVERSE = 510; // WLED default: 170 RGB LEDs per universe
+    private static final byte[] ARTNET_ID = "Art-Net\0".getBytes();
+    private static final byte[] SACN_ID = "ASC-E1.17\0\0\0".getBytes();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    enum Protocol { DDP, ARTNET, SACN, REALTIME }
+
+    private final String host;
+    private final EmulatedDevice device;
+
+    private int ddpPort = DDP_PORT;
+    private int artNetPort = ARTNET_PORT;
+    private int sacnPort = SACN_PORT;
+    private int realtimePort = REALTIME_PORT;
+    private int httpPort = HTTP_PORT;
+    private int artNetStartUniverse = 0;
+    private int sacnStartUniverse = 1;
+
+    private final Map<Protocol, DatagramChannel> channels = new LinkedHashMap<>();
+    private Selector selector;
+    private HttpServer httpServer;
+    private Thread receiveThread;
+    private volatile boolean running;
+
+    // Receive-thread state
+    private int ddpSequence;          // sequence of the frame being assembled, 0 before the first packet
+    private boolean ddpFrameLatched;  // whether the frame with ddpSequence has been pushed
+    private final int[] artNetSequence = new int[32768]; // last sequence per universe, -1 before the first packet
+    private final int[] sacnSequence = new int[64000];
+
+    public WledEmulator(String host, int ledCount) {
+        this(host, ledCount, host);
+    }
+
+    public WledEmulator(String host, int ledCount, String name) {
+        this.host = host;
+        this.device = new EmulatedDevice(name, ledCount);
+        Arrays.fill(artNetSequence, -1);
+        Arrays.fill(sacnSequence, -1);
+    }
+
+    /**
+     * Binds the enabled protocols and starts receiving. A protocol whose port is
+     * already in use is logged and skipped; the others keep working.
+     *
+     * @throws IOException if none of the protocols could be bound
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        selector = Selector.open();
+        bind(Protocol.DDP, ddpPort);
+        bind(Protocol.ARTNET, artNetPort);
+        bind(Protocol.SACN, sacnPort);
+        bind(Protocol.REALTIME, realtimePort);
+        startHttp();
+        if (channels.isEmpty() && httpServer == null) {
+            selector.close();
+            throw new IOException("No emulator port could be bound on " + host);
+        }
+
+        running = true;
+        receiveThread = new Thread(this::receiveLoop, "wled-emulator-" + host);
+        receiveThread.setDaemon(true);
+        receiveThread.start();
+        log.info("WLED emulator '{}' on {} ({} LEDs): DDP {}, Art-Net {}, sACN {}, realtime {}, HTTP {}",
+                device.getName(), host, device.getLedCount(), getDdpPort(), getArtNetPort(), getSacnPort(),
+                getRealtimePort(), getHttpPort());
+    }
+
+    /**
+     * Stops receiving and releases every port.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (receiveThread != null) {
+            try {
+                receiveThread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            receiveThread = null;
+        }
+        for (DatagramChannel channel : channels.values()) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Error closing emulator channel: {}", e.getMessage());
+            }
+        }
+        channels.clear();
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+        } catch (IOException e) {
+            log.debug("Error closing emulator selector: {}", e.getMessage());
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+    }
+
+    private void bind(Protocol protocol, int port) {
+        if (port == DISABLED) {
+            return;
+        }
+        DatagramChannel channel = null;
+        try {
+            channel = DatagramChannel.open();
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 4 * 1024 * 1024);
+            channel.bind(new InetSocketAddress(host, port));
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, protocol);
+            channels.put(protocol, channel);
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // already failing
+                }
+            }
+            log.warn("Emulator {} cannot listen for {} on port {}: {}", host, protocol, port, e.getMessage());
+        }
+    }
+
+    private void startHttp() {
+        if (httpPort == DISABLED) {
+            return;
+        }
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(host, httpPort), 0);
+            server.createContext("/json/state", this::handleJsonState);
+            server.createContext("/json/info", this::handleJsonInfo);
+            server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wled-emulator-http-" + host);
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            httpServer = server;
+        } catch (IOException e) {
+            log.warn("Emulator {} cannot serve HTTP on port {}: {}", host, httpPort, e.getMessage());
+        }
+    }
+
+    private void receiveLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(65536);
+        byte[] data = buffer.array();
+        while (running) {
+            try {
+                selector.select(250);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    DatagramChannel channel = (DatagramChannel) key.channel();
+                    Protocol protocol = (Protocol) key.attachment();
+                    buffer.clear();
+                    while (channel.receive(buffer) != null) {
+                        handlePacket(protocol, data, buffer.position());
+                        buffer.clear();
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.error("Emulator {} receive failed: {}", host, e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.error("Emulator {} failed to handle packet: {}", host, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Decodes one received datagram. Package-private so tests can feed packets directly.
+     */
+    void handlePacket(Protocol protocol, byte[] data, int length) {
+        device.countPacket(length);
+        switch (protocol) {
+            case DDP -> handleDdp(data, length);
+            case ARTNET -> handleArtNet(data, length);
+            // WledArtNetController sends Art-Net framing to the sACN port
+            case SACN -> {
+                if (startsWith(data, length, ARTNET_ID)) {
+                    handleArtNet(data, length);
+                } else {
+                    handleSacn(data, length);
+                }
+            }
+            case REALTIME -> handleRealtime(data, length);
+        }
+    }
+
+    /**
+     * DDP: data is staged at its byte offset and shown on push. Sequence numbers (1-15)
+     * identify the frame; a newer sequence before the push abandons the current frame,
+     * skipped sequences count as gaps and older sequences as out-of-order. When the push
+     * carries a timecode, the sender's render start time from {@code WledDdpClient},
+     * the time from rendering to display is recorded as the device's wire latency.
+     */
+    private void handleDdp(byte[] data, int length) {
+        if (length < DDP_HEADER_LENGTH || (data[0] & DDP_FLAG_VERSION_MASK) != DDP_FLAG_VERSION_1) {
+            device.countMalformed();
+            return;
+        }
+        int flags = data[0] & 0xFF;
+        int sequence = data[1] & 0x0F;
+        int offset = (data[4] & 0xFF) << 24 | (data[5] & 0xFF) << 16 | (data[6] & 0xFF) << 8 | (data[7] & 0xFF);
+        int dataLength = (data[8] & 0xFF) << 8 | (data[9] & 0xFF);
+        int headerLength = (flags & DDP_FLAG_TIMECODE) != 0 ? DDP_HEADER_LENGTH + 4 : DDP_HEADER_LENGTH;
+        if (headerLength + dataLength > length) {
+            device.countMalformed();
+            return;
+        }
+
+        if (sequence != 0) {
+            if (ddpSequence == 0) {
+                ddpSequence = sequence;
+            } else if (sequence != ddpSequence) {
+                int ahead = (sequence - ddpSequence + 15) % 15;
+                if (ahead > 7) {
+                    device.countOutOfOrder();
+                    return;
+                }
+                if (!ddpFrameLatched) {
+                    device.abandonFrame();
+                }
+                if (ahead > 1) {
+                    device.countSequenceGaps(ahead - 1);
+                }
+                ddpSequence = sequence;
+                ddpFrameLatched = false;
+            }
+        }
+
+        if (dataLength > 0) {
+            device.write(offset, data, headerLength, dataLength);
+        }
+        if ((flags & DDP_FLAG_PUSH) != 0) {
+            // Recorded before the latch so waiters on the frame see its latency
+            if ((flags & DDP_FLAG_TIMECODE) != 0) {
+                int timecode = (data[10] & 0xFF) << 24 | (data[11] & 0xFF) << 16 | (data[12] & 0xFF) << 8 | (data[13] & 0xFF);
+                // Microseconds on the shared monotonic clock; int subtraction handles the wrap
+                int latencyMicros = (int) (System.nanoTime() / 1000) - timecode;
+                if (latencyMicros >= 0 && latencyMicros < MAX_WIRE_LATENCY_MICROS) {
+                    device.recordWireLatency(latencyMicros * 1000L);
+                }
+            }
+            device.latch();
+            ddpFrameLatched = true;
+        }
+    }
+
+    /**
+     * Art-Net ArtDMX: each universe carries 170 LEDs; like WLED, the frame is shown when
+     * the universe holding the last LED arrives.
+     */
+    private void handleArtNet(byte[] data, int length) {
+        if (length < ARTNET_HEADER_LENGTH || !startsWith(data, length, ARTNET_ID)
+                || (data[8] & 0xFF) != 0x00 || (data[9] & 0xFF) != 0x50) {
+            device.countMalformed();
+            return;
+        }
+        int sequence = data[12] & 0xFF;
+        int universe = ((data[14] & 0xFF) | (data[15] & 0xFF) << 8) & 0x7FFF;
+        int dataLength = Math.min((data[16] & 0xFF) << 8 | (data[17] & 0xFF), length - ARTNET_HEADER_LENGTH);
+        if (sequence != 0 && !checkByteSequence(artNetSequence, universe, sequence, true)) {
+            return;
+        }
+        writeUniverse(universe - artNetStartUniverse, data, ARTNET_HEADER_LENGTH, dataLength);
+    }
+
+    /**
+     * sACN (E1.31) data packet: DMX start code at offset 125, channels from 126.
+     */
+    private void handleSacn(byte[] data, int length) {
+        if (length < SACN_DATA_OFFSET || !startsWith(data, length, 4, SACN_ID) || data[125] != 0) {
+            device.countMalformed();
+            return;
+        }
+        int sequence = data[111] & 0xFF;
+        int universe = (data[113] & 0xFF) << 8 | (data[114] & 0xFF);
+        int propertyCount = (data[123] & 0xFF) << 8 | (data[124] & 0xFF);
+        int dataLength = Math.min(propertyCount - 1, length - SACN_DATA_OFFSET);
+        if (universe >= sacnSequence.length || !checkByteSequence(sacnSequence, universe, sequence, false)) {
+            return;
+        }
+        writeUniverse(universe - sacnStartUniverse, data, SACN_DATA_OFFSET, dataLength);
+    }
+
+    private void writeUniverse(int universeIndex, byte[] data, int dataOffset, int dataLength) {
+        if (universeIndex < 0 || dataLength <= 0) {
+            return;
+        }
+        int byteOffset = universeIndex * CHANNELS_PER_UNIVERSE;
+        device.write(byteOffset, data, dataOffset, dataLength);
+        if (byteOffset + CHANNELS_PER_UNIVERSE >= device.getLedCount() * 3) { // universe holding the last LED
+            device.latch();
+        }
+    }
+
+    /**
+     * Tracks an 8-bit per-universe sequence.
+     *
+     * @param skipZero true for Art-Net, where 0 means "no sequence" and 255 wraps to 1
+     * @return false if the packet is older than the last one and must be ignored
+     */
+    private boolean checkByteSequence(int[] last, int universe, int sequence, boolean skipZero) {
+        int previous = last[universe];
+        last[universe] = sequence;
+        if (previous < 0) {
+            return true;
+        }
+        int modulus = skipZero ? 255 : 256;
+        int ahead = Math.floorMod(sequence - previous, modulus);
+        if (ahead == 0 || ahead > modulus / 2) {
+            last[universe] = previous;
+            device.countOutOfOrder();
+            return false;
+        }
+        if (ahead > 1) {
+            device.countSequenceGaps(ahead - 1);
+        }
+        return true;
+    }
+
+    /**
+     * WLED realtime UDP: byte 0 selects the format, byte 1 is the timeout. Every packet
+     * is shown immediately.
+     */
+    private void handleRealtime(byte[] data, int length) {
+        if (length < 2) {
+            device.countMalformed();
+            return;
+        }
+        int protocol = data[0] & 0xFF;
+        switch (protocol) {
+            case 1 -> { // WARLS: index, r, g, b
+                for (int i = 2; i + 3 < length; i += 4) {
+                    device.writeLed(data[i] & 0xFF, data[i + 1] & 0xFF, data[i + 2] & 0xFF, data[i + 3] & 0xFF);
+                }
+            }
+            case 2 -> device.write(0, data, 2, length - 2); // DRGB
+            case 3 -> { // DRGBW: white channel dropped
+                for (int i = 2, led = 0; i + 3 < length; i += 4, led++) {
+                    device.writeLed(led, data[i] & 0xFF, data[i + 1] & 0xFF, data[i + 2] & 0xFF);
+                }
+            }
+            case 4 -> { // DNRGB: 16-bit start index, then r, g, b
+                if (length < 4) {
+                    device.countMalformed();
+                    return;
+                }
+                int start = (data[2] & 0xFF) << 8 | (data[3] & 0xFF);
+                device.write(start * 3, data, 4, length - 4);
+            }
+            default -> {
+                device.countMalformed();
+                return;
+            }
+        }
+        device.latch();
+    }
+
+    private void handleJsonState(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                byte[] body;
+                try (InputStream in = exchange.getRequestBody()) {
+                    body = in.readAllBytes();
+                }
+                device.countPacket(body.length);
+                try {
+                    applyState(MAPPER.readTree(body));
+                } catch (IOException e) {
+                    device.countMalformed();
+                    sendJson(exchange, 400, MAPPER.createObjectNode().put("error", 9));
+                    return;
+                }
+                sendJson(exchange, 200, MAPPER.createObjectNode().put("success", true));
+            } else {
+                sendJson(exchange, 200, MAPPER.createObjectNode()
+                        .put("on", device.isOn())
+                        .put("bri", device.getBrightness()));
+            }
+        }
+    }
+
+    private void handleJsonInfo(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            ObjectNode info = MAPPER.createObjectNode()
+                    .put("name", device.getName())
+                    .put("ver", "emulator")
+                    .put("brand", "WLED");
+            info.putObject("leds").put("count", device.getLedCount());
+            sendJson(exchange, 200, info);
+        }
+    }
+
+    /**
+     * Applies a WLED JSON state object: {@code on}, {@code bri} and individual LEDs from
+     * {@code seg[].i}, where a colour ([r,g,b] or "RRGGBB") follows zero, one or two
+     * indices (next LED, that LED, or the range start..stop).
+     */
+    private void applyState(JsonNode state) {
+        if (state.has("on")) {
+            device.setOn(state.get("on").asBoolean());
+        }
+        if (state.has("bri")) {
+            device.setBrightness(state.get("bri").asInt());
+        }
+        JsonNode segments = state.get("seg");
+        if (segments == null) {
+            return;
+        }
+        boolean wroteLeds = false;
+        for (JsonNode segment : segments.isArray() ? segments : List.of(segments)) {
+            JsonNode leds = segment.get("i");
+            if (leds == null || !leds.isArray()) {
+                continue;
+            }
+            int start = segment.path("start").asInt(0);
+            int next = start;
+            List<Integer> indices = new ArrayList<>(2);
+            for (JsonNode entry : leds) {
+                if (entry.isInt()) {
+                    indices.add(start + entry.asInt());
+                    continue;
+                }
+                int rgb = parseColor(entry);
+                int from = indices.isEmpty() ? next : indices.get(0);
+                int to = indices.size() > 1 ? indices.get(1) : from + 1;
+                for (int led = from; led < to; led++) {
+                    device.writeLed(led, (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+                }
+                next = to;
+                indices.clear();
+                wroteLeds = true;
+            }
+        }
+        if (wroteLeds) {
+            device.latch();
+        }
+    }
+
+    private static int parseColor(JsonNode entry) {
+        if (entry.isArray()) {
+            return (entry.path(0).asInt() & 0xFF) << 16 | (entry.path(1).asInt() & 0xFF) << 8 | (entry.path(2).asInt() & 0xFF);
+        }
+        try {
+            return Integer.parseInt(entry.asText(), 16) & 0xFFFFFF;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static boolean startsWith(byte[] data, int length, byte[] prefix) {
+        return startsWith(data, length, 0, prefix);
+    }
+
+    private static boolean startsWith(byte[] data, int length, int offset, byte[] prefix) {
+        if (length < offset + prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int boundPort(Protocol protocol) {
+        DatagramChannel channel = channels.get(protocol);
+        if (channel == null) {
+            return DISABLED;
+        }
+        try {
+            return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return DISABLED;
+        }
+    }
+
+    public EmulatedDevice getDevice() {
+        return device;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Gets the bound DDP port (useful after binding port 0), or {@link #DISABLED}.
+     */
+    public int getDdpPort() {
+        return running ? boundPort(Protocol.DDP) : ddpPort;
+    }
+
+    public void setDdpPort(int ddpPort) {
+        this.ddpPort = ddpPort;
+    }
+
+    public int getArtNetPort() {
+        return running ? boundPort(Protocol.ARTNET) : artNetPort;
+    }
+
+    public void setArtNetPort(int artNetPort) {
+        this.artNetPort = artNetPort;
+    }
+
+    public int getSacnPort() {
+        return running ? boundPort(Protocol.SACN) : sacnPort;
+    }
+
+    public void setSacnPort(int sacnPort) {
+        this.sacnPort = sacnPort;
+    }
+
+    public int getRealtimePort() {
+        return running ? boundPort(Protocol.REALTIME) : realtimePort;
+    }
+
+    public void setRealtimePort(int realtimePort) {
+        this.realtimePort = realtimePort;
+    }
+
+    public int getHttpPort() {
+        if (httpServer != null) {
+            return httpServer.getAddress().getPort();
+        }
+        return running ? DISABLED : httpPort;
+    }
+
+    public void setHttpPort(int httpPort) {
+        this.httpPort = httpPort;
+    }
+
+    public void setArtNetStartUniverse(int artNetStartUniverse) {
+        this.artNetStartUniverse = artNetStartUniverse;
+    }
+
+    public void setSacnStartUniverse(int sacnStartUniverse) {
+        this.sacnStartUniverse = sacnStartUniverse;
+    }
+
+    /**
+     * Starts an emulator for every device of the given layouts (or bare IP addresses)
+     * and prints their statistics every two seconds.
+     */
+    public static void main(String[] args) throws Exception {
+        int http = DISABLED;
+        String snapshotDir = null;
+        Map<String, Integer> ledCounts = new LinkedHashMap<>();
+        Map<String, Integer> ddpPorts = new LinkedHashMap<>();
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--http=")) {
+                http = Integer.parseInt(arg.substring("--http=".length()));
+            } else if (arg.startsWith("--snapshot=")) {
+                snapshotDir = arg.substring("--snapshot=".length());
+            } else if (LayoutLoader.listAvailableLayouts().contains(arg)) {
+                LayoutConfig layout = LayoutLoader.loadLayout(arg);
+                for (GridConfig grid : layout.getGrids()) {
+                    int port = grid.getDevicePort() > 0 ? grid.getDevicePort() : DDP_PORT;
+                    String key = grid.getDeviceIp() + ":" + port;
+                    int end = grid.getStartLed() + grid.getGridSize() * grid.getGridSize();
+                    ledCounts.merge(key, end, Math::max);
+                    ddpPorts.put(key, port);
+                    columns.putIfAbsent(key, grid.getGridSize());
+                }
+            } else {
+                ledCounts.put(arg + ":" + DDP_PORT, 256);
+                ddpPorts.put(arg + ":" + DDP_PORT, DDP_PORT);
+                columns.put(arg + ":" + DDP_PORT, 16);
+            }
+        }
+        if (ledCounts.isEmpty()) {
+            System.out.println("Usage: java WledEmulator [--http=<port>] [--snapshot=<dir>] <layout-name | device-ip>...");
+            System.out.println("Example: java WledEmulator EmulatorGrids");
+            return;
+        }
+
+        List<WledEmulator> emulators = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : ledCounts.entrySet()) {
+            String key = entry.getKey();
+            String ip = key.substring(0, key.lastIndexOf(':'));
+            WledEmulator emulator = new WledEmulator(ip, entry.getValue(), key);
+            emulator.setDdpPort(ddpPorts.get(key));
+            emulator.setHttpPort(http);
+            try {
+                emulator.start();
+                emulators.add(emulator);
+            } catch (IOException e) {
+                System.out.println("Cannot emulate " + key + ": " + e.getMessage());
+            }
+        }
+
+        String snapshots = snapshotDir;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (WledEmulator emulator : emulators) {
+                emulator.stop();
+                System.out.println(emulator.getDevice());
+                if (snapshots != null) {
+                    writeSnapshot(emulator, columns.get(emulator.getDevice().getName()), snapshots);
+                }
+            }
+        }));
+
+        while (!emulators.isEmpty()) {
+            Thread.sleep(2000);
+            for (WledEmulator emulator : emulators) {
+                System.out.println(emulator.getDevice());
+            }
+            System.out.println();
+        }
+    }
+
+    private static void writeSnapshot(WledEmulator emulator, int columns, String directory) {
+        String fileName = emulator.getDevice().getName().replaceAll("[^A-Za-z0-9.-]", "_") + ".png";
+        try {
+            ImageIO.write(emulator.getDevice().renderImage(columns, 8), "png", new File(directory, fileName));
+        } catch (IOException e) {
+            System.out.println("Cannot write snapshot " + fileName + ": " + e.getMessage());
+        }
+    }
+}
@@ -18,6 +18,9 @@ public class GridConfig {
     private int gridSize; // 16x16, 32x16, etc.
     private int pixelSize; // Size of each LED pixel in the window
     private ColorMapping colorMapping; // Color channel order for this device
+    private int mtu; // DDP path MTU: 0 = default 1440-byte payload, -1 = detect from interface
+    private int startLed; // First LED of this grid on its device, for several grids on one controller
+    private int devicePort; // DDP port of the device: 0 = default 4048, e.g. for emulators sharing one address
     
     public GridConfig() {
         // Default constructor for XML binding
@@ -121,10 +124,34 @@ public class GridConfig {
         this.colorMapping = colorMapping;
     }
     
+    public int getStartLed() {
+        return startLed;
+    }
+    
+    public void setStartLed(int startLed) {
+        this.startLed = startLed;
+    }
+
+    public int getDevicePort() {
+        return devicePort;
+    }
+
+    public void setDevicePort(int devicePort) {
+        this.devicePort = devicePort;
+    }
+    
+    public int getMtu() {
+        return mtu;
+    }
+    
+    public void setMtu(int mtu) {
+        this.mtu = mtu;
+    }
+    
     @Override
     public String toString() {
-        return String.format("GridConfig{id='%s', deviceIp='%s', ledCount=%d, pos=(%d,%d), size=%dx%d, gridSize=%d, pixelSize=%d, colorMapping=%s}",
-                id, deviceIp, ledCount, x, y, width, height, gridSize, pixelSize, colorMapping);
+        return String.format("GridConfig{id='%s', deviceIp='%s', ledCount=%d, pos=(%d,%d), size=%dx%d, gridSize=%d, pixelSize=%d, colorMapping=%s, startLed=%d, mtu=%d, devicePort=%d}",
+                id, deviceIp, ledCount, x, y, width, height, gridSize, pixelSize, colorMapping, startLed, mtu, devicePort);
     }
 }
 
@@ -14,6 +14,12 @@ public class LayoutConfig {
     private int windowWidth;
     private int windowHeight;
     private List<GridConfig> grids;
+    private boolean syncOutput; // Latch all devices together with a DDP push
+    private String syncBroadcastIp; // Optional broadcast address for a single shared push
+    private boolean pacedOutput; // Spread packets across the frame interval on an output thread
+    private int pacingSlotMicros; // Spacing between paced packets, honored up to what fits in a frame; 0 = spread evenly
+    private boolean frameTimecode; // Stamp DDP packets with the frame's render start time
+    private int metricsPort; // Port of the Prometheus /metrics endpoint, 0 = disabled
     
     public LayoutConfig() {
         this.grids = new ArrayList<>();
@@ -68,6 +74,54 @@ public class LayoutConfig {
         this.grids = grids;
     }
     
+    public boolean isSyncOutput() {
+        return syncOutput;
+    }
+    
+    public void setSyncOutput(boolean syncOutput) {
+        this.syncOutput = syncOutput;
+    }
+    
+    public String getSyncBroadcastIp() {
+        return syncBroadcastIp;
+    }
+    
+    public void setSyncBroadcastIp(String syncBroadcastIp) {
+        this.syncBroadcastIp = syncBroadcastIp;
+    }
+    
+    public boolean isPacedOutput() {
+        return pacedOutput;
+    }
+    
+    public void setPacedOutput(boolean pacedOutput) {
+        this.pacedOutput = pacedOutput;
+    }
+    
+    public int getPacingSlotMicros() {
+        return pacingSlotMicros;
+    }
+    
+    public void setPacingSlotMicros(int pacingSlotMicros) {
+        this.pacingSlotMicros = pacingSlotMicros;
+    }
+    
+    public boolean isFrameTimecode() {
+        return frameTimecode;
+    }
+    
+    public void setFrameTimecode(boolean frameTimecode) {
+        this.frameTimecode = frameTimecode;
+    }
+    
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+    
+    public void setMetricsPort(int metricsPort) {
+        this.metricsPort = metricsPort;
+    }
+    
     public void addGrid(GridConfig grid) {
         this.grids.add(grid);
     }
@@ -85,8 +139,8 @@ public class LayoutConfig {
     
     @Override
     public String toString() {
-        return String.format("LayoutConfig{name='%s', title='%s', window=%dx%d, grids=%d}",
-                name, title, windowWidth, windowHeight, grids.size());
+        return String.format("LayoutConfig{name='%s', title='%s', window=%dx%d, grids=%d, syncOutput=%s, pacedOutput=%s}",
+                name, title, windowWidth, windowHeight, grids.size(), syncOutput, pacedOutput);
     }
 }
 
@@ -9,6 +9,8 @@ import java.awt.*;
  */
 public class LayoutLedGrid {
     
+    private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 14);
+    
     private final LayoutConfig layout;
     private final WledController[] controllers;
     private final Color[][][] ledColors; // [gridIndex][x][y]
@@ -132,7 +134,7 @@ public class LayoutLedGrid {
         
         // Draw grid label
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 14));
+        g.setFont(LABEL_FONT);
         g.drawString(grid.getId(), grid.getX(), grid.getY() - 10);
     }
     
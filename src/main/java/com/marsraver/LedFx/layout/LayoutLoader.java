@@ -64,6 +64,12 @@ public class LayoutLoader {
         layout.setTitle(getAttributeValue(root, "title", "LedFx"));
         layout.setWindowWidth(getIntAttribute(root, "windowWidth", 500));
         layout.setWindowHeight(getIntAttribute(root, "windowHeight", 400));
+        layout.setSyncOutput(getBooleanAttribute(root, "sync", false));
+        layout.setSyncBroadcastIp(getAttributeValue(root, "syncBroadcast", null));
+        layout.setPacedOutput(getBooleanAttribute(root, "pacing", false));
+        layout.setPacingSlotMicros(getIntAttribute(root, "pacingSlotMicros", 0));
+        layout.setFrameTimecode(getBooleanAttribute(root, "timecode", false));
+        layout.setMetricsPort(getIntAttribute(root, "metricsPort", 0));
         
         // Parse grids
         NodeList gridNodes = root.getElementsByTagName("grid");
@@ -91,6 +97,12 @@ public class LayoutLoader {
         grid.setHeight(getIntAttribute(gridElement, "height", 240));
         grid.setGridSize(getIntAttribute(gridElement, "gridSize", 16));
         grid.setPixelSize(getIntAttribute(gridElement, "pixelSize", 15));
+        grid.setStartLed(getIntAttribute(gridElement, "startLed", 0));
+        grid.setDevicePort(getIntAttribute(gridElement, "devicePort", 0));
+        
+        // Parse mtu attribute: a number, or "auto" to derive it from the network interface
+        String mtuStr = getAttributeValue(gridElement, "mtu", "");
+        grid.setMtu("auto".equalsIgnoreCase(mtuStr) ? -1 : getIntAttribute(gridElement, "mtu", 0));
         
         // Parse colorMapping attribute
         String colorMappingStr = getAttributeValue(gridElement, "colorMapping", "");
@@ -128,6 +140,14 @@ public class LayoutLoader {
         }
     }
     
+    /**
+     * Gets a boolean attribute value with a default.
+     */
+    private static boolean getBooleanAttribute(Element element, String attributeName, boolean defaultValue) {
+        String value = element.getAttribute(attributeName);
+        return value.isEmpty() ? defaultValue : Boolean.parseBoolean(value);
+    }
+    
     /**
      * Lists all available layout files.
      * 
@@ -141,6 +161,7 @@ public class LayoutLoader {
         layouts.add("OneGrid");
         layouts.add("TwoGrids");
         layouts.add("FourGrids");
+        layouts.add("EmulatorGrids");
         
         return layouts;
     }
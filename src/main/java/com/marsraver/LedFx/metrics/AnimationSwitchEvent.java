@@ -0,0 +1,34 @@
+package com.marsraver.LedFx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event spanning an animation switch: stopping the old animation,
+ * creating the new one and its {@code init}. The init alone is in {@link #initNanos},
+ * so a slow teardown of the old animation is not mistaken for a slow start.
+ */
+@Name("com.marsraver.LedFx.AnimationSwitch")
+@Label("Animation Switch")
+@Category({"LedFx", "Animations"})
+@Description("Stop of the previous animation and creation and init of the next")
+public class AnimationSwitchEvent extends Event {
+
+    @Label("Previous Animation")
+    public String previous;
+
+    @Label("Animation")
+    public String animation;
+
+    @Label("Init Time")
+    @Description("Time spent in the new animation's init")
+    @Timespan(Timespan.NANOSECONDS)
+    public long initNanos;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
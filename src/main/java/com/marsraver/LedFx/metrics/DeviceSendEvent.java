@@ -0,0 +1,46 @@
+package com.marsraver.LedFx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one frame sent to one device, from its first packet being
+ * queued until its packets have been written to the socket.
+ */
+@Name("com.marsraver.LedFx.DeviceSend")
+@Label("Device Send")
+@Category({"LedFx", "Output"})
+@Description("DDP packets of one frame sent to one device")
+@StackTrace(false)
+public class DeviceSendEvent extends Event {
+
+    @Label("Device")
+    @Description("Grid id(s) wired to the device")
+    public String device;
+
+    @Label("Address")
+    public String address;
+
+    @Label("Bytes")
+    @DataAmount
+    public int bytes;
+
+    @Label("Packets")
+    public int packets;
+
+    @Label("Sequence")
+    @Description("DDP sequence number of the frame")
+    public int sequence;
+
+    @Label("Paced")
+    public boolean paced;
+
+    @Label("Error")
+    @Description("True if any packet of the frame could not be queued or was dropped")
+    public boolean error;
+}
@@ -0,0 +1,30 @@
+package com.marsraver.LedFx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning one frame on the render thread: the animation's draw,
+ * colour sampling, packing and (unless paced) the send.
+ * <p>
+ * Like every LedFx event it only costs a timestamp when no recording has it enabled.
+ * Events can be switched off or given a threshold by name in a {@code .jfc} settings
+ * file, e.g. {@code com.marsraver.LedFx.FrameRendered#threshold=20 ms}.
+ */
+@Name("com.marsraver.LedFx.FrameRendered")
+@Label("Frame Rendered")
+@Category({"LedFx", "Frames"})
+@Description("Draw, sample, pack and inline send of one LED frame")
+@StackTrace(false)
+public class FrameRenderedEvent extends Event {
+
+    @Label("Animation")
+    public String animation;
+
+    @Label("Devices")
+    public int devices;
+}
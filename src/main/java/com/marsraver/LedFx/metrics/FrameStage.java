@@ -0,0 +1,26 @@
+package com.marsraver.LedFx.metrics;
+
+/**
+ * Stages a frame passes through from the start of drawing until its last packet
+ * leaves the socket.
+ */
+public enum FrameStage {
+    /** The animation's draw call. */
+    RENDER("render"),
+    /** Sampling LED colours from the canvas, for sketches that draw with Graphics2D. */
+    SAMPLE("sample"),
+    /** Clamping, mirroring and packing LED colours into the per-device RGB buffers. */
+    PACK("pack"),
+    /** Writing the frame's packets (and sync pushes) to the network. */
+    SEND("send");
+
+    private final String id;
+
+    FrameStage(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,136 @@
+package com.marsraver.LedFx.metrics;
+
+import java.util.List;
+
+/**
+ * Timestamps frames through every {@link FrameStage} and keeps latency histograms:
+ * one per stage, one for the whole frame (draw start until the last packet is sent)
+ * and one per device (draw start until that device's last packet is sent).
+ * <p>
+ * {@link #beginFrame()} and {@link #mark(FrameStage)} are called on the render thread;
+ * the send-side methods take the frame's start time explicitly because paced output
+ * sends the frame later, on the output thread.
+ */
+public class FrameTimer {
+
+    private final Histogram[] stages = new Histogram[FrameStage.values().length];
+    private final Histogram frameLatency = new Histogram("frame");
+    private final Histogram[] deviceLatency;
+    private final String[] deviceNames;
+
+    // Render-thread state
+    private boolean inFrame;
+    private long frameStartNanos;
+    private long lastMarkNanos;
+
+    /**
+     * @param deviceNames names of the devices, in the order the scheduler sends them
+     */
+    public FrameTimer(List<String> deviceNames) {
+        for (FrameStage stage : FrameStage.values()) {
+            stages[stage.ordinal()] = new Histogram(stage.getId());
+        }
+        this.deviceNames = deviceNames.toArray(new String[0]);
+        this.deviceLatency = new Histogram[this.deviceNames.length];
+        for (int i = 0; i < deviceLatency.length; i++) {
+            deviceLatency[i] = new Histogram(this.deviceNames[i]);
+        }
+    }
+
+    /**
+     * Starts timing a new frame. Call right before the animation draws.
+     */
+    public void beginFrame() {
+        long now = System.nanoTime();
+        inFrame = true;
+        frameStartNanos = now;
+        lastMarkNanos = now;
+    }
+
+    /**
+     * Records the time since the previous mark (or the frame start) as the given stage.
+     * Ignored when no frame is in progress.
+     */
+    public void mark(FrameStage stage) {
+        if (!inFrame) {
+            return;
+        }
+        long now = System.nanoTime();
+        stages[stage.ordinal()].record(now - lastMarkNanos);
+        lastMarkNanos = now;
+    }
+
+    /**
+     * Gets the start of the frame in progress, beginning one now if none is.
+     * Used when a frame is sent without an explicit {@link #beginFrame()}.
+     */
+    public long ensureFrameStarted() {
+        if (!inFrame) {
+            beginFrame();
+        }
+        return frameStartNanos;
+    }
+
+    /**
+     * Ends the render-thread part of the frame.
+     *
+     * @return the frame's start time, to be passed to the send side
+     */
+    public long endFrame() {
+        long start = ensureFrameStarted();
+        inFrame = false;
+        return start;
+    }
+
+    /**
+     * Records that a device's last packet of a frame has been sent.
+     */
+    public void recordDeviceSent(int deviceIndex, long frameStartNanos, long nowNanos) {
+        deviceLatency[deviceIndex].record(nowNanos - frameStartNanos);
+    }
+
+    /**
+     * Records that the whole frame has been sent.
+     *
+     * @param frameStartNanos start of the frame, from {@link #endFrame()}
+     * @param sendStartNanos  when the first packet was queued
+     * @param nowNanos        when the last packet was sent
+     */
+    public void recordFrameSent(long frameStartNanos, long sendStartNanos, long nowNanos) {
+        stages[FrameStage.SEND.ordinal()].record(nowNanos - sendStartNanos);
+        frameLatency.record(nowNanos - frameStartNanos);
+    }
+
+    /**
+     * Clears every histogram.
+     */
+    public void reset() {
+        for (Histogram stage : stages) {
+            stage.reset();
+        }
+        frameLatency.reset();
+        for (Histogram device : deviceLatency) {
+            device.reset();
+        }
+    }
+
+    public Histogram getStage(FrameStage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    public Histogram getFrameLatency() {
+        return frameLatency;
+    }
+
+    public Histogram getDeviceLatency(int deviceIndex) {
+        return deviceLatency[deviceIndex];
+    }
+
+    public String getDeviceName(int deviceIndex) {
+        return deviceNames[deviceIndex];
+    }
+
+    public int getDeviceCount() {
+        return deviceNames.length;
+    }
+}
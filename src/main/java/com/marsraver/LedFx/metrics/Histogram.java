@@ -0,0 +1,160 @@
+package com.marsraver.LedFx.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear histogram of non-negative long values, typically nanoseconds.
+ * <p>
+ * All buckets are allocated up front, so {@link #record(long)} never allocates and can
+ * be called on the render and output threads every frame. Values below 64 are exact;
+ * above that every power of two is split into 32 buckets, which bounds the error of a
+ * reported percentile to about 3%. Recording is thread-safe; a reader sees a
+ * consistent-enough view for monitoring, not an atomic snapshot.
+ * <p>
+ * Histograms can be published over JMX with {@link JmxExporter}.
+ */
+public class Histogram implements HistogramMXBean {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;            // 32 buckets per power of two
+    private static final int LINEAR_LIMIT = 1 << (SUB_BUCKET_BITS + 1);      // values below this are exact
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (62 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogram(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one value. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.getAndIncrement(bucketIndex(v));
+        count.getAndIncrement();
+        sum.getAndAdd(v);
+        long currentMax;
+        while (v > (currentMax = max.get()) && !max.compareAndSet(currentMax, v)) {
+            // retry until the larger value sticks
+        }
+    }
+
+    /**
+     * Clears every recorded value.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Gets the value at the given percentile.
+     *
+     * @param percentile 0-100
+     * @return the representative value of the bucket holding the percentile, or 0 if empty
+     */
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketMidpoint(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public double getMean() {
+        long total = count.get();
+        return total == 0 ? 0 : (double) sum.get() / total;
+    }
+
+    @Override
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    @Override
+    public long getP90() {
+        return getPercentile(90);
+    }
+
+    @Override
+    public long getP99() {
+        return getPercentile(99);
+    }
+
+    @Override
+    public long getP999() {
+        return getPercentile(99.9);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + mantissa;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int k = index - LINEAR_LIMIT;
+        int exponent = k / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        return (long) (SUB_BUCKETS + k % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private static long bucketMidpoint(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        long lower = bucketLowerBound(index);
+        long width = bucketLowerBound(index + 1 < BUCKET_COUNT ? index + 1 : index) - lower;
+        return lower + width / 2;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: n=%d mean=%.0f p50=%d p90=%d p99=%d max=%d",
+                name, getCount(), getMean(), getPercentile(50), getPercentile(90), getPercentile(99), getMax());
+    }
+}
@@ -0,0 +1,29 @@
+package com.marsraver.LedFx.metrics;
+
+/**
+ * JMX view of a {@link Histogram}. Values are in the histogram's unit, nanoseconds for
+ * every latency histogram in LedFx.
+ */
+public interface HistogramMXBean {
+
+    String getName();
+
+    long getCount();
+
+    double getMean();
+
+    long getMax();
+
+    long getP50();
+
+    long getP90();
+
+    long getP99();
+
+    long getP999();
+
+    /**
+     * Clears every recorded value, e.g. to start a fresh measurement window.
+     */
+    void reset();
+}
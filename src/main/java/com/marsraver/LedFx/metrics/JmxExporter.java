@@ -0,0 +1,95 @@
+package com.marsraver.LedFx.metrics;
+
+import lombok.extern.log4j.Log4j2;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes LedFx metrics as MBeans on the platform MBean server, under the
+ * {@code com.marsraver.LedFx} domain, so they can be watched with jconsole, VisualVM
+ * or any JMX collector.
+ * <p>
+ * The MBeans are views over the live histograms and counters; JMX reads them on demand,
+ * so publishing adds nothing to the render or output path. Registration problems are
+ * logged and never thrown: monitoring must not stop the show. A name that is already
+ * registered is taken over, so the most recently created grid owns the shared names.
+ */
+@Log4j2
+public class JmxExporter implements AutoCloseable {
+
+    public static final String DOMAIN = "com.marsraver.LedFx";
+
+    private final MBeanServer server;
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    public JmxExporter() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public JmxExporter(MBeanServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Registers an MXBean as {@code com.marsraver.LedFx:type=<type>,name=<name>}.
+     *
+     * @param type  category of the bean, e.g. "Stage" or "Device"
+     * @param name  name within the category; characters JMX reserves are replaced
+     * @param mbean object implementing an {@code ...MXBean} interface
+     * @return the object name, or null if registration failed
+     */
+    public synchronized ObjectName register(String type, String name, Object mbean) {
+        try {
+            ObjectName objectName = objectName(type, name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(mbean, objectName);
+            registered.add(objectName);
+            return objectName;
+        } catch (JMException | RuntimeException e) {
+            log.warn("Failed to register JMX bean {}/{}: {}", type, name, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Registers a histogram under its own name.
+     */
+    public ObjectName register(String type, Histogram histogram) {
+        return register(type, histogram.getName(), histogram);
+    }
+
+    /**
+     * Builds the object name used for the given type and name.
+     */
+    public static ObjectName objectName(String type, String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + sanitize(type) + ",name=" + sanitize(name));
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[,=:\"*?\\n]", "_");
+    }
+
+    /**
+     * Unregisters every bean registered by this exporter.
+     */
+    @Override
+    public synchronized void close() {
+        for (ObjectName name : registered) {
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                log.debug("Failed to unregister JMX bean {}: {}", name, e.getMessage());
+            }
+        }
+        registered.clear();
+    }
+}
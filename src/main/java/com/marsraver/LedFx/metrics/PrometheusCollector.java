@@ -0,0 +1,13 @@
+package com.marsraver.LedFx.metrics;
+
+/**
+ * Source of metrics for a {@link PrometheusServer} scrape.
+ */
+public interface PrometheusCollector {
+
+    /**
+     * Writes the current metrics. Called on the server's scrape thread, so
+     * implementations must only read state the hot paths publish lock-free.
+     */
+    void collect(PrometheusWriter out);
+}
@@ -0,0 +1,154 @@
+package com.marsraver.LedFx.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves metrics in the Prometheus text format at {@code /metrics}, using the JDK's
+ * built-in HTTP server.
+ * <p>
+ * Every scrape is handled on the server's own thread and only reads histograms and
+ * atomic counters, so a scrape never blocks the render or output thread. Besides the
+ * registered collectors the server reports JVM garbage collection, heap usage and
+ * allocated bytes.
+ */
+@Log4j2
+public class PrometheusServer implements AutoCloseable {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final int port;
+    private final List<PrometheusCollector> collectors = new CopyOnWriteArrayList<>();
+    private HttpServer httpServer;
+
+    /**
+     * @param port TCP port to listen on, 0 for an ephemeral port
+     */
+    public PrometheusServer(int port) {
+        this.port = port;
+    }
+
+    public void addCollector(PrometheusCollector collector) {
+        collectors.add(collector);
+    }
+
+    public void removeCollector(PrometheusCollector collector) {
+        collectors.remove(collector);
+    }
+
+    /**
+     * Starts listening on all interfaces.
+     */
+    public synchronized void start() throws IOException {
+        if (httpServer != null) {
+            return;
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "prometheus-metrics");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        httpServer = server;
+        log.info("Serving Prometheus metrics on port {}", getPort());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+    }
+
+    /**
+     * Gets the bound port while running, otherwise the configured port.
+     */
+    public synchronized int getPort() {
+        return httpServer != null ? httpServer.getAddress().getPort() : port;
+    }
+
+    /**
+     * Renders the current metrics, as served to a scrape.
+     */
+    public String scrape() {
+        PrometheusWriter out = new PrometheusWriter();
+        for (PrometheusCollector collector : collectors) {
+            try {
+                collector.collect(out);
+            } catch (RuntimeException e) {
+                log.debug("Metrics collector failed: {}", e.getMessage());
+            }
+        }
+        collectJvm(out);
+        return out.toString();
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream stream = exchange.getResponseBody()) {
+                stream.write(body);
+            }
+        }
+    }
+
+    private static void collectJvm(PrometheusWriter out) {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        out.counter("ledfx_jvm_gc_collections_total", "Garbage collections by collector");
+        for (GarbageCollectorMXBean gc : collectors) {
+            out.sample("ledfx_jvm_gc_collections_total", "gc", gc.getName(), Math.max(0, gc.getCollectionCount()));
+        }
+        out.counter("ledfx_jvm_gc_seconds_total", "Time spent in garbage collection by collector");
+        for (GarbageCollectorMXBean gc : collectors) {
+            out.sample("ledfx_jvm_gc_seconds_total", "gc", gc.getName(), Math.max(0, gc.getCollectionTime()) / 1e3);
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        out.gauge("ledfx_jvm_heap_used_bytes", "Heap in use").sample("ledfx_jvm_heap_used_bytes", heap.getUsed());
+
+        long allocated = allocatedBytes();
+        if (allocated >= 0) {
+            out.counter("ledfx_jvm_allocated_bytes_total", "Bytes allocated by live threads; rate() gives the allocation rate")
+                    .sample("ledfx_jvm_allocated_bytes_total", allocated);
+        }
+    }
+
+    /**
+     * Sums the bytes allocated by every live thread, or -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean sunThreads) || !sunThreads.isThreadAllocatedMemorySupported()
+                || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : sunThreads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+}
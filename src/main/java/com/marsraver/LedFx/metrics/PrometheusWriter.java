@@ -0,0 +1,105 @@
+package com.marsraver.LedFx.metrics;
+
+/**
+ * Writes metrics in the Prometheus text exposition format (version 0.0.4).
+ * <p>
+ * A metric family is declared once with {@link #counter}, {@link #gauge} or
+ * {@link #summary} and then gets one sample per label value.
+ */
+public class PrometheusWriter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final StringBuilder text = new StringBuilder(4096);
+
+    /**
+     * Declares a counter family.
+     */
+    public PrometheusWriter counter(String name, String help) {
+        return declare(name, "counter", help);
+    }
+
+    /**
+     * Declares a gauge family.
+     */
+    public PrometheusWriter gauge(String name, String help) {
+        return declare(name, "gauge", help);
+    }
+
+    /**
+     * Declares a summary family, filled with {@link #summarySample}.
+     */
+    public PrometheusWriter summary(String name, String help) {
+        return declare(name, "summary", help);
+    }
+
+    private PrometheusWriter declare(String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Writes an unlabelled sample.
+     */
+    public PrometheusWriter sample(String name, double value) {
+        return sample(name, null, null, value);
+    }
+
+    /**
+     * Writes a sample with one label, or none if {@code label} is null.
+     */
+    public PrometheusWriter sample(String name, String label, String labelValue, double value) {
+        text.append(name);
+        if (label != null) {
+            text.append('{');
+            appendLabel(label, labelValue);
+            text.append('}');
+        }
+        text.append(' ');
+        appendValue(value);
+        text.append('\n');
+        return this;
+    }
+
+    /**
+     * Writes the quantiles, sum and count of a nanosecond histogram, in seconds.
+     *
+     * @param label      label name, or null for an unlabelled summary
+     * @param labelValue label value
+     */
+    public PrometheusWriter summarySample(String name, String label, String labelValue, Histogram histogram) {
+        for (double quantile : QUANTILES) {
+            text.append(name).append('{');
+            if (label != null) {
+                appendLabel(label, labelValue);
+                text.append(',');
+            }
+            text.append("quantile=\"").append(quantile).append("\"} ");
+            appendValue(histogram.getPercentile(quantile * 100) / 1e9);
+            text.append('\n');
+        }
+        sample(name + "_sum", label, labelValue, histogram.getSum() / 1e9);
+        sample(name + "_count", label, labelValue, histogram.getCount());
+        return this;
+    }
+
+    private void appendLabel(String label, String value) {
+        text.append(label).append("=\"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                .append('"');
+    }
+
+    private void appendValue(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            text.append((long) value);
+        } else {
+            text.append(value); // Double.toString is locale-independent and parses in Prometheus
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+}
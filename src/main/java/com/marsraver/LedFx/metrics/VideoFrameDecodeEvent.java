@@ -0,0 +1,31 @@
+package com.marsraver.LedFx.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for decoding one video frame on the render thread.
+ */
+@Name("com.marsraver.LedFx.VideoFrameDecode")
+@Label("Video Frame Decode")
+@Category({"LedFx", "Animations"})
+@Description("Decode of one extracted video frame")
+@StackTrace(false)
+public class VideoFrameDecodeEvent extends Event {
+
+    @Label("Frame Index")
+    public int frameIndex;
+
+    @Label("File")
+    public String file;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
@@ -0,0 +1,400 @@
+package com.marsraver.LedFx.noise;
+
+import java.util.Random;
+
+/**
+ * Gradient noise for animations: Ken Perlin's improved noise and simplex noise, both
+ * driven by one permutation table.
+ * <p>
+ * Single samples return values in about [-1, 1]. The batch methods evaluate a row or a
+ * lattice of evenly spaced points, which is how LED grids are laid out, and hoist
+ * everything that does not change along a row out of the inner loop. The fixed-point
+ * variant works on 16.16 coordinates with integer arithmetic only, for callers that keep
+ * their positions in fixed point.
+ * <p>
+ * Octave sums ({@code fbm}) are normalized by the total amplitude, so they stay in the
+ * same range as a single octave.
+ */
+public final class Noise {
+
+    /** One unit in 16.16 fixed point. */
+    public static final int FIXED_ONE = 1 << 16;
+
+    private static final int[] PERM = new int[512];
+
+    static {
+        // A fixed shuffle, so every run and every machine sees the same field
+        int[] p = new int[256];
+        for (int i = 0; i < 256; i++) {
+            p[i] = i;
+        }
+        Random random = new Random(0x4C656446L);
+        for (int i = 255; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = p[i];
+            p[i] = p[j];
+            p[j] = swap;
+        }
+        for (int i = 0; i < 512; i++) {
+            PERM[i] = p[i & 255];
+        }
+    }
+
+    // Simplex skew factors and gradient directions
+    private static final float F2 = (float) (0.5 * (Math.sqrt(3.0) - 1.0));
+    private static final float G2 = (float) ((3.0 - Math.sqrt(3.0)) / 6.0);
+    private static final float F3 = 1.0f / 3.0f;
+    private static final float G3 = 1.0f / 6.0f;
+    private static final int[][] GRAD3 = {
+            {1, 1, 0}, {-1, 1, 0}, {1, -1, 0}, {-1, -1, 0},
+            {1, 0, 1}, {-1, 0, 1}, {1, 0, -1}, {-1, 0, -1},
+            {0, 1, 1}, {0, -1, 1}, {0, 1, -1}, {0, -1, -1}
+    };
+
+    private Noise() {
+    }
+
+    // ---- Perlin, float ----
+
+    /**
+     * Improved Perlin noise at a point.
+     *
+     * @return a value in about [-1, 1]; 0 at every integer lattice point
+     */
+    public static float perlin(float x, float y, float z) {
+        int xf = fastFloor(x);
+        int yf = fastFloor(y);
+        int zf = fastFloor(z);
+        int xi = xf & 255;
+        int yi = yf & 255;
+        int zi = zf & 255;
+        x -= xf;
+        y -= yf;
+        z -= zf;
+        float u = fade(x);
+        float v = fade(y);
+        float w = fade(z);
+
+        int a = PERM[xi] + yi;
+        int aa = PERM[a] + zi;
+        int ab = PERM[a + 1] + zi;
+        int b = PERM[xi + 1] + yi;
+        int ba = PERM[b] + zi;
+        int bb = PERM[b + 1] + zi;
+
+        return lerp(w,
+                lerp(v, lerp(u, grad(PERM[aa], x, y, z), grad(PERM[ba], x - 1, y, z)),
+                        lerp(u, grad(PERM[ab], x, y - 1, z), grad(PERM[bb], x - 1, y - 1, z))),
+                lerp(v, lerp(u, grad(PERM[aa + 1], x, y, z - 1), grad(PERM[ba + 1], x - 1, y, z - 1)),
+                        lerp(u, grad(PERM[ab + 1], x, y - 1, z - 1), grad(PERM[bb + 1], x - 1, y - 1, z - 1))));
+    }
+
+    /**
+     * Improved Perlin noise in the plane, the z = 0 slice of the 3D field.
+     */
+    public static float perlin(float x, float y) {
+        return perlin(x, y, 0f);
+    }
+
+    /**
+     * Sums octaves of Perlin noise, each at twice the frequency of the last.
+     *
+     * @param octaves     number of octaves, at least 1
+     * @param persistence amplitude of each octave relative to the previous one, usually 0.5
+     * @return a value in about [-1, 1]
+     */
+    public static float fbm(float x, float y, float z, int octaves, float persistence) {
+        float sum = 0f;
+        float amplitude = 1f;
+        float frequency = 1f;
+        float total = 0f;
+        for (int i = 0; i < octaves; i++) {
+            sum += amplitude * perlin(x * frequency, y * frequency, z * frequency);
+            total += amplitude;
+            amplitude *= persistence;
+            frequency *= 2f;
+        }
+        return sum / total;
+    }
+
+    // ---- Perlin, batch ----
+
+    /**
+     * Evaluates Perlin noise along a row: {@code out[offset + i] = perlin(x0 + i * dx, y, z)}.
+     */
+    public static void perlinRow(float[] out, int offset, int count, float x0, float dx, float y, float z) {
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = 0f;
+        }
+        accumulateRow(out, offset, count, x0, dx, y, z, 1f);
+    }
+
+    /**
+     * Evaluates Perlin noise over a lattice, row by row:
+     * {@code out[r * columns + c] = perlin(x0 + c * dx, y0 + r * dy, z)}.
+     */
+    public static void perlinLattice(float[] out, int columns, int rows, float x0, float dx, float y0, float dy, float z) {
+        for (int r = 0; r < rows; r++) {
+            perlinRow(out, r * columns, columns, x0, dx, y0 + r * dy, z);
+        }
+    }
+
+    /**
+     * Evaluates {@link #fbm} over a lattice, row by row:
+     * {@code out[r * columns + c] = fbm(x0 + c * dx, y0 + r * dy, z, octaves, persistence)}.
+     */
+    public static void fbmLattice(float[] out, int columns, int rows, float x0, float dx, float y0, float dy, float z,
+                                  int octaves, float persistence) {
+        int count = columns * rows;
+        for (int i = 0; i < count; i++) {
+            out[i] = 0f;
+        }
+        float amplitude = 1f;
+        float frequency = 1f;
+        float total = 0f;
+        for (int o = 0; o < octaves; o++) {
+            for (int r = 0; r < rows; r++) {
+                accumulateRow(out, r * columns, columns, x0 * frequency, dx * frequency,
+                        (y0 + r * dy) * frequency, z * frequency, amplitude);
+            }
+            total += amplitude;
+            amplitude *= persistence;
+            frequency *= 2f;
+        }
+        float scale = 1f / total;
+        for (int i = 0; i < count; i++) {
+            out[i] *= scale;
+        }
+    }
+
+    /**
+     * Adds {@code amplitude * perlin(x0 + i * dx, y, z)} to each element of a row. The
+     * y and z lattice cells, fades and hashes are shared by the whole row.
+     */
+    private static void accumulateRow(float[] out, int offset, int count, float x0, float dx, float y, float z, float amplitude) {
+        int yf = fastFloor(y);
+        int zf = fastFloor(z);
+        int yi = yf & 255;
+        int zi = zf & 255;
+        float fy = y - yf;
+        float fz = z - zf;
+        float v = fade(fy);
+        float w = fade(fz);
+
+        for (int i = 0; i < count; i++) {
+            float x = x0 + i * dx;
+            int xf = fastFloor(x);
+            int xi = xf & 255;
+            float fx = x - xf;
+            float u = fade(fx);
+
+            int a = PERM[xi] + yi;
+            int aa = PERM[a] + zi;
+            int ab = PERM[a + 1] + zi;
+            int b = PERM[xi + 1] + yi;
+            int ba = PERM[b] + zi;
+            int bb = PERM[b + 1] + zi;
+
+            float value = lerp(w,
+                    lerp(v, lerp(u, grad(PERM[aa], fx, fy, fz), grad(PERM[ba], fx - 1, fy, fz)),
+                            lerp(u, grad(PERM[ab], fx, fy - 1, fz), grad(PERM[bb], fx - 1, fy - 1, fz))),
+                    lerp(v, lerp(u, grad(PERM[aa + 1], fx, fy, fz - 1), grad(PERM[ba + 1], fx - 1, fy, fz - 1)),
+                            lerp(u, grad(PERM[ab + 1], fx, fy - 1, fz - 1), grad(PERM[bb + 1], fx - 1, fy - 1, fz - 1))));
+            out[offset + i] += amplitude * value;
+        }
+    }
+
+    // ---- Perlin, fixed point ----
+
+    /**
+     * Improved Perlin noise on 16.16 fixed-point coordinates, in integer arithmetic.
+     *
+     * @return the noise value in 16.16 fixed point, about [-{@link #FIXED_ONE}, {@link #FIXED_ONE}]
+     */
+    public static int perlinFixed(int x, int y, int z) {
+        int xi = (x >> 16) & 255;
+        int yi = (y >> 16) & 255;
+        int zi = (z >> 16) & 255;
+        int fx = x & 0xFFFF;
+        int fy = y & 0xFFFF;
+        int fz = z & 0xFFFF;
+        int u = fadeFixed(fx);
+        int v = fadeFixed(fy);
+        int w = fadeFixed(fz);
+
+        int a = PERM[xi] + yi;
+        int aa = PERM[a] + zi;
+        int ab = PERM[a + 1] + zi;
+        int b = PERM[xi + 1] + yi;
+        int ba = PERM[b] + zi;
+        int bb = PERM[b + 1] + zi;
+
+        int fx1 = fx - FIXED_ONE;
+        int fy1 = fy - FIXED_ONE;
+        int fz1 = fz - FIXED_ONE;
+        return lerpFixed(w,
+                lerpFixed(v, lerpFixed(u, grad(PERM[aa], fx, fy, fz), grad(PERM[ba], fx1, fy, fz)),
+                        lerpFixed(u, grad(PERM[ab], fx, fy1, fz), grad(PERM[bb], fx1, fy1, fz))),
+                lerpFixed(v, lerpFixed(u, grad(PERM[aa + 1], fx, fy, fz1), grad(PERM[ba + 1], fx1, fy, fz1)),
+                        lerpFixed(u, grad(PERM[ab + 1], fx, fy1, fz1), grad(PERM[bb + 1], fx1, fy1, fz1))));
+    }
+
+    /**
+     * Converts a float to 16.16 fixed point.
+     */
+    public static int toFixed(float value) {
+        return Math.round(value * FIXED_ONE);
+    }
+
+    // ---- Simplex, float ----
+
+    /**
+     * 2D simplex noise. Cheaper than Perlin noise (three corners instead of four) and
+     * without its axis-aligned artefacts.
+     *
+     * @return a value in about [-1, 1]
+     */
+    public static float simplex(float x, float y) {
+        float s = (x + y) * F2;
+        int i = fastFloor(x + s);
+        int j = fastFloor(y + s);
+        float t = (i + j) * G2;
+        float x0 = x - (i - t);
+        float y0 = y - (j - t);
+
+        int i1 = x0 > y0 ? 1 : 0;
+        int j1 = 1 - i1;
+        float x1 = x0 - i1 + G2;
+        float y1 = y0 - j1 + G2;
+        float x2 = x0 - 1f + 2f * G2;
+        float y2 = y0 - 1f + 2f * G2;
+
+        int ii = i & 255;
+        int jj = j & 255;
+        float n = corner2(PERM[ii + PERM[jj]] % 12, x0, y0)
+                + corner2(PERM[ii + i1 + PERM[jj + j1]] % 12, x1, y1)
+                + corner2(PERM[ii + 1 + PERM[jj + 1]] % 12, x2, y2);
+        return 70f * n;
+    }
+
+    /**
+     * 3D simplex noise.
+     *
+     * @return a value in about [-1, 1]
+     */
+    public static float simplex(float x, float y, float z) {
+        float s = (x + y + z) * F3;
+        int i = fastFloor(x + s);
+        int j = fastFloor(y + s);
+        int k = fastFloor(z + s);
+        float t = (i + j + k) * G3;
+        float x0 = x - (i - t);
+        float y0 = y - (j - t);
+        float z0 = z - (k - t);
+
+        // Which of the six tetrahedra the point is in
+        int i1, j1, k1, i2, j2, k2;
+        if (x0 >= y0) {
+            if (y0 >= z0) {
+                i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0;
+            } else if (x0 >= z0) {
+                i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1;
+            } else {
+                i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1;
+            }
+        } else {
+            if (y0 < z0) {
+                i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1;
+            } else if (x0 < z0) {
+                i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1;
+            } else {
+                i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0;
+            }
+        }
+
+        float x1 = x0 - i1 + G3;
+        float y1 = y0 - j1 + G3;
+        float z1 = z0 - k1 + G3;
+        float x2 = x0 - i2 + 2f * G3;
+        float y2 = y0 - j2 + 2f * G3;
+        float z2 = z0 - k2 + 2f * G3;
+        float x3 = x0 - 1f + 3f * G3;
+        float y3 = y0 - 1f + 3f * G3;
+        float z3 = z0 - 1f + 3f * G3;
+
+        int ii = i & 255;
+        int jj = j & 255;
+        int kk = k & 255;
+        float n = corner3(PERM[ii + PERM[jj + PERM[kk]]] % 12, x0, y0, z0)
+                + corner3(PERM[ii + i1 + PERM[jj + j1 + PERM[kk + k1]]] % 12, x1, y1, z1)
+                + corner3(PERM[ii + i2 + PERM[jj + j2 + PERM[kk + k2]]] % 12, x2, y2, z2)
+                + corner3(PERM[ii + 1 + PERM[jj + 1 + PERM[kk + 1]]] % 12, x3, y3, z3);
+        return 32f * n;
+    }
+
+    private static float corner2(int gradient, float x, float y) {
+        float t = 0.5f - x * x - y * y;
+        if (t < 0) {
+            return 0f;
+        }
+        t *= t;
+        int[] g = GRAD3[gradient];
+        return t * t * (g[0] * x + g[1] * y);
+    }
+
+    private static float corner3(int gradient, float x, float y, float z) {
+        float t = 0.6f - x * x - y * y - z * z;
+        if (t < 0) {
+            return 0f;
+        }
+        t *= t;
+        int[] g = GRAD3[gradient];
+        return t * t * (g[0] * x + g[1] * y + g[2] * z);
+    }
+
+    // ---- Helpers ----
+
+    static int fastFloor(float value) {
+        int truncated = (int) value;
+        return value < truncated ? truncated - 1 : truncated;
+    }
+
+    private static float fade(float t) {
+        return t * t * t * (t * (t * 6f - 15f) + 10f);
+    }
+
+    /**
+     * The fade curve on a 16-bit fraction, 0..65535 in, 0..65536 out.
+     */
+    private static int fadeFixed(int t) {
+        long f = t;
+        long inner = ((f * (6 * f - 15L * FIXED_ONE)) >> 16) + 10L * FIXED_ONE;
+        long cube = (((f * f) >> 16) * f) >> 16;
+        return (int) ((cube * inner) >> 16);
+    }
+
+    private static float lerp(float t, float a, float b) {
+        return a + t * (b - a);
+    }
+
+    private static int lerpFixed(int t, int a, int b) {
+        return a + (int) (((long) (b - a) * t) >> 16);
+    }
+
+    /**
+     * Dot product of one of the twelve cube-edge gradients with (x, y, z).
+     */
+    private static float grad(int hash, float x, float y, float z) {
+        int h = hash & 15;
+        float u = h < 8 ? x : y;
+        float v = h < 4 ? y : (h == 12 || h == 14 ? x : z);
+        return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
+    }
+
+    private static int grad(int hash, int x, int y, int z) {
+        int h = hash & 15;
+        int u = h < 8 ? x : y;
+        int v = h < 4 ? y : (h == 12 || h == 14 ? x : z);
+        return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
+    }
+}
@@ -0,0 +1,108 @@
+package com.marsraver.LedFx.noise;
+
+/**
+ * A slowly varying octave-noise field over a fixed lattice of points, such as the LEDs of
+ * one grid, cached in time.
+ * <p>
+ * The field is evaluated in full only at multiples of the time step: the tile keeps the
+ * slices on either side of the current time and blends between them, so a frame costs one
+ * multiply-add per point, and a step costs one lattice evaluation. Time moves the field
+ * through noise space at the drift velocity; a field that changes little within one step
+ * looks the same as evaluating it every frame.
+ */
+public class NoiseTile {
+
+    private final int columns;
+    private final int rows;
+    private final float x0, dx, y0, dy;
+    private final int octaves;
+    private final float persistence;
+    private final float timeStep;
+    private float driftX, driftY, driftZ = 1f;
+
+    private float[] slice0; // field at time step 'step'
+    private float[] slice1; // field at time step 'step + 1'
+    private final float[] values;
+    private long step = Long.MIN_VALUE;
+
+    /**
+     * @param columns     points per row
+     * @param rows        number of rows
+     * @param x0          noise-space x of the first column
+     * @param dx          noise-space distance between columns
+     * @param y0          noise-space y of the first row
+     * @param dy          noise-space distance between rows
+     * @param octaves     octaves summed, see {@link Noise#fbm}
+     * @param persistence amplitude ratio between octaves
+     * @param timeStep    time between evaluated slices, in the caller's time unit
+     */
+    public NoiseTile(int columns, int rows, float x0, float dx, float y0, float dy,
+                     int octaves, float persistence, float timeStep) {
+        if (columns <= 0 || rows <= 0 || octaves <= 0 || !(timeStep > 0)) {
+            throw new IllegalArgumentException("Tile needs positive size, octaves and time step");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.x0 = x0;
+        this.dx = dx;
+        this.y0 = y0;
+        this.dy = dy;
+        this.octaves = octaves;
+        this.persistence = persistence;
+        this.timeStep = timeStep;
+        this.slice0 = new float[columns * rows];
+        this.slice1 = new float[columns * rows];
+        this.values = new float[columns * rows];
+    }
+
+    /**
+     * Sets how far the field moves through noise space per unit of time. The default is
+     * (0, 0, 1): the pattern evolves in place.
+     */
+    public void setDrift(float driftX, float driftY, float driftZ) {
+        this.driftX = driftX;
+        this.driftY = driftY;
+        this.driftZ = driftZ;
+        this.step = Long.MIN_VALUE;
+    }
+
+    /**
+     * Gets the field at the given time.
+     *
+     * @return the values row by row, {@code columns * rows} of them, in about [-1, 1]. The
+     * array is reused and overwritten by the next call.
+     */
+    public float[] sample(float time) {
+        float position = time / timeStep;
+        long wanted = (long) Math.floor(position);
+        if (wanted != step) {
+            if (wanted == step + 1) {
+                float[] swap = slice0;
+                slice0 = slice1;
+                slice1 = swap;
+            } else {
+                evaluate(slice0, wanted);
+            }
+            evaluate(slice1, wanted + 1);
+            step = wanted;
+        }
+        float blend = position - wanted;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = slice0[i] + blend * (slice1[i] - slice0[i]);
+        }
+        return values;
+    }
+
+    private void evaluate(float[] slice, long sliceStep) {
+        float t = sliceStep * timeStep;
+        Noise.fbmLattice(slice, columns, rows, x0 + driftX * t, dx, y0 + driftY * t, dy, driftZ * t, octaves, persistence);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,202 @@
+package com.marsraver.LedFx.particles;
+
+import com.marsraver.LedFx.ColorMath;
+import com.marsraver.LedFx.LedFrameBuffer;
+
+/**
+ * A fixed-capacity pool of particles stored as parallel primitive arrays, one entry per
+ * slot, so that thousands of particles can move every frame without creating garbage.
+ * <p>
+ * A particle keeps its slot from {@link #spawn} until it dies, and dead slots are reused
+ * through a free list. Animations that need more per-particle state keep their own arrays
+ * of {@link #getCapacity()} entries indexed by the same slots. The live particles are
+ * visited with {@code for (int i = 0; i < size(); i++) { int slot = slot(i); ... }};
+ * killing the particle at position {@code i} moves the last live particle into that
+ * position, so loops that kill should run backwards.
+ * <p>
+ * Positions are in whatever space the animation uses; {@link #splat} expects window
+ * coordinates.
+ */
+public class ParticleSystem {
+
+    /** Lifetime of a particle that only dies when it is killed. */
+    public static final int IMMORTAL = Integer.MAX_VALUE;
+
+    private final float[] x, y, vx, vy;
+    private final int[] age, lifetime, color;
+
+    private final int[] live;     // live slots, densely packed
+    private final int[] position; // slot -> position in live, -1 when free
+    private int liveCount;
+    private final int[] free;     // stack of free slots
+    private int freeCount;
+
+    public ParticleSystem(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.age = new int[capacity];
+        this.lifetime = new int[capacity];
+        this.color = new int[capacity];
+        this.live = new int[capacity];
+        this.position = new int[capacity];
+        this.free = new int[capacity];
+        clear();
+    }
+
+    /**
+     * Kills every particle.
+     */
+    public void clear() {
+        liveCount = 0;
+        freeCount = free.length;
+        for (int i = 0; i < free.length; i++) {
+            free[i] = free.length - 1 - i; // hand out low slots first
+            position[i] = -1;
+        }
+    }
+
+    /**
+     * Creates a particle.
+     *
+     * @param lifetime frames until it dies, or {@link #IMMORTAL}
+     * @return its slot, or -1 if the system is full
+     */
+    public int spawn(float x, float y, float vx, float vy, int color, int lifetime) {
+        if (freeCount == 0) {
+            return -1;
+        }
+        int slot = free[--freeCount];
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.vx[slot] = vx;
+        this.vy[slot] = vy;
+        this.color[slot] = color;
+        this.age[slot] = 0;
+        this.lifetime[slot] = Math.max(1, lifetime);
+        position[slot] = liveCount;
+        live[liveCount++] = slot;
+        return slot;
+    }
+
+    /**
+     * Kills the particle in a slot; killing a free slot does nothing.
+     */
+    public void kill(int slot) {
+        int index = position[slot];
+        if (index < 0) {
+            return;
+        }
+        int last = live[--liveCount];
+        live[index] = last;
+        position[last] = index;
+        position[slot] = -1;
+        free[freeCount++] = slot;
+    }
+
+    public boolean isAlive(int slot) {
+        return position[slot] >= 0;
+    }
+
+    /**
+     * Number of live particles.
+     */
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Slot of the live particle at a position, 0 to {@link #size()} - 1.
+     */
+    public int slot(int index) {
+        return live[index];
+    }
+
+    /**
+     * Moves every particle one frame: adds the acceleration to its velocity, the velocity
+     * to its position, ages it, and kills it at the end of its lifetime.
+     */
+    public void update(float accelerationX, float accelerationY) {
+        for (int i = liveCount - 1; i >= 0; i--) {
+            int slot = live[i];
+            vx[slot] += accelerationX;
+            vy[slot] += accelerationY;
+            x[slot] += vx[slot];
+            y[slot] += vy[slot];
+            if (lifetime[slot] != IMMORTAL && ++age[slot] >= lifetime[slot]) {
+                kill(slot);
+            }
+        }
+    }
+
+    /**
+     * Kills every particle outside a rectangle; use infinities for open sides.
+     */
+    public void killOutside(float minX, float minY, float maxX, float maxY) {
+        for (int i = liveCount - 1; i >= 0; i--) {
+            int slot = live[i];
+            if (x[slot] < minX || x[slot] > maxX || y[slot] < minY || y[slot] > maxY) {
+                kill(slot);
+            }
+        }
+    }
+
+    /**
+     * Brightness of a particle from its age: 255 when it is born, falling linearly to 0 at
+     * the end of its lifetime. Immortal particles stay at 255.
+     */
+    public int brightness(int slot) {
+        if (lifetime[slot] == IMMORTAL) {
+            return 255;
+        }
+        return (int) (255L * (lifetime[slot] - age[slot]) / lifetime[slot]);
+    }
+
+    /**
+     * Adds every particle's color, faded by its {@link #brightness}, to the LED under it.
+     */
+    public void splat(LedFrameBuffer buffer) {
+        for (int i = 0; i < liveCount; i++) {
+            int slot = live[i];
+            buffer.add(x[slot], y[slot], ColorMath.scale(color[slot], brightness(slot)));
+        }
+    }
+
+    public int getCapacity() {
+        return x.length;
+    }
+
+    // Particle state, indexed by slot. These are the live arrays, not copies.
+
+    public float[] getX() {
+        return x;
+    }
+
+    public float[] getY() {
+        return y;
+    }
+
+    public float[] getVx() {
+        return vx;
+    }
+
+    public float[] getVy() {
+        return vy;
+    }
+
+    public int[] getAge() {
+        return age;
+    }
+
+    public int[] getLifetime() {
+        return lifetime;
+    }
+
+    public int[] getColor() {
+        return color;
+    }
+}
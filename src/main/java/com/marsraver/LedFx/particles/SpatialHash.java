@@ -0,0 +1,145 @@
+package com.marsraver.LedFx.particles;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid of square cells over a rectangle, for finding the point nearest to a
+ * position without checking every point. Points are ids with a position, such as particle
+ * slots or emitter indices; each cell keeps a linked list of the points in it, so
+ * inserting is constant time and nothing is allocated after construction.
+ * <p>
+ * A nearest-point query visits the cells in rings around the query cell and stops as soon
+ * as no unvisited cell can hold anything closer, so its cost depends on how densely the
+ * points are spread rather than how many there are. With one point per cell, as for
+ * emitters on a lattice whose spacing is the cell size, a query visits at most nine cells.
+ * <p>
+ * Points and queries outside the rectangle are allowed; points are kept in the nearest
+ * edge cell and queries stay exact. Rebuild every frame for moving points with
+ * {@link #clear()} and {@link #insert}. Not thread-safe.
+ */
+public final class SpatialHash {
+
+    private final float originX, originY;
+    private final float cellSize;
+    private final int columns, rows;
+    private final int[] cellHead; // first point of each cell, -1 when empty
+    private final int[] next;     // next point in the same cell, -1 at the end
+    private final int[] ids;
+    private final float[] x, y;
+    private int count;
+
+    /**
+     * Creates an empty grid.
+     *
+     * @param capacity the most points it can hold between clears
+     */
+    public SpatialHash(float originX, float originY, float width, float height, float cellSize, int capacity) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellHead = new int[columns * rows];
+        this.next = new int[capacity];
+        this.ids = new int[capacity];
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        clear();
+    }
+
+    /**
+     * Removes every point.
+     */
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+        count = 0;
+    }
+
+    /**
+     * Adds a point.
+     *
+     * @throws IllegalStateException if the grid already holds its capacity
+     */
+    public void insert(int id, float px, float py) {
+        if (count == ids.length) {
+            throw new IllegalStateException("Spatial hash is full: " + count + " points");
+        }
+        int cell = row(py) * columns + column(px);
+        ids[count] = id;
+        x[count] = px;
+        y[count] = py;
+        next[count] = cellHead[cell];
+        cellHead[cell] = count++;
+    }
+
+    /**
+     * Gets the id of the point nearest to a position, or -1 if there are none.
+     */
+    public int nearest(float px, float py) {
+        return nearest(px, py, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Gets the id of the point nearest to a position within a distance, or -1 if there is
+     * none that close. A small distance lets the query stop after the first ring of cells.
+     */
+    public int nearest(float px, float py, float maxDistance) {
+        int column = column(px);
+        int row = row(py);
+        float bestSquared = maxDistance * maxDistance;
+        int best = -1;
+        int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            int minColumn = column - ring, maxColumn = column + ring;
+            int minRow = row - ring, maxRow = row + ring;
+            for (int cellRow = Math.max(0, minRow); cellRow <= Math.min(rows - 1, maxRow); cellRow++) {
+                boolean edgeRow = cellRow == minRow || cellRow == maxRow;
+                // Inner rows only have cells on the ring's left and right sides
+                int step = edgeRow ? 1 : maxColumn - minColumn;
+                for (int cellColumn = minColumn; cellColumn <= maxColumn; cellColumn += step) {
+                    if (cellColumn < 0 || cellColumn >= columns) {
+                        continue;
+                    }
+                    for (int i = cellHead[cellRow * columns + cellColumn]; i >= 0; i = next[i]) {
+                        float dx = x[i] - px;
+                        float dy = y[i] - py;
+                        float distanceSquared = dx * dx + dy * dy;
+                        if (distanceSquared < bestSquared || (distanceSquared == bestSquared && best < 0)) {
+                            bestSquared = distanceSquared;
+                            best = ids[i];
+                        }
+                    }
+                }
+            }
+            // Anything in a later ring lies outside this block of cells
+            float reach = Math.min(
+                    Math.min(px - (originX + minColumn * cellSize), originX + (maxColumn + 1) * cellSize - px),
+                    Math.min(py - (originY + minRow * cellSize), originY + (maxRow + 1) * cellSize - py));
+            if (reach > 0 && reach * reach >= bestSquared) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Number of points in the grid.
+     */
+    public int size() {
+        return count;
+    }
+
+    private int column(float px) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((px - originX) / cellSize)));
+    }
+
+    private int row(float py) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((py - originY) / cellSize)));
+    }
+}
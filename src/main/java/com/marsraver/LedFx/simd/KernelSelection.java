@@ -0,0 +1,39 @@
+package com.marsraver.LedFx.simd;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Picks the {@link PixelKernels} implementation once per JVM. The vector kernels are
+ * loaded reflectively, so that nothing links against {@code jdk.incubator.vector} unless
+ * the module is in the boot layer.
+ */
+@Log4j2
+final class KernelSelection {
+
+    static final PixelKernels SCALAR = new ScalarPixelKernels();
+    static final PixelKernels VECTOR = loadVectorKernels();
+    static final PixelKernels SELECTED = select();
+
+    private KernelSelection() {
+    }
+
+    private static PixelKernels loadVectorKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (PixelKernels) Class.forName("com.marsraver.LedFx.simd.VectorPixelKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Vector API present but unusable, using scalar pixel kernels: " + e);
+            return null;
+        }
+    }
+
+    private static PixelKernels select() {
+        PixelKernels selected = VECTOR != null && !"false".equalsIgnoreCase(System.getProperty("ledfx.vector"))
+                ? VECTOR : SCALAR;
+        log.info("Pixel kernels: " + selected.getName());
+        return selected;
+    }
+}
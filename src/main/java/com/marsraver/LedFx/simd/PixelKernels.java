@@ -0,0 +1,57 @@
+package com.marsraver.LedFx.simd;
+
+/**
+ * The per-pixel loops of the render and output paths, over ranges of packed 0xRRGGBB
+ * colors (see {@link com.marsraver.LedFx.ColorMath}).
+ * <p>
+ * There are two implementations with identical results: a scalar one, and one that uses
+ * the incubating Vector API to work on a whole SIMD register of pixels at a time. The
+ * vector one is chosen once, at startup, when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector} (the Gradle tasks pass it with
+ * {@code -Pvector}); otherwise, or with {@code -Dledfx.vector=false}, everything runs the
+ * scalar loops. Code that renders pixels calls {@link #get()} and does not care which it
+ * got.
+ * <p>
+ * Every method works on the indices {@code from} (inclusive) to {@code to} (exclusive) and
+ * allocates nothing.
+ */
+public interface PixelKernels {
+
+    /**
+     * Gets the kernels chosen for this JVM.
+     */
+    static PixelKernels get() {
+        return KernelSelection.SELECTED;
+    }
+
+    /**
+     * Gets the scalar kernels, which are always available.
+     */
+    static PixelKernels scalar() {
+        return KernelSelection.SCALAR;
+    }
+
+    /**
+     * Gets the Vector API kernels, or null when the module is not available.
+     */
+    static PixelKernels vector() {
+        return KernelSelection.VECTOR;
+    }
+
+    /**
+     * Gets a short name for logs and benchmarks, e.g. "scalar" or "vector-256".
+     */
+    String getName();
+
+    /**
+     * Scales every pixel by {@code amount}/256, with 255 leaving it unchanged, as
+     * {@link com.marsraver.LedFx.ColorMath#scale(int, int)}.
+     */
+    void scale(int[] pixels, int from, int to, int amount);
+
+    /**
+     * Sets pixels to table entries: {@code out[i] = table[indices[i]]}, e.g. a palette
+     * lookup of a precomputed pattern.
+     */
+    void lookup(int[] indices, int[] table, int[] out, int from, int to);
+}
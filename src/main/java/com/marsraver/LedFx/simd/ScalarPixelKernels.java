@@ -0,0 +1,29 @@
+package com.marsraver.LedFx.simd;
+
+import com.marsraver.LedFx.ColorMath;
+
+/**
+ * The plain-Java {@link PixelKernels}: one pixel per iteration, using the
+ * {@link ColorMath} operations.
+ */
+final class ScalarPixelKernels implements PixelKernels {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void scale(int[] pixels, int from, int to, int amount) {
+        for (int i = from; i < to; i++) {
+            pixels[i] = ColorMath.scale(pixels[i], amount);
+        }
+    }
+
+    @Override
+    public void lookup(int[] indices, int[] table, int[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = table[indices[i]];
+        }
+    }
+}
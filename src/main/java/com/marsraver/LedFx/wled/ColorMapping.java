@@ -33,28 +33,32 @@ public enum ColorMapping {
      * @return The color value for the specified channel in the target order
      */
     public byte mapChannel(int colorIndex, int channel, int[] ledColors) {
-        int sourceIndex;
-        switch (channel) {
-            case 0: // Red channel
-                sourceIndex = redIndex;
-                break;
-            case 1: // Green channel
-                sourceIndex = greenIndex;
-                break;
-            case 2: // Blue channel
-                sourceIndex = blueIndex;
-                break;
-            default:
-                sourceIndex = 0;
-        }
-        
-        int arrayIndex = colorIndex + sourceIndex;
+        int arrayIndex = colorIndex + sourceChannel(channel);
         if (arrayIndex >= 0 && arrayIndex < ledColors.length) {
             return (byte) Math.max(0, Math.min(255, ledColors[arrayIndex]));
         }
         return 0;
     }
 
+    /**
+     * Gets the input channel that goes out in an output position.
+     * 
+     * @param channel The output position: 0 is sent first, 2 last
+     * @return The input channel sent there: 0=Red, 1=Green, 2=Blue
+     */
+    public int sourceChannel(int channel) {
+        switch (channel) {
+            case 0:
+                return redIndex;
+            case 1:
+                return greenIndex;
+            case 2:
+                return blueIndex;
+            default:
+                return 0;
+        }
+    }
+
     public String getDescription() {
         return description;
     }
@@ -0,0 +1,162 @@
+package com.marsraver.LedFx.wled;
+
+import com.marsraver.LedFx.layout.GridConfig;
+import com.marsraver.LedFx.layout.LayoutConfig;
+import com.marsraver.LedFx.layout.LayoutLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the largest DDP payload that reaches each device without IP fragmentation.
+ * <p>
+ * Java cannot set the don't-fragment bit on UDP sockets, so the probe binary-searches
+ * the path MTU with the system {@code ping} (DF set) and converts it into a
+ * whole-pixel DDP payload. The suggested {@code mtu} value can be pasted into the
+ * device's {@code <grid>} element.
+ * <p>
+ * Usage: {@code DdpMtuProbe <layout-name | device-ip>...}
+ */
+public class DdpMtuProbe {
+
+    private static final int IP_ICMP_OVERHEAD = 28; // IPv4 header (20) + ICMP header (8)
+    private static final int MIN_MTU = 576;
+    private static final int MAX_MTU = 9000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: java DdpMtuProbe <layout-name | device-ip>...");
+            System.out.println("Example: java DdpMtuProbe FourGrids 10.0.0.42");
+            return;
+        }
+
+        Set<String> deviceIps = new LinkedHashSet<>();
+        for (String arg : args) {
+            if (LayoutLoader.listAvailableLayouts().contains(arg)) {
+                LayoutConfig layout = LayoutLoader.loadLayout(arg);
+                for (GridConfig grid : layout.getGrids()) {
+                    deviceIps.add(grid.getDeviceIp());
+                }
+            } else {
+                deviceIps.add(arg);
+            }
+        }
+
+        System.out.println("DDP MTU probe");
+        System.out.println("=============\n");
+        System.out.printf("%-18s %10s %10s %12s %14s %12s%n",
+                "Device", "Iface MTU", "Path MTU", "DDP payload", "LEDs/packet", "Layout attr");
+        for (String ip : deviceIps) {
+            probeDevice(ip);
+        }
+    }
+
+    private static void probeDevice(String ip) {
+        int interfaceMtu;
+        try {
+            interfaceMtu = WledDdpClient.detectInterfaceMtu(InetAddress.getByName(ip), WledDdpClient.getDefaultDdpPort());
+        } catch (IOException e) {
+            System.out.printf("%-18s unresolvable: %s%n", ip, e.getMessage());
+            return;
+        }
+
+        int pathMtu = findPathMtu(ip, interfaceMtu > 0 ? Math.min(interfaceMtu, MAX_MTU) : MAX_MTU);
+        if (pathMtu < 0) {
+            System.out.printf("%-18s %10d %10s  (no ping reply - device offline or ICMP blocked)%n", ip, interfaceMtu, "?");
+            return;
+        }
+
+        int payload = WledDdpClient.getMaxPayloadForMtu(pathMtu);
+        System.out.printf("%-18s %10d %10d %12d %14d %12s%n",
+                ip, interfaceMtu, pathMtu, payload, payload / 3, "mtu=\"" + pathMtu + "\"");
+    }
+
+    /**
+     * Binary-searches the largest IP packet size that reaches the host with DF set.
+     *
+     * @return the path MTU, or -1 if not even the minimum size gets a reply
+     */
+    static int findPathMtu(String ip, int upperBound) {
+        if (!pingDontFragment(ip, MIN_MTU - IP_ICMP_OVERHEAD)) {
+            return -1;
+        }
+        if (pingDontFragment(ip, upperBound - IP_ICMP_OVERHEAD)) {
+            return upperBound;
+        }
+
+        int low = MIN_MTU;      // known to pass
+        int high = upperBound;  // known to fail
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (pingDontFragment(ip, mid - IP_ICMP_OVERHEAD)) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sends a single ICMP echo with the don't-fragment bit set.
+     *
+     * @param icmpPayload ICMP payload size in bytes
+     * @return true if a reply was received
+     */
+    private static boolean pingDontFragment(String ip, int icmpPayload) {
+        List<String> command = new ArrayList<>();
+        command.add("ping");
+        String os = System.getProperty("os.name", "").toLowerCase();
+        if (os.contains("mac")) {
+            command.add("-D");
+            command.add("-t");
+            command.add("1");
+        } else if (os.contains("win")) {
+            command.add("-f");
+            command.add("-n");
+            command.add("1");
+            command.add("-w");
+            command.add("1000");
+            command.add("-l");
+            command.add(String.valueOf(icmpPayload));
+            command.add(ip);
+            return runPing(command);
+        } else {
+            command.add("-M");
+            command.add("do");
+            command.add("-W");
+            command.add("1");
+        }
+        command.add("-c");
+        command.add("1");
+        command.add("-s");
+        command.add(String.valueOf(icmpPayload));
+        command.add(ip);
+        return runPing(command);
+    }
+
+    private static boolean runPing(List<String> command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            try (InputStream output = process.getInputStream()) {
+                output.readAllBytes();
+            }
+            if (!process.waitFor(3, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package com.marsraver.LedFx.wled;
+
+import com.marsraver.LedFx.metrics.DeviceSendEvent;
+import com.marsraver.LedFx.metrics.FrameTimer;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends frames to a set of DDP clients, either inline on the caller's thread or
+ * paced on a dedicated output thread.
+ * <p>
+ * Inline frames are queued for every device and written by a single transport flush.
+ * In paced mode the packets of a frame are not burst out back-to-back; each packet
+ * gets its own time slot and the slots are spread across the frame interval, so
+ * WiFi access points see a steady packet rate instead of a burst at the start of
+ * every frame. Frames are handed to the output thread through a triple buffer:
+ * the render thread never blocks, and if it publishes faster than the network
+ * drains, the older unsent frame is dropped in favour of the newest one.
+ * <p>
+ * The scheduler also owns DDP sequencing and synchronized output: in sync mode the
+ * data goes out without the push flag and every device is latched together at the
+ * end of the frame.
+ * <p>
+ * Each frame carries the {@link System#nanoTime()} at which its rendering started.
+ * It is sent as the DDP timecode and, when a {@link FrameTimer} is attached, used to
+ * record how long each device's data took to reach the wire. Every device's share of a
+ * frame is also reported to Flight Recorder as a {@link DeviceSendEvent}.
+ */
+@Log4j2
+public class DdpSendScheduler implements DdpSendSchedulerMXBean {
+
+    private static final int FRESH = 4; // set in 'middle' when it holds an unsent frame
+    private static final long SPIN_THRESHOLD_NANOS = 100_000; // park until ~100us before a slot, then spin
+    private static final long MIN_FRAME_PERIOD_NANOS = 1_000_000;
+    private static final long MAX_FRAME_PERIOD_NANOS = 100_000_000;
+    private static final long DEFAULT_FRAME_PERIOD_NANOS = 1_000_000_000L / 120;
+    // Asks whether DeviceSendEvent is being recorded, so no event is allocated per device when it is not
+    private static final DeviceSendEvent SEND_EVENT_PROBE = new DeviceSendEvent();
+
+    private final List<WledDdpClient> clients;
+    private final int[] ledCounts;
+    private final int[][][] buffers; // [buffer][client][rgb], three buffers for the hand-off
+    private final long[] frameStarts = new long[3]; // render start of the frame in each buffer
+    private final List<PacketTransport> transports; // distinct transports of the clients, usually one
+
+    // Triple buffer indices: producer and consumer own theirs, 'middle' is exchanged atomically
+    private int producerIndex = 0;
+    private int consumerIndex = 1;
+    private final AtomicInteger middle = new AtomicInteger(2);
+
+    private volatile boolean syncOutput;
+    private final WledDdpClient broadcastPushClient;
+    private int frameSequence = 1;
+
+    private final long slotSpacingNanos; // 0 = spread evenly across three quarters of the frame interval
+    private volatile long framePeriodNanos = DEFAULT_FRAME_PERIOD_NANOS;
+    private long lastPublishNanos;
+
+    private volatile Thread outputThread;
+    private volatile boolean running;
+
+    private final AtomicLong framesSubmitted = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong packetsSent = new AtomicLong();
+    private final AtomicLong sendErrors = new AtomicLong();
+    private final AtomicLongArray deviceFramesSent;
+    private final AtomicLongArray deviceSendErrors;
+    private final AtomicLongArray deviceLossyFrames;
+    private final boolean[] frameLossy; // per device, whether the socket dropped any of its packets this frame
+    private final DeviceSendEvent[] pendingSendEvents; // committed after the frame's shared flush
+    private final boolean[] pendingSendSuccess;
+
+    private volatile FrameTimer frameTimer;
+
+    /**
+     * Creates a scheduler for the given clients.
+     *
+     * @param clients             DDP clients, one per output buffer
+     * @param ledCounts           number of LEDs sent to each client
+     * @param broadcastPushClient client used for a single broadcast push in sync mode, or null
+     *                            to push each device individually
+     * @param slotSpacingMicros   spacing between packets in paced mode, wider or narrower than
+     *                            the default, but never so wide that a frame outlasts the
+     *                            measured frame interval; 0 spreads the packets evenly across
+     *                            three quarters of that interval
+     */
+    public DdpSendScheduler(List<WledDdpClient> clients, int[] ledCounts,
+                            WledDdpClient broadcastPushClient, int slotSpacingMicros) {
+        this.clients = clients;
+        this.ledCounts = ledCounts.clone();
+        this.broadcastPushClient = broadcastPushClient;
+        this.transports = new ArrayList<>();
+        for (WledDdpClient client : clients) {
+            addTransport(client.getTransport());
+        }
+        if (broadcastPushClient != null) {
+            addTransport(broadcastPushClient.getTransport());
+        }
+        this.deviceFramesSent = new AtomicLongArray(clients.size());
+        this.deviceSendErrors = new AtomicLongArray(clients.size());
+        this.deviceLossyFrames = new AtomicLongArray(clients.size());
+        this.frameLossy = new boolean[clients.size()];
+        this.pendingSendEvents = new DeviceSendEvent[clients.size()];
+        this.pendingSendSuccess = new boolean[clients.size()];
+        this.slotSpacingNanos = Math.max(0, slotSpacingMicros) * 1000L;
+        this.buffers = new int[3][clients.size()][];
+        for (int b = 0; b < 3; b++) {
+            for (int c = 0; c < clients.size(); c++) {
+                buffers[b][c] = new int[this.ledCounts[c] * 3];
+            }
+        }
+    }
+
+    private void addTransport(PacketTransport transport) {
+        for (PacketTransport known : transports) {
+            if (known == transport) {
+                return;
+            }
+        }
+        transports.add(transport);
+    }
+
+    /**
+     * Gets the buffer the caller should fill with RGB data for the next frame.
+     * Only valid until the next {@link #publish()} or {@link #sendNow()}.
+     *
+     * @param clientIndex index of the client
+     * @return the RGB buffer laid out as [R,G,B,R,G,B,...]
+     */
+    public int[] getWriteBuffer(int clientIndex) {
+        return buffers[producerIndex][clientIndex];
+    }
+
+    /**
+     * Hands the filled write buffers to the output thread and returns immediately.
+     * If the previously published frame has not been picked up yet it is dropped.
+     */
+    public void publish() {
+        publish(System.nanoTime());
+    }
+
+    /**
+     * Hands the filled write buffers to the output thread and returns immediately.
+     *
+     * @param frameStart {@link System#nanoTime()} at which rendering of this frame started
+     * @see #publish()
+     */
+    public void publish(long frameStart) {
+        frameStarts[producerIndex] = frameStart;
+        framesSubmitted.incrementAndGet();
+        long now = System.nanoTime();
+        if (lastPublishNanos != 0) {
+            long interval = Math.max(MIN_FRAME_PERIOD_NANOS, Math.min(MAX_FRAME_PERIOD_NANOS, now - lastPublishNanos));
+            framePeriodNanos = (framePeriodNanos * 7 + interval) / 8;
+        }
+        lastPublishNanos = now;
+
+        int previous = middle.getAndSet(producerIndex | FRESH);
+        if ((previous & FRESH) != 0) {
+            framesDropped.incrementAndGet();
+        }
+        producerIndex = previous & 3;
+
+        Thread thread = outputThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Sends the filled write buffers immediately on the caller's thread, without pacing.
+     *
+     * @return true if all devices were successful, false otherwise
+     */
+    public boolean sendNow() {
+        return sendNow(System.nanoTime());
+    }
+
+    /**
+     * Sends the filled write buffers immediately on the caller's thread, without pacing.
+     *
+     * @param frameStart {@link System#nanoTime()} at which rendering of this frame started
+     * @return true if all devices were successful, false otherwise
+     */
+    public boolean sendNow(long frameStart) {
+        framesSubmitted.incrementAndGet();
+        return sendFrame(buffers[producerIndex], 0, frameStart);
+    }
+
+    /**
+     * Starts the paced output thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runOutputLoop, "ddp-output");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        outputThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the paced output thread. Frames published afterwards are not sent until
+     * the scheduler is started again.
+     */
+    public synchronized void stop() {
+        running = false;
+        Thread thread = outputThread;
+        outputThread = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void runOutputLoop() {
+        while (running) {
+            if ((middle.get() & FRESH) == 0) {
+                LockSupport.parkNanos(this, framePeriodNanos);
+                continue;
+            }
+            consumerIndex = middle.getAndSet(consumerIndex) & 3;
+
+            int packetCount = countPackets();
+            long spacing = 0;
+            if (packetCount > 1 && slotSpacingNanos > 0) {
+                // The configured spacing, wider or narrower than the default, as long as the frame still fits its interval
+                spacing = Math.min(slotSpacingNanos, framePeriodNanos / packetCount);
+            } else if (packetCount > 1) {
+                spacing = framePeriodNanos * 3 / 4 / packetCount; // leave headroom so frames never overlap
+            }
+            try {
+                sendFrame(buffers[consumerIndex], spacing, frameStarts[consumerIndex]);
+            } catch (RuntimeException e) {
+                sendErrors.incrementAndGet();
+                log.error("DDP output thread failed to send frame: {}", e.getMessage());
+            }
+        }
+    }
+
+    private int countPackets() {
+        int total = 0;
+        for (int c = 0; c < clients.size(); c++) {
+            total += clients.get(c).getPacketCount(ledCounts[c]);
+        }
+        return total;
+    }
+
+    /**
+     * Sends one frame, giving each data packet its own slot {@code spacingNanos} apart.
+     * Without spacing the whole frame is queued and flushed in one pass. Sync pushes are
+     * never paced: they go out back-to-back so all devices latch together.
+     */
+    private boolean sendFrame(int[][] frame, long spacingNanos, long frameStart) {
+        boolean sync = syncOutput;
+        boolean allSuccess = true;
+        long start = System.nanoTime();
+        int slot = 0;
+        int timecode = WledDdpClient.timecodeFor(frameStart);
+        FrameTimer timer = frameTimer;
+        boolean perDeviceTiming = timer != null && spacingNanos > 0 && !sync;
+
+        for (int c = 0; c < clients.size(); c++) {
+            WledDdpClient client = clients.get(c);
+            int ledCount = ledCounts[c];
+            int packets = client.getPacketCount(ledCount);
+            boolean clientSuccess = true;
+            boolean clientFlushed = true;
+            DeviceSendEvent sendEvent = null;
+            if (SEND_EVENT_PROBE.isEnabled()) {
+                sendEvent = new DeviceSendEvent();
+                sendEvent.begin();
+            }
+            for (int p = 0; p < packets; p++) {
+                if (spacingNanos > 0) {
+                    waitUntil(start + slot * spacingNanos);
+                }
+                slot++;
+                boolean push = !sync && p == packets - 1;
+                if (client.queuePacket(frame[c], ledCount, p, frameSequence, push, timecode)) {
+                    packetsSent.incrementAndGet();
+                } else {
+                    clientSuccess = false;
+                }
+                if (spacingNanos > 0) {
+                    boolean flushed = flushTransports();
+                    clientFlushed &= flushed;
+                    allSuccess &= flushed;
+                }
+            }
+            frameLossy[c] = !clientFlushed;
+            if (sendEvent != null && spacingNanos > 0) {
+                commitSendEvent(sendEvent, c, clientSuccess && clientFlushed, true);
+            } else if (sendEvent != null) {
+                pendingSendEvents[c] = sendEvent;
+                pendingSendSuccess[c] = clientSuccess;
+            }
+            if (perDeviceTiming) {
+                timer.recordDeviceSent(c, frameStart, System.nanoTime());
+            }
+            if (clientSuccess) {
+                deviceFramesSent.incrementAndGet(c);
+            } else {
+                deviceSendErrors.incrementAndGet(c);
+                sendErrors.incrementAndGet();
+                log.error("Failed to send LED data to " + client.getWledInfo().getIp());
+                allSuccess = false;
+            }
+        }
+
+        if (sync) {
+            allSuccess &= latchDevices(frameSequence, timecode);
+        }
+        boolean flushed = flushTransports();
+        allSuccess &= flushed;
+        if (spacingNanos == 0) {
+            commitPendingSendEvents(flushed);
+        }
+        // A drop in the shared flush cannot be traced to its device, so it counts against every device in it
+        for (int c = 0; c < clients.size(); c++) {
+            if (frameLossy[c] || !flushed) {
+                deviceLossyFrames.incrementAndGet(c);
+            }
+        }
+        if (timer != null) {
+            long now = System.nanoTime();
+            if (!perDeviceTiming) {
+                // Unpaced and synced frames reach every device in the same flush
+                for (int c = 0; c < clients.size(); c++) {
+                    timer.recordDeviceSent(c, frameStart, now);
+                }
+            }
+            timer.recordFrameSent(frameStart, start, now);
+        }
+        frameSequence = WledDdpClient.nextSequence(frameSequence);
+        framesSent.incrementAndGet();
+        return allSuccess;
+    }
+
+    private void commitSendEvent(DeviceSendEvent event, int clientIndex, boolean success, boolean paced) {
+        event.end();
+        if (event.shouldCommit()) {
+            WledDdpClient client = clients.get(clientIndex);
+            event.device = client.getWledInfo().getName();
+            event.address = client.getWledInfo().getIp() + ":" + client.getPort();
+            event.packets = client.getPacketCount(ledCounts[clientIndex]);
+            event.bytes = client.getFrameBytes(ledCounts[clientIndex]);
+            event.sequence = frameSequence;
+            event.paced = paced;
+            event.error = !success;
+            event.commit();
+        }
+    }
+
+    /**
+     * Commits the send events of an unpaced frame, which all end with the shared flush.
+     * A dropped packet cannot be traced to its device, so a lossy flush marks them all.
+     */
+    private void commitPendingSendEvents(boolean flushed) {
+        for (int c = 0; c < pendingSendEvents.length; c++) {
+            DeviceSendEvent event = pendingSendEvents[c];
+            if (event != null) {
+                pendingSendEvents[c] = null;
+                commitSendEvent(event, c, flushed && pendingSendSuccess[c], false);
+            }
+        }
+    }
+
+    /**
+     * Fires the DDP push that displays the frame buffered on every device.
+     * Uses a single broadcast push when configured, otherwise one push per device
+     * sent back-to-back so all devices latch within the same instant.
+     */
+    private boolean latchDevices(int sequence, int timecode) {
+        if (broadcastPushClient != null) {
+            if (!broadcastPushClient.queuePush(sequence, timecode)) {
+                sendErrors.incrementAndGet();
+                log.error("Failed to send DDP broadcast push to " + broadcastPushClient.getWledInfo().getIp());
+                return false;
+            }
+            return true;
+        }
+
+        boolean allSuccess = true;
+        for (WledDdpClient client : clients) {
+            if (!client.queuePush(sequence, timecode)) {
+                sendErrors.incrementAndGet();
+                log.error("Failed to send DDP push to " + client.getWledInfo().getIp());
+                allSuccess = false;
+            }
+        }
+        return allSuccess;
+    }
+
+    /**
+     * Writes everything queued on the transports. Packets the transport had to drop
+     * because its send buffer stayed full are counted as send errors.
+     */
+    private boolean flushTransports() {
+        int dropped = 0;
+        for (int i = 0; i < transports.size(); i++) {
+            dropped += transports.get(i).flush();
+        }
+        if (dropped > 0) {
+            sendErrors.addAndGet(dropped);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Waits until the given {@link System#nanoTime()} deadline: parks for the bulk of
+     * the wait and spins for the last stretch, where park granularity is too coarse.
+     */
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > SPIN_THRESHOLD_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+        }
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Attaches a timer that receives the send stage and per-device latency of every
+     * frame, or null to stop recording.
+     */
+    public void setFrameTimer(FrameTimer frameTimer) {
+        this.frameTimer = frameTimer;
+    }
+
+    public FrameTimer getFrameTimer() {
+        return frameTimer;
+    }
+
+    /**
+     * Gets a JMX view of the output to one device.
+     *
+     * @param clientIndex index of the client
+     */
+    public DeviceOutputMXBean getDeviceOutput(int clientIndex) {
+        return new DeviceOutput(clientIndex);
+    }
+
+    @Override
+    public void setSyncOutput(boolean syncOutput) {
+        this.syncOutput = syncOutput;
+    }
+
+    @Override
+    public boolean isSyncOutput() {
+        return syncOutput;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getDeviceCount() {
+        return clients.size();
+    }
+
+    @Override
+    public long getFramePeriodNanos() {
+        return framePeriodNanos;
+    }
+
+    @Override
+    public long getFramesSubmitted() {
+        return framesSubmitted.get();
+    }
+
+    @Override
+    public long getFramesSent() {
+        return framesSent.get();
+    }
+
+    @Override
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    @Override
+    public long getPacketsSent() {
+        return packetsSent.get();
+    }
+
+    @Override
+    public long getSendErrors() {
+        return sendErrors.get();
+    }
+
+    public long getDeviceFramesSent(int clientIndex) {
+        return deviceFramesSent.get(clientIndex);
+    }
+
+    public long getDeviceSendErrors(int clientIndex) {
+        return deviceSendErrors.get(clientIndex);
+    }
+
+    public long getDeviceLossyFrames(int clientIndex) {
+        return deviceLossyFrames.get(clientIndex);
+    }
+
+    private class DeviceOutput implements DeviceOutputMXBean {
+
+        private final int index;
+
+        DeviceOutput(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            return clients.get(index).getWledInfo().getName();
+        }
+
+        @Override
+        public String getAddress() {
+            return clients.get(index).getWledInfo().getIp() + ":" + clients.get(index).getPort();
+        }
+
+        @Override
+        public int getLedCount() {
+            return ledCounts[index];
+        }
+
+        @Override
+        public int getPacketsPerFrame() {
+            return clients.get(index).getPacketCount(ledCounts[index]);
+        }
+
+        @Override
+        public long getFramesSent() {
+            return deviceFramesSent.get(index);
+        }
+
+        @Override
+        public long getSendErrors() {
+            return deviceSendErrors.get(index);
+        }
+
+        @Override
+        public long getLossyFrames() {
+            return deviceLossyFrames.get(index);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.marsraver.LedFx.wled;
+
+/**
+ * JMX view of a {@link DdpSendScheduler}: frame and packet counters for all devices
+ * together, and the output mode.
+ */
+public interface DdpSendSchedulerMXBean {
+
+    int getDeviceCount();
+
+    /** Frames handed to the scheduler by the render thread. */
+    long getFramesSubmitted();
+
+    long getFramesSent();
+
+    /**
+     * Frames replaced by a newer one before the output thread could send them. A whole
+     * frame is dropped for every device at once, so there is no per-device count.
+     */
+    long getFramesDropped();
+
+    long getPacketsSent();
+
+    long getSendErrors();
+
+    long getFramePeriodNanos();
+
+    boolean isRunning();
+
+    boolean isSyncOutput();
+
+    void setSyncOutput(boolean syncOutput);
+}
@@ -0,0 +1,31 @@
+package com.marsraver.LedFx.wled;
+
+/**
+ * JMX view of the output to one device, from {@link DdpSendScheduler#getDeviceOutput(int)}.
+ */
+public interface DeviceOutputMXBean {
+
+    String getName();
+
+    String getAddress();
+
+    int getLedCount();
+
+    int getPacketsPerFrame();
+
+    /** Frames whose packets were all queued for this device. */
+    long getFramesSent();
+
+    /**
+     * Frames that could not be queued for this device. Packets the socket dropped are
+     * counted in {@link #getLossyFrames()}.
+     */
+    long getSendErrors();
+
+    /**
+     * Frames in which the socket dropped packets for this device. Paced frames flush each
+     * packet on its own, so their drops are traced to the device; an unpaced frame goes
+     * out in one flush for all devices, and a drop there counts against each of them.
+     */
+    long getLossyFrames();
+}
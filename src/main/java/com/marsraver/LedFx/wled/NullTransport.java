@@ -0,0 +1,58 @@
+package com.marsraver.LedFx.wled;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link PacketTransport} that discards every packet, for benchmarks and tests that
+ * measure packet building and the render path without the network.
+ * <p>
+ * Packets and bytes are still counted, so callers can check what would have been sent.
+ * Not thread-safe; use one instance per sending thread.
+ */
+public class NullTransport implements PacketTransport {
+
+    private boolean open;
+    private long packetsQueued;
+    private long bytesQueued;
+    private long flushes;
+
+    @Override
+    public void open() {
+        open = true;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void enqueue(ByteBuffer packet, InetSocketAddress target) {
+        packetsQueued++;
+        bytesQueued += packet.remaining();
+    }
+
+    @Override
+    public int flush() {
+        flushes++;
+        return 0;
+    }
+
+    public long getPacketsQueued() {
+        return packetsQueued;
+    }
+
+    public long getBytesQueued() {
+        return bytesQueued;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+}
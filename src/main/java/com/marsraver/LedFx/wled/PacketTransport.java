@@ -0,0 +1,54 @@
+package com.marsraver.LedFx.wled;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Sends UDP packets on behalf of the device clients.
+ * <p>
+ * Packets are queued with {@link #enqueue(ByteBuffer, InetSocketAddress)} while a
+ * frame is being built and written out together by {@link #flush()}, so one frame
+ * for every device costs a single tight send loop instead of a send path per device.
+ */
+public interface PacketTransport {
+
+    /**
+     * Opens the transport if it is not already open.
+     */
+    void open() throws IOException;
+
+    /**
+     * Closes the transport. Queued packets are discarded.
+     */
+    void close();
+
+    boolean isOpen();
+
+    /**
+     * Queues a copy of the packet's remaining bytes for the target. The packet buffer
+     * can be reused as soon as this returns.
+     *
+     * @param packet packet bytes, from position to limit
+     * @param target destination address and port
+     */
+    void enqueue(ByteBuffer packet, InetSocketAddress target);
+
+    /**
+     * Writes every queued packet.
+     *
+     * @return the number of packets that could not be sent and were dropped since the
+     *         last flush, including any dropped when a full queue was written early
+     */
+    int flush();
+
+    /**
+     * Queues a packet and flushes immediately.
+     *
+     * @return true if every packet in the queue was sent
+     */
+    default boolean send(ByteBuffer packet, InetSocketAddress target) {
+        enqueue(packet, target);
+        return flush() == 0;
+    }
+}
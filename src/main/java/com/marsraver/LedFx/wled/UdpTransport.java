@@ -0,0 +1,323 @@
+package com.marsraver.LedFx.wled;
+
+import com.marsraver.LedFx.metrics.Histogram;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link PacketTransport} backed by a small pool of non-blocking {@link DatagramChannel}s
+ * shared by every DDP and Art-Net client in the process.
+ * <p>
+ * Each sender takes its own queue over the shared channels with {@link #newQueue()},
+ * so a {@link #flush()} sends, and reports drops for, only the packets that sender
+ * queued. The counters are shared by the transport and all of its queues.
+ * <p>
+ * Queued packets live in reused direct buffers, so sending a frame allocates
+ * nothing once the queue has warmed up. Each destination always maps to the same channel, which keeps the packets
+ * of one device in order. When a channel's send buffer is full the send would block
+ * (EAGAIN): the packet is retried for a short while and then dropped, and both events
+ * are counted rather than stalling the frame. The time each packet spends in the
+ * socket send call, including EAGAIN retries, is recorded in {@link #getSendTimes()}.
+ */
+@Log4j2
+public class UdpTransport implements PacketTransport, UdpTransportMXBean {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+    private static final int INITIAL_SLOT_BYTES = 1500;
+    private static final int SEND_BUFFER_BYTES = 4 * 1024 * 1024;
+    private static final long MAX_BLOCKED_NANOS = 200_000; // give up on a packet after 200us of EAGAIN
+
+    private static UdpTransport shared;
+
+    private final DatagramChannel[] channels; // shared with the queues, guarded by itself
+    private final boolean ownsChannels; // false for a queue, whose close() leaves the channels open
+    private final ByteBuffer[] slots; // allocated on first use
+    private final InetSocketAddress[] targets;
+    private int queued;
+    private int pendingDropped; // dropped by automatic flushes, reported by the next flush()
+
+    private final AtomicLong packetsSent;
+    private final AtomicLong bytesSent;
+    private final AtomicLong packetsDropped;
+    private final AtomicLong wouldBlockCount;
+    private final AtomicLong sendErrors;
+    private final AtomicLong flushes;
+    private final Histogram sendTimes;
+
+    /**
+     * Creates a transport with a single channel.
+     */
+    public UdpTransport() {
+        this(1, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a transport.
+     *
+     * @param channelCount  number of channels to spread destinations over
+     * @param queueCapacity number of packets queued before an automatic flush
+     */
+    public UdpTransport(int channelCount, int queueCapacity) {
+        this.channels = new DatagramChannel[Math.max(1, channelCount)];
+        this.ownsChannels = true;
+        this.slots = new ByteBuffer[Math.max(1, queueCapacity)];
+        this.targets = new InetSocketAddress[slots.length];
+        this.packetsSent = new AtomicLong();
+        this.bytesSent = new AtomicLong();
+        this.packetsDropped = new AtomicLong();
+        this.wouldBlockCount = new AtomicLong();
+        this.sendErrors = new AtomicLong();
+        this.flushes = new AtomicLong();
+        this.sendTimes = new Histogram("socket send");
+    }
+
+    /**
+     * Creates a queue that sends on the channels, and adds to the counters, of another transport.
+     */
+    private UdpTransport(UdpTransport owner, int queueCapacity) {
+        this.channels = owner.channels;
+        this.ownsChannels = false;
+        this.slots = new ByteBuffer[Math.max(1, queueCapacity)];
+        this.targets = new InetSocketAddress[slots.length];
+        this.packetsSent = owner.packetsSent;
+        this.bytesSent = owner.bytesSent;
+        this.packetsDropped = owner.packetsDropped;
+        this.wouldBlockCount = owner.wouldBlockCount;
+        this.sendErrors = owner.sendErrors;
+        this.flushes = owner.flushes;
+        this.sendTimes = owner.sendTimes;
+    }
+
+    /**
+     * Gets the process-wide transport used by clients that are not given one explicitly.
+     */
+    public static synchronized UdpTransport shared() {
+        if (shared == null) {
+            shared = new UdpTransport();
+        }
+        return shared;
+    }
+
+    /**
+     * Creates a queue of its own over this transport's channels, for a sender whose
+     * flushes must not send or count the packets of other senders. Closing the queue
+     * discards its packets and leaves the channels open.
+     */
+    public UdpTransport newQueue() {
+        return new UdpTransport(this, slots.length);
+    }
+
+    @Override
+    public void open() throws IOException {
+        synchronized (channels) {
+            for (int i = 0; i < channels.length; i++) {
+                if (channels[i] != null && channels[i].isOpen()) {
+                    continue;
+                }
+                DatagramChannel channel = DatagramChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+                try {
+                    channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_BYTES);
+                } catch (IOException e) {
+                    log.debug("Could not enlarge UDP send buffer: {}", e.getMessage());
+                }
+                channels[i] = channel;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        discardQueued();
+        if (!ownsChannels) {
+            return;
+        }
+        synchronized (channels) {
+            for (int i = 0; i < channels.length; i++) {
+                if (channels[i] != null) {
+                    try {
+                        channels[i].close();
+                    } catch (IOException e) {
+                        log.debug("Error closing UDP channel: {}", e.getMessage());
+                    }
+                    channels[i] = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        synchronized (channels) {
+            return channels[0] != null && channels[0].isOpen();
+        }
+    }
+
+    @Override
+    public synchronized void enqueue(ByteBuffer packet, InetSocketAddress target) {
+        if (!isOpen()) {
+            throw new IllegalStateException("UDP transport not open. Call open() first.");
+        }
+        if (queued == slots.length) {
+            pendingDropped += sendQueued();
+        }
+        int length = packet.remaining();
+        ByteBuffer slot = slots[queued];
+        if (slot == null || slot.capacity() < length) {
+            slot = ByteBuffer.allocateDirect(slot == null ? Math.max(length, INITIAL_SLOT_BYTES) : Math.max(length, slot.capacity() * 2));
+            slots[queued] = slot;
+        }
+        int position = packet.position();
+        slot.clear();
+        slot.put(packet);
+        slot.flip();
+        packet.position(position);
+        targets[queued] = target;
+        queued++;
+    }
+
+    /**
+     * Writes every queued packet.
+     *
+     * @return the number of packets dropped, including those dropped by automatic
+     *         flushes of a full queue since the last call
+     */
+    @Override
+    public synchronized int flush() {
+        int dropped = pendingDropped + sendQueued();
+        pendingDropped = 0;
+        return dropped;
+    }
+
+    /**
+     * Sends the queued packets and empties the queue.
+     *
+     * @return the number of packets dropped
+     */
+    private int sendQueued() {
+        int dropped = 0;
+        long bytes = 0;
+        for (int i = 0; i < queued; i++) {
+            ByteBuffer packet = slots[i];
+            InetSocketAddress target = targets[i];
+            targets[i] = null;
+            DatagramChannel channel;
+            synchronized (channels) {
+                channel = channels[channels.length == 1 ? 0 : Math.floorMod(target.hashCode(), channels.length)];
+            }
+            int length = packet.remaining();
+            if (channel == null) {
+                // closed by the owning transport while packets were queued
+                dropped++;
+                continue;
+            }
+            try {
+                long sendStart = System.nanoTime();
+                boolean sent = sendPacket(channel, packet, target);
+                sendTimes.record(System.nanoTime() - sendStart);
+                if (sent) {
+                    bytes += length;
+                } else {
+                    dropped++;
+                }
+            } catch (IOException e) {
+                sendErrors.incrementAndGet();
+                dropped++;
+                log.debug("UDP send to {} failed: {}", target, e.getMessage());
+            }
+        }
+        packetsSent.addAndGet(queued - dropped);
+        bytesSent.addAndGet(bytes);
+        if (dropped > 0) {
+            packetsDropped.addAndGet(dropped);
+        }
+        flushes.incrementAndGet();
+        queued = 0;
+        return dropped;
+    }
+
+    private void discardQueued() {
+        for (int i = 0; i < queued; i++) {
+            targets[i] = null;
+        }
+        queued = 0;
+        pendingDropped = 0;
+    }
+
+    /**
+     * Sends one packet, spinning while the channel's send buffer is full.
+     *
+     * @return false if the packet was dropped because the buffer stayed full
+     */
+    private boolean sendPacket(DatagramChannel channel, ByteBuffer packet, InetSocketAddress target) throws IOException {
+        if (channel.send(packet, target) > 0) {
+            return true;
+        }
+        long deadline = System.nanoTime() + MAX_BLOCKED_NANOS;
+        do {
+            wouldBlockCount.incrementAndGet();
+            Thread.onSpinWait();
+            if (channel.send(packet, target) > 0) {
+                return true;
+            }
+        } while (System.nanoTime() < deadline);
+        return false;
+    }
+
+    /**
+     * Gets the number of packets waiting for the next {@link #flush()}.
+     */
+    @Override
+    public synchronized int getQueuedPackets() {
+        return queued;
+    }
+
+    /**
+     * Gets the time spent in each packet's socket send, in nanoseconds.
+     */
+    public Histogram getSendTimes() {
+        return sendTimes;
+    }
+
+    @Override
+    public int getChannelCount() {
+        return channels.length;
+    }
+
+    @Override
+    public long getPacketsSent() {
+        return packetsSent.get();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    @Override
+    public long getPacketsDropped() {
+        return packetsDropped.get();
+    }
+
+    @Override
+    public long getWouldBlockCount() {
+        return wouldBlockCount.get();
+    }
+
+    @Override
+    public long getSendErrors() {
+        return sendErrors.get();
+    }
+
+    @Override
+    public long getFlushes() {
+        return flushes.get();
+    }
+}
@@ -0,0 +1,23 @@
+package com.marsraver.LedFx.wled;
+
+/**
+ * JMX view of a {@link UdpTransport}'s counters.
+ */
+public interface UdpTransportMXBean {
+
+    int getChannelCount();
+
+    int getQueuedPackets();
+
+    long getPacketsSent();
+
+    long getBytesSent();
+
+    long getPacketsDropped();
+
+    long getWouldBlockCount();
+
+    long getSendErrors();
+
+    long getFlushes();
+}
@@ -2,8 +2,9 @@ package com.marsraver.LedFx.wled;
 
 import lombok.extern.log4j.Log4j2;
 
-import java.io.IOException;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -18,8 +19,10 @@ public class WledArtNetController {
     private final AtomicLong lastSendTime = new AtomicLong(0);
     private static final long MIN_SEND_INTERVAL_MS = 8; // ~120 FPS max
 
-    private DatagramSocket socket;
-    private InetAddress targetAddress;
+    private final PacketTransport transport;
+    private InetSocketAddress targetAddress;
+    private final ByteBuffer packetBuffer;
+    private volatile boolean closed;
     private static final int ARTNET_PORT = 5568;
 
     private static final byte[] ARTNET_ID = "Art-Net\0".getBytes();
@@ -34,15 +37,21 @@ public class WledArtNetController {
     }
 
     public WledArtNetController(String deviceIp, int ledCount, int universe, ColorMapping colorMapping) {
+        this(deviceIp, ledCount, universe, colorMapping, UdpTransport.shared().newQueue());
+    }
+
+    public WledArtNetController(String deviceIp, int ledCount, int universe, ColorMapping colorMapping,
+                                PacketTransport transport) {
         this.deviceIp = deviceIp;
         this.ledCount = ledCount;
         this.universe = universe;
         this.colorMapping = colorMapping;
+        this.transport = transport;
+        this.packetBuffer = ByteBuffer.allocate(18 + 1 + ledCount * 3);
 
         try {
-            this.targetAddress = InetAddress.getByName(deviceIp);
-            this.socket = new DatagramSocket();
-            this.socket.setSoTimeout(1);
+            this.targetAddress = new InetSocketAddress(InetAddress.getByName(deviceIp), ARTNET_PORT);
+            transport.open();
             log.debug("✓ WledArtNetController initialized for {} (Universe {}, {})", deviceIp, universe, colorMapping.getDescription());
         } catch (Exception e) {
             log.error("Failed to create Art-Net socket for {}: {}", deviceIp, e.getMessage());
@@ -50,6 +59,9 @@ public class WledArtNetController {
     }
 
     public boolean sendLedData(int[] ledColors) {
+        if (closed || targetAddress == null) {
+            return false;
+        }
         long now = System.currentTimeMillis();
         long lastSend = lastSendTime.get();
         if (now - lastSend < MIN_SEND_INTERVAL_MS) {
@@ -61,11 +73,10 @@ public class WledArtNetController {
         }
 
         try {
-            byte[] packet = createArtNetPacket(ledColors);
-            DatagramPacket datagram = new DatagramPacket(
-                packet, packet.length, targetAddress, ARTNET_PORT
-            );
-            socket.send(datagram);
+            if (!transport.send(createArtNetPacket(ledColors), targetAddress)) {
+                log.error("Art-Net packet to " + deviceIp + " (Universe " + universe + ") dropped: send buffer full");
+                return false;
+            }
             
             // Debug: Log every 60 frames (~1 second at 60 FPS)
             int count = sendCount.incrementAndGet();
@@ -74,19 +85,22 @@ public class WledArtNetController {
             }
             
             return true;
-        } catch (IOException e) {
+        } catch (RuntimeException e) {
             log.error("Error sending Art-Net data to " + deviceIp + " (Universe " + universe + "): " + e.getMessage());
             return false;
         }
     }
 
-    private byte[] createArtNetPacket(int[] ledColors) {
+    /**
+     * Builds an ArtDMX packet in this controller's reused packet buffer. The buffer is
+     * overwritten by the next call, so send or copy it first.
+     */
+    public ByteBuffer createArtNetPacket(int[] ledColors) {
         // DMX data length: 1 byte start code + 3 bytes per LED
         int dataLength = 1 + ledCount * 3;
 
         // Total packet size: 18 bytes header + data length
-        int packetSize = 18 + dataLength;
-        byte[] packet = new byte[packetSize];
+        byte[] packet = packetBuffer.array();
         int offset = 0;
 
         // Art-Net header
@@ -125,20 +139,21 @@ public class WledArtNetController {
             packet[offset++] = colorMapping.mapChannel(colorIndex, 1, ledColors); // Channel 1
             packet[offset++] = colorMapping.mapChannel(colorIndex, 2, ledColors); // Channel 2
         }
-        return packet;
+        Arrays.fill(packet, offset, packet.length, (byte) 0); // LEDs missing from ledColors stay black
+        packetBuffer.clear();
+        return packetBuffer;
     }
 
     public boolean turnOff() {
+        if (closed || targetAddress == null) {
+            return false;
+        }
         try {
             // Send many black packets to ensure WLED receives and processes them
             // WLED may revert to a previous state if it stops receiving Art-Net data
+            int[] blackColors = new int[ledCount * 3];
             for (int i = 0; i < 5; i++) {
-                int[] blackColors = new int[ledCount * 3];
-                byte[] packet = createArtNetPacket(blackColors);
-                DatagramPacket datagram = new DatagramPacket(
-                    packet, packet.length, targetAddress, ARTNET_PORT
-                );
-                socket.send(datagram);
+                transport.send(createArtNetPacket(blackColors), targetAddress);
                 Thread.sleep(50); // Longer delay to ensure packets are processed
             }
             return true;
@@ -148,10 +163,11 @@ public class WledArtNetController {
         }
     }
 
+    /**
+     * Releases this controller. The shared transport stays open for other devices.
+     */
     public void close() {
-        if (socket != null && !socket.isClosed()) {
-            socket.close();
-        }
+        closed = true;
     }
 
     public String getDeviceIp() {
@@ -1,63 +1,172 @@
 package com.marsraver.LedFx.wled;
 
+import lombok.extern.log4j.Log4j2;
+
 import java.awt.Color;
 import java.io.IOException;
-import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
-import java.net.SocketException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.nio.ByteBuffer;
 
 /**
  * Client for controlling WLED devices via DDP (Distributed Display Protocol).
  * DDP is recommended for WLED as it has better performance and avoids Art-Net's
  * secondary color issues.
+ * <p>
+ * Packets are written into a reused buffer and handed to a {@link PacketTransport};
+ * by default every client gets its own queue over the channels of
+ * {@link UdpTransport#shared()}, so a large layout uses one socket instead of one per
+ * device while each client's flush only covers its own packets.
  */
+@Log4j2
 public class WledDdpClient {
 
     private final WledInfo wledInfo;
     private final int port;
 
-    private DatagramSocket socket;
+    private final PacketTransport transport;
+    private boolean connected;
+    private InetSocketAddress address;
+    private ByteBuffer packetBuffer = ByteBuffer.allocate(DDP_HEADER_LENGTH + LEDS_PER_PACKET * 3);
     private boolean debugLogged = false;
-    private int sequence = 0;
+    private int sequence = 1;
+    private int ledsPerPacket = LEDS_PER_PACKET;
+    private int maxPayloadBytes = LEDS_PER_PACKET * 3;
+    private boolean timecodeEnabled;
 
     public WledDdpClient(WledInfo wledInfo) {
         this(wledInfo, DDP_PORT);
     }
 
     public WledDdpClient(WledInfo wledInfo, int port) {
+        this(wledInfo, port, UdpTransport.shared().newQueue());
+    }
+
+    public WledDdpClient(WledInfo wledInfo, int port, PacketTransport transport) {
         this.wledInfo = wledInfo;
         this.port = port;
+        this.transport = transport;
     }
 
     /**
-     * Opens the UDP socket if it is not already open.
+     * Opens the transport if it is not already open.
+     * The shared transport has broadcast enabled, so the same client can be used to
+     * fire a shared push at a subnet broadcast address.
      */
-    public void connect() throws SocketException {
-        if (socket == null || socket.isClosed()) {
-            socket = new DatagramSocket();
-        }
+    public void connect() throws IOException {
+        transport.open();
+        connected = true;
     }
 
     /**
-     * Closes the UDP socket if open.
+     * Stops this client from sending. The shared transport stays open for the other clients.
      */
     public void disconnect() {
-        if (socket != null && !socket.isClosed()) {
-            socket.close();
-        }
+        connected = false;
     }
 
     /**
      * Sends raw RGB data to the device using DDP.
+     * The last packet carries the push flag, so the device displays the frame as
+     * soon as it arrives.
      *
      * @param rgbData array of RGB bytes (0-255) laid out as [R,G,B,R,G,B,...]
      * @param numLeds number of LEDs represented in rgbData
      * @return true if the data was sent successfully, false otherwise
      */
     public boolean sendRgb(int[] rgbData, int numLeds) {
-        DatagramSocket activeSocket = socket;
-        if (activeSocket == null || activeSocket.isClosed()) {
+        boolean success = sendRgb(rgbData, numLeds, sequence, true);
+        sequence = nextSequence(sequence);
+        return success;
+    }
+
+    /**
+     * Sends raw RGB data to the device using DDP with an explicit frame sequence.
+     * <p>
+     * When {@code push} is false none of the packets carry the push flag: WLED buffers
+     * the data and keeps showing the previous frame until a push with
+     * {@link #sendPush(int)} (or a broadcast push) latches it. Every packet of the
+     * frame carries the same sequence number.
+     *
+     * @param rgbData  array of RGB bytes (0-255) laid out as [R,G,B,R,G,B,...]
+     * @param numLeds  number of LEDs represented in rgbData
+     * @param sequence DDP sequence number for this frame (1-15)
+     * @param push     whether the last packet should carry the push flag
+     * @return true if the data was sent successfully, false otherwise
+     */
+    public boolean sendRgb(int[] rgbData, int numLeds, int sequence, boolean push) {
+        int totalPackets = getPacketCount(numLeds);
+        for (int packetNum = 0; packetNum < totalPackets; packetNum++) {
+            if (!queuePacket(rgbData, numLeds, packetNum, sequence, push && packetNum == totalPackets - 1)) {
+                transport.flush();
+                return false;
+            }
+        }
+        return transport.flush() == 0;
+    }
+
+    /**
+     * Gets the number of DDP packets needed to carry a frame of the given size.
+     *
+     * @param numLeds number of LEDs in the frame
+     * @return the number of data packets
+     */
+    public int getPacketCount(int numLeds) {
+        return (numLeds + ledsPerPacket - 1) / ledsPerPacket;
+    }
+
+    /**
+     * Gets the number of bytes, headers included, of the data packets of a frame.
+     *
+     * @param numLeds number of LEDs in the frame
+     */
+    public int getFrameBytes(int numLeds) {
+        int header = timecodeEnabled ? DDP_HEADER_LENGTH + DDP_TIMECODE_LENGTH : DDP_HEADER_LENGTH;
+        return getPacketCount(numLeds) * header + numLeds * 3;
+    }
+
+    /**
+     * Sends a single data packet of a frame immediately.
+     *
+     * @param rgbData   array of RGB bytes (0-255) laid out as [R,G,B,R,G,B,...]
+     * @param numLeds   number of LEDs represented in rgbData
+     * @param packetNum index of the packet within the frame (0-based)
+     * @param sequence  DDP sequence number for this frame (1-15)
+     * @param push      whether this packet should carry the push flag
+     * @return true if the packet was sent successfully, false otherwise
+     */
+    public boolean sendPacket(int[] rgbData, int numLeds, int packetNum, int sequence, boolean push) {
+        return queuePacket(rgbData, numLeds, packetNum, sequence, push) && transport.flush() == 0;
+    }
+
+    /**
+     * Queues a single data packet of a frame on the transport without sending it.
+     * {@link DdpSendScheduler} queues the packets of every device and flushes them in one
+     * pass, or flushes packet by packet to spread a frame over time.
+     *
+     * @param rgbData   array of RGB bytes (0-255) laid out as [R,G,B,R,G,B,...]
+     * @param numLeds   number of LEDs represented in rgbData
+     * @param packetNum index of the packet within the frame (0-based)
+     * @param sequence  DDP sequence number for this frame (1-15)
+     * @param push      whether this packet should carry the push flag
+     * @return true if the packet was queued, false if the device address cannot be resolved
+     */
+    public boolean queuePacket(int[] rgbData, int numLeds, int packetNum, int sequence, boolean push) {
+        return queuePacket(rgbData, numLeds, packetNum, sequence, push, timecodeFor(System.nanoTime()));
+    }
+
+    /**
+     * Queues a single data packet of a frame, stamped with the frame's timecode when
+     * timecodes are enabled.
+     *
+     * @param timecode frame timecode from {@link #timecodeFor(long)}; ignored unless
+     *                 {@link #setTimecodeEnabled(boolean)} is on
+     * @see #queuePacket(int[], int, int, int, boolean)
+     */
+    public boolean queuePacket(int[] rgbData, int numLeds, int packetNum, int sequence, boolean push, int timecode) {
+        if (!isConnected()) {
             throw new IllegalStateException("Client not connected. Call connect() first.");
         }
 
@@ -66,49 +175,77 @@ public class WledDdpClient {
         }
 
         try {
-            InetAddress address = InetAddress.getByName(wledInfo.getIp());
-            int ledsPerPacket = LEDS_PER_PACKET;
-            int totalPackets = (numLeds + ledsPerPacket - 1) / ledsPerPacket;
-
-            for (int packetNum = 0; packetNum < totalPackets; packetNum++) {
-                int startLed = packetNum * ledsPerPacket;
-                int endLed = Math.min(startLed + ledsPerPacket, numLeds);
-                int ledsInPacket = endLed - startLed;
-
-                int[] packetRgbData = new int[ledsInPacket * 3];
-                System.arraycopy(rgbData, startLed * 3, packetRgbData, 0, ledsInPacket * 3);
-
-                // One-time debug logging of non-zero LEDs in the first packet
-                if (!debugLogged && packetNum == 0) {
-                    debugLogged = true;
-                    StringBuilder sb = new StringBuilder();
-                    int maxDebugLeds = Math.min(ledsInPacket, 20);
-                    for (int i = 0; i < maxDebugLeds; i++) {
-                        int r = packetRgbData[i * 3];
-                        int g = packetRgbData[i * 3 + 1];
-                        int b = packetRgbData[i * 3 + 2];
-                        if ((r | g | b) != 0) {
-                            if (sb.length() > 0) {
-                                sb.append(", ");
-                            }
-                            sb.append("led=").append(startLed + i)
-                              .append(" -> rgb(").append(r).append(",").append(g).append(",").append(b).append(")");
+            InetSocketAddress target = resolveAddress();
+            int startLed = packetNum * ledsPerPacket;
+            int endLed = Math.min(startLed + ledsPerPacket, numLeds);
+            int ledsInPacket = endLed - startLed;
+
+            // One-time debug logging of non-zero LEDs in the first packet
+            if (!debugLogged && packetNum == 0 && log.isDebugEnabled()) {
+                debugLogged = true;
+                StringBuilder sb = new StringBuilder();
+                int maxDebugLeds = Math.min(ledsInPacket, 20);
+                for (int i = 0; i < maxDebugLeds; i++) {
+                    int r = rgbData[i * 3];
+                    int g = rgbData[i * 3 + 1];
+                    int b = rgbData[i * 3 + 2];
+                    if ((r | g | b) != 0) {
+                        if (sb.length() > 0) {
+                            sb.append(", ");
                         }
+                        sb.append("led=").append(startLed + i)
+                          .append(" -> rgb(").append(r).append(",").append(g).append(",").append(b).append(")");
                     }
-                    String name = wledInfo.getName() != null ? wledInfo.getName()
-                            : (wledInfo.getIp() != null ? wledInfo.getIp() : "unknown");
-                    System.out.println("DDP debug for " + name + " (packet " + packetNum + ", startLed=" + startLed
-                            + "): " + (sb.length() == 0 ? "<none>" : sb));
                 }
-
-                byte[] packet = createDdpPacket(packetRgbData, ledsInPacket, startLed,
-                        packetNum == totalPackets - 1);
-                DatagramPacket datagramPacket = new DatagramPacket(packet, packet.length, address, port);
-                activeSocket.send(datagramPacket);
+                String name = wledInfo.getName() != null ? wledInfo.getName()
+                        : (wledInfo.getIp() != null ? wledInfo.getIp() : "unknown");
+                log.debug("DDP debug for " + name + " (packet " + packetNum + ", startLed=" + startLed
+                        + "): " + (sb.length() == 0 ? "<none>" : sb));
             }
 
-            // Increment sequence number for next frame
-            sequence = (sequence + 1) & 0xFF;
+            transport.enqueue(writeDdpPacket(rgbData, startLed, ledsInPacket, sequence, push, timecode), target);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sends a header-only DDP packet with the push flag set, telling the device to
+     * display the data it has buffered for the given frame.
+     *
+     * @param sequence DDP sequence number of the frame being latched (1-15)
+     * @return true if the packet was sent successfully, false otherwise
+     */
+    public boolean sendPush(int sequence) {
+        return queuePush(sequence) && transport.flush() == 0;
+    }
+
+    /**
+     * Queues a header-only push packet on the transport without sending it.
+     *
+     * @param sequence DDP sequence number of the frame being latched (1-15)
+     * @return true if the packet was queued, false if the device address cannot be resolved
+     */
+    public boolean queuePush(int sequence) {
+        return queuePush(sequence, timecodeFor(System.nanoTime()));
+    }
+
+    /**
+     * Queues a header-only push packet, stamped with the frame's timecode when
+     * timecodes are enabled.
+     *
+     * @param sequence DDP sequence number of the frame being latched (1-15)
+     * @param timecode frame timecode from {@link #timecodeFor(long)}
+     * @return true if the packet was queued, false if the device address cannot be resolved
+     */
+    public boolean queuePush(int sequence, int timecode) {
+        if (!isConnected()) {
+            throw new IllegalStateException("Client not connected. Call connect() first.");
+        }
+
+        try {
+            transport.enqueue(writeDdpPacket(null, 0, 0, sequence, true, timecode), resolveAddress());
             return true;
         } catch (IOException e) {
             return false;
@@ -147,31 +284,164 @@ public class WledDdpClient {
         return sendRgb(black, numLeds);
     }
 
+    /**
+     * Sets the packet size from the MTU of the path to the device, so a DDP packet
+     * never needs IP fragmentation. Packets always carry whole pixels.
+     *
+     * @param mtu path MTU in bytes; 0 keeps the default 1440-byte payload and a negative
+     *            value derives it from the MTU of the local interface used to reach the device
+     */
+    public void configureMtu(int mtu) {
+        if (mtu == 0) {
+            setMaxPayloadBytes(LEDS_PER_PACKET * 3);
+            return;
+        }
+        if (mtu < 0) {
+            try {
+                mtu = detectInterfaceMtu(resolveAddress().getAddress(), port);
+            } catch (IOException e) {
+                mtu = -1;
+            }
+            if (mtu <= 0) {
+                setMaxPayloadBytes(LEDS_PER_PACKET * 3);
+                return;
+            }
+        }
+        setMaxPayloadBytes(getMaxPayloadForMtu(mtu));
+    }
+
+    /**
+     * Sets the maximum number of pixel bytes carried by one DDP packet.
+     * The value is rounded down to whole pixels and clamped to what fits in a UDP datagram.
+     *
+     * @param payloadBytes maximum DDP data bytes per packet
+     */
+    public void setMaxPayloadBytes(int payloadBytes) {
+        maxPayloadBytes = Math.max(3 + DDP_TIMECODE_LENGTH, Math.min(MAX_DDP_PAYLOAD, payloadBytes));
+        updateLedsPerPacket();
+    }
+
+    /**
+     * Enables the DDP timecode field. Every packet then carries the timecode of its frame
+     * (the frame's render start, see {@link #timecodeFor(long)}), so a receiver on the same
+     * host can measure render-to-wire latency. The four timecode bytes come out of the
+     * pixel payload, so packets never grow past the configured size.
+     *
+     * @param timecodeEnabled true to stamp packets with a timecode
+     */
+    public void setTimecodeEnabled(boolean timecodeEnabled) {
+        this.timecodeEnabled = timecodeEnabled;
+        updateLedsPerPacket();
+    }
+
+    public boolean isTimecodeEnabled() {
+        return timecodeEnabled;
+    }
+
+    private void updateLedsPerPacket() {
+        ledsPerPacket = (maxPayloadBytes - (timecodeEnabled ? DDP_TIMECODE_LENGTH : 0)) / 3;
+    }
+
+    /**
+     * Converts a {@link System#nanoTime()} value into a DDP timecode: microseconds of the
+     * monotonic clock, truncated to 32 bits. On Linux the clock is shared by every process
+     * on the host, so a local receiver can subtract it from its own clock.
+     */
+    public static int timecodeFor(long nanoTime) {
+        return (int) (nanoTime / 1000);
+    }
+
+    /**
+     * Gets the number of LEDs carried by each full DDP packet.
+     *
+     * @return LEDs per packet
+     */
+    public int getLedsPerPacket() {
+        return ledsPerPacket;
+    }
+
+    /**
+     * Computes the largest whole-pixel DDP payload that fits in one IPv4 packet of the given MTU
+     * (MTU minus 20 bytes IP header, 8 bytes UDP header and 10 bytes DDP header).
+     *
+     * @param mtu path MTU in bytes
+     * @return maximum DDP data bytes per packet, a multiple of 3
+     */
+    public static int getMaxPayloadForMtu(int mtu) {
+        int payload = Math.min(MAX_DDP_PAYLOAD, mtu - IP_UDP_DDP_OVERHEAD);
+        return Math.max(3, payload - payload % 3);
+    }
+
+    /**
+     * Looks up the MTU of the local network interface the OS would route the target
+     * through. Connecting a UDP socket only selects a route; nothing is sent.
+     *
+     * @param target device address
+     * @param port   device port
+     * @return the interface MTU, or -1 if it cannot be determined
+     */
+    public static int detectInterfaceMtu(InetAddress target, int port) {
+        try (DatagramSocket probe = new DatagramSocket()) {
+            probe.connect(target, port);
+            InetAddress local = probe.getLocalAddress();
+            NetworkInterface networkInterface = local != null ? NetworkInterface.getByInetAddress(local) : null;
+            if (networkInterface == null && target.isLoopbackAddress()) {
+                networkInterface = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+            }
+            return networkInterface != null ? networkInterface.getMTU() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Resolves the device address once and reuses it for every following frame.
+     */
+    private InetSocketAddress resolveAddress() throws IOException {
+        InetSocketAddress resolved = address;
+        if (resolved == null) {
+            resolved = new InetSocketAddress(InetAddress.getByName(wledInfo.getIp()), port);
+            address = resolved;
+        }
+        return resolved;
+    }
+
     /**
      * Builds a single DDP packet.
      *
      * DDP packet format (used by WLED):
      * Header (10 bytes):
-     *  - Flags (1 byte)
-     *  - Sequence (1 byte)
+     *  - Flags (1 byte)     : version 1 (0x40), push (0x01) on the packet that latches the frame
+     *  - Sequence (1 byte)  : 1-15, identical for every packet of a frame
      *  - Data type (1 byte) : 1 = RGB pixel data
      *  - Destination ID (1 byte)
      *  - Data offset (4 bytes, big-endian): starting byte offset
      *  - Data length (2 bytes, big-endian): number of data bytes
+     * Timecode (4 bytes, big-endian), only when the timecode flag (0x10) is set.
+     *
+     * The packet is written into a buffer owned by this client, which is only valid
+     * until the next packet is built.
      */
-    private byte[] createDdpPacket(int[] rgbData, int numLeds, int startLed, boolean isLast) {
-        byte flags = isLast ? (byte) 0x40 : (byte) 0x00; // Push flag for last packet
+    private ByteBuffer writeDdpPacket(int[] rgbData, int startLed, int numLeds, int sequence, boolean push, int timecode) {
+        byte flags = push ? (byte) (DDP_FLAGS_VER1 | DDP_FLAGS_PUSH) : DDP_FLAGS_VER1;
+        if (timecodeEnabled) {
+            flags |= DDP_FLAGS_TIMECODE;
+        }
 
         int dataOffset = startLed * 3; // DDP uses byte offset, not LED offset
         int dataLength = numLeds * 3;  // Number of bytes of RGB data
 
-        int packetLength = 10 + dataLength;
-        byte[] packet = new byte[packetLength];
+        int headerLength = timecodeEnabled ? DDP_HEADER_LENGTH + DDP_TIMECODE_LENGTH : DDP_HEADER_LENGTH;
+        int packetLength = headerLength + dataLength;
+        if (packetBuffer.capacity() < packetLength) {
+            packetBuffer = ByteBuffer.allocate(headerLength + ledsPerPacket * 3);
+        }
+        byte[] packet = packetBuffer.array();
         int offset = 0;
 
         // Header
         packet[offset++] = flags;
-        packet[offset++] = (byte) (sequence & 0xFF);
+        packet[offset++] = (byte) (sequence & 0x0F);
         packet[offset++] = 1; // Data type: RGB pixel data
         packet[offset++] = 1; // Destination ID: default
 
@@ -185,18 +455,29 @@ public class WledDdpClient {
         packet[offset++] = (byte) ((dataLength >> 8) & 0xFF);
         packet[offset++] = (byte) (dataLength & 0xFF);
 
-        // RGB data in standard RGB order
-        for (int i = 0; i < numLeds; i++) {
-            int r = rgbData[i * 3];
-            int g = rgbData[i * 3 + 1];
-            int b = rgbData[i * 3 + 2];
+        if (timecodeEnabled) {
+            packet[offset++] = (byte) (timecode >>> 24);
+            packet[offset++] = (byte) (timecode >>> 16);
+            packet[offset++] = (byte) (timecode >>> 8);
+            packet[offset++] = (byte) timecode;
+        }
 
-            packet[offset++] = (byte) (r & 0xFF);
-            packet[offset++] = (byte) (g & 0xFF);
-            packet[offset++] = (byte) (b & 0xFF);
+        // RGB data in standard RGB order
+        int source = dataOffset;
+        for (int i = 0; i < dataLength; i++) {
+            packet[offset++] = (byte) (rgbData[source++] & 0xFF);
         }
 
-        return packet;
+        packetBuffer.clear().limit(packetLength);
+        return packetBuffer;
+    }
+
+    /**
+     * Returns the DDP sequence number that follows the given one.
+     * DDP sequence numbers cycle through 1-15; 0 means "sequence not used".
+     */
+    public static int nextSequence(int sequence) {
+        return sequence % 15 + 1;
     }
 
     public WledInfo getWledInfo() {
@@ -207,8 +488,12 @@ public class WledDdpClient {
         return port;
     }
 
+    public PacketTransport getTransport() {
+        return transport;
+    }
+
     public boolean isConnected() {
-        return socket != null && !socket.isClosed();
+        return connected && transport.isOpen();
     }
 
     public static int getDefaultDdpPort() {
@@ -220,12 +505,22 @@ public class WledDdpClient {
     }
 
     private static final int DDP_PORT = 4048;
+    private static final int DDP_HEADER_LENGTH = 10;
+    private static final byte DDP_FLAGS_VER1 = 0x40;
+    private static final byte DDP_FLAGS_PUSH = 0x01;
+    private static final byte DDP_FLAGS_TIMECODE = 0x10;
+    private static final int DDP_TIMECODE_LENGTH = 4;
     /**
-     * DDP max payload is 1440 bytes; 10 bytes header + 1440 bytes pixel data.
+     * Default DDP payload is 1440 bytes; 10 bytes header + 1440 bytes pixel data.
      * With 3 bytes per LED, this yields 480 LEDs per packet. We keep the name
-     * from the original Kotlin snippet for clarity.
+     * from the original Kotlin snippet for clarity. {@link #configureMtu(int)}
+     * overrides it per device.
      */
     private static final int LEDS_PER_PACKET = 480;
+    /** IPv4 header (20) + UDP header (8) + DDP header (10). */
+    private static final int IP_UDP_DDP_OVERHEAD = 38;
+    /** Largest whole-pixel payload that fits a UDP datagram (65507 bytes) after the DDP header. */
+    private static final int MAX_DDP_PAYLOAD = 65496;
 }
 
 
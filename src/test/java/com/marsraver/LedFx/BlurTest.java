@@ -0,0 +1,59 @@
+package com.marsraver.LedFx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlurTest {
+
+    @Test
+    void boxBlurAveragesTheSquareAroundEachPixel() {
+        int width = 13;
+        int height = 7;
+        int radius = 2;
+        Random random = new Random(3);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        int[] original = pixels.clone();
+        new Blur().box(pixels, width, height, radius);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = pixels[y * width + x];
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    // Rows first, then columns, with the edges repeated
+                    double sum = 0;
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        int sy = Math.max(0, Math.min(height - 1, y + dy));
+                        double rowSum = 0;
+                        for (int dx = -radius; dx <= radius; dx++) {
+                            int sx = Math.max(0, Math.min(width - 1, x + dx));
+                            rowSum += original[sy * width + sx] >> shift & 0xFF;
+                        }
+                        sum += rowSum / (2 * radius + 1);
+                    }
+                    double expected = sum / (2 * radius + 1);
+                    int actual = rgb >> shift & 0xFF;
+                    assertTrue(Math.abs(actual - expected) <= 1, "pixel " + x + "," + y + ": " + actual + " vs " + expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void flatImagesStayFlat() {
+        int[] pixels = new int[10 * 10];
+        Arrays.fill(pixels, ColorMath.rgb(255, 128, 1));
+        Blur blur = new Blur();
+        blur.gaussian(pixels, 10, 10, 3);
+        for (int rgb : pixels) {
+            assertEquals(ColorMath.rgb(255, 128, 1), rgb);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.marsraver.LedFx;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColorMathTest {
+
+    @Test
+    void hsvMatchesAwt() {
+        for (int h = 0; h <= 360; h += 3) {
+            for (int s = 0; s <= 100; s += 10) {
+                for (int v = 0; v <= 100; v += 10) {
+                    float hue = h / 360f;
+                    int expected = Color.HSBtoRGB(hue, s / 100f, v / 100f) & 0xFFFFFF;
+                    int actual = ColorMath.hsv(hue, s / 100f, v / 100f);
+                    String where = "h=" + h + " s=" + s + " v=" + v;
+                    assertEquals(ColorMath.red(expected), ColorMath.red(actual), 3, where);
+                    assertEquals(ColorMath.green(expected), ColorMath.green(actual), 3, where);
+                    assertEquals(ColorMath.blue(expected), ColorMath.blue(actual), 3, where);
+                }
+            }
+        }
+        assertEquals(ColorMath.hsv(0.25f, 1f, 1f), ColorMath.hsv(3.25f, 1f, 1f));
+    }
+
+    @Test
+    void packedArithmetic() {
+        int color = ColorMath.rgb(200, 100, 50);
+        assertEquals(color, ColorMath.scale(color, 255));
+        assertEquals(ColorMath.BLACK, ColorMath.scale(color, 0));
+        assertEquals(ColorMath.rgb(100, 50, 25), ColorMath.scale(color, 127));
+        assertEquals(ColorMath.BLACK, ColorMath.fade(color, 255));
+        assertEquals(ColorMath.rgb(255, 200, 100), ColorMath.add(color, ColorMath.rgb(100, 100, 50)));
+        assertEquals(color, ColorMath.blend(color, ColorMath.WHITE, 0));
+        assertEquals(ColorMath.WHITE, ColorMath.blend(color, ColorMath.WHITE, 255));
+        assertEquals(ColorMath.rgb(255, 0, 0), ColorMath.rgbClamped(300, -5, 0));
+    }
+
+    @Test
+    void palettesInterpolateAndBlend() {
+        Palette gradient = Palette.gradient(0, ColorMath.BLACK, 255, ColorMath.rgb(255, 0, 0));
+        assertEquals(ColorMath.BLACK, gradient.color(0));
+        assertEquals(ColorMath.rgb(255, 0, 0), gradient.color(255));
+        assertEquals(128, ColorMath.red(gradient.color(128)), 1);
+        assertEquals(gradient.color(64), gradient.color(64 + 256));
+
+        Palette two = Palette.of(ColorMath.rgb(0, 0, 200), ColorMath.rgb(200, 0, 0));
+        assertEquals(ColorMath.rgb(0, 0, 200), two.color(0));
+        assertEquals(ColorMath.rgb(200, 0, 0), two.color(128));
+
+        Palette working = Palette.HEAT.copy();
+        working.blend(Palette.HEAT, Palette.OCEAN, 255);
+        for (int i = 0; i < Palette.SIZE; i++) {
+            assertEquals(Palette.OCEAN.color(i), working.color(i));
+        }
+
+        working = Palette.HEAT.copy();
+        int steps = 0;
+        while (!working.stepTowards(Palette.PARTY, 16)) {
+            steps++;
+        }
+        assertTrue(steps > 0 && steps <= 16, "steps: " + steps);
+        assertThrows(UnsupportedOperationException.class, () -> Palette.RAINBOW.set(0, ColorMath.WHITE));
+    }
+}
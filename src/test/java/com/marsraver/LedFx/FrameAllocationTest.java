@@ -0,0 +1,174 @@
+package com.marsraver.LedFx;
+
+import com.marsraver.LedFx.bench.SyntheticLayout;
+import com.marsraver.LedFx.metrics.FrameStage;
+import com.marsraver.LedFx.wled.NullTransport;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the per-frame path against garbage: runs each animation and the output path
+ * headlessly on four grids into a {@link NullTransport} and checks the bytes the test
+ * thread allocates per steady-state frame against a budget.
+ * <p>
+ * The budgets are the measured allocation plus headroom for JIT variance. When a change
+ * removes garbage from an animation, lower its budget so the gain is kept.
+ * <p>
+ * The video player is not covered: it needs ffmpeg and a video file, which a headless
+ * test run cannot count on.
+ */
+class FrameAllocationTest {
+
+    private static final int GRIDS = 4;
+    private static final int WARMUP_FRAMES = 1000;
+    private static final int MEASURED_FRAMES = 2000;
+
+    @Test
+    void outputPathDoesNotAllocate() {
+        LedGrid ledGrid = createGrid();
+        try {
+            Color[] colors = new Color[256];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = new Color(i, 255 - i, i / 2);
+            }
+            int size = ledGrid.getGridSize();
+            Runnable frame = new Runnable() {
+                private int shift;
+
+                @Override
+                public void run() {
+                    ledGrid.getFrameTimer().beginFrame();
+                    ledGrid.clearAllLeds();
+                    for (int g = 0; g < GRIDS; g++) {
+                        for (int y = 0; y < size; y++) {
+                            for (int x = 0; x < size; x++) {
+                                ledGrid.setLedColor(g, x, y, colors[(x + y + shift) & 0xFF]);
+                            }
+                        }
+                    }
+                    shift++;
+                    ledGrid.getFrameTimer().mark(FrameStage.RENDER);
+                    ledGrid.sendToDevices();
+                }
+            };
+            assertWithinBudget("output path", frame, 16);
+        } finally {
+            ledGrid.close();
+        }
+    }
+
+    @Test
+    void testAnimation() {
+        assertAnimationWithinBudget("test", 8_000);
+    }
+
+    @Test
+    void spinningBeachball() {
+        assertAnimationWithinBudget("spinning-beachball", 30_000);
+    }
+
+    @Test
+    void bouncingBall() {
+        assertAnimationWithinBudget("bouncing-ball", 16_000);
+    }
+
+    @Test
+    void musicBall() {
+        assertAnimationWithinBudget("music-ball", 24_000);
+    }
+
+    @Test
+    void fastPlasma() {
+        assertAnimationWithinBudget("fast-plasma", 2_000);
+    }
+
+    @Test
+    void clouds() {
+        assertAnimationWithinBudget("clouds", 4_000);
+    }
+
+    @Test
+    void perlinOscillator() {
+        assertAnimationWithinBudget("perlin-oscillator", 4_000);
+    }
+
+    @Test
+    void starfield() {
+        assertAnimationWithinBudget("starfield", 4_000);
+    }
+
+    @Test
+    void blackHole() {
+        assertAnimationWithinBudget("black-hole", 26_000);
+    }
+
+    @Test
+    void blurz() {
+        assertAnimationWithinBudget("blurz", 4_000);
+    }
+
+    @Test
+    void effects() {
+        assertAnimationWithinBudget("rainbow-spiral", 1_000);
+        assertAnimationWithinBudget("ripples", 1_000);
+        assertAnimationWithinBudget("sine-plasma", 1_000);
+    }
+
+    /**
+     * Draws and sends frames of an animation the way the sketch window does, onto an
+     * offscreen canvas.
+     */
+    private static void assertAnimationWithinBudget(String animationId, long budgetBytesPerFrame) {
+        LedGrid ledGrid = createGrid();
+        LedAnimation animation = AnimationType.createAnimation(animationId);
+        BufferedImage canvas = new BufferedImage(ledGrid.getWindowWidth(), ledGrid.getWindowHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas.createGraphics();
+        try {
+            int width = canvas.getWidth();
+            int height = canvas.getHeight();
+            animation.init(width, height, ledGrid);
+            assertWithinBudget(animationId, () -> {
+                ledGrid.getFrameTimer().beginFrame();
+                g.setColor(Color.BLACK);
+                g.fillRect(0, 0, width, height);
+                LedAnimation.drawFrame(animation, g, width, height, ledGrid);
+                ledGrid.getFrameTimer().mark(FrameStage.RENDER);
+                ledGrid.sendToDevices();
+            }, budgetBytesPerFrame);
+        } finally {
+            animation.stop();
+            g.dispose();
+            ledGrid.close();
+        }
+    }
+
+    private static void assertWithinBudget(String name, Runnable frame, long budgetBytesPerFrame) {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assertTrue(threads instanceof com.sun.management.ThreadMXBean sunThreads && sunThreads.isThreadAllocatedMemorySupported(),
+                "JVM does not report per-thread allocation");
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        sunThreads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = sunThreads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            frame.run();
+        }
+        long perFrame = (sunThreads.getThreadAllocatedBytes(threadId) - before) / MEASURED_FRAMES;
+        assertTrue(perFrame <= budgetBytesPerFrame,
+                name + " allocates " + perFrame + " bytes per frame, budget is " + budgetBytesPerFrame);
+    }
+
+    private static LedGrid createGrid() {
+        return new LedGrid(SyntheticLayout.create(GRIDS, 16, 15, "127.0.0.1", 40000), new NullTransport());
+    }
+}
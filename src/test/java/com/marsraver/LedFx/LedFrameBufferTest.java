@@ -0,0 +1,50 @@
+package com.marsraver.LedFx;
+
+import com.marsraver.LedFx.bench.SyntheticLayout;
+import com.marsraver.LedFx.wled.NullTransport;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LedFrameBufferTest {
+
+    @Test
+    void linesDepositLightByLengthHoweverTheyAreSplit() {
+        LedGrid ledGrid = new LedGrid(SyntheticLayout.create(1, 16, 10, "127.0.0.1", 40000), new NullTransport());
+        try {
+            float originX = ledGrid.getGridConfig(0).getX();
+            float originY = ledGrid.getGridConfig(0).getY() + 45; // along a row of LED centers
+            int color = ColorMath.rgb(100, 0, 0);
+
+            LedFrameBuffer whole = new LedFrameBuffer(ledGrid);
+            whole.line(originX + 20, originY, originX + 100, originY, color, color);
+            LedFrameBuffer split = new LedFrameBuffer(ledGrid);
+            for (int i = 0; i < 4; i++) {
+                split.line(originX + 20 + i * 20, originY, originX + 40 + i * 20, originY, color, color);
+            }
+
+            // Eight LEDs long: about eight times the color, spread along the row
+            assertEquals(800, totalRed(whole, 16), 16);
+            assertEquals(totalRed(whole, 16), totalRed(split, 16), 16);
+            assertEquals(ColorMath.rgb(100, 0, 0), whole.get(0, 5, 4));
+
+            // A point on an LED center lights only that LED
+            LedFrameBuffer point = new LedFrameBuffer(ledGrid);
+            point.plot(originX + 75, originY, color);
+            assertEquals(color, point.get(0, 7, 4));
+            assertEquals(100, totalRed(point, 16));
+        } finally {
+            ledGrid.close();
+        }
+    }
+
+    private static int totalRed(LedFrameBuffer frame, int size) {
+        int total = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                total += ColorMath.red(frame.get(0, x, y));
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,37 @@
+package com.marsraver.LedFx;
+
+import com.marsraver.LedFx.bench.SyntheticLayout;
+import com.marsraver.LedFx.wled.UdpTransport;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LedGridTest {
+
+    @Test
+    void gridsOnOneTransportFlushOnlyTheirOwnPackets() {
+        UdpTransport transport = new UdpTransport();
+        LedGrid first = new LedGrid(SyntheticLayout.create(1, 8, 10, "127.0.0.1", 40000), transport);
+        LedGrid second = new LedGrid(SyntheticLayout.create(2, 8, 10, "127.0.0.1", 40100), transport);
+        try {
+            UdpTransport firstQueue = (UdpTransport) first.getTransport();
+            assertNotSame(transport, firstQueue);
+            assertNotSame(firstQueue, second.getTransport());
+            assertSame(firstQueue, first.getController(0).getTransport());
+
+            int[] rgb = new int[64 * 3];
+            first.getController(0).queuePacket(rgb, 64, 0, 1, false);
+            second.sendToDevices();
+            assertEquals(1, firstQueue.getQueuedPackets());
+            assertEquals(0, ((UdpTransport) second.getTransport()).getQueuedPackets());
+            assertEquals(0, firstQueue.flush());
+            assertEquals(0, firstQueue.getQueuedPackets());
+        } finally {
+            first.close();
+            second.close();
+            transport.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.marsraver.LedFx;
+
+import com.marsraver.LedFx.bench.SyntheticLayout;
+import com.marsraver.LedFx.layout.GridConfig;
+import com.marsraver.LedFx.wled.NullTransport;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PixelBufferTest {
+
+    @Test
+    void ledResolutionGivesEveryLedItsOwnPixel() {
+        LedGrid ledGrid = new LedGrid(SyntheticLayout.create(4, 8, 10, "127.0.0.1", 40000), new NullTransport());
+        BufferedImage window = new BufferedImage(ledGrid.getWindowWidth(), ledGrid.getWindowHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = window.createGraphics();
+        try {
+            PixelBuffer buffer = PixelBuffer.atLedResolution(window.getWidth(), window.getHeight(), ledGrid);
+            int[] pixels = buffer.getPixels();
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = i * 0x9E3779 & 0xFFFFFF;
+            }
+
+            // The runner commits a frame the animation did not commit itself
+            buffer.beginFrame(g);
+            buffer.endFrame();
+
+            for (int gridIndex = 0; gridIndex < ledGrid.getGridCount(); gridIndex++) {
+                GridConfig grid = ledGrid.getGridConfig(gridIndex);
+                for (int y = 0; y < 8; y++) {
+                    for (int x = 0; x < 8; x++) {
+                        int column = grid.getX() / 10 + x;
+                        int row = grid.getY() / 10 + y;
+                        int expected = pixels[row * buffer.getWidth() + column];
+                        assertEquals(expected, ledGrid.getLedRgb(gridIndex, x, y));
+                        // The window shows the pixel across the whole LED
+                        assertEquals(expected, window.getRGB(grid.getX() + x * 10 + 9, grid.getY() + y * 10) & 0xFFFFFF);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+            ledGrid.close();
+        }
+    }
+}
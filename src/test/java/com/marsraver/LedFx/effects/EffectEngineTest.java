@@ -0,0 +1,67 @@
+package com.marsraver.LedFx.effects;
+
+import com.marsraver.LedFx.LedGrid;
+import com.marsraver.LedFx.bench.SyntheticLayout;
+import com.marsraver.LedFx.wled.NullTransport;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EffectEngineTest {
+
+    @Test
+    void parallelFrameMatchesEvaluatingEveryLedInTurn() {
+        LedGrid ledGrid = new LedGrid(SyntheticLayout.create(64, 16, 15, "127.0.0.1", 40000), new NullTransport());
+        try {
+            EffectEngine engine = new EffectEngine(ledGrid);
+            assertEquals(64 * 16 * 16, engine.getLedCount());
+            assertTrue(engine.getChunkCount() > 1 || Runtime.getRuntime().availableProcessors() == 1,
+                    "a large layout is split into chunks");
+
+            engine.render(Effects.RIPPLES, 2.5f, 0.75f);
+            engine.writeTo(ledGrid);
+
+            LedPoint point = new LedPoint(engine);
+            int[] colors = engine.getColors();
+            for (int i = 0; i < engine.getLedCount(); i++) {
+                point.index = i;
+                assertEquals(Effects.RIPPLES.color(point, 2.5f, 0.75f), colors[i]);
+            }
+            int last = engine.getGridOffset(63) + 15 * 16 + 15;
+            assertEquals(colors[last], ledGrid.getLedRgb(63, 15, 15));
+        } finally {
+            ledGrid.close();
+        }
+    }
+
+    @Test
+    void coordinatesCoverTheLayout() {
+        LedGrid ledGrid = new LedGrid(SyntheticLayout.create(4, 8, 10, "127.0.0.1", 40000), new NullTransport());
+        try {
+            EffectEngine engine = new EffectEngine(ledGrid);
+            assertEquals(1, engine.getChunkCount());
+            LedPoint point = new LedPoint(engine);
+            float minU = 1, maxU = 0, minRadius = Float.MAX_VALUE;
+            for (int i = 0; i < engine.getLedCount(); i++) {
+                point.index = i;
+                assertTrue(point.getU() > 0 && point.getU() < 1 && point.getV() > 0 && point.getV() < 1);
+                assertTrue(point.getAngle() >= 0 && point.getAngle() < 1);
+                assertTrue(point.getRadius() <= Math.sqrt(2));
+                minU = Math.min(minU, point.getU());
+                maxU = Math.max(maxU, point.getU());
+                minRadius = Math.min(minRadius, point.getRadius());
+            }
+            assertTrue(minU < 0.1f && maxU > 0.9f, "u spans the layout");
+            assertTrue(minRadius < 0.1f, "some LED sits near the center");
+
+            // The first LED is the top left corner of the first grid
+            point.index = 0;
+            assertEquals(0, point.getGrid());
+            assertEquals(0, point.getX());
+            assertEquals(0, point.getY());
+        } finally {
+            ledGrid.close();
+        }
+    }
+}
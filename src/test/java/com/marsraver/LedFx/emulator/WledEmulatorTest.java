@@ -0,0 +1,177 @@
+package com.marsraver.LedFx.emulator;
+
+import com.marsraver.LedFx.wled.UdpTransport;
+import com.marsraver.LedFx.wled.WledController;
+import com.marsraver.LedFx.wled.WledDdpClient;
+import com.marsraver.LedFx.wled.WledInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WledEmulatorTest {
+
+    private WledEmulator emulator;
+
+    @AfterEach
+    void stopEmulator() {
+        if (emulator != null) {
+            emulator.stop();
+        }
+    }
+
+    private WledEmulator startOnEphemeralPorts(int ledCount, boolean http) throws Exception {
+        emulator = new WledEmulator("127.0.0.1", ledCount);
+        emulator.setDdpPort(0);
+        emulator.setArtNetPort(0);
+        emulator.setSacnPort(0);
+        emulator.setRealtimePort(0);
+        emulator.setHttpPort(http ? 0 : WledEmulator.DISABLED);
+        emulator.start();
+        return emulator;
+    }
+
+    @Test
+    void ddpClientFrameIsReassembledFromSeveralPackets() throws Exception {
+        startOnEphemeralPorts(256, false);
+        WledDdpClient client = new WledDdpClient(new WledInfo("127.0.0.1", "test"), emulator.getDdpPort());
+        client.connect();
+        client.setMaxPayloadBytes(300); // 100 LEDs per packet -> 3 packets
+
+        int[] rgb = new int[256 * 3];
+        for (int led = 0; led < 256; led++) {
+            rgb[led * 3] = led;
+            rgb[led * 3 + 2] = 255 - led;
+        }
+        assertTrue(client.sendRgb(rgb, 256));
+
+        EmulatedDevice device = emulator.getDevice();
+        assertTrue(device.awaitFrames(1, 2000), "frame not displayed");
+        assertEquals(3, device.getPacketsReceived());
+        assertEquals(0, device.getPartialFrames());
+        assertEquals(0x0000FF, device.getPixel(0));
+        assertEquals(0xFF0000, device.getPixel(255));
+        assertEquals(200 << 16 | 55, device.getPixel(200));
+    }
+
+    @Test
+    void eachClientFlushesOnlyItsOwnPackets() throws Exception {
+        startOnEphemeralPorts(256, false);
+        WledDdpClient first = new WledDdpClient(new WledInfo("127.0.0.1", "first"), emulator.getDdpPort());
+        WledDdpClient second = new WledDdpClient(new WledInfo("127.0.0.1", "second"), emulator.getDdpPort());
+        first.connect();
+        second.connect();
+
+        int[] rgb = new int[256 * 3];
+        assertTrue(first.queuePacket(rgb, 256, 0, 1, false, 0));
+        assertEquals(0, second.getTransport().flush());
+        assertEquals(1, ((UdpTransport) first.getTransport()).getQueuedPackets());
+        assertEquals(0, first.getTransport().flush());
+        assertEquals(0, ((UdpTransport) first.getTransport()).getQueuedPackets());
+    }
+
+    @Test
+    void ddpTimecodeIsStrippedAndYieldsWireLatency() throws Exception {
+        startOnEphemeralPorts(256, false);
+        WledDdpClient client = new WledDdpClient(new WledInfo("127.0.0.1", "test"), emulator.getDdpPort());
+        client.connect();
+        client.setMaxPayloadBytes(300);
+        client.setTimecodeEnabled(true);
+        assertEquals(98, client.getLedsPerPacket()); // the timecode takes 4 bytes of the payload
+
+        int[] rgb = new int[256 * 3];
+        rgb[255 * 3 + 1] = 0x80;
+        long frameStart = System.nanoTime();
+        assertTrue(client.queuePacket(rgb, 256, 0, 1, false, WledDdpClient.timecodeFor(frameStart)));
+        assertTrue(client.queuePacket(rgb, 256, 1, 1, false, WledDdpClient.timecodeFor(frameStart)));
+        assertTrue(client.queuePacket(rgb, 256, 2, 1, true, WledDdpClient.timecodeFor(frameStart)));
+        assertEquals(0, client.getTransport().flush());
+
+        EmulatedDevice device = emulator.getDevice();
+        assertTrue(device.awaitFrames(1, 2000), "frame not displayed");
+        assertEquals(0, device.getPartialFrames());
+        assertEquals(0x008000, device.getPixel(255));
+        assertEquals(1, device.getWireLatency().getCount());
+        assertTrue(device.getWireLatency().getMax() <= System.nanoTime() - frameStart + 1000);
+    }
+
+    @Test
+    void ddpSequenceGapsOutOfOrderAndPartialFramesAreCounted() {
+        emulator = new WledEmulator("127.0.0.1", 4);
+        EmulatedDevice device = emulator.getDevice();
+
+        ddp(1, 0, 4, true);   // complete frame
+        ddp(3, 0, 4, true);   // frame 2 never arrived
+        ddp(2, 0, 4, true);   // late packet of frame 2
+        ddp(4, 0, 2, false);  // first half of frame 4, its push is lost
+        ddp(5, 0, 2, true);   // half a frame, pushed
+
+        assertEquals(3, device.getFramesDisplayed());
+        assertEquals(1, device.getSequenceGaps());
+        assertEquals(1, device.getOutOfOrderPackets());
+        assertEquals(1, device.getAbandonedFrames());
+        assertEquals(1, device.getPartialFrames());
+    }
+
+    @Test
+    void artNetAndSacnUniversesAreMappedToLeds() {
+        emulator = new WledEmulator("127.0.0.1", 180);
+        EmulatedDevice device = emulator.getDevice();
+
+        byte[] artNet = new byte[18 + 30];
+        System.arraycopy("Art-Net\0".getBytes(), 0, artNet, 0, 8);
+        artNet[9] = 0x50;
+        artNet[14] = 1; // second universe starts at LED 170
+        artNet[17] = 30;
+        artNet[18] = (byte) 0x12;
+        artNet[19] = (byte) 0x34;
+        artNet[20] = (byte) 0x56;
+        emulator.handlePacket(WledEmulator.Protocol.ARTNET, artNet, artNet.length);
+        assertEquals(1, device.getFramesDisplayed());
+        assertEquals(0x123456, device.getPixel(170));
+
+        byte[] sacn = new byte[126 + 3];
+        System.arraycopy("ASC-E1.17\0\0\0".getBytes(), 0, sacn, 4, 12);
+        sacn[114] = 2; // universe 2 starts at LED 170
+        sacn[124] = 4; // start code + 3 channels
+        sacn[126] = (byte) 0xAB;
+        sacn[127] = (byte) 0xCD;
+        sacn[128] = (byte) 0xEF;
+        emulator.handlePacket(WledEmulator.Protocol.SACN, sacn, sacn.length);
+        assertEquals(2, device.getFramesDisplayed());
+        assertEquals(0xABCDEF, device.getPixel(170));
+        assertEquals(0, device.getMalformedPackets());
+    }
+
+    @Test
+    void jsonStateSetsIndividualLeds() throws Exception {
+        startOnEphemeralPorts(16, true);
+        WledController controller = new WledController("127.0.0.1:" + emulator.getHttpPort(), 16);
+        int[] rgb = new int[16 * 3];
+        rgb[3] = 255;
+        rgb[4] = 128;
+
+        assertTrue(controller.sendLedDataSimple(rgb));
+        EmulatedDevice device = emulator.getDevice();
+        assertEquals(1, device.getFramesDisplayed());
+        assertEquals(0xFF8000, device.getPixel(1));
+
+        BufferedImage image = device.renderImage(4, 2);
+        assertEquals(8, image.getWidth());
+        assertEquals(0xFF8000, image.getRGB(2, 0) & 0xFFFFFF);
+    }
+
+    private void ddp(int sequence, int startLed, int leds, boolean push) {
+        byte[] packet = new byte[10 + leds * 3];
+        packet[0] = (byte) (push ? 0x41 : 0x40);
+        packet[1] = (byte) sequence;
+        packet[2] = 1;
+        packet[3] = 1;
+        packet[7] = (byte) (startLed * 3);
+        packet[9] = (byte) (leds * 3);
+        emulator.handlePacket(WledEmulator.Protocol.DDP, packet, packet.length);
+    }
+}
@@ -0,0 +1,37 @@
+package com.marsraver.LedFx.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void bucketsCoverTheWholeRangeWithoutGaps() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 127, 128, 1_000_000, Long.MAX_VALUE}) {
+            int index = Histogram.bucketIndex(value);
+            assertTrue(Histogram.bucketLowerBound(index) <= value, "lower bound above " + value);
+            if (value < Long.MAX_VALUE) {
+                assertTrue(Histogram.bucketIndex(value + 1) - index <= 1, "skipped bucket after " + value);
+            }
+        }
+    }
+
+    @Test
+    void percentilesAreWithinBucketError() {
+        Histogram histogram = new Histogram("test");
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_000, histogram.getPercentile(50), 5_000_000 * 0.035);
+        assertEquals(9_900_000, histogram.getPercentile(99), 9_900_000 * 0.035);
+        assertEquals(5_000_500, histogram.getMean(), 1);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+}
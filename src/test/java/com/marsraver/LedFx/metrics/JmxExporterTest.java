@@ -0,0 +1,52 @@
+package com.marsraver.LedFx.metrics;
+
+import com.marsraver.LedFx.wled.DdpSendScheduler;
+import com.marsraver.LedFx.wled.WledDdpClient;
+import com.marsraver.LedFx.wled.WledInfo;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JmxExporterTest {
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @Test
+    void histogramsAndSchedulerCountersAreReadableOverJmx() throws Exception {
+        Histogram histogram = new Histogram("render");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+        WledDdpClient client = new WledDdpClient(new WledInfo("127.0.0.1", "Grid01+Grid02"));
+        DdpSendScheduler scheduler = new DdpSendScheduler(List.of(client), new int[]{1000}, null, 0);
+
+        ObjectName histogramName;
+        ObjectName deviceName;
+        try (JmxExporter exporter = new JmxExporter(server)) {
+            histogramName = exporter.register("TestStage", histogram);
+            deviceName = exporter.register("TestDevice", "Grid01+Grid02", scheduler.getDeviceOutput(0));
+            assertEquals(JmxExporter.objectName("TestStage", "render"), histogramName);
+
+            assertEquals(100L, server.getAttribute(histogramName, "Count"));
+            assertEquals(100_000L, server.getAttribute(histogramName, "Max"));
+            long p50 = (Long) server.getAttribute(histogramName, "P50");
+            assertTrue(Math.abs(p50 - 50_000) < 50_000 * 0.04, "p50 was " + p50);
+
+            assertEquals(1000, server.getAttribute(deviceName, "LedCount"));
+            assertEquals(3, server.getAttribute(deviceName, "PacketsPerFrame"));
+            assertEquals(0L, server.getAttribute(deviceName, "FramesSent"));
+
+            server.invoke(histogramName, "reset", null, null);
+            assertEquals(0L, histogram.getCount());
+        }
+        assertFalse(server.isRegistered(histogramName));
+        assertFalse(server.isRegistered(deviceName));
+    }
+}
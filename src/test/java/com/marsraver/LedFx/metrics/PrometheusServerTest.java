@@ -0,0 +1,46 @@
+package com.marsraver.LedFx.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrometheusServerTest {
+
+    @Test
+    void metricsAreServedInTextFormat() throws Exception {
+        Histogram latency = new Histogram("latency");
+        latency.record(2_000_000);
+        latency.record(4_000_000);
+
+        try (PrometheusServer server = new PrometheusServer(0)) {
+            server.addCollector(out -> {
+                out.counter("test_frames_total", "Frames").sample("test_frames_total", 42);
+                out.gauge("test_fps", "FPS").sample("test_fps", "device", "Grid\"01\"", 59.5);
+                out.summary("test_latency_seconds", "Latency").summarySample("test_latency_seconds", null, null, latency);
+            });
+            server.start();
+
+            HttpURLConnection connection = (HttpURLConnection)
+                    new URL("http://127.0.0.1:" + server.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            assertTrue(body.contains("# TYPE test_frames_total counter\ntest_frames_total 42\n"), body);
+            assertTrue(body.contains("test_fps{device=\"Grid\\\"01\\\"\"} 59.5\n"), body);
+            assertTrue(body.contains("test_latency_seconds{quantile=\"0.5\"} 0.00"), body);
+            assertTrue(body.contains("test_latency_seconds_sum 0.006\n"), body);
+            assertTrue(body.contains("test_latency_seconds_count 2\n"), body);
+            assertTrue(body.contains("# TYPE ledfx_jvm_gc_collections_total counter"), body);
+        }
+    }
+}
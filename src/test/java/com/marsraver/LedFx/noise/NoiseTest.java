@@ -0,0 +1,76 @@
+package com.marsraver.LedFx.noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NoiseTest {
+
+    @Test
+    void valuesStayInRangeAndVanishOnTheLattice() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            float x = (random.nextFloat() - 0.5f) * 1000;
+            float y = (random.nextFloat() - 0.5f) * 1000;
+            float z = (random.nextFloat() - 0.5f) * 1000;
+            assertTrue(Math.abs(Noise.perlin(x, y, z)) <= 1.0001f, "perlin out of range");
+            assertTrue(Math.abs(Noise.simplex(x, y)) <= 1.0001f, "2D simplex out of range");
+            assertTrue(Math.abs(Noise.simplex(x, y, z)) <= 1.0001f, "3D simplex out of range");
+        }
+        assertEquals(0f, Noise.perlin(3, -5, 17), 0f);
+    }
+
+    @Test
+    void batchEvaluationMatchesSinglePoints() {
+        int columns = 16;
+        int rows = 16;
+        float[] lattice = new float[columns * rows];
+        Noise.perlinLattice(lattice, columns, rows, -3.3f, 0.37f, 1.1f, 0.29f, 4.2f);
+        float[] octaves = new float[columns * rows];
+        Noise.fbmLattice(octaves, columns, rows, -3.3f, 0.37f, 1.1f, 0.29f, 4.2f, 4, 0.5f);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                float x = -3.3f + c * 0.37f;
+                float y = 1.1f + r * 0.29f;
+                assertEquals(Noise.perlin(x, y, 4.2f), lattice[r * columns + c], 1e-5f);
+                assertEquals(Noise.fbm(x, y, 4.2f, 4, 0.5f), octaves[r * columns + c], 1e-5f);
+            }
+        }
+    }
+
+    @Test
+    void fixedPointTracksFloat() {
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            float x = (random.nextFloat() - 0.5f) * 200;
+            float y = (random.nextFloat() - 0.5f) * 200;
+            float z = (random.nextFloat() - 0.5f) * 200;
+            int fixed = Noise.perlinFixed(Noise.toFixed(x), Noise.toFixed(y), Noise.toFixed(z));
+            assertEquals(Noise.perlin(x, y, z), fixed / (float) Noise.FIXED_ONE, 2e-3f);
+        }
+    }
+
+    @Test
+    void tileBlendsBetweenExactSlices() {
+        NoiseTile tile = new NoiseTile(8, 4, 0.5f, 0.2f, 0.25f, 0.2f, 3, 0.5f, 0.1f);
+        tile.setDrift(1f, 0f, 1f);
+        float[] exact = new float[32];
+
+        // On a step the tile is exact
+        float[] values = tile.sample(0.3f);
+        Noise.fbmLattice(exact, 8, 4, 0.5f + 0.3f, 0.2f, 0.25f, 0.2f, 0.3f, 3, 0.5f);
+        for (int i = 0; i < exact.length; i++) {
+            assertEquals(exact[i], values[i], 1e-4f);
+        }
+
+        // Between steps it is close to the true field
+        values = tile.sample(0.35f);
+        Noise.fbmLattice(exact, 8, 4, 0.5f + 0.35f, 0.2f, 0.25f, 0.2f, 0.35f, 3, 0.5f);
+        for (int i = 0; i < exact.length; i++) {
+            assertEquals(exact[i], values[i], 0.1f);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.marsraver.LedFx.particles;
+
+import com.marsraver.LedFx.ColorMath;
+import com.marsraver.LedFx.LedFrameBuffer;
+import com.marsraver.LedFx.LedGrid;
+import com.marsraver.LedFx.SplatKernel;
+import com.marsraver.LedFx.bench.SyntheticLayout;
+import com.marsraver.LedFx.layout.GridConfig;
+import com.marsraver.LedFx.wled.NullTransport;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParticleSystemTest {
+
+    @Test
+    void slotsAreReusedAndNeverExceedCapacity() {
+        ParticleSystem particles = new ParticleSystem(4);
+        int[] slots = new int[4];
+        for (int i = 0; i < 4; i++) {
+            slots[i] = particles.spawn(i, 0, 0, 0, ColorMath.WHITE, ParticleSystem.IMMORTAL);
+        }
+        assertEquals(-1, particles.spawn(0, 0, 0, 0, ColorMath.WHITE, 10));
+
+        particles.kill(slots[1]);
+        particles.kill(slots[1]); // a second kill is ignored
+        assertEquals(3, particles.size());
+        assertFalse(particles.isAlive(slots[1]));
+        assertEquals(slots[1], particles.spawn(9, 0, 0, 0, ColorMath.WHITE, 10));
+
+        // Every live slot appears exactly once
+        boolean[] seen = new boolean[4];
+        for (int i = 0; i < particles.size(); i++) {
+            int slot = particles.slot(i);
+            assertFalse(seen[slot]);
+            seen[slot] = true;
+        }
+    }
+
+    @Test
+    void particlesMoveAgeAndExpire() {
+        ParticleSystem particles = new ParticleSystem(8);
+        int slot = particles.spawn(10, 20, 1, 0, ColorMath.WHITE, 4);
+        particles.update(0f, 0.5f);
+        assertEquals(11f, particles.getX()[slot], 1e-6f);
+        assertEquals(20.5f, particles.getY()[slot], 1e-6f);
+        assertEquals(191, particles.brightness(slot));
+        for (int i = 0; i < 3; i++) {
+            particles.update(0f, 0f);
+        }
+        assertEquals(0, particles.size());
+
+        particles.spawn(5, 5, 0, 0, ColorMath.WHITE, ParticleSystem.IMMORTAL);
+        particles.spawn(500, 5, 0, 0, ColorMath.WHITE, ParticleSystem.IMMORTAL);
+        particles.killOutside(0, 0, 100, 100);
+        assertEquals(1, particles.size());
+        assertEquals(5f, particles.getX()[particles.slot(0)], 0f);
+    }
+
+    @Test
+    void splatAddsIntoTheLedUnderEachParticle() {
+        LedGrid ledGrid = new LedGrid(SyntheticLayout.create(1, 16, 10, "127.0.0.1", 40000), new NullTransport());
+        try {
+            int originX = ledGrid.getGridConfig(0).getX();
+            int originY = ledGrid.getGridConfig(0).getY();
+            LedFrameBuffer frame = new LedFrameBuffer(ledGrid);
+            ParticleSystem particles = new ParticleSystem(8);
+            particles.spawn(originX + 35, originY + 12, 0, 0, ColorMath.rgb(200, 0, 0), ParticleSystem.IMMORTAL);
+            particles.spawn(originX + 31, originY + 19, 0, 0, ColorMath.rgb(100, 10, 0), ParticleSystem.IMMORTAL);
+            particles.splat(frame);
+
+            assertEquals(ColorMath.rgb(255, 10, 0), frame.get(0, 3, 1));
+            frame.writeTo(ledGrid);
+            assertEquals(ColorMath.rgb(255, 10, 0), ledGrid.getLedRgb(0, 3, 1));
+            assertEquals(ColorMath.BLACK, ledGrid.getLedRgb(0, 0, 0));
+            assertEquals(256, frame.getLedCount());
+        } finally {
+            ledGrid.close();
+        }
+    }
+
+    @Test
+    void kernelSplatMatchesGatheringEveryLed() {
+        LedGrid ledGrid = new LedGrid(SyntheticLayout.create(4, 16, 10, "127.0.0.1", 40000), new NullTransport());
+        try {
+            SplatKernel kernel = SplatKernel.inverseDistance(24f);
+            LedFrameBuffer frame = new LedFrameBuffer(ledGrid);
+            float pointX = ledGrid.getGridConfig(1).getX() + 3.3f; // near the edge shared with grid 0
+            float pointY = ledGrid.getGridConfig(1).getY() + 41.7f;
+            int color = ColorMath.rgb(250, 120, 10);
+            frame.splat(pointX, pointY, color, kernel);
+
+            int lit = 0;
+            for (int g = 0; g < 4; g++) {
+                GridConfig grid = ledGrid.getGridConfig(g);
+                for (int y = 0; y < 16; y++) {
+                    for (int x = 0; x < 16; x++) {
+                        float dx = grid.getX() + x * 10 + 5f - pointX;
+                        float dy = grid.getY() + y * 10 + 5f - pointY;
+                        int expected = ColorMath.scale(color, kernel.weight(dx * dx + dy * dy));
+                        assertEquals(expected, frame.get(g, x, y), "grid " + g + " led " + x + "," + y);
+                        lit += expected != ColorMath.BLACK ? 1 : 0;
+                    }
+                }
+            }
+            assertTrue(lit > 8, "lit: " + lit);
+        } finally {
+            ledGrid.close();
+        }
+    }
+}
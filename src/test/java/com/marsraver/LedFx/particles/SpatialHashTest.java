@@ -0,0 +1,45 @@
+package com.marsraver.LedFx.particles;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SpatialHashTest {
+
+    @Test
+    void nearestMatchesCheckingEveryPoint() {
+        Random random = new Random(7);
+        int count = 200;
+        float[] x = new float[count];
+        float[] y = new float[count];
+        SpatialHash hash = new SpatialHash(0, 0, 400, 300, 25, count);
+        for (int i = 0; i < count; i++) {
+            // Some points fall outside the grid and land in its edge cells
+            x[i] = -50 + random.nextFloat() * 500;
+            y[i] = -50 + random.nextFloat() * 400;
+            hash.insert(i, x[i], y[i]);
+        }
+
+        for (int query = 0; query < 1000; query++) {
+            float px = -100 + random.nextFloat() * 600;
+            float py = -100 + random.nextFloat() * 500;
+            float maxDistance = query % 2 == 0 ? Float.POSITIVE_INFINITY : 20;
+            int expected = -1;
+            float bestSquared = maxDistance * maxDistance;
+            for (int i = 0; i < count; i++) {
+                float distanceSquared = (x[i] - px) * (x[i] - px) + (y[i] - py) * (y[i] - py);
+                if (distanceSquared < bestSquared) {
+                    bestSquared = distanceSquared;
+                    expected = i;
+                }
+            }
+            assertEquals(expected, hash.nearest(px, py, maxDistance), "query at " + px + "," + py);
+        }
+
+        hash.clear();
+        assertEquals(0, hash.size());
+        assertEquals(-1, hash.nearest(100, 100));
+    }
+}
@@ -0,0 +1,68 @@
+package com.marsraver.LedFx.simd;
+
+import com.marsraver.LedFx.ColorMath;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PixelKernelsTest {
+
+    private static final int LENGTH = 203; // not a multiple of any vector width
+    private static final int FROM = 3;
+    private static final int TO = 198;
+
+    @Test
+    void scalarKernelsMatchColorMath() {
+        PixelKernels scalar = PixelKernels.scalar();
+        int[] pixels = randomColors(1);
+
+        int[] scaled = pixels.clone();
+        scalar.scale(scaled, FROM, TO, 100);
+        for (int i = FROM; i < TO; i++) {
+            assertEquals(ColorMath.scale(pixels[i], 100), scaled[i]);
+        }
+        assertEquals(pixels[0], scaled[0]); // outside the range
+    }
+
+    @Test
+    void vectorKernelsMatchScalarKernels() {
+        PixelKernels vector = PixelKernels.vector();
+        assumeTrue(vector != null, "the vector kernels are tested by the testVector task");
+        PixelKernels scalar = PixelKernels.scalar();
+        int[] pixels = randomColors(3);
+        int[] table = randomColors(4);
+
+        for (int amount : new int[]{0, 1, 127, 128, 200, 255}) {
+            int[] expected = pixels.clone();
+            int[] actual = pixels.clone();
+            scalar.scale(expected, FROM, TO, amount);
+            vector.scale(actual, FROM, TO, amount);
+            assertArrayEquals(expected, actual, "scale " + amount);
+        }
+
+        int[] indices = new int[LENGTH];
+        Random random = new Random(5);
+        for (int i = 0; i < LENGTH; i++) {
+            indices[i] = random.nextInt(table.length);
+        }
+        int[] expectedOut = new int[LENGTH];
+        int[] actualOut = new int[LENGTH];
+        scalar.lookup(indices, table, expectedOut, FROM, TO);
+        vector.lookup(indices, table, actualOut, FROM, TO);
+        assertArrayEquals(expectedOut, actualOut, "lookup");
+    }
+
+    private static int[] randomColors(long seed) {
+        Random random = new Random(seed);
+        int[] colors = new int[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            // Plenty of saturated channels, to exercise the overflow between them
+            colors[i] = random.nextBoolean() ? random.nextInt(0x1000000) : random.nextInt(0x1000000) | 0xF0F0F0;
+        }
+        return colors;
+    }
+}
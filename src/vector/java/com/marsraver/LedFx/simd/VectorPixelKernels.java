@@ -0,0 +1,51 @@
+package com.marsraver.LedFx.simd;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PixelKernels} on the Vector API, a register of pixels per iteration at the
+ * platform's preferred width. The channels stay packed and are worked on two at a time,
+ * red and blue in one word and green in another, as {@link com.marsraver.LedFx.ColorMath}
+ * does, so there is no unpacking into lanes per channel. The few pixels past the last full
+ * register go through the scalar loops.
+ * <p>
+ * Only loaded by {@link KernelSelection} once the {@code jdk.incubator.vector} module is
+ * known to be present.
+ */
+final class VectorPixelKernels implements PixelKernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int RED_BLUE = 0xFF00FF;
+    private static final int GREEN = 0x00FF00;
+
+    private final ScalarPixelKernels scalar = new ScalarPixelKernels();
+
+    @Override
+    public String getName() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    public void scale(int[] pixels, int from, int to, int amount) {
+        int factor = amount + 1;
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            IntVector rgb = IntVector.fromArray(SPECIES, pixels, i);
+            IntVector redBlue = rgb.and(RED_BLUE).mul(factor).lanewise(VectorOperators.LSHR, 8).and(RED_BLUE);
+            IntVector green = rgb.and(GREEN).mul(factor).lanewise(VectorOperators.LSHR, 8).and(GREEN);
+            redBlue.or(green).intoArray(pixels, i);
+        }
+        scalar.scale(pixels, i, to, amount);
+    }
+
+    @Override
+    public void lookup(int[] indices, int[] table, int[] out, int from, int to) {
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, table, 0, indices, i).intoArray(out, i);
+        }
+        scalar.lookup(indices, table, out, i, to);
+    }
+}